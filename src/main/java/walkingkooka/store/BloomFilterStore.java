@@ -0,0 +1,262 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+import walkingkooka.HasId;
+import walkingkooka.collect.map.Maps;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A {@link Store} that keeps a bloom filter of every id in the wrapped {@link Store}, so {@link #load(Object)} answers
+ * definite misses without touching the wrapped store. Saved ids are added as they are reported by the wrapped store's
+ * watchers. Deleted ids cannot be removed from a bloom filter, so the filter is rebuilt from the wrapped store's ids
+ * once deletes or growth have made it too inaccurate.
+ * <br>
+ * Ids are hashed using {@link Object#hashCode()}, which must be consistent with the wrapped store's id ordering. A
+ * store using a case insensitive comparator for {@link String} ids is not a good candidate.
+ * <br>
+ * Only {@link #load(Object)}, and so {@link #loadOrFail(Object)}, is guarded by the filter. Range and position queries
+ * such as {@link #ids(int, int)} and {@link #between(Object, Object)} cannot be answered by a bloom filter and always
+ * read the wrapped store.
+ */
+final class BloomFilterStore<K, V extends HasId<Optional<K>>> implements CountingStore<K, V>,
+    StoreDelegator<K, V> {
+
+    static <K, V extends HasId<Optional<K>>> BloomFilterStore<K, V> with(final Store<K, V> store,
+                                                                         final int expectedIds,
+                                                                         final double falsePositiveRate) {
+        Objects.requireNonNull(store, "store");
+        if (expectedIds <= 0) {
+            throw new IllegalArgumentException("Invalid expectedIds " + expectedIds + " <= 0");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid falsePositiveRate " + falsePositiveRate + " not between 0 and 1");
+        }
+
+        return new BloomFilterStore<>(
+            store,
+            expectedIds,
+            falsePositiveRate
+        );
+    }
+
+    private BloomFilterStore(final Store<K, V> store,
+                             final int expectedIds,
+                             final double falsePositiveRate) {
+        super();
+        this.store = store;
+        this.expectedIds = expectedIds;
+        this.falsePositiveRate = falsePositiveRate;
+
+        this.rebuild();
+
+        store.addStoreWatcher(this::onValueChange);
+        store.addIdDeletedWatcher(this::onIdDeleted);
+    }
+
+    // Store............................................................................................................
+
+    @Override
+    public Optional<V> load(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        final Optional<V> loaded;
+        if (this.mightContain(id)) {
+            loaded = this.store.load(id);
+            if (false == loaded.isPresent()) {
+                this.falsePositives++;
+            }
+        } else {
+            this.definiteMisses++;
+            loaded = Optional.empty();
+        }
+        return loaded;
+    }
+
+    // StoreWatcher.....................................................................................................
+
+    private void onValueChange(final Optional<V> oldValue,
+                               final Optional<V> newValue) {
+        final K newId = newValue.flatMap(HasId::id)
+            .orElse(null);
+        if (null != newId) {
+            // updates leave the id in the filter, only new ids add to its load
+            if (false == oldValue.isPresent()) {
+                this.add(newId);
+                this.additions++;
+            }
+        } else {
+            if (oldValue.isPresent()) {
+                this.deletes++;
+            }
+        }
+
+        this.rebuildIfNecessary();
+    }
+
+    /**
+     * A dropped id stays in the filter, like any other delete.
+     */
+    private void onIdDeleted(final K id) {
+        this.deletes++;
+        this.rebuildIfNecessary();
+    }
+
+    private void rebuildIfNecessary() {
+        // too many stale or extra ids degrade the false positive rate
+        if (this.deletes > this.capacity / 2 || this.additions > this.capacity) {
+            this.rebuild();
+            this.rebuilds++;
+        }
+    }
+
+    // bloom filter.....................................................................................................
+
+    /**
+     * Clears the filter and adds every id in the wrapped store, sizing the filter for the larger of the expected ids
+     * or the current count.
+     */
+    private void rebuild() {
+        final Store<K, V> store = this.store;
+
+        final int capacity = Math.max(
+            this.expectedIds,
+            store.count()
+        );
+        final double ln2 = Math.log(2);
+        final long bits = (long) Math.ceil(-capacity * Math.log(this.falsePositiveRate) / (ln2 * ln2));
+        final int words = (int) Math.min(
+            Integer.MAX_VALUE / 32,
+            Math.max(
+                1,
+                (bits + 31) / 32
+            )
+        );
+
+        this.capacity = capacity;
+        this.words = new int[words];
+        this.bitCount = words * 32;
+        this.hashCount = Math.max(
+            1,
+            (int) Math.round((double) this.bitCount / capacity * ln2)
+        );
+
+        this.additions = 0;
+        this.deletes = 0;
+        for (final K id : store.ids(0, Integer.MAX_VALUE)) {
+            this.add(id);
+        }
+    }
+
+    private void add(final K id) {
+        final int hash1 = spread(id.hashCode());
+        final int hash2 = spread(hash1) | 1;
+        final int[] words = this.words;
+
+        for (int i = 0; i < this.hashCount; i++) {
+            final int bit = this.bitIndex(hash1 + i * hash2);
+            words[bit >>> 5] |= 1 << (bit & 31);
+        }
+    }
+
+    private boolean mightContain(final K id) {
+        final int hash1 = spread(id.hashCode());
+        final int hash2 = spread(hash1) | 1;
+        final int[] words = this.words;
+
+        boolean contains = true;
+        for (int i = 0; contains && i < this.hashCount; i++) {
+            final int bit = this.bitIndex(hash1 + i * hash2);
+            contains = 0 != (words[bit >>> 5] & (1 << (bit & 31)));
+        }
+        return contains;
+    }
+
+    private int bitIndex(final int hash) {
+        return (hash & Integer.MAX_VALUE) % this.bitCount;
+    }
+
+    private static int spread(final int hashCode) {
+        int h = hashCode * 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        return h ^ (h >>> 16);
+    }
+
+    private final int expectedIds;
+
+    private final double falsePositiveRate;
+
+    /**
+     * The number of ids the filter was last sized for.
+     */
+    private int capacity;
+
+    private int[] words;
+
+    private int bitCount;
+
+    private int hashCount;
+
+    /**
+     * New ids added since the last rebuild, updates of existing ids are not counted.
+     */
+    private int additions;
+
+    /**
+     * Ids deleted since the last rebuild, which remain in the filter as false positives.
+     */
+    private int deletes;
+
+    // StoreDelegator...................................................................................................
+
+    @Override
+    public Store<K, V> store() {
+        return this.store;
+    }
+
+    private final Store<K, V> store;
+
+    // HasStoreCounters.................................................................................................
+
+    @Override
+    public Map<String, Long> counters() {
+        final Map<String, Long> counters = Maps.ordered();
+        counters.put("definiteMisses", this.definiteMisses);
+        counters.put("falsePositives", this.falsePositives);
+        counters.put("rebuilds", this.rebuilds);
+        return counters;
+    }
+
+    private long definiteMisses;
+
+    private long falsePositives;
+
+    private long rebuilds;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.store + " " + this.counters();
+    }
+}
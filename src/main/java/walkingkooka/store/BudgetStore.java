@@ -0,0 +1,204 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+import walkingkooka.Cast;
+import walkingkooka.HasId;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.watch.Watchers;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * An {@link EvictingStore} that accounts the weight of every value in the wrapped {@link Store} against a
+ * {@link StoreBudget}, evicting values when the budget is exceeded. Loads count as use, while ranges and scans do not.
+ * Changes made directly on the wrapped store are also accounted, because they are observed through its watchers.
+ */
+final class BudgetStore<K, V extends HasId<Optional<K>>> implements EvictingStore<K, V>,
+    StoreDelegator<K, V> {
+
+    static <K, V extends HasId<Optional<K>>> BudgetStore<K, V> with(final Store<K, V> store,
+                                                                    final StoreBudget budget,
+                                                                    final ToIntFunction<V> weigher) {
+        Objects.requireNonNull(store, "store");
+        Objects.requireNonNull(budget, "budget");
+        Objects.requireNonNull(weigher, "weigher");
+
+        return new BudgetStore<>(
+            store,
+            budget,
+            weigher
+        );
+    }
+
+    private BudgetStore(final Store<K, V> store,
+                        final StoreBudget budget,
+                        final ToIntFunction<V> weigher) {
+        super();
+        this.store = store;
+        this.budget = budget;
+        this.weigher = weigher;
+
+        for (final V value : store.all()) {
+            this.add(value);
+        }
+        budget.evictIfNecessary(null);
+
+        store.addStoreWatcher(this::onValueChange);
+        store.addIdDeletedWatcher(this::remove);
+    }
+
+    // Store............................................................................................................
+
+    @Override
+    public Optional<V> load(final K id) {
+        final Optional<V> loaded = this.store.load(id);
+        if (loaded.isPresent()) {
+            final StoreBudgetEntry entry = this.entries.get(
+                loaded.get()
+                    .id()
+                    .orElse(null)
+            );
+            if (null != entry) {
+                this.budget.touch(entry);
+            }
+        }
+        return loaded;
+    }
+
+    // StoreWatcher.....................................................................................................
+
+    private void onValueChange(final Optional<V> oldValue,
+                               final Optional<V> newValue) {
+        oldValue.flatMap(HasId::id)
+            .ifPresent(this::remove);
+
+        if (newValue.isPresent()) {
+            this.budget.evictIfNecessary(
+                this.add(newValue.get())
+            );
+        }
+    }
+
+    /**
+     * Records the value against the budget, returning its {@link StoreBudgetEntry} or null when the value has no id.
+     */
+    private StoreBudgetEntry add(final V value) {
+        final K id = value.id()
+            .orElse(null);
+
+        StoreBudgetEntry entry = null;
+        if (null != id) {
+            this.remove(id);
+
+            entry = this.budget.add(
+                this,
+                id,
+                this.weigher.applyAsInt(value)
+            );
+            this.entries.put(
+                id,
+                entry
+            );
+        }
+        return entry;
+    }
+
+    private void remove(final K id) {
+        final StoreBudgetEntry entry = this.entries.remove(id);
+        if (null != entry) {
+            this.budget.remove(entry);
+        }
+    }
+
+    /**
+     * Called by the {@link StoreBudget} after it has released the weight of the given entry.
+     */
+    void evict(final StoreBudgetEntry entry) {
+        final K id = Cast.to(entry.id);
+        this.entries.remove(id);
+
+        final Optional<V> value = this.store.load(id);
+        if (value.isPresent()) {
+            this.store.delete(id);
+            this.evictions++;
+
+            final V evicted = value.get();
+            this.evictionWatchers.accept(
+                (w) -> w.onValueEvicted(
+                    id,
+                    evicted
+                )
+            );
+        }
+    }
+
+    /**
+     * The {@link StoreBudgetEntry} for each id held by the wrapped store.
+     */
+    private final Map<K, StoreBudgetEntry> entries = Maps.hash();
+
+    private final StoreBudget budget;
+
+    private final ToIntFunction<V> weigher;
+
+    // EvictingStore....................................................................................................
+
+    @Override
+    public Runnable addEvictionWatcher(final StoreEvictionWatcher<K, V> watcher) {
+        Objects.requireNonNull(watcher, "watcher");
+
+        return this.evictionWatchers.add(
+            (e) -> e.accept(watcher)
+        );
+    }
+
+    private final Watchers<Consumer<StoreEvictionWatcher<K, V>>> evictionWatchers = Watchers.empty();
+
+    // StoreDelegator...................................................................................................
+
+    @Override
+    public Store<K, V> store() {
+        return this.store;
+    }
+
+    private final Store<K, V> store;
+
+    // HasStoreCounters.................................................................................................
+
+    @Override
+    public Map<String, Long> counters() {
+        final Map<String, Long> counters = Maps.ordered();
+        counters.put("evictions", this.evictions);
+        return counters;
+    }
+
+    private long evictions;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.store + " " + this.budget;
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * A {@link MultiValueStore} that remembers all the values of each id, and optionally all the ids of each value, so
+ * repeated {@link #findValuesById(Object, int, int)} and {@link #findIdsByValue(Object, int, int)} are answered by
+ * slicing the remembered list. A remembered list is dropped when its id or value is added or removed, as observed by
+ * a {@link MultiValueStoreWatcher} on the wrapped {@link MultiValueStore}. Each cache holds at most the maximum number of
+ * entries, the least recently used being evicted first, so scans over many distinct ids or values do not grow memory
+ * without limit.
+ */
+final class CachingMultiValueStore<K, V> implements CountingMultiValueStore<K, V>,
+    MultiValueStoreDelegator<K, V> {
+
+    static <K, V> CachingMultiValueStore<K, V> with(final MultiValueStore<K, V> store,
+                                                    final int maxEntries,
+                                                    final boolean cacheIdsByValue) {
+        Objects.requireNonNull(store, "store");
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Invalid maxEntries " + maxEntries + " <= 0");
+        }
+
+        return new CachingMultiValueStore<>(
+            store,
+            maxEntries,
+            cacheIdsByValue
+        );
+    }
+
+    private CachingMultiValueStore(final MultiValueStore<K, V> store,
+                                   final int maxEntries,
+                                   final boolean cacheIdsByValue) {
+        super();
+        this.store = store;
+        this.maxEntries = maxEntries;
+        this.cacheIdsByValue = cacheIdsByValue;
+
+        store.addStoreWatcher(
+            new MultiValueStoreWatcher<K, V>() {
+                @Override
+                public void onValueAdded(final K id,
+                                         final V value) {
+                    CachingMultiValueStore.this.invalidate(
+                        id,
+                        value
+                    );
+                }
+
+                @Override
+                public void onValueRemoved(final K id,
+                                           final V value) {
+                    CachingMultiValueStore.this.invalidate(
+                        id,
+                        value
+                    );
+                }
+            }
+        );
+    }
+
+    // MultiValueStore..................................................................................................
+
+    @Override
+    public List<V> findValuesById(final K id,
+                                  final int offset,
+                                  final int count) {
+        Objects.requireNonNull(id, "id");
+        Store.checkOffsetAndCount(
+            offset,
+            count
+        );
+
+        return slice(
+            this.cached(
+                this.idToValues,
+                id,
+                (i) -> this.store.findValuesById(
+                    i,
+                    0,
+                    Integer.MAX_VALUE
+                )
+            ),
+            offset,
+            count
+        );
+    }
+
+    @Override
+    public List<K> findIdsByValue(final V value,
+                                  final int offset,
+                                  final int count) {
+        Objects.requireNonNull(value, "value");
+        Store.checkOffsetAndCount(
+            offset,
+            count
+        );
+
+        return this.cacheIdsByValue ?
+            slice(
+                this.cached(
+                    this.valueToIds,
+                    value,
+                    (v) -> this.store.findIdsByValue(
+                        v,
+                        0,
+                        Integer.MAX_VALUE
+                    )
+                ),
+                offset,
+                count
+            ) :
+            this.store.findIdsByValue(
+                value,
+                offset,
+                count
+            );
+    }
+
+    private <C, T> List<T> cached(final Map<C, List<T>> cache,
+                                  final C key,
+                                  final Function<C, List<T>> loader) {
+        List<T> list = cache.get(key);
+        if (null != list) {
+            this.hits++;
+        } else {
+            this.misses++;
+
+            list = Lists.immutable(
+                loader.apply(key)
+            );
+
+            if (cache.size() >= this.maxEntries) {
+                // access ordered so the first is the least recently used
+                final Iterator<C> eldest = cache.keySet()
+                    .iterator();
+                eldest.next();
+                eldest.remove();
+                this.evictions++;
+            }
+            cache.put(
+                key,
+                list
+            );
+        }
+        return list;
+    }
+
+    /**
+     * Returns the requested window of the given immutable list, avoiding a copy when the whole list is wanted.
+     */
+    private static <T> List<T> slice(final List<T> list,
+                                     final int offset,
+                                     final int count) {
+        final int size = list.size();
+        final int from = Math.min(
+            offset,
+            size
+        );
+        final int to = count > size - from ?
+            size :
+            from + count;
+
+        return 0 == from && size == to ?
+            list :
+            list.subList(
+                from,
+                to
+            );
+    }
+
+    private void invalidate(final K id,
+                            final V value) {
+        if (null != this.idToValues.remove(id)) {
+            this.invalidations++;
+        }
+        if (null != this.valueToIds.remove(value)) {
+            this.invalidations++;
+        }
+    }
+
+    private final Map<K, List<V>> idToValues = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Map<V, List<K>> valueToIds = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The maximum number of entries held by each of {@link #idToValues} and {@link #valueToIds}.
+     */
+    private final int maxEntries;
+
+    private final boolean cacheIdsByValue;
+
+    // MultiValueStoreDelegator.........................................................................................
+
+    @Override
+    public MultiValueStore<K, V> multiValueStore() {
+        return this.store;
+    }
+
+    private final MultiValueStore<K, V> store;
+
+    // HasStoreCounters.................................................................................................
+
+    @Override
+    public Map<String, Long> counters() {
+        final Map<String, Long> counters = Maps.ordered();
+        counters.put("hits", this.hits);
+        counters.put("misses", this.misses);
+        counters.put("invalidations", this.invalidations);
+        counters.put("evictions", this.evictions);
+        return counters;
+    }
+
+    private long hits;
+
+    private long misses;
+
+    private long invalidations;
+
+    private long evictions;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.store + " " + this.counters();
+    }
+}
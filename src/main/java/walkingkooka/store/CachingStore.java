@@ -0,0 +1,286 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+import walkingkooka.HasId;
+import walkingkooka.collect.map.Maps;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A {@link Store} that caches values returned by {@link #load(Object)} using a W-TinyLFU policy. New values enter a
+ * small LRU window, and when they leave the window they are only admitted into the main segmented LRU if they have
+ * been loaded more often than the entry they would replace. This keeps one-off scans from flushing popular entries.
+ * <br>
+ * Cached values are invalidated by watching the wrapped {@link Store}, so any save or delete, even one made directly
+ * on the wrapped store, removes the affected id. Values are only cached under the id they report, which keeps
+ * invalidation exact for stores with ids that are equal under their comparator but not {@link Object#equals(Object)}.
+ */
+final class CachingStore<K, V extends HasId<Optional<K>>> implements CountingStore<K, V>,
+    StoreDelegator<K, V> {
+
+    static <K, V extends HasId<Optional<K>>> CachingStore<K, V> with(final Store<K, V> store,
+                                                                     final int maxEntries) {
+        Objects.requireNonNull(store, "store");
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Invalid maxEntries " + maxEntries + " <= 0");
+        }
+
+        return new CachingStore<>(
+            store,
+            maxEntries
+        );
+    }
+
+    private CachingStore(final Store<K, V> store,
+                         final int maxEntries) {
+        super();
+        this.store = store;
+
+        final int windowMax = Math.max(
+            1,
+            maxEntries / 100
+        );
+        final int mainMax = maxEntries - windowMax;
+
+        this.windowMax = windowMax;
+        this.mainMax = mainMax;
+        this.protectedMax = mainMax * 4 / 5;
+
+        this.sketch = CachingStoreFrequencySketch.with(maxEntries);
+
+        store.addStoreWatcher(this::onValueChange);
+        store.addIdDeletedWatcher(this::invalidate);
+    }
+
+    // Store............................................................................................................
+
+    @Override
+    public Optional<V> load(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        this.sketch.increment(id);
+
+        V value = this.window.get(id);
+        if (null == value) {
+            value = this.probation.remove(id);
+            if (null != value) {
+                this.promote(
+                    id,
+                    value
+                );
+            } else {
+                value = this.protect.get(id);
+            }
+        }
+
+        final Optional<V> loaded;
+        if (null != value) {
+            this.hits++;
+            loaded = Optional.of(value);
+        } else {
+            this.misses++;
+            loaded = this.store.load(id);
+            if (loaded.isPresent()) {
+                this.add(
+                    id,
+                    loaded.get()
+                );
+            }
+        }
+
+        return loaded;
+    }
+
+    /**
+     * Moves a probation entry that was hit into the protected segment, demoting the oldest protected entry back into
+     * probation when the protected segment is full.
+     */
+    private void promote(final K id,
+                         final V value) {
+        final LinkedHashMap<K, V> protect = this.protect;
+        protect.put(
+            id,
+            value
+        );
+
+        if (protect.size() > this.protectedMax) {
+            final Entry<K, V> demoted = eldest(protect);
+            final K demotedId = demoted.getKey();
+            final V demotedValue = demoted.getValue();
+
+            protect.remove(demotedId);
+            this.probation.put(
+                demotedId,
+                demotedValue
+            );
+        }
+    }
+
+    private void add(final K id,
+                     final V value) {
+        // only cache values under their own id, so watcher invalidation always finds them
+        if (id.equals(value.id().orElse(null))) {
+            final LinkedHashMap<K, V> window = this.window;
+            window.put(
+                id,
+                value
+            );
+
+            if (window.size() > this.windowMax) {
+                final Entry<K, V> candidate = eldest(window);
+                final K candidateId = candidate.getKey();
+                final V candidateValue = candidate.getValue();
+
+                window.remove(candidateId);
+                this.admit(
+                    candidateId,
+                    candidateValue
+                );
+            }
+        }
+    }
+
+    /**
+     * Decides whether a candidate leaving the window enters the main segment, by comparing its frequency against the
+     * entry that would be evicted to make room.
+     */
+    private void admit(final K candidateId,
+                       final V candidateValue) {
+        final LinkedHashMap<K, V> probation = this.probation;
+        final LinkedHashMap<K, V> protect = this.protect;
+
+        if (probation.size() + protect.size() < this.mainMax) {
+            probation.put(
+                candidateId,
+                candidateValue
+            );
+        } else {
+            final LinkedHashMap<K, V> victims = probation.isEmpty() ?
+                protect :
+                probation;
+
+            if (victims.isEmpty()) {
+                // no main segment, the candidate is simply dropped
+                this.evictions++;
+            } else {
+                final K victim = eldest(victims)
+                    .getKey();
+                final CachingStoreFrequencySketch sketch = this.sketch;
+
+                this.evictions++;
+                if (sketch.frequency(candidateId) > sketch.frequency(victim)) {
+                    victims.remove(victim);
+                    probation.put(
+                        candidateId,
+                        candidateValue
+                    );
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the least recently used entry, which is first in iteration order.
+     */
+    private static <K, V> Entry<K, V> eldest(final LinkedHashMap<K, V> map) {
+        return map.entrySet()
+            .iterator()
+            .next();
+    }
+
+    // StoreWatcher.....................................................................................................
+
+    private void onValueChange(final Optional<V> oldValue,
+                               final Optional<V> newValue) {
+        oldValue.flatMap(HasId::id)
+            .ifPresent(this::invalidate);
+        newValue.flatMap(HasId::id)
+            .ifPresent(this::invalidate);
+    }
+
+    private void invalidate(final K id) {
+        if (null == this.window.remove(id)) {
+            if (null == this.probation.remove(id)) {
+                this.protect.remove(id);
+            }
+        }
+    }
+
+    /**
+     * The admission window, a small LRU that every newly loaded value enters first.
+     */
+    private final LinkedHashMap<K, V> window = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final int windowMax;
+
+    /**
+     * Main segment entries that have been admitted but not hit since.
+     */
+    private final LinkedHashMap<K, V> probation = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Main segment entries that were hit while in probation.
+     */
+    private final LinkedHashMap<K, V> protect = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final int mainMax;
+
+    private final int protectedMax;
+
+    private final CachingStoreFrequencySketch sketch;
+
+    // StoreDelegator...................................................................................................
+
+    @Override
+    public Store<K, V> store() {
+        return this.store;
+    }
+
+    private final Store<K, V> store;
+
+    // HasStoreCounters.................................................................................................
+
+    @Override
+    public Map<String, Long> counters() {
+        final Map<String, Long> counters = Maps.ordered();
+        counters.put("hits", this.hits);
+        counters.put("misses", this.misses);
+        counters.put("evictions", this.evictions);
+        counters.put("size", (long) (this.window.size() + this.probation.size() + this.protect.size()));
+        return counters;
+    }
+
+    private long hits;
+
+    private long misses;
+
+    private long evictions;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.store + " " + this.counters();
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+/**
+ * A count-min sketch with small saturating counters, used by {@link CachingStore} to estimate how often an id has been
+ * loaded. Counters are halved once a sample of increments has been recorded, so old popularity fades over time.
+ */
+final class CachingStoreFrequencySketch {
+
+    /**
+     * The largest value any counter may reach.
+     */
+    private final static int MAX_COUNT = 15;
+
+    private final static int DEPTH = 4;
+
+    private final static int[] SEEDS = new int[]{
+        0x97cb3127,
+        0xb4b82e6d,
+        0x7c5ac6f3,
+        0x2545f491
+    };
+
+    static CachingStoreFrequencySketch with(final int maxEntries) {
+        return new CachingStoreFrequencySketch(maxEntries);
+    }
+
+    private CachingStoreFrequencySketch(final int maxEntries) {
+        super();
+
+        int width = 16;
+        while (width < maxEntries && width < (1 << 24)) {
+            width <<= 1;
+        }
+
+        this.width = width;
+        this.counters = new int[DEPTH * width];
+        this.sampleSize = Math.max(
+            10 * maxEntries,
+            width
+        );
+    }
+
+    /**
+     * Returns the estimated number of times the given key was incremented, which is the smallest of its counters.
+     */
+    int frequency(final Object key) {
+        final int hash = spread(key.hashCode());
+
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < DEPTH; i++) {
+            frequency = Math.min(
+                frequency,
+                this.counters[this.index(hash, i)]
+            );
+        }
+        return frequency;
+    }
+
+    /**
+     * Increments all the counters for the given key, halving every counter when the sample size is reached.
+     */
+    void increment(final Object key) {
+        final int hash = spread(key.hashCode());
+        final int[] counters = this.counters;
+
+        for (int i = 0; i < DEPTH; i++) {
+            final int index = this.index(hash, i);
+            if (counters[index] < MAX_COUNT) {
+                counters[index]++;
+            }
+        }
+
+        this.increments++;
+        if (this.increments >= this.sampleSize) {
+            this.age();
+        }
+    }
+
+    private void age() {
+        final int[] counters = this.counters;
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] >>>= 1;
+        }
+        this.increments = 0;
+    }
+
+    private int index(final int hash,
+                      final int row) {
+        int h = (hash ^ SEEDS[row]) * 0x9e3779b9;
+        h ^= h >>> 16;
+        return row * this.width + (h & (this.width - 1));
+    }
+
+    private static int spread(final int hashCode) {
+        int h = hashCode * 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * The number of counters in each row, always a power of two.
+     */
+    private final int width;
+
+    private final int[] counters;
+
+    private final int sampleSize;
+
+    private int increments;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return "width=" + this.width + " increments=" + this.increments;
+    }
+}
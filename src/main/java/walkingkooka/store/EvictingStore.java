@@ -0,0 +1,31 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+/**
+ * A {@link Store} that may evict values on its own, for example to stay within a {@link StoreBudget}. Evicted values
+ * are also reported to {@link StoreWatcher} as deletes, so existing watchers see a consistent store.
+ */
+public interface EvictingStore<K, V> extends CountingStore<K, V> {
+
+    /**
+     * Adds a {@link StoreEvictionWatcher}
+     */
+    Runnable addEvictionWatcher(final StoreEvictionWatcher<K, V> watcher);
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+import walkingkooka.HasId;
+import walkingkooka.collect.map.Maps;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * A {@link Store} that deletes values from the wrapped {@link Store} once their time to live has passed. The time to
+ * live of each value is computed when it is saved, a negative time to live means the value never expires. Expiries
+ * are held by a {@link ExpiringStoreTimerWheel}, which is advanced to the current time before every operation, so
+ * expired values are deleted, firing the usual watcher events, before they could be returned by a read.
+ * <br>
+ * Values saved directly to the wrapped store are also given a time to live, because they are observed through its
+ * watchers.
+ */
+final class ExpiringStore<K, V extends HasId<Optional<K>>> implements CountingStore<K, V>,
+    StoreDelegator<K, V> {
+
+    static <K, V extends HasId<Optional<K>>> ExpiringStore<K, V> with(final Store<K, V> store,
+                                                                      final ToLongFunction<V> timeToLive,
+                                                                      final long tick,
+                                                                      final LongSupplier now) {
+        Objects.requireNonNull(store, "store");
+        Objects.requireNonNull(timeToLive, "timeToLive");
+        if (tick <= 0) {
+            throw new IllegalArgumentException("Invalid tick " + tick + " <= 0");
+        }
+        Objects.requireNonNull(now, "now");
+
+        return new ExpiringStore<>(
+            store,
+            timeToLive,
+            tick,
+            now
+        );
+    }
+
+    private ExpiringStore(final Store<K, V> store,
+                          final ToLongFunction<V> timeToLive,
+                          final long tick,
+                          final LongSupplier now) {
+        super();
+        this.store = store;
+        this.timeToLive = timeToLive;
+        this.now = now;
+        this.wheel = ExpiringStoreTimerWheel.with(
+            tick,
+            now.getAsLong()
+        );
+
+        for (final V value : store.all()) {
+            this.add(value);
+        }
+
+        store.addStoreWatcher(this::onValueChange);
+        store.addIdDeletedWatcher(this::remove);
+    }
+
+    // Store............................................................................................................
+
+    /**
+     * Saving restarts the time to live, even when the value is unchanged and no watcher event is fired.
+     */
+    @Override
+    public V save(final V value) {
+        final V saved = this.store()
+            .save(value);
+        this.add(saved);
+        return saved;
+    }
+
+    // StoreWatcher.....................................................................................................
+
+    private void onValueChange(final Optional<V> oldValue,
+                               final Optional<V> newValue) {
+        oldValue.flatMap(HasId::id)
+            .ifPresent(this::remove);
+        newValue.ifPresent(this::add);
+    }
+
+    private void add(final V value) {
+        final K id = value.id()
+            .orElse(null);
+        if (null != id) {
+            this.remove(id);
+
+            final long timeToLive = this.timeToLive.applyAsLong(value);
+            if (timeToLive >= 0) {
+                final long now = this.now.getAsLong();
+
+                this.entries.put(
+                    id,
+                    this.wheel.add(
+                        id,
+                        timeToLive > Long.MAX_VALUE - now ?
+                            Long.MAX_VALUE :
+                            now + timeToLive
+                    )
+                );
+            }
+        }
+    }
+
+    private void remove(final K id) {
+        final ExpiringStoreTimerWheelEntry<K> entry = this.entries.remove(id);
+        if (null != entry) {
+            this.wheel.remove(entry);
+        }
+    }
+
+    /**
+     * Advances the wheel to the current time, deleting every expired value from the wrapped {@link Store}.
+     */
+    private void expire() {
+        final Store<K, V> store = this.store;
+
+        for (final ExpiringStoreTimerWheelEntry<K> entry : this.wheel.advance(this.now.getAsLong())) {
+            final K id = entry.id;
+            this.entries.remove(id);
+            store.delete(id);
+            this.expirations++;
+        }
+    }
+
+    private final ToLongFunction<V> timeToLive;
+
+    private final LongSupplier now;
+
+    private final Map<K, ExpiringStoreTimerWheelEntry<K>> entries = Maps.hash();
+
+    private final ExpiringStoreTimerWheel<K> wheel;
+
+    // StoreDelegator...................................................................................................
+
+    /**
+     * Every {@link Store} operation goes through here, which first deletes any expired values.
+     */
+    @Override
+    public Store<K, V> store() {
+        this.expire();
+        return this.store;
+    }
+
+    private final Store<K, V> store;
+
+    // HasStoreCounters.................................................................................................
+
+    @Override
+    public Map<String, Long> counters() {
+        final Map<String, Long> counters = Maps.ordered();
+        counters.put("scheduled", (long) this.wheel.size());
+        counters.put("expirations", this.expirations);
+        return counters;
+    }
+
+    private long expirations;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.store + " " + this.wheel;
+    }
+}
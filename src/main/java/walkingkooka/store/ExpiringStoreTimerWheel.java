@@ -0,0 +1,278 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.Sets;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A hierarchical timer wheel holding {@link ExpiringStoreTimerWheelEntry entries} by expiry. Each level has
+ * {@link #SLOTS} slots, a level 0 slot spans a single tick and each slot of the next level spans all the slots of the
+ * level below. An entry is placed in the lowest level that can hold it, and moved down a level each time the wheel
+ * reaches the start of its slot, so adding, removing and expiring an entry are all O(1) amortized.
+ * <br>
+ * Entries further away than the top level can hold wait in an overflow set, which is placed again each time the top
+ * level turns.
+ */
+final class ExpiringStoreTimerWheel<K> {
+
+    /**
+     * The number of bits used to select a slot within a level.
+     */
+    private final static int SLOT_BITS = 6;
+
+    final static int SLOTS = 1 << SLOT_BITS;
+
+    private final static int SLOT_MASK = SLOTS - 1;
+
+    final static int LEVELS = 4;
+
+    final static int OVERFLOW = -1;
+
+    static <K> ExpiringStoreTimerWheel<K> with(final long tick,
+                                               final long now) {
+        if (tick <= 0) {
+            throw new IllegalArgumentException("Invalid tick " + tick + " <= 0");
+        }
+
+        return new ExpiringStoreTimerWheel<>(
+            tick,
+            now
+        );
+    }
+
+    private ExpiringStoreTimerWheel(final long tick,
+                                    final long now) {
+        super();
+        this.tick = tick;
+        this.current = Math.floorDiv(now, tick);
+
+        final List<Set<ExpiringStoreTimerWheelEntry<K>>> slots = Lists.array();
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            slots.add(Sets.hash());
+        }
+        this.slots = slots;
+    }
+
+    /**
+     * Adds a new entry expiring at the given time.
+     */
+    ExpiringStoreTimerWheelEntry<K> add(final K id,
+                                        final long expiry) {
+        final ExpiringStoreTimerWheelEntry<K> entry = new ExpiringStoreTimerWheelEntry<>(
+            id,
+            expiry
+        );
+        this.place(entry);
+        this.size++;
+        return entry;
+    }
+
+    /**
+     * Removes an entry that has not yet expired, entries that have already expired are ignored.
+     */
+    void remove(final ExpiringStoreTimerWheelEntry<K> entry) {
+        if (this.slot(entry.slot).remove(entry)) {
+            this.unplaced(entry);
+            this.size--;
+        }
+    }
+
+    /**
+     * Advances the wheel to the given time, returning all entries with an expiry at or before that time.
+     */
+    List<ExpiringStoreTimerWheelEntry<K>> advance(final long now) {
+        final List<ExpiringStoreTimerWheelEntry<K>> expired = Lists.array();
+
+        final long target = Math.floorDiv(now, this.tick);
+        while (this.current < target) {
+            // every entry in the current level 0 slot expires at the current tick, which is now in the past
+            this.expire(
+                this.slot(this.current & SLOT_MASK),
+                Long.MAX_VALUE,
+                expired
+            );
+
+            this.current = Math.min(
+                this.next(),
+                target
+            );
+            this.cascade();
+        }
+
+        // only some entries of the current tick may have expired
+        this.expire(
+            this.slot(this.current & SLOT_MASK),
+            now,
+            expired
+        );
+
+        return expired;
+    }
+
+    /**
+     * Returns the next tick that has something to do, skipping over runs of empty ticks.
+     */
+    private long next() {
+        final long current = this.current;
+        long next = Long.MAX_VALUE;
+
+        if (this.size > 0) {
+            if (this.levelCounts[0] > 0) {
+                next = current + 1;
+            } else {
+                // the next time a non empty level moves entries down
+                for (int level = 1; level <= LEVELS; level++) {
+                    if (level == LEVELS || this.levelCounts[level] > 0) {
+                        final int shift = SLOT_BITS * Math.min(level, LEVELS - 1);
+                        next = ((current >> shift) + 1) << shift;
+                        break;
+                    }
+                }
+            }
+        }
+
+        return next;
+    }
+
+    /**
+     * Moves entries from the slots of the higher levels that start at the current tick down, highest level first.
+     */
+    private void cascade() {
+        final long current = this.current;
+
+        for (int level = LEVELS - 1; level > 0; level--) {
+            final int shift = SLOT_BITS * level;
+            if (0 == (current & ((1L << shift) - 1))) {
+                if (LEVELS - 1 == level) {
+                    this.replace(this.overflow);
+                }
+                this.replace(
+                    this.slot(level * SLOTS + (int) ((current >> shift) & SLOT_MASK))
+                );
+            }
+        }
+    }
+
+    private void replace(final Set<ExpiringStoreTimerWheelEntry<K>> slot) {
+        if (false == slot.isEmpty()) {
+            final List<ExpiringStoreTimerWheelEntry<K>> entries = Lists.array();
+            entries.addAll(slot);
+            slot.clear();
+
+            for (final ExpiringStoreTimerWheelEntry<K> entry : entries) {
+                this.unplaced(entry);
+                this.place(entry);
+            }
+        }
+    }
+
+    private void expire(final Set<ExpiringStoreTimerWheelEntry<K>> slot,
+                        final long now,
+                        final List<ExpiringStoreTimerWheelEntry<K>> expired) {
+        if (false == slot.isEmpty()) {
+            final List<ExpiringStoreTimerWheelEntry<K>> entries = Lists.array();
+            for (final ExpiringStoreTimerWheelEntry<K> entry : slot) {
+                if (entry.expiry <= now) {
+                    entries.add(entry);
+                }
+            }
+
+            for (final ExpiringStoreTimerWheelEntry<K> entry : entries) {
+                slot.remove(entry);
+                this.unplaced(entry);
+                this.size--;
+            }
+            expired.addAll(entries);
+        }
+    }
+
+    /**
+     * Places the entry in the lowest level whose span includes its expiry, already expired entries are placed in the
+     * current slot.
+     */
+    private void place(final ExpiringStoreTimerWheelEntry<K> entry) {
+        final long current = this.current;
+        final long expiryTick = Math.max(
+            Math.floorDiv(entry.expiry, this.tick),
+            current
+        );
+        final long delta = expiryTick - current;
+
+        int slot = OVERFLOW;
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1L << (SLOT_BITS * (level + 1))) {
+                slot = level * SLOTS + (int) ((expiryTick >> (SLOT_BITS * level)) & SLOT_MASK);
+                this.levelCounts[level]++;
+                break;
+            }
+        }
+
+        entry.slot = slot;
+        this.slot(slot).add(entry);
+    }
+
+    private void unplaced(final ExpiringStoreTimerWheelEntry<K> entry) {
+        final int slot = entry.slot;
+        if (OVERFLOW != slot) {
+            this.levelCounts[slot / SLOTS]--;
+        }
+    }
+
+    private Set<ExpiringStoreTimerWheelEntry<K>> slot(final long slot) {
+        return OVERFLOW == slot ?
+            this.overflow :
+            this.slots.get((int) slot);
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    private int size;
+
+    private final long tick;
+
+    /**
+     * The current tick, entries in earlier ticks have all expired.
+     */
+    private long current;
+
+    /**
+     * All the slots of all levels, level 0 first.
+     */
+    private final List<Set<ExpiringStoreTimerWheelEntry<K>>> slots;
+
+    private final Set<ExpiringStoreTimerWheelEntry<K>> overflow = Sets.hash();
+
+    /**
+     * The number of entries in each level, used to skip over empty ticks.
+     */
+    private final int[] levelCounts = new int[LEVELS];
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.size + " @" + this.current;
+    }
+}
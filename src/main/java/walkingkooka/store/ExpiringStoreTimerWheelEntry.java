@@ -0,0 +1,50 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+/**
+ * The expiry time of a single value held by an {@link ExpiringStore}, and the slot of the
+ * {@link ExpiringStoreTimerWheel} holding it.
+ */
+final class ExpiringStoreTimerWheelEntry<K> {
+
+    ExpiringStoreTimerWheelEntry(final K id,
+                                 final long expiry) {
+        super();
+        this.id = id;
+        this.expiry = expiry;
+    }
+
+    final K id;
+
+    final long expiry;
+
+    /**
+     * The index of the slot holding this entry, or {@link ExpiringStoreTimerWheel#OVERFLOW} when it is too far in
+     * the future for any level.
+     */
+    int slot;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.id + " expiry=" + this.expiry;
+    }
+}
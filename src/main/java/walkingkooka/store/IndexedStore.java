@@ -0,0 +1,37 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+import java.util.Comparator;
+import java.util.function.Function;
+
+/**
+ * A {@link Store} that maintains {@link StoreIndex secondary indexes} on attributes of its values.
+ */
+public interface IndexedStore<K, V> extends Store<K, V> {
+
+    /**
+     * Adds a new index on the attribute extracted by the given {@link Function}, indexing any existing values. Values
+     * with a null attribute are not indexed. When unique, saves that would give two values the same attribute fail
+     * with a {@link StoreException}, as does adding a unique index when existing values already share an attribute.
+     */
+    <A> StoreIndex<K, V, A> addIndex(final Function<V, A> attribute,
+                                     final Comparator<A> attributeComparator,
+                                     final boolean unique);
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+import walkingkooka.HasId;
+import walkingkooka.collect.list.Lists;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * An {@link IndexedStore} that keeps its {@link StoreIndex indexes} up to date through a watcher on the wrapped
+ * {@link Store}, so an update that changes an attribute moves the value within each index. Saves through this store
+ * are checked against unique indexes before they reach the wrapped store.
+ */
+final class IndexingStore<K, V extends HasId<Optional<K>>> implements IndexedStore<K, V>,
+    StoreDelegator<K, V> {
+
+    static <K, V extends HasId<Optional<K>>> IndexingStore<K, V> with(final Store<K, V> store,
+                                                                      final Comparator<K> idComparator) {
+        Objects.requireNonNull(store, "store");
+        Objects.requireNonNull(idComparator, "idComparator");
+
+        return new IndexingStore<>(
+            store,
+            idComparator
+        );
+    }
+
+    private IndexingStore(final Store<K, V> store,
+                          final Comparator<K> idComparator) {
+        super();
+        this.store = store;
+        this.idComparator = idComparator;
+
+        store.addStoreWatcher(this::onValueChange);
+        store.addIdDeletedWatcher(this::remove);
+    }
+
+    // IndexedStore.....................................................................................................
+
+    @Override
+    public <A> StoreIndex<K, V, A> addIndex(final Function<V, A> attribute,
+                                            final Comparator<A> attributeComparator,
+                                            final boolean unique) {
+        final StoreIndex<K, V, A> index = StoreIndex.with(
+            attribute,
+            attributeComparator,
+            this.idComparator,
+            unique
+        );
+
+        for (final V value : this.store.all()) {
+            final K id = value.id()
+                .get();
+            index.checkUnique(
+                id,
+                value
+            );
+            index.add(
+                id,
+                value
+            );
+        }
+
+        this.indexes.add(index);
+        return index;
+    }
+
+    private final List<StoreIndex<K, V, ?>> indexes = Lists.array();
+
+    private final Comparator<K> idComparator;
+
+    // Store............................................................................................................
+
+    @Override
+    public V save(final V value) {
+        Objects.requireNonNull(value, "value");
+
+        final K id = value.id()
+            .orElse(null);
+        for (final StoreIndex<K, V, ?> index : this.indexes) {
+            index.checkUnique(
+                id,
+                value
+            );
+        }
+
+        return this.store.save(value);
+    }
+
+    // StoreWatcher.....................................................................................................
+
+    private void onValueChange(final Optional<V> oldValue,
+                               final Optional<V> newValue) {
+        oldValue.flatMap(HasId::id)
+            .ifPresent(this::remove);
+
+        if (newValue.isPresent()) {
+            final V value = newValue.get();
+            final K id = value.id()
+                .get();
+            for (final StoreIndex<K, V, ?> index : this.indexes) {
+                index.add(
+                    id,
+                    value
+                );
+            }
+        }
+    }
+
+    private void remove(final K id) {
+        for (final StoreIndex<K, V, ?> index : this.indexes) {
+            index.remove(id);
+        }
+    }
+
+    // StoreDelegator...................................................................................................
+
+    @Override
+    public Store<K, V> store() {
+        return this.store;
+    }
+
+    private final Store<K, V> store;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.store + " " + this.indexes;
+    }
+}
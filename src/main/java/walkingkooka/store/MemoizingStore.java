@@ -0,0 +1,132 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+import walkingkooka.HasId;
+import walkingkooka.collect.map.Maps;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A throwaway view of a {@link Store} that remembers the result of every {@link #load(Object)}, including misses, and
+ * records its own saves and deletes, so repeated loads of the same id within a single request return the same
+ * {@link Optional}. Changes made to the wrapped store by others are not seen, so a view should not outlive the request
+ * that created it. The memo is only created on the first load.
+ */
+final class MemoizingStore<K, V extends HasId<Optional<K>>> implements StoreDelegator<K, V> {
+
+    static <K, V extends HasId<Optional<K>>> MemoizingStore<K, V> with(final Store<K, V> store) {
+        return new MemoizingStore<>(
+            Objects.requireNonNull(store, "store")
+        );
+    }
+
+    private MemoizingStore(final Store<K, V> store) {
+        super();
+        this.store = store;
+    }
+
+    // Store............................................................................................................
+
+    @Override
+    public Optional<V> load(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        Map<K, Optional<V>> memo = this.memo;
+        if (null == memo) {
+            memo = Maps.hash();
+            this.memo = memo;
+        }
+
+        Optional<V> loaded = memo.get(id);
+        if (null == loaded) {
+            loaded = this.store.load(id);
+            memo.put(
+                id,
+                loaded
+            );
+        }
+        return loaded;
+    }
+
+    @Override
+    public V save(final V value) {
+        final V saved = this.store.save(value);
+
+        final Map<K, Optional<V>> memo = this.memo;
+        if (null != memo) {
+            memo.put(
+                saved.id()
+                    .get(),
+                Optional.of(saved)
+            );
+        }
+        return saved;
+    }
+
+    @Override
+    public void delete(final K id) {
+        this.store.delete(id);
+
+        final Map<K, Optional<V>> memo = this.memo;
+        if (null != memo) {
+            memo.put(
+                id,
+                Optional.empty()
+            );
+        }
+    }
+
+    /**
+     * The deleted ids are not known without asking the wrapped store, so the memo is discarded instead, with later
+     * loads reading the wrapped store again.
+     */
+    @Override
+    public void deleteBetween(final K from,
+                              final K to) {
+        this.store.deleteBetween(
+            from,
+            to
+        );
+        this.memo = null;
+    }
+
+    /**
+     * Loaded values and misses by id, created by the first {@link #load(Object)}.
+     */
+    private Map<K, Optional<V>> memo;
+
+    // StoreDelegator...................................................................................................
+
+    @Override
+    public Store<K, V> store() {
+        return this.store;
+    }
+
+    private final Store<K, V> store;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.store.toString();
+    }
+}
@@ -17,9 +17,16 @@
 
 package walkingkooka.store;
 
+import walkingkooka.collect.list.ImmutableList;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.Sets;
+
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * A {@link Store} that supports more than one value for a particular parent key.}
@@ -45,6 +52,109 @@ public interface MultiValueStore<K, V> extends Store<K, V> {
                            final int offset,
                            final int count);
 
+    /**
+     * Returns the ids holding every one of the given values in id order, for example the ids referencing both A and B.
+     * No ids are returned when values is empty. The default intersects {@link #findIdsByValue(Object, int, int)} for
+     * each value.
+     */
+    default List<K> findIdsByAllValues(final Set<V> values,
+                                       final int offset,
+                                       final int count) {
+        Objects.requireNonNull(values, "values");
+        Store.checkOffsetAndCount(
+            offset,
+            count
+        );
+
+        List<K> all = null;
+        for (final V value : values) {
+            final List<K> ids = this.findIdsByValue(
+                value,
+                0,
+                Integer.MAX_VALUE
+            );
+
+            if (null == all) {
+                all = Lists.array();
+                all.addAll(ids);
+            } else {
+                final Set<K> idsSet = Sets.hash();
+                idsSet.addAll(ids);
+                all.retainAll(idsSet);
+            }
+
+            if (all.isEmpty()) {
+                break;
+            }
+        }
+
+        return null == all ?
+            Lists.empty() :
+            all.stream()
+                .skip(offset)
+                .limit(count)
+                .collect(
+                    ImmutableList.collector()
+                );
+    }
+
+    /**
+     * Returns the ids holding at least one of the given values, each id once, for example the ids referencing any of
+     * A, B or C. The default returns the ids of each {@link #findIdsByValue(Object, int, int)} in turn, sorted stores
+     * return them in id order.
+     */
+    default List<K> findIdsByAnyValue(final Set<V> values,
+                                      final int offset,
+                                      final int count) {
+        Objects.requireNonNull(values, "values");
+        Store.checkOffsetAndCount(
+            offset,
+            count
+        );
+
+        final Set<K> any = Sets.ordered();
+        for (final V value : values) {
+            any.addAll(
+                this.findIdsByValue(
+                    value,
+                    0,
+                    Integer.MAX_VALUE
+                )
+            );
+        }
+
+        return any.stream()
+            .skip(offset)
+            .limit(count)
+            .collect(
+                ImmutableList.collector()
+            );
+    }
+
+    /**
+     * Returns a lazy {@link Stream} of all the values for the given id, in the same order as
+     * {@link #findValuesById(Object, int, int)}.
+     */
+    default Stream<V> streamValuesById(final K id) {
+        return this.findValuesById(
+            id,
+            0,
+            Integer.MAX_VALUE
+        ).stream();
+    }
+
+    /**
+     * Returns a lazy {@link Stream} of all the ids with the given value, in the same order as
+     * {@link #findIdsByValue(Object, int, int)}.
+     */
+    default Stream<K> streamIdsByValue(final V value) {
+        return this.findIdsByValue(
+            value,
+            0,
+            Integer.MAX_VALUE
+        ).stream();
+    }
+
     /**
      * Adds a {@link MultiValueStoreWatcher}
      */
@@ -75,6 +185,239 @@ public interface MultiValueStore<K, V> extends Store<K, V> {
     @Override
     int count();
 
+    /**
+     * Returns the number of ids, not values, less than the given id, which is the zero based position of the id within
+     * {@link #ids(int, int)}. Unlike the {@link Store} default nothing is loaded, the default walks the ids up to the
+     * given id and sorted stores answer this directly.
+     */
+    @Override
+    default int rankOf(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        final int upTo = this.countIdsUpTo(id);
+        return this.findValuesById(
+            id,
+            0,
+            1
+        ).isEmpty() ?
+            upTo :
+            upTo - 1;
+    }
+
+    /**
+     * Deletes all ids between the from and to which are both inclusive, along with all their values. The default finds
+     * the range by id position, as {@link #rankOf(Object)} counts ids, and deletes each id in turn, firing
+     * {@link MultiValueStoreWatcher#onValueRemoved(Object, Object)} for each value.
+     */
+    @Override
+    default void deleteBetween(final K from,
+                               final K to) {
+        Store.checkBetween(from, to);
+
+        final int first = this.rankOf(from);
+        final int count = this.countIdsUpTo(to) - first;
+        if (count > 0) {
+            // copy because deleting may modify the ids
+            final List<K> ids = Lists.array();
+            ids.addAll(
+                this.ids(
+                    first,
+                    count
+                )
+            );
+
+            for (final K id : ids) {
+                this.delete(id);
+            }
+        }
+    }
+
+    /**
+     * Returns up to count ids after the last seen id in ascending order, skipping ids rather than values.
+     */
+    @Override
+    default Set<K> idsAfter(final K lastSeen,
+                            final int count) {
+        Objects.requireNonNull(lastSeen, "lastSeen");
+        Store.checkCount(count);
+
+        return this.ids(
+            this.countIdsUpTo(lastSeen),
+            count
+        );
+    }
+
+    /**
+     * Returns up to count ids before the first seen id in descending order, skipping ids rather than values.
+     */
+    @Override
+    default Set<K> idsBefore(final K firstSeen,
+                             final int count) {
+        Objects.requireNonNull(firstSeen, "firstSeen");
+        Store.checkCount(count);
+
+        final int before = this.rankOf(firstSeen);
+        final List<K> ids = Lists.array();
+        ids.addAll(
+            this.ids(
+                Math.max(
+                    0,
+                    before - count
+                ),
+                Math.min(
+                    before,
+                    count
+                )
+            )
+        );
+        Collections.reverse(ids);
+
+        final Set<K> descending = Sets.ordered();
+        descending.addAll(ids);
+        return descending;
+    }
+
+    /**
+     * Returns up to count values with ids before the first seen id in descending order. The position of the first
+     * value is counted in values, because {@link #rankOf(Object)} counts ids.
+     */
+    @Override
+    default List<V> valuesBefore(final K firstSeen,
+                                 final int count) {
+        Objects.requireNonNull(firstSeen, "firstSeen");
+        Store.checkCount(count);
+
+        final int before = this.countValuesUpTo(firstSeen) - this.countBetween(
+            firstSeen,
+            firstSeen
+        );
+        final List<V> values = Lists.array();
+        values.addAll(
+            this.values(
+                Math.max(
+                    0,
+                    before - count
+                ),
+                Math.min(
+                    before,
+                    count
+                )
+            )
+        );
+        Collections.reverse(values);
+        return values;
+    }
+
+    /**
+     * Returns the last id, walking the ids rather than using {@link #count()}, which counts values.
+     */
+    @Override
+    default Optional<K> lastId() {
+        K last = null;
+        for (final K id : this.ids(0, this.count())) {
+            last = id;
+        }
+        return Optional.ofNullable(last);
+    }
+
+    @Override
+    default Optional<K> floorId(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        return this.idAt(
+            this.countIdsUpTo(id) - 1
+        );
+    }
+
+    @Override
+    default Optional<K> ceilingId(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        return this.idAt(
+            this.rankOf(id)
+        );
+    }
+
+    @Override
+    default Optional<K> higherId(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        return this.idAt(
+            this.countIdsUpTo(id)
+        );
+    }
+
+    @Override
+    default Optional<K> lowerId(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        return this.idAt(
+            this.rankOf(id) - 1
+        );
+    }
+
+    /**
+     * Returns the id at the given position within {@link #ids(int, int)}, or {@link Optional#empty()} when the position
+     * is negative or past the end.
+     */
+    private Optional<K> idAt(final int offset) {
+        return offset < 0 ?
+            Optional.empty() :
+            this.ids(
+                offset,
+                1
+            ).stream()
+                .findFirst();
+    }
+
+    /**
+     * Counts the ids less than or equal to the given id. {@link #countBetween(Object, Object)} gives the number of
+     * values up to the id, and because every id holds at least one value, the ids are walked in order adding their
+     * values until that number is reached.
+     */
+    private int countIdsUpTo(final K id) {
+        final int values = this.countValuesUpTo(id);
+
+        int ids = 0;
+        int counted = 0;
+
+        while (counted < values) {
+            final Set<K> page = this.ids(
+                ids,
+                values - counted
+            );
+            if (page.isEmpty()) {
+                break;
+            }
+
+            for (final K each : page) {
+                if (counted >= values) {
+                    break;
+                }
+                counted += this.countBetween(
+                    each,
+                    each
+                );
+                ids++;
+            }
+        }
+
+        return ids;
+    }
+
+    /**
+     * Counts the values held by ids less than or equal to the given id.
+     */
+    private int countValuesUpTo(final K id) {
+        return this.firstId()
+            .map(
+                (first) -> this.countBetween(
+                    first,
+                    id
+                )
+            ).orElse(0);
+    }
+
     @Override
     default Runnable addStoreWatcher(final StoreWatcher<V> watcher) {
         return this.addStoreWatcher(
@@ -19,6 +19,8 @@ package walkingkooka.store;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public interface MultiValueStoreDelegator<K, V> extends StoreDelegator<K, V>,
     MultiValueStore<K, V> {
@@ -41,6 +43,72 @@ public interface MultiValueStoreDelegator<K, V> extends StoreDelegator<K, V>,
             .count();
     }
 
+    @Override
+    default void deleteBetween(final K from,
+                               final K to) {
+        StoreDelegator.super.deleteBetween(
+            from,
+            to
+        );
+    }
+
+    @Override
+    default Set<K> idsAfter(final K lastSeen,
+                            final int count) {
+        return StoreDelegator.super.idsAfter(
+            lastSeen,
+            count
+        );
+    }
+
+    @Override
+    default Set<K> idsBefore(final K firstSeen,
+                             final int count) {
+        return StoreDelegator.super.idsBefore(
+            firstSeen,
+            count
+        );
+    }
+
+    @Override
+    default List<V> valuesBefore(final K firstSeen,
+                                 final int count) {
+        return StoreDelegator.super.valuesBefore(
+            firstSeen,
+            count
+        );
+    }
+
+    @Override
+    default Optional<K> lastId() {
+        return StoreDelegator.super.lastId();
+    }
+
+    @Override
+    default Optional<K> floorId(final K id) {
+        return StoreDelegator.super.floorId(id);
+    }
+
+    @Override
+    default Optional<K> ceilingId(final K id) {
+        return StoreDelegator.super.ceilingId(id);
+    }
+
+    @Override
+    default Optional<K> higherId(final K id) {
+        return StoreDelegator.super.higherId(id);
+    }
+
+    @Override
+    default Optional<K> lowerId(final K id) {
+        return StoreDelegator.super.lowerId(id);
+    }
+
+    @Override
+    default int rankOf(final K id) {
+        return StoreDelegator.super.rankOf(id);
+    }
+
     @Override
     default Runnable addStoreWatcher(final StoreWatcher<V> watcher) {
         return MultiValueStore.super.addStoreWatcher(watcher);
@@ -108,6 +176,42 @@ public interface MultiValueStoreDelegator<K, V> extends StoreDelegator<K, V>,
             );
     }
 
+    @Override
+    default List<K> findIdsByAllValues(final Set<V> values,
+                                       final int offset,
+                                       final int count) {
+        return this.multiValueStore()
+            .findIdsByAllValues(
+                values,
+                offset,
+                count
+            );
+    }
+
+    @Override
+    default List<K> findIdsByAnyValue(final Set<V> values,
+                                      final int offset,
+                                      final int count) {
+        return this.multiValueStore()
+            .findIdsByAnyValue(
+                values,
+                offset,
+                count
+            );
+    }
+
+    @Override
+    default Stream<V> streamValuesById(final K id) {
+        return this.multiValueStore()
+            .streamValuesById(id);
+    }
+
+    @Override
+    default Stream<K> streamIdsByValue(final V value) {
+        return this.multiValueStore()
+            .streamIdsByValue(value);
+    }
+
     @Override
     default Runnable addStoreWatcher(final MultiValueStoreWatcher<K, V> watcher) {
         return this.multiValueStore()
@@ -19,8 +19,11 @@ package walkingkooka.store;
 
 import org.junit.jupiter.api.Test;
 import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.Sets;
 
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -91,6 +94,32 @@ public interface MultiValueStoreTesting<S extends MultiValueStore<K, V>, K, V> e
         );
     }
 
+    // deleteBetween....................................................................................................
+
+    @Test
+    default void testDeleteBetweenRemovesAllValues() {
+        final S store = this.createStore();
+        final K id = this.id();
+        store.addValue(
+            id,
+            this.value()
+        );
+
+        store.deleteBetween(
+            id,
+            id
+        );
+
+        this.countAndCheck(
+            store,
+            0
+        );
+        this.findValuesByIdAndCheck(
+            store,
+            id
+        );
+    }
+
     // findValues.......................................................................................................
 
     @Test
@@ -296,6 +325,158 @@ public interface MultiValueStoreTesting<S extends MultiValueStore<K, V>, K, V> e
         );
     }
 
+    // findIdsByAllValues...............................................................................................
+
+    @Test
+    default void testFindIdsByAllValuesWithNullValuesFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createStore()
+                .findIdsByAllValues(
+                    null,
+                    0,
+                    0
+                )
+        );
+    }
+
+    @Test
+    default void testFindIdsByAllValuesWithInvalidOffsetFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> this.createStore()
+                .findIdsByAllValues(
+                    Sets.of(this.value()),
+                    -1,
+                    0
+                )
+        );
+    }
+
+    @Test
+    default void testFindIdsByAllValuesWhenEmpty() {
+        this.findIdsByAllValuesAndCheck(
+            this.createStore(),
+            Sets.of(this.value()),
+            0,
+            10
+        );
+    }
+
+    default <KK, VV> void findIdsByAllValuesAndCheck(final MultiValueStore<KK, VV> store,
+                                                     final Set<VV> values,
+                                                     final int offset,
+                                                     final int count,
+                                                     final KK... ids) {
+        this.checkEquals(
+            Lists.of(ids),
+            store.findIdsByAllValues(
+                values,
+                offset,
+                count
+            ),
+            () -> "findIdsByAllValues " + values + " offset=" + offset + " count=" + count
+        );
+    }
+
+    // findIdsByAnyValue................................................................................................
+
+    @Test
+    default void testFindIdsByAnyValueWithNullValuesFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createStore()
+                .findIdsByAnyValue(
+                    null,
+                    0,
+                    0
+                )
+        );
+    }
+
+    @Test
+    default void testFindIdsByAnyValueWithInvalidCountFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> this.createStore()
+                .findIdsByAnyValue(
+                    Sets.of(this.value()),
+                    0,
+                    -1
+                )
+        );
+    }
+
+    @Test
+    default void testFindIdsByAnyValueWhenEmpty() {
+        this.findIdsByAnyValueAndCheck(
+            this.createStore(),
+            Sets.of(this.value()),
+            0,
+            10
+        );
+    }
+
+    default <KK, VV> void findIdsByAnyValueAndCheck(final MultiValueStore<KK, VV> store,
+                                                    final Set<VV> values,
+                                                    final int offset,
+                                                    final int count,
+                                                    final KK... ids) {
+        this.checkEquals(
+            Lists.of(ids),
+            store.findIdsByAnyValue(
+                values,
+                offset,
+                count
+            ),
+            () -> "findIdsByAnyValue " + values + " offset=" + offset + " count=" + count
+        );
+    }
+
+    // streamValuesById.................................................................................................
+
+    @Test
+    default void testStreamValuesByIdWithNullIdFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createStore()
+                .streamValuesById(null)
+        );
+    }
+
+    default <KK, VV> void streamValuesByIdAndCheck(final MultiValueStore<KK, VV> store,
+                                                   final KK id,
+                                                   final VV... values) {
+        this.checkEquals(
+            Lists.of(values),
+            store.streamValuesById(id)
+                .collect(Collectors.toList()),
+            () -> "streamValuesById " + id
+        );
+    }
+
+    // streamIdsByValue.................................................................................................
+
+    @Test
+    default void testStreamIdsByValueWithNullValueFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createStore()
+                .streamIdsByValue(null)
+        );
+    }
+
+    default <KK, VV> void streamIdsByValueAndCheck(final MultiValueStore<KK, VV> store,
+                                                   final VV value,
+                                                   final KK... ids) {
+        this.checkEquals(
+            Lists.of(ids),
+            store.streamIdsByValue(value)
+                .collect(Collectors.toList()),
+            () -> "streamIdsByValue " + value
+        );
+    }
+
     // addStoreWatcher...................................................................................................
 
     @Test
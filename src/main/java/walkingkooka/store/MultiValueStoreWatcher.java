@@ -17,7 +17,9 @@
 
 package walkingkooka.store;
 
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * A {@link StoreWatcher} for {@link MultiValueStore}
@@ -36,6 +38,24 @@ public interface MultiValueStoreWatcher<K, V> extends StoreWatcher<V> {
     void onValueRemoved(final K id,
                         final V value);
 
+    /**
+     * Fired once by sorted stores from {@link MultiValueStore#deleteBetween(Object, Object)} with every deleted id and
+     * its values. The default fires {@link #onValueRemoved(Object, Object)} for each value, which is also what the
+     * {@link MultiValueStore} default fires as it deletes each id in turn, so watchers see the same events either way.
+     */
+    default void onValuesRemoved(final Map<K, Set<V>> idToValues) {
+        for (final Map.Entry<K, Set<V>> idAndValues : idToValues.entrySet()) {
+            final K id = idAndValues.getKey();
+
+            for (final V value : idAndValues.getValue()) {
+                this.onValueRemoved(
+                    id,
+                    value
+                );
+            }
+        }
+    }
+
     // StoreWatcher.....................................................................................................
 
     @Override
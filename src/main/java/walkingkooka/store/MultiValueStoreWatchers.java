@@ -20,8 +20,10 @@ package walkingkooka.store;
 
 import walkingkooka.watch.Watchers;
 
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Consumer;
 
 /**
@@ -78,6 +80,18 @@ public final class MultiValueStoreWatchers<K, V> implements MultiValueStoreWatch
         );
     }
 
+    /**
+     * Fires the batch once to each watcher.
+     */
+    @Override
+    public void onValuesRemoved(final Map<K, Set<V>> idToValues) {
+        if (false == idToValues.isEmpty()) {
+            this.watchers.accept(
+                (w) -> w.onValuesRemoved(idToValues)
+            );
+        }
+    }
+
     private final Watchers<Consumer<MultiValueStoreWatcher<K, V>>> watchers = Watchers.empty();
 
     /**
@@ -28,6 +28,19 @@ import java.util.function.Supplier;
  */
 public final class MultiValueStores implements PublicStaticHelper {
 
+    /**
+     * {@see CachingMultiValueStore}
+     */
+    public static <K, V> CountingMultiValueStore<K, V> cache(final MultiValueStore<K, V> store,
+                                                             final int maxEntries,
+                                                             final boolean cacheIdsByValue) {
+        return CachingMultiValueStore.with(
+            store,
+            maxEntries,
+            cacheIdsByValue
+        );
+    }
+
     /**
      * {@see FakeMultiValueStore}
      */
@@ -35,6 +48,13 @@ public final class MultiValueStores implements PublicStaticHelper {
         return new FakeMultiValueStore<>();
     }
 
+    /**
+     * {@see TransitiveClosureMultiValueStore}
+     */
+    public static <T> TransitiveMultiValueStore<T> transitive(final MultiValueStore<T, T> store) {
+        return TransitiveClosureMultiValueStore.with(store);
+    }
+
     /**
      * {@see TreeMapMultiValueStore}
      */
@@ -0,0 +1,280 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.collect.set.Sets;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A {@link Store} that remembers the results of {@link #ids(int, int)}, {@link #values(int, int)} and
+ * {@link #between(Object, Object)} by their parameters, returning the same immutable result until the wrapped
+ * {@link Store} changes. Every change observed by a watcher bumps a version, and all pages remembered for an older
+ * version are dropped on the next read. When the number of remembered pages reaches the maximum, all are dropped.
+ */
+final class PageCachingStore<K, V> implements CountingStore<K, V>,
+    StoreDelegator<K, V> {
+
+    static <K, V> PageCachingStore<K, V> with(final Store<K, V> store,
+                                              final int maxPages) {
+        Objects.requireNonNull(store, "store");
+        if (maxPages <= 0) {
+            throw new IllegalArgumentException("Invalid maxPages " + maxPages + " <= 0");
+        }
+
+        return new PageCachingStore<>(
+            store,
+            maxPages
+        );
+    }
+
+    private PageCachingStore(final Store<K, V> store,
+                             final int maxPages) {
+        super();
+        this.store = store;
+        this.maxPages = maxPages;
+
+        store.addStoreWatcher(this::onValueChange);
+        store.addIdDeletedWatcher(this::onIdDeleted);
+    }
+
+    // Store............................................................................................................
+
+    @Override
+    public Set<K> ids(final int offset,
+                      final int count) {
+        Store.checkOffsetAndCount(offset, count);
+
+        final Map<Integer, Map<Integer, Set<K>>> pages = this.ids;
+
+        Set<K> page = this.page(
+            pages,
+            offset,
+            count
+        );
+        if (null == page) {
+            page = this.remember(
+                pages,
+                offset,
+                count,
+                Sets.immutable(
+                    this.store.ids(
+                        offset,
+                        count
+                    )
+                )
+            );
+        }
+        return page;
+    }
+
+    @Override
+    public List<V> values(final int offset,
+                          final int count) {
+        Store.checkOffsetAndCount(offset, count);
+
+        final Map<Integer, Map<Integer, List<V>>> pages = this.values;
+
+        List<V> page = this.page(
+            pages,
+            offset,
+            count
+        );
+        if (null == page) {
+            page = this.remember(
+                pages,
+                offset,
+                count,
+                Lists.immutable(
+                    this.store.values(
+                        offset,
+                        count
+                    )
+                )
+            );
+        }
+        return page;
+    }
+
+    @Override
+    public List<V> between(final K from,
+                           final K to) {
+        Store.checkBetween(from, to);
+
+        final Map<K, Map<K, List<V>>> pages = this.between;
+
+        List<V> page = this.page(
+            pages,
+            from,
+            to
+        );
+        if (null == page) {
+            page = this.remember(
+                pages,
+                from,
+                to,
+                Lists.immutable(
+                    this.store.between(
+                        from,
+                        to
+                    )
+                )
+            );
+        }
+        return page;
+    }
+
+    /**
+     * Returns the remembered page for the given parameters or null on a miss. Pages are held in nested maps keyed by
+     * each parameter, so int offsets and counts are boxed when looked up.
+     */
+    private <P, R> R page(final Map<P, Map<P, R>> pages,
+                          final P first,
+                          final P second) {
+        this.dropIfStale();
+
+        final Map<P, R> secondToPage = pages.get(first);
+        final R page = null != secondToPage ?
+            secondToPage.get(second) :
+            null;
+
+        if (null != page) {
+            this.hits++;
+        } else {
+            this.misses++;
+        }
+
+        return page;
+    }
+
+    /**
+     * Remembers a page loaded after a miss, dropping all pages first when the maximum is reached.
+     */
+    private <P, R> R remember(final Map<P, Map<P, R>> pages,
+                              final P first,
+                              final P second,
+                              final R page) {
+        if (this.pageCount >= this.maxPages) {
+            this.drop();
+        }
+
+        Map<P, R> secondToPage = pages.get(first);
+        if (null == secondToPage) {
+            secondToPage = Maps.hash();
+            pages.put(
+                first,
+                secondToPage
+            );
+        }
+        secondToPage.put(
+            second,
+            page
+        );
+        this.pageCount++;
+
+        return page;
+    }
+
+    private void dropIfStale() {
+        if (this.pagesVersion != this.version) {
+            if (this.pageCount > 0) {
+                this.drop();
+                this.invalidations++;
+            }
+            this.pagesVersion = this.version;
+        }
+    }
+
+    private void drop() {
+        this.ids.clear();
+        this.values.clear();
+        this.between.clear();
+        this.pageCount = 0;
+    }
+
+    private final Map<Integer, Map<Integer, Set<K>>> ids = Maps.hash();
+
+    private final Map<Integer, Map<Integer, List<V>>> values = Maps.hash();
+
+    private final Map<K, Map<K, List<V>>> between = Maps.hash();
+
+    private int pageCount;
+
+    private final int maxPages;
+
+    // StoreWatcher.....................................................................................................
+
+    private void onValueChange(final Optional<V> oldValue,
+                               final Optional<V> newValue) {
+        this.version++;
+    }
+
+    private void onIdDeleted(final K id) {
+        this.version++;
+    }
+
+    /**
+     * Bumped each time the wrapped {@link Store} changes.
+     */
+    private long version;
+
+    /**
+     * The {@link #version} when the remembered pages were read.
+     */
+    private long pagesVersion;
+
+    // StoreDelegator...................................................................................................
+
+    @Override
+    public Store<K, V> store() {
+        return this.store;
+    }
+
+    private final Store<K, V> store;
+
+    // HasStoreCounters.................................................................................................
+
+    @Override
+    public Map<String, Long> counters() {
+        final Map<String, Long> counters = Maps.ordered();
+        counters.put("hits", this.hits);
+        counters.put("misses", this.misses);
+        counters.put("invalidations", this.invalidations);
+        return counters;
+    }
+
+    private long hits;
+
+    private long misses;
+
+    private long invalidations;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.store + " " + this.counters();
+    }
+}
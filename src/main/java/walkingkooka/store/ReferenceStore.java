@@ -0,0 +1,321 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+import walkingkooka.HasId;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.watch.Watchers;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A {@link Store} that holds its ids strongly, but each value through a reference created by a factory. On the JVM a
+ * factory such as {@code v -> new SoftReference<>(v)::get} lets the garbage collector reclaim values under
+ * memory pressure. When a reference has been cleared, the value is rehydrated with the loader, and a value the loader
+ * cannot find is dropped, firing {@link StoreIdDeletedWatcher#onIdDeleted(Object)} because the value itself is gone.
+ * Every value must have an id, because the loader finds values by id.
+ */
+final class ReferenceStore<K, V extends HasId<Optional<K>>> implements CountingStore<K, V> {
+
+    static <K, V extends HasId<Optional<K>>> ReferenceStore<K, V> with(final Comparator<K> idComparator,
+                                                                       final Function<V, Supplier<V>> reference,
+                                                                       final Function<K, Optional<V>> loader) {
+        Objects.requireNonNull(idComparator, "idComparator");
+        Objects.requireNonNull(reference, "reference");
+        Objects.requireNonNull(loader, "loader");
+
+        return new ReferenceStore<>(
+            idComparator,
+            reference,
+            loader
+        );
+    }
+
+    private ReferenceStore(final Comparator<K> idComparator,
+                           final Function<V, Supplier<V>> reference,
+                           final Function<K, Optional<V>> loader) {
+        super();
+        this.idToReference = Maps.sorted(idComparator);
+        this.reference = reference;
+        this.loader = loader;
+    }
+
+    // Store............................................................................................................
+
+    @Override
+    public Optional<V> load(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        return Optional.ofNullable(
+            this.get(id)
+        );
+    }
+
+    @Override
+    public V save(final V value) {
+        Objects.requireNonNull(value, "value");
+
+        final K id = value.id()
+            .orElseThrow(() -> new IllegalArgumentException("Missing id " + value));
+
+        final V previous = this.get(id);
+        this.idToReference.put(
+            id,
+            this.reference.apply(value)
+        );
+        if (false == value.equals(previous)) {
+            this.watchers.onValueChange(
+                Optional.ofNullable(previous),
+                Optional.of(value)
+            );
+        }
+        return value;
+    }
+
+    @Override
+    public void delete(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        final V deleted = this.get(id);
+        if (null != deleted) {
+            this.idToReference.remove(id);
+            this.watchers.onValueChange(
+                Optional.of(deleted),
+                Optional.empty()
+            );
+        }
+    }
+
+    @Override
+    public int count() {
+        return this.idToReference.size();
+    }
+
+    @Override
+    public Set<K> ids(final int offset,
+                      final int count) {
+        Store.checkOffsetAndCount(offset, count);
+
+        return this.idToReference.keySet()
+            .stream()
+            .skip(offset)
+            .limit(count)
+            .collect(Collectors.toCollection(Sets::ordered));
+    }
+
+    /**
+     * Seeks to the last seen id in the sorted ids, rather than counting every earlier value.
+     */
+    @Override
+    public Set<K> idsAfter(final K lastSeen,
+                           final int count) {
+        Objects.requireNonNull(lastSeen, "lastSeen");
+        Store.checkCount(count);
+
+        final SortedMap<K, Supplier<V>> idToReference = this.idToReference;
+        final Comparator<? super K> idComparator = idToReference.comparator();
+
+        final Set<K> ids = Sets.ordered();
+        for (final K id : idToReference.tailMap(lastSeen).keySet()) {
+            if (ids.size() == count) {
+                break;
+            }
+            if (idComparator.compare(id, lastSeen) > 0) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Streams a page of ids at a time, seeking with {@link #idsAfter(Object, int)}, so only the values of each page
+     * are rehydrated.
+     */
+    @Override
+    public Stream<V> stream() {
+        return StreamSupport.stream(
+            StoreSpliterator.seeking(this),
+            false
+        );
+    }
+
+    /**
+     * Values that were reclaimed and cannot be rehydrated are dropped, and the following ids are read in their place, so
+     * fewer than count values are only returned at the end of the store.
+     */
+    @Override
+    public List<V> values(final int offset,
+                          final int count) {
+        Store.checkOffsetAndCount(offset, count);
+
+        final List<V> values = Lists.array();
+        while (values.size() < count) {
+            // dropped ids shift the following ids down, so the next id is at offset plus the values found so far
+            final Set<K> ids = this.ids(
+                offset + values.size(),
+                count - values.size()
+            );
+            if (ids.isEmpty()) {
+                break;
+            }
+            values.addAll(
+                this.values(ids)
+            );
+        }
+        return values;
+    }
+
+    @Override
+    public List<V> between(final K from,
+                           final K to) {
+        Store.checkBetween(from, to);
+
+        final SortedMap<K, Supplier<V>> idToReference = this.idToReference;
+        final Comparator<? super K> idComparator = idToReference.comparator();
+
+        final List<K> ids = Lists.array();
+        for (final K id : idToReference.tailMap(from).keySet()) {
+            if (idComparator.compare(id, to) > 0) {
+                break;
+            }
+            ids.add(id);
+        }
+
+        return this.values(ids);
+    }
+
+    /**
+     * Gets the values for the given ids, ids are copied first because rehydrating may drop ids from the map.
+     */
+    private List<V> values(final Iterable<K> ids) {
+        final List<V> values = Lists.array();
+        for (final K id : ids) {
+            final V value = this.get(id);
+            if (null != value) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Gets the value for the given id, rehydrating it with the loader when its reference was cleared.
+     */
+    private V get(final K id) {
+        final Supplier<V> reference = this.idToReference.get(id);
+
+        V value = null;
+        if (null != reference) {
+            value = reference.get();
+            if (null == value) {
+                this.reclaimed++;
+
+                value = this.loader.apply(id)
+                    .orElse(null);
+                if (null != value) {
+                    this.idToReference.put(
+                        id,
+                        this.reference.apply(value)
+                    );
+                    this.reloaded++;
+                } else {
+                    this.idToReference.remove(id);
+                    this.idDeletedWatchers.accept(
+                        (w) -> w.onIdDeleted(id)
+                    );
+                }
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * Ids sorted from lowest to highest, with a reference to each value.
+     */
+    private final SortedMap<K, Supplier<V>> idToReference;
+
+    private final Function<V, Supplier<V>> reference;
+
+    private final Function<K, Optional<V>> loader;
+
+    @Override
+    public Runnable addStoreWatcher(final StoreWatcher<V> watcher) {
+        return this.watchers.add(watcher);
+    }
+
+    @Override
+    public Runnable addStoreWatcherOnce(final StoreWatcher<V> watcher) {
+        return this.watchers.addOnce(watcher);
+    }
+
+    private final StoreWatchers<V> watchers = StoreWatchers.empty();
+
+    /**
+     * Dropped values are gone, so only their ids can be reported.
+     */
+    @Override
+    public Runnable addIdDeletedWatcher(final StoreIdDeletedWatcher<K> watcher) {
+        Objects.requireNonNull(watcher, "watcher");
+
+        return this.idDeletedWatchers.add(
+            (e) -> e.accept(watcher)
+        );
+    }
+
+    private final Watchers<Consumer<StoreIdDeletedWatcher<K>>> idDeletedWatchers = Watchers.empty();
+
+    // HasStoreCounters.................................................................................................
+
+    @Override
+    public Map<String, Long> counters() {
+        final Map<String, Long> counters = Maps.ordered();
+        counters.put("reclaimed", this.reclaimed);
+        counters.put("reloaded", this.reloaded);
+        return counters;
+    }
+
+    /**
+     * The number of times a value was found cleared, which shows the heap is under pressure.
+     */
+    private long reclaimed;
+
+    private long reloaded;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.idToReference.keySet() + " " + this.counters();
+    }
+}
@@ -18,11 +18,18 @@
 package walkingkooka.store;
 
 import walkingkooka.HasNotFoundText;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.Sets;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A store that holds a value with an id (K).
@@ -68,6 +75,34 @@ public interface Store<K, V> {
      */
     void delete(final K id);
 
+    /**
+     * Deletes all values with ids between the from and to which are both inclusive. Sorted stores remove the range in
+     * one operation and fire a single {@link StoreWatcher#onValuesDeleted(List)}, the default deletes each id in turn.
+     */
+    default void deleteBetween(final K from,
+                               final K to) {
+        Store.checkBetween(from, to);
+
+        final int count = this.countBetween(
+            from,
+            to
+        );
+        if (count > 0) {
+            // copy because deleting may modify the ids
+            final List<K> ids = Lists.array();
+            ids.addAll(
+                this.ids(
+                    this.rankOf(from),
+                    count
+                )
+            );
+
+            for (final K id : ids) {
+                this.delete(id);
+            }
+        }
+    }
+
     /**
      * Returns the total number of records in the store.
      */
@@ -87,12 +122,114 @@ public interface Store<K, V> {
         return first.stream().findFirst();
     }
 
+    /**
+     * Returns up to count ids after the last seen id in ascending order, for keyset paging that does not shift when
+     * values are saved or deleted before the page. The last seen id need not be present. The default counts the values
+     * up to the last seen id with {@link #countBetween(Object, Object)}, which assumes one value per id.
+     */
+    default Set<K> idsAfter(final K lastSeen,
+                            final int count) {
+        Objects.requireNonNull(lastSeen, "lastSeen");
+        checkCount(count);
+
+        return this.ids(
+            this.countUpTo(lastSeen),
+            count
+        );
+    }
+
+    /**
+     * Returns up to count ids before the first seen id in descending order, the counterpart of
+     * {@link #idsAfter(Object, int)} when paging backwards.
+     */
+    default Set<K> idsBefore(final K firstSeen,
+                             final int count) {
+        Objects.requireNonNull(firstSeen, "firstSeen");
+        checkCount(count);
+
+        final int before = this.rankOf(firstSeen);
+        final List<K> ids = Lists.array();
+        ids.addAll(
+            this.ids(
+                Math.max(
+                    0,
+                    before - count
+                ),
+                Math.min(
+                    before,
+                    count
+                )
+            )
+        );
+
+        Collections.reverse(ids);
+
+        final Set<K> descending = Sets.ordered();
+        descending.addAll(ids);
+        return descending;
+    }
+
     /**
      * Returns a view of all values between the given range.
      */
     List<V> values(final int offset,
                    final int count);
 
+    /**
+     * Returns up to count values with ids after the last seen id in ascending order, the value counterpart of
+     * {@link #idsAfter(Object, int)}.
+     */
+    default List<V> valuesAfter(final K lastSeen,
+                                final int count) {
+        Objects.requireNonNull(lastSeen, "lastSeen");
+        checkCount(count);
+
+        return this.values(
+            this.countUpTo(lastSeen),
+            count
+        );
+    }
+
+    /**
+     * Returns up to count values with ids before the first seen id in descending order, the value counterpart of
+     * {@link #idsBefore(Object, int)}.
+     */
+    default List<V> valuesBefore(final K firstSeen,
+                                 final int count) {
+        Objects.requireNonNull(firstSeen, "firstSeen");
+        checkCount(count);
+
+        final int before = this.rankOf(firstSeen);
+        final List<V> values = Lists.array();
+        values.addAll(
+            this.values(
+                Math.max(
+                    0,
+                    before - count
+                ),
+                Math.min(
+                    before,
+                    count
+                )
+            )
+        );
+        Collections.reverse(values);
+        return values;
+    }
+
+    /**
+     * Counts the values with an id less than or equal to the given id.
+     */
+    private int countUpTo(final K id) {
+        return this.firstId()
+            .map(
+                (first) -> this.countBetween(
+                    first,
+                    id
+                )
+            ).orElse(0);
+    }
+
     /**
      * Fetches the first value if one is present.
      */
@@ -101,6 +238,113 @@ public interface Store<K, V> {
             .flatMap(this::load);
     }
 
+    /**
+     * Returns the last id or an {@link Optional#empty()}. Sorted stores should answer this directly, the default reads
+     * the id at the position {@link #count()} - 1.
+     */
+    default Optional<K> lastId() {
+        return this.idAt(
+            this.count() - 1
+        );
+    }
+
+    /**
+     * Fetches the last value if one is present.
+     */
+    default Optional<V> lastValue() {
+        return this.lastId()
+            .flatMap(this::load);
+    }
+
+    /**
+     * Returns the greatest id less than or equal to the given id, which need not be present.
+     */
+    default Optional<K> floorId(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        return this.idAt(
+            this.countUpTo(id) - 1
+        );
+    }
+
+    /**
+     * Returns the least id greater than or equal to the given id, which need not be present.
+     */
+    default Optional<K> ceilingId(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        return this.idAt(
+            this.rankOf(id)
+        );
+    }
+
+    /**
+     * Returns the least id strictly greater than the given id, which need not be present.
+     */
+    default Optional<K> higherId(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        return this.idAt(
+            this.countUpTo(id)
+        );
+    }
+
+    /**
+     * Returns the greatest id strictly less than the given id, which need not be present.
+     */
+    default Optional<K> lowerId(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        return this.idAt(
+            this.rankOf(id) - 1
+        );
+    }
+
+    /**
+     * Fetches the value for {@link #floorId(Object)}.
+     */
+    default Optional<V> floorValue(final K id) {
+        return this.floorId(id)
+            .flatMap(this::load);
+    }
+
+    /**
+     * Fetches the value for {@link #ceilingId(Object)}.
+     */
+    default Optional<V> ceilingValue(final K id) {
+        return this.ceilingId(id)
+            .flatMap(this::load);
+    }
+
+    /**
+     * Fetches the value for {@link #higherId(Object)}.
+     */
+    default Optional<V> higherValue(final K id) {
+        return this.higherId(id)
+            .flatMap(this::load);
+    }
+
+    /**
+     * Fetches the value for {@link #lowerId(Object)}.
+     */
+    default Optional<V> lowerValue(final K id) {
+        return this.lowerId(id)
+            .flatMap(this::load);
+    }
+
+    /**
+     * Returns the id at the given position, or {@link Optional#empty()} when the position is negative or past the end.
+     */
+    private Optional<K> idAt(final int offset) {
+        return offset < 0 ?
+            Optional.empty() :
+            this.ids(
+                offset,
+                1
+            ).stream()
+                .findFirst();
+    }
+
     /**
      * Returns all values in this store.
      */
@@ -111,6 +355,18 @@ public interface Store<K, V> {
         );
     }
 
+    /**
+     * Returns a lazy {@link Stream} of all values, in the same order as {@link #values(int, int)}. Unlike
+     * {@link #all()} the values are not copied first. The default reads a page at a time with
+     * {@link #values(int, int)}, sorted stores stream their own structure.
+     */
+    default Stream<V> stream() {
+        return StreamSupport.stream(
+            StoreSpliterator.with(this),
+            false
+        );
+    }
+
     /**
      * Useful parameter checking for both {@link #ids}
      */
@@ -137,6 +393,108 @@ public interface Store<K, V> {
      */
     List<V> between(final K from, final K to);
 
+    /**
+     * Returns the values accepted by the filter, skipping offset matches and returning up to count, in the same order as
+     * {@link #values(int, int)}. The default filters {@link #stream()} without copying every value first, sorted stores
+     * may scan large pages of large stores in parallel so the filter must not have side effects.
+     */
+    default List<V> query(final Predicate<V> filter,
+                          final int offset,
+                          final int count) {
+        Objects.requireNonNull(filter, "filter");
+        checkOffsetAndCount(offset, count);
+
+        return StoreQuery.query(
+            this.stream(),
+            false,
+            filter,
+            offset,
+            count
+        );
+    }
+
+    /**
+     * Returns the values with ids between the from and to which are both inclusive and accepted by the filter, the
+     * range form of {@link #query(Predicate, int, int)}.
+     */
+    default List<V> query(final K from,
+                          final K to,
+                          final Predicate<V> filter,
+                          final int offset,
+                          final int count) {
+        Store.checkBetween(from, to);
+        Objects.requireNonNull(filter, "filter");
+        checkOffsetAndCount(offset, count);
+
+        return StoreQuery.query(
+            this.stream(
+                from,
+                to
+            ),
+            false,
+            filter,
+            offset,
+            count
+        );
+    }
+
+    /**
+     * Returns a read only live view of the values between the from and to which are both inclusive. Unlike
+     * {@link #between(Object, Object)} nothing is copied up front, which suits callers that only read the first few
+     * values or test for emptiness. Sorted stores iterate and size the view directly from their tree.
+     */
+    default Collection<V> betweenView(final K from,
+                                      final K to) {
+        Store.checkBetween(from, to);
+
+        return StoreBetweenView.with(
+            this,
+            from,
+            to
+        );
+    }
+
+    /**
+     * Returns the number of values between the from and to which are both inclusive, without returning the values
+     * themselves. Sorted stores answer this in O(log n), the default counts {@link #between(Object, Object)}.
+     */
+    default int countBetween(final K from,
+                             final K to) {
+        Store.checkBetween(from, to);
+
+        return this.between(
+            from,
+            to
+        ).size();
+    }
+
+    /**
+     * Returns the number of values with an id less than the given id, which is the zero based position of the id
+     * within {@link #values(int, int)} when present, or the position it would take when absent.
+     */
+    default int rankOf(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        final int upTo = this.countUpTo(id);
+        return this.load(id).isPresent() ?
+            upTo - 1 :
+            upTo;
+    }
+
+    /**
+     * Returns a lazy {@link Stream} of the values between the from and to which are both inclusive. Sorted stores
+     * stream their own structure, while the default streams {@link #between(Object, Object)}.
+     */
+    default Stream<V> stream(final K from,
+                             final K to) {
+        Store.checkBetween(from, to);
+
+        return this.between(
+            from,
+            to
+        ).stream();
+    }
+
     /**
      * Useful parameter checking
      */
@@ -155,4 +513,14 @@ public interface Store<K, V> {
      */
     Runnable addStoreWatcherOnce(final StoreWatcher<V> watcher);
 
+    /**
+     * Adds a {@link StoreIdDeletedWatcher}. Most stores only delete values they can report to their
+     * {@link StoreWatcher watchers}, so the default ignores the watcher and returns a remover that does nothing.
+     */
+    default Runnable addIdDeletedWatcher(final StoreIdDeletedWatcher<K> watcher) {
+        Objects.requireNonNull(watcher, "watcher");
+
+        return () -> {
+        };
+    }
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.store;
+
+import java.util.AbstractCollection;
+import java.util.Iterator;
+
+/**
+ * A read only live {@link java.util.Collection} of the values between two ids, returned by
+ * {@link Store#betweenView(Object, Object)}. Nothing is copied when the view is created, each iteration streams the
+ * range again using {@link Store#stream(Object, Object)} and {@link #size()} asks {@link Store#countBetween(Object, Object)},
+ * so sorted stores answer both straight from their tree. {@link #isEmpty()} only reads the first value.
+ * <br>
+ * The view always reflects the current contents of the store, however saving or deleting values while an
+ * {@link Iterator} is in use may fail with a {@link java.util.ConcurrentModificationException}. All mutating methods
+ * including {@link Iterator#remove()} throw {@link UnsupportedOperationException}.
+ */
+final class StoreBetweenView<K, V> extends AbstractCollection<V> {
+
+    static <K, V> StoreBetweenView<K, V> with(final Store<K, V> store,
+                                              final K from,
+                                              final K to) {
+        return new StoreBetweenView<>(
+            store,
+            from,
+            to
+        );
+    }
+
+    private StoreBetweenView(final Store<K, V> store,
+                             final K from,
+                             final K to) {
+        super();
+        this.store = store;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public Iterator<V> iterator() {
+        return this.store.stream(
+            this.from,
+            this.to
+        ).iterator();
+    }
+
+    /**
+     * Stops at the first value, rather than counting the range with {@link #size()}.
+     */
+    @Override
+    public boolean isEmpty() {
+        return false == this.iterator()
+            .hasNext();
+    }
+
+    @Override
+    public int size() {
+        return this.store.countBetween(
+            this.from,
+            this.to
+        );
+    }
+
+    private final Store<K, V> store;
+
+    private final K from;
+
+    private final K to;
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+import walkingkooka.collect.set.Sets;
+
+import java.util.Comparator;
+import java.util.SortedSet;
+
+/**
+ * A budget of weight, such as an entry count or an estimated number of bytes, that may be shared by many
+ * {@link Store stores}. When the total weight of all values in all stores sharing a budget exceeds its maximum, the
+ * least recently or least frequently used values are evicted, regardless of which store holds them.
+ */
+public final class StoreBudget {
+
+    /**
+     * Creates a budget that evicts the least recently used value first.
+     */
+    public static StoreBudget lru(final long maxWeight) {
+        return new StoreBudget(
+            checkMaxWeight(maxWeight),
+            (left, right) -> Long.compare(left.sequence, right.sequence)
+        );
+    }
+
+    /**
+     * Creates a budget that evicts the least frequently used value first, the least recently used going first when
+     * frequencies are equal.
+     */
+    public static StoreBudget lfu(final long maxWeight) {
+        return new StoreBudget(
+            checkMaxWeight(maxWeight),
+            (left, right) -> {
+                final int frequency = Integer.compare(left.frequency, right.frequency);
+                return 0 != frequency ?
+                    frequency :
+                    Long.compare(left.sequence, right.sequence);
+            }
+        );
+    }
+
+    private static long checkMaxWeight(final long maxWeight) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("Invalid maxWeight " + maxWeight + " <= 0");
+        }
+        return maxWeight;
+    }
+
+    private StoreBudget(final long maxWeight,
+                        final Comparator<StoreBudgetEntry> evictionOrder) {
+        super();
+        this.maxWeight = maxWeight;
+        this.entries = Sets.sorted(evictionOrder);
+    }
+
+    /**
+     * The maximum total weight of all values in all stores sharing this budget.
+     */
+    public long maxWeight() {
+        return this.maxWeight;
+    }
+
+    private final long maxWeight;
+
+    /**
+     * The current total weight of all values in all stores sharing this budget.
+     */
+    public long weight() {
+        return this.weight;
+    }
+
+    private long weight;
+
+    /**
+     * Records a new value, returning the {@link StoreBudgetEntry} which must be given to all later calls.
+     */
+    StoreBudgetEntry add(final BudgetStore<?, ?> store,
+                         final Object id,
+                         final int weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("Invalid weight " + weight + " < 0");
+        }
+
+        final StoreBudgetEntry entry = new StoreBudgetEntry(
+            store,
+            id,
+            weight,
+            this.nextSequence++
+        );
+        this.entries.add(entry);
+        this.weight += weight;
+        return entry;
+    }
+
+    /**
+     * Records that a value was used.
+     */
+    void touch(final StoreBudgetEntry entry) {
+        final SortedSet<StoreBudgetEntry> entries = this.entries;
+        if (entries.remove(entry)) {
+            entry.frequency++;
+            entry.sequence = this.nextSequence++;
+            entries.add(entry);
+        }
+    }
+
+    /**
+     * Releases the weight of a value that was deleted.
+     */
+    void remove(final StoreBudgetEntry entry) {
+        if (this.entries.remove(entry)) {
+            this.weight -= entry.weight;
+        }
+    }
+
+    /**
+     * Evicts values, oldest or least used first, until the total weight is within the maximum. The admitted entry, the
+     * value that was just saved, is never chosen, because a new value has not been used yet and would otherwise be the
+     * first least frequently used value evicted, deleting it right after the save. It may be null.
+     */
+    void evictIfNecessary(final StoreBudgetEntry admitted) {
+        while (this.weight > this.maxWeight) {
+            StoreBudgetEntry victim = null;
+            for (final StoreBudgetEntry entry : this.entries) {
+                if (entry != admitted) {
+                    victim = entry;
+                    break;
+                }
+            }
+            if (null == victim) {
+                break;
+            }
+
+            this.remove(victim);
+            victim.store.evict(victim);
+        }
+    }
+
+    /**
+     * All entries in eviction order, first to be evicted first.
+     */
+    private final SortedSet<StoreBudgetEntry> entries;
+
+    private long nextSequence;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.weight + "/" + this.maxWeight;
+    }
+}
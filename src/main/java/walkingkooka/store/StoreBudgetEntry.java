@@ -0,0 +1,60 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+/**
+ * Records the weight and use of a single value held by a {@link BudgetStore}, ordered for eviction by its
+ * {@link StoreBudget}.
+ */
+final class StoreBudgetEntry {
+
+    StoreBudgetEntry(final BudgetStore<?, ?> store,
+                     final Object id,
+                     final int weight,
+                     final long sequence) {
+        super();
+        this.store = store;
+        this.id = id;
+        this.weight = weight;
+        this.sequence = sequence;
+    }
+
+    final BudgetStore<?, ?> store;
+
+    final Object id;
+
+    final int weight;
+
+    /**
+     * The number of times this value was used.
+     */
+    int frequency;
+
+    /**
+     * Increases each time the value is used, unique within a {@link StoreBudget}.
+     */
+    long sequence;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.id + " weight=" + this.weight + " frequency=" + this.frequency;
+    }
+}
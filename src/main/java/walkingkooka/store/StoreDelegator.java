@@ -20,6 +20,8 @@ package walkingkooka.store;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 public interface StoreDelegator<K, V> extends Store<K, V> {
 
@@ -41,6 +43,16 @@ public interface StoreDelegator<K, V> extends Store<K, V> {
             .delete(id);
     }
 
+    @Override
+    default void deleteBetween(final K from,
+                               final K to) {
+        this.store()
+            .deleteBetween(
+                from,
+                to
+            );
+    }
+
     @Override
     default int count() {
         return this.store()
@@ -57,6 +69,26 @@ public interface StoreDelegator<K, V> extends Store<K, V> {
             );
     }
 
+    @Override
+    default Set<K> idsAfter(final K lastSeen,
+                            final int count) {
+        return this.store()
+            .idsAfter(
+                lastSeen,
+                count
+            );
+    }
+
+    @Override
+    default Set<K> idsBefore(final K firstSeen,
+                             final int count) {
+        return this.store()
+            .idsBefore(
+                firstSeen,
+                count
+            );
+    }
+
     @Override
     default List<V> values(final int offset,
                            final int count) {
@@ -67,6 +99,62 @@ public interface StoreDelegator<K, V> extends Store<K, V> {
             );
     }
 
+    @Override
+    default List<V> valuesAfter(final K lastSeen,
+                                final int count) {
+        return this.store()
+            .valuesAfter(
+                lastSeen,
+                count
+            );
+    }
+
+    @Override
+    default List<V> valuesBefore(final K firstSeen,
+                                 final int count) {
+        return this.store()
+            .valuesBefore(
+                firstSeen,
+                count
+            );
+    }
+
+    @Override
+    default Optional<K> firstId() {
+        return this.store()
+            .firstId();
+    }
+
+    @Override
+    default Optional<K> lastId() {
+        return this.store()
+            .lastId();
+    }
+
+    @Override
+    default Optional<K> floorId(final K id) {
+        return this.store()
+            .floorId(id);
+    }
+
+    @Override
+    default Optional<K> ceilingId(final K id) {
+        return this.store()
+            .ceilingId(id);
+    }
+
+    @Override
+    default Optional<K> higherId(final K id) {
+        return this.store()
+            .higherId(id);
+    }
+
+    @Override
+    default Optional<K> lowerId(final K id) {
+        return this.store()
+            .lowerId(id);
+    }
+
     @Override
     default List<V> between(final K from,
                             final K to) {
@@ -77,6 +165,66 @@ public interface StoreDelegator<K, V> extends Store<K, V> {
             );
     }
 
+    @Override
+    default int countBetween(final K from,
+                             final K to) {
+        return this.store()
+            .countBetween(
+                from,
+                to
+            );
+    }
+
+    @Override
+    default int rankOf(final K id) {
+        return this.store()
+            .rankOf(id);
+    }
+
+    @Override
+    default List<V> query(final Predicate<V> filter,
+                          final int offset,
+                          final int count) {
+        return this.store()
+            .query(
+                filter,
+                offset,
+                count
+            );
+    }
+
+    @Override
+    default List<V> query(final K from,
+                          final K to,
+                          final Predicate<V> filter,
+                          final int offset,
+                          final int count) {
+        return this.store()
+            .query(
+                from,
+                to,
+                filter,
+                offset,
+                count
+            );
+    }
+
+    @Override
+    default Stream<V> stream() {
+        return this.store()
+            .stream();
+    }
+
+    @Override
+    default Stream<V> stream(final K from,
+                             final K to) {
+        return this.store()
+            .stream(
+                from,
+                to
+            );
+    }
+
     @Override
     default Runnable addStoreWatcher(final StoreWatcher<V> watcher) {
         return this.store()
@@ -89,5 +237,11 @@ public interface StoreDelegator<K, V> extends Store<K, V> {
             .addStoreWatcherOnce(watcher);
     }
 
+    @Override
+    default Runnable addIdDeletedWatcher(final StoreIdDeletedWatcher<K> watcher) {
+        return this.store()
+            .addIdDeletedWatcher(watcher);
+    }
+
     Store<K, V> store();
 }
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+/**
+ * A watcher that is notified when a {@link Store} drops an id whose value is no longer available, such as a value held
+ * by {@link Stores#reference} that was reclaimed and that the loader could not find. No {@link StoreWatcher} event is
+ * fired for such a drop, because there is no old value to report.
+ */
+public interface StoreIdDeletedWatcher<K> {
+
+    /**
+     * Fired after the id was dropped.
+     */
+    void onIdDeleted(final K id);
+}
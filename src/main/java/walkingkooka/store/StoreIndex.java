@@ -0,0 +1,263 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.function.Function;
+
+/**
+ * A secondary index of the values of an {@link IndexedStore}, sorted by an attribute and then by id. Finding the
+ * first value for an attribute costs O(log n), after which values are visited in order. Paging by offset costs time
+ * linear in the offset, while {@link #after(Object, Object, Object, int)} seeks past the last value of the previous
+ * page.
+ */
+public final class StoreIndex<K, V, A> {
+
+    static <K, V, A> StoreIndex<K, V, A> with(final Function<V, A> attribute,
+                                              final Comparator<A> attributeComparator,
+                                              final Comparator<K> idComparator,
+                                              final boolean unique) {
+        Objects.requireNonNull(attribute, "attribute");
+        Objects.requireNonNull(attributeComparator, "attributeComparator");
+        Objects.requireNonNull(idComparator, "idComparator");
+
+        return new StoreIndex<>(
+            attribute,
+            attributeComparator,
+            idComparator,
+            unique
+        );
+    }
+
+    private StoreIndex(final Function<V, A> attribute,
+                       final Comparator<A> attributeComparator,
+                       final Comparator<K> idComparator,
+                       final boolean unique) {
+        super();
+        this.attribute = attribute;
+        this.attributeToIdToValue = Maps.sorted(attributeComparator);
+        this.idToAttribute = Maps.sorted(idComparator);
+        this.idComparator = idComparator;
+        this.unique = unique;
+    }
+
+    /**
+     * Returns the values with the given attribute, sorted by id.
+     */
+    public List<V> find(final A attribute,
+                        final int offset,
+                        final int count) {
+        Objects.requireNonNull(attribute, "attribute");
+
+        return this.between(
+            attribute,
+            attribute,
+            offset,
+            count
+        );
+    }
+
+    /**
+     * Returns the values with an attribute between the given inclusive bounds, sorted by attribute and then id. Whole
+     * attributes before the offset are skipped by their size, but the values of the attribute holding the offset are
+     * visited one at a time, so deep pages should use {@link #after(Object, Object, Object, int)} instead.
+     */
+    public List<V> between(final A from,
+                           final A to,
+                           final int offset,
+                           final int count) {
+        Objects.requireNonNull(from, "from");
+        Objects.requireNonNull(to, "to");
+        Store.checkOffsetAndCount(
+            offset,
+            count
+        );
+
+        final SortedMap<A, SortedMap<K, V>> attributeToIdToValue = this.attributeToIdToValue;
+        final Comparator<? super A> attributeComparator = attributeToIdToValue.comparator();
+
+        final List<V> values = Lists.array();
+        int skip = offset;
+
+        for (final Entry<A, SortedMap<K, V>> attributeAndValues : attributeToIdToValue.tailMap(from).entrySet()) {
+            if (values.size() >= count || attributeComparator.compare(attributeAndValues.getKey(), to) > 0) {
+                break;
+            }
+
+            final SortedMap<K, V> idToValue = attributeAndValues.getValue();
+            final int size = idToValue.size();
+            if (skip >= size) {
+                // skip whole attributes without visiting their values
+                skip -= size;
+            } else {
+                for (final V value : idToValue.values()) {
+                    if (values.size() >= count) {
+                        break;
+                    }
+                    if (skip > 0) {
+                        skip--;
+                    } else {
+                        values.add(value);
+                    }
+                }
+                skip = 0;
+            }
+        }
+
+        return values;
+    }
+
+    /**
+     * Returns up to count values after the last seen attribute and id, up to and including the given attribute, sorted
+     * by attribute and then id. This is keyset paging, each page seeks straight to the last seen value in O(log n) and
+     * then visits only the values it returns. The last seen value need not still be indexed.
+     */
+    public List<V> after(final A lastSeenAttribute,
+                         final K lastSeenId,
+                         final A to,
+                         final int count) {
+        Objects.requireNonNull(lastSeenAttribute, "lastSeenAttribute");
+        Objects.requireNonNull(lastSeenId, "lastSeenId");
+        Objects.requireNonNull(to, "to");
+        Store.checkCount(count);
+
+        final SortedMap<A, SortedMap<K, V>> attributeToIdToValue = this.attributeToIdToValue;
+        final Comparator<? super A> attributeComparator = attributeToIdToValue.comparator();
+        final Comparator<K> idComparator = this.idComparator;
+
+        final List<V> values = Lists.array();
+
+        final SortedMap<A, SortedMap<K, V>> tail = attributeToIdToValue.tailMap(lastSeenAttribute);
+        for (final Entry<A, SortedMap<K, V>> attributeAndValues : tail.entrySet()) {
+            final A attribute = attributeAndValues.getKey();
+            if (values.size() >= count || attributeComparator.compare(attribute, to) > 0) {
+                break;
+            }
+
+            SortedMap<K, V> idToValue = attributeAndValues.getValue();
+            if (0 == attributeComparator.compare(attribute, lastSeenAttribute)) {
+                idToValue = idToValue.tailMap(lastSeenId);
+            }
+
+            for (final Entry<K, V> idAndValue : idToValue.entrySet()) {
+                if (values.size() >= count) {
+                    break;
+                }
+                if (0 != idComparator.compare(idAndValue.getKey(), lastSeenId)) {
+                    values.add(idAndValue.getValue());
+                }
+            }
+        }
+
+        return values;
+    }
+
+    /**
+     * Fails if the value would break this unique index, ignoring any existing entry with the same id.
+     */
+    void checkUnique(final K id,
+                     final V value) {
+        if (this.unique) {
+            final A attribute = this.attribute.apply(value);
+            if (null != attribute) {
+                final SortedMap<K, V> idToValue = this.attributeToIdToValue.get(attribute);
+                if (null != idToValue) {
+                    for (final K existing : idToValue.keySet()) {
+                        if (null == id || 0 != this.idComparator.compare(id, existing)) {
+                            throw new StoreException("Duplicate " + attribute + " already used by " + existing);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    void add(final K id,
+             final V value) {
+        final A attribute = this.attribute.apply(value);
+        if (null != attribute) {
+            final SortedMap<A, SortedMap<K, V>> attributeToIdToValue = this.attributeToIdToValue;
+
+            SortedMap<K, V> idToValue = attributeToIdToValue.get(attribute);
+            if (null == idToValue) {
+                idToValue = Maps.sorted(this.idComparator);
+                attributeToIdToValue.put(
+                    attribute,
+                    idToValue
+                );
+            }
+            idToValue.put(
+                id,
+                value
+            );
+            this.idToAttribute.put(
+                id,
+                attribute
+            );
+        }
+    }
+
+    /**
+     * Removes the value with the given id, which need not be available, such as a value dropped by its {@link Store}.
+     */
+    void remove(final K id) {
+        final A attribute = this.idToAttribute.remove(id);
+        if (null != attribute) {
+            final SortedMap<A, SortedMap<K, V>> attributeToIdToValue = this.attributeToIdToValue;
+
+            final SortedMap<K, V> idToValue = attributeToIdToValue.get(attribute);
+            if (null != idToValue) {
+                idToValue.remove(id);
+                if (idToValue.isEmpty()) {
+                    attributeToIdToValue.remove(attribute);
+                }
+            }
+        }
+    }
+
+    private final Function<V, A> attribute;
+
+    /**
+     * Values sorted by attribute and then id.
+     */
+    private final SortedMap<A, SortedMap<K, V>> attributeToIdToValue;
+
+    /**
+     * The attribute of each indexed id, so a value can be removed by id alone.
+     */
+    private final SortedMap<K, A> idToAttribute;
+
+    private final Comparator<K> idComparator;
+
+    private final boolean unique;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return (this.unique ? "unique " : "") + this.attributeToIdToValue.keySet();
+    }
+}
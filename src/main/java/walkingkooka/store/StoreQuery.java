@@ -0,0 +1,64 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.store;
+
+import walkingkooka.collect.list.Lists;
+
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs {@link Store#query(Predicate, int, int)} over a {@link Stream} of values, filtering then skipping and limiting
+ * in encounter order, so results page exactly like {@link Store#values(int, int)}. Nothing is copied before filtering.
+ */
+final class StoreQuery {
+
+    /**
+     * Sorted stores scan in parallel when at least this many values are in range, below this the cost of splitting
+     * and merging outweighs the gain.
+     */
+    // @VisibleForTesting
+    final static int PARALLEL_THRESHOLD = 8192;
+
+    /**
+     * Filters the values. When parallel is true the stream is split into ranges scanned concurrently on the common
+     * fork join pool, ordering is preserved because the stream remains ordered. An ordered parallel skip and limit
+     * cannot stop at the first matches, so small pages are still scanned sequentially, stopping as soon as offset +
+     * count values match. J2CL ignores parallel.
+     */
+    static <V> List<V> query(final Stream<V> values,
+                             final boolean parallel,
+                             final Predicate<V> filter,
+                             final int offset,
+                             final int count) {
+        return (parallel && (long) offset + count >= PARALLEL_THRESHOLD ? values.parallel() : values)
+            .filter(filter)
+            .skip(offset)
+            .limit(count)
+            .collect(Collectors.toCollection(Lists::array));
+    }
+
+    /**
+     * Stop creation
+     */
+    private StoreQuery() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.store;
+
+import walkingkooka.collect.list.Lists;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * A balanced (AVL) tree of keys, where each node also records the total weight and number of keys of its subtree, so
+ * the weight or number of all keys before a key is found in O(log n) rather than visiting every key. Sorted stores keep one beside their map,
+ * using a weight of one per id or the number of values held by an id, to answer
+ * {@link Store#countBetween(Object, Object)} and {@link Store#rankOf(Object)}.
+ */
+final class StoreRankTree<K> {
+
+    /**
+     * Factory that creates a new empty {@link StoreRankTree}.
+     */
+    static <K> StoreRankTree<K> with(final Comparator<? super K> comparator) {
+        return new StoreRankTree<>(comparator);
+    }
+
+    /**
+     * Private ctor use factory
+     */
+    private StoreRankTree(final Comparator<? super K> comparator) {
+        super();
+        this.comparator = comparator;
+    }
+
+    /**
+     * Sets the weight of the given key, a weight of zero removes the key.
+     */
+    void set(final K key,
+             final int weight) {
+        this.root = weight > 0 ?
+            this.put(
+                this.root,
+                key,
+                weight
+            ) :
+            this.remove(
+                this.root,
+                key
+            );
+    }
+
+    /**
+     * Replaces every key with the keys of the given map, building a balanced tree in O(n), which is cheaper than
+     * removing keys one at a time when most keys are removed together.
+     */
+    <T> void rebuild(final SortedMap<K, T> keys,
+                     final ToIntFunction<T> weight) {
+        final List<Entry<K, T>> entries = Lists.array();
+        entries.addAll(keys.entrySet());
+
+        this.root = build(
+            entries,
+            0,
+            entries.size() - 1,
+            weight
+        );
+    }
+
+    private static <K, T> StoreRankTreeNode<K> build(final List<Entry<K, T>> entries,
+                                                     final int low,
+                                                     final int high,
+                                                     final ToIntFunction<T> weight) {
+        StoreRankTreeNode<K> node = null;
+
+        if (low <= high) {
+            final int middle = (low + high) >>> 1;
+            final Entry<K, T> entry = entries.get(middle);
+
+            node = new StoreRankTreeNode<>(
+                entry.getKey(),
+                weight.applyAsInt(entry.getValue())
+            );
+            node.left = build(
+                entries,
+                low,
+                middle - 1,
+                weight
+            );
+            node.right = build(
+                entries,
+                middle + 1,
+                high,
+                weight
+            );
+            update(node);
+        }
+
+        return node;
+    }
+
+    /**
+     * Returns the total weight of all keys less than the given key, including the key itself when inclusive.
+     */
+    int weightBefore(final K key,
+                     final boolean inclusive) {
+        return this.before(
+            key,
+            inclusive,
+            true
+        );
+    }
+
+    /**
+     * Returns the number of keys less than the given key, including the key itself when inclusive and present.
+     */
+    int countBefore(final K key,
+                    final boolean inclusive) {
+        return this.before(
+            key,
+            inclusive,
+            false
+        );
+    }
+
+    private int before(final K key,
+                       final boolean inclusive,
+                       final boolean weights) {
+        final Comparator<? super K> comparator = this.comparator;
+
+        int before = 0;
+        StoreRankTreeNode<K> node = this.root;
+
+        while (null != node) {
+            final int compare = comparator.compare(
+                key,
+                node.key
+            );
+            if (compare < 0) {
+                node = node.left;
+            } else {
+                before += weights ?
+                    total(node.left) :
+                    size(node.left);
+
+                if (compare > 0 || inclusive) {
+                    before += weights ?
+                        node.weight :
+                        1;
+                }
+                if (compare > 0) {
+                    node = node.right;
+                } else {
+                    break;
+                }
+            }
+        }
+
+        return before;
+    }
+
+    /**
+     * The total weight of all keys.
+     */
+    int total() {
+        return total(this.root);
+    }
+
+    private StoreRankTreeNode<K> put(final StoreRankTreeNode<K> node,
+                                     final K key,
+                                     final int weight) {
+        if (null == node) {
+            return new StoreRankTreeNode<>(
+                key,
+                weight
+            );
+        }
+
+        final int compare = this.comparator.compare(
+            key,
+            node.key
+        );
+        if (compare < 0) {
+            node.left = this.put(
+                node.left,
+                key,
+                weight
+            );
+        } else {
+            if (compare > 0) {
+                node.right = this.put(
+                    node.right,
+                    key,
+                    weight
+                );
+            } else {
+                node.weight = weight;
+            }
+        }
+
+        return balance(node);
+    }
+
+    private StoreRankTreeNode<K> remove(final StoreRankTreeNode<K> node,
+                                        final K key) {
+        StoreRankTreeNode<K> removed = node;
+
+        if (null != node) {
+            final int compare = this.comparator.compare(
+                key,
+                node.key
+            );
+            if (compare < 0) {
+                node.left = this.remove(
+                    node.left,
+                    key
+                );
+            } else {
+                if (compare > 0) {
+                    node.right = this.remove(
+                        node.right,
+                        key
+                    );
+                } else {
+                    if (null == node.left) {
+                        return node.right;
+                    }
+                    if (null == node.right) {
+                        return node.left;
+                    }
+
+                    // replace the removed node with the least node of its right subtree
+                    removed = node.right;
+                    while (null != removed.left) {
+                        removed = removed.left;
+                    }
+                    removed.right = removeLeast(node.right);
+                    removed.left = node.left;
+                }
+            }
+
+            removed = balance(removed);
+        }
+
+        return removed;
+    }
+
+    private static <K> StoreRankTreeNode<K> removeLeast(final StoreRankTreeNode<K> node) {
+        if (null == node.left) {
+            return node.right;
+        }
+        node.left = removeLeast(node.left);
+        return balance(node);
+    }
+
+    private static <K> StoreRankTreeNode<K> balance(final StoreRankTreeNode<K> node) {
+        update(node);
+
+        final int balance = height(node.left) - height(node.right);
+
+        StoreRankTreeNode<K> balanced = node;
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            balanced = rotateRight(node);
+        } else {
+            if (balance < -1) {
+                if (height(node.right.right) < height(node.right.left)) {
+                    node.right = rotateRight(node.right);
+                }
+                balanced = rotateLeft(node);
+            }
+        }
+        return balanced;
+    }
+
+    private static <K> StoreRankTreeNode<K> rotateLeft(final StoreRankTreeNode<K> node) {
+        final StoreRankTreeNode<K> right = node.right;
+        node.right = right.left;
+        update(node);
+
+        right.left = node;
+        update(right);
+        return right;
+    }
+
+    private static <K> StoreRankTreeNode<K> rotateRight(final StoreRankTreeNode<K> node) {
+        final StoreRankTreeNode<K> left = node.left;
+        node.left = left.right;
+        update(node);
+
+        left.right = node;
+        update(left);
+        return left;
+    }
+
+    private static void update(final StoreRankTreeNode<?> node) {
+        node.height = 1 + Math.max(
+            height(node.left),
+            height(node.right)
+        );
+        node.total = node.weight + total(node.left) + total(node.right);
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static int height(final StoreRankTreeNode<?> node) {
+        return null == node ?
+            0 :
+            node.height;
+    }
+
+    private static int total(final StoreRankTreeNode<?> node) {
+        return null == node ?
+            0 :
+            node.total;
+    }
+
+    private static int size(final StoreRankTreeNode<?> node) {
+        return null == node ?
+            0 :
+            node.size;
+    }
+
+    private final Comparator<? super K> comparator;
+
+    // @VisibleForTesting
+    StoreRankTreeNode<K> root;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        final StringBuilder b = new StringBuilder();
+        b.append('[');
+        this.toString(
+            this.root,
+            b
+        );
+        b.append(']');
+        return b.toString();
+    }
+
+    private void toString(final StoreRankTreeNode<K> node,
+                          final StringBuilder b) {
+        if (null != node) {
+            this.toString(
+                node.left,
+                b
+            );
+            if (b.length() > 1) {
+                b.append(", ");
+            }
+            b.append(node);
+            this.toString(
+                node.right,
+                b
+            );
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.store;
+
+/**
+ * A single node of a {@link StoreRankTree}, holding the weight of its own key and the total of its subtree.
+ */
+final class StoreRankTreeNode<K> {
+
+    StoreRankTreeNode(final K key,
+                      final int weight) {
+        super();
+        this.key = key;
+        this.weight = weight;
+        this.total = weight;
+        this.size = 1;
+        this.height = 1;
+    }
+
+    final K key;
+
+    int weight;
+
+    /**
+     * The sum of the weights of this node and all nodes below it.
+     */
+    int total;
+
+    /**
+     * The number of keys of this node and all nodes below it.
+     */
+    int size;
+
+    int height;
+
+    StoreRankTreeNode<K> left;
+
+    StoreRankTreeNode<K> right;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.key + "=" + this.weight;
+    }
+}
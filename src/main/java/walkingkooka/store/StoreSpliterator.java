@@ -0,0 +1,194 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+import walkingkooka.collect.list.Lists;
+
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * A {@link Spliterator} that lazily reads the values of any {@link Store} a page at a time, so only a single page is
+ * held in memory. {@link #with(Store)} pages by position with {@link Store#values(int, int)}, tracking the offset of
+ * the next page, which works for every store but may skip or repeat values saved or deleted before the current page.
+ * {@link #seeking(Store)} pages by id, reading the ids after the last id of the previous page with
+ * {@link Store#idsAfter(Object, int)} and their values with {@link Store#between(Object, Object)}, which is unaffected
+ * by such changes but is only suitable for stores that answer {@link Store#idsAfter(Object, int)} with a seek, as the
+ * default counts every earlier value. Splitting is left to {@link Spliterators.AbstractSpliterator}, which hands out
+ * batches of values to other threads.
+ */
+final class StoreSpliterator<K, V> extends Spliterators.AbstractSpliterator<V> {
+
+    /**
+     * The number of values or ids read for each page.
+     */
+    // @VisibleForTesting
+    final static int PAGE_SIZE = 256;
+
+    /**
+     * Pages by position with {@link Store#values(int, int)}.
+     */
+    static <K, V> StoreSpliterator<K, V> with(final Store<K, V> store) {
+        return new StoreSpliterator<>(
+            store,
+            false
+        );
+    }
+
+    /**
+     * Pages by id with {@link Store#idsAfter(Object, int)}, for stores where that is a seek.
+     */
+    static <K, V> StoreSpliterator<K, V> seeking(final Store<K, V> store) {
+        return new StoreSpliterator<>(
+            store,
+            true
+        );
+    }
+
+    private StoreSpliterator(final Store<K, V> store,
+                             final boolean seeking) {
+        super(
+            store.count(),
+            Spliterator.ORDERED | Spliterator.NONNULL
+        );
+        this.store = store;
+        this.seeking = seeking;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super V> action) {
+        List<V> page = this.page;
+        while (this.next == page.size() && false == this.last) {
+            page = this.seeking ?
+                this.nextPageAfterLastId() :
+                this.nextPageAtOffset();
+            this.page = page;
+            this.next = 0;
+        }
+
+        final boolean advanced = this.next < page.size();
+        if (advanced) {
+            action.accept(
+                page.get(this.next++)
+            );
+        }
+        return advanced;
+    }
+
+    private List<V> nextPageAtOffset() {
+        final List<V> page = this.store.values(
+            this.offset,
+            PAGE_SIZE
+        );
+        this.offset += page.size();
+        this.last = page.size() < PAGE_SIZE;
+        return page;
+    }
+
+    /**
+     * Reads the ids after the last id of the previous page, and then the values of those ids.
+     */
+    private List<V> nextPageAfterLastId() {
+        final Store<K, V> store = this.store;
+        final K lastId = this.lastId;
+
+        final Set<K> ids = null == lastId ?
+            store.ids(
+                0,
+                PAGE_SIZE
+            ) :
+            store.idsAfter(
+                lastId,
+                PAGE_SIZE
+            );
+
+        K first = null;
+        K last = null;
+        for (final K id : ids) {
+            if (null == first) {
+                first = id;
+            }
+            last = id;
+        }
+
+        if (null != last) {
+            this.lastId = last;
+        }
+        this.last = ids.size() < PAGE_SIZE;
+
+        return null == first ?
+            Lists.empty() :
+            store.between(
+                first,
+                last
+            );
+    }
+
+    private final Store<K, V> store;
+
+    /**
+     * When true pages are read by id, otherwise by position.
+     */
+    private final boolean seeking;
+
+    /**
+     * The current page of values.
+     */
+    private List<V> page = Lists.empty();
+
+    /**
+     * The index of the next value within {@link #page}.
+     */
+    private int next;
+
+    /**
+     * The offset of the page after the current page, when paging by position.
+     */
+    private int offset;
+
+    /**
+     * The last id of the current page, or null before the first page, when paging by id.
+     */
+    private K lastId;
+
+    /**
+     * True when the current page was the last.
+     */
+    private boolean last;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        final K lastId = this.lastId;
+
+        final String toString;
+        if (this.seeking) {
+            toString = null == lastId ?
+                this.store.toString() :
+                this.store + " after " + lastId;
+        } else {
+            toString = this.store + " " + this.offset;
+        }
+        return toString;
+    }
+}
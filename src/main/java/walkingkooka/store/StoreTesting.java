@@ -28,6 +28,8 @@ import walkingkooka.text.printer.TreePrintableTesting;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -146,6 +148,92 @@ public interface StoreTesting<S extends Store<K, V>, K, V> extends TreePrintable
             "ids offset " + offset + " count=" + count);
     }
 
+    // idsAfter.........................................................................................................
+
+    @Test
+    default void testIdsAfterNullLastSeenFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createStore()
+                .idsAfter(
+                    null,
+                    1
+                )
+        );
+    }
+
+    @Test
+    default void testIdsAfterInvalidCountFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> this.createStore()
+                .idsAfter(
+                    this.id(),
+                    -1
+                )
+        );
+    }
+
+    @Test
+    default void testIdsBeforeNullFirstSeenFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createStore()
+                .idsBefore(
+                    null,
+                    1
+                )
+        );
+    }
+
+    @Test
+    default void testIdsBeforeInvalidCountFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> this.createStore()
+                .idsBefore(
+                    this.id(),
+                    -1
+                )
+        );
+    }
+
+    default <KK> void idsAfterAndCheck(final Store<KK, ?> store,
+                                       final KK lastSeen,
+                                       final int count,
+                                       final KK... ids) {
+        this.checkEquals(
+            Lists.of(ids),
+            Lists.immutable(
+                Lists.of(
+                    store.idsAfter(
+                        lastSeen,
+                        count
+                    ).toArray()
+                )
+            ),
+            () -> "idsAfter " + lastSeen + " count=" + count
+        );
+    }
+
+    default <KK> void idsBeforeAndCheck(final Store<KK, ?> store,
+                                        final KK firstSeen,
+                                        final int count,
+                                        final KK... ids) {
+        this.checkEquals(
+            Lists.of(ids),
+            Lists.immutable(
+                Lists.of(
+                    store.idsBefore(
+                        firstSeen,
+                        count
+                    ).toArray()
+                )
+            ),
+            () -> "idsBefore " + firstSeen + " count=" + count
+        );
+    }
+
     // values...........................................................................................................
 
     @Test
@@ -204,6 +292,60 @@ public interface StoreTesting<S extends Store<K, V>, K, V> extends TreePrintable
         );
     }
 
+    // valuesAfter......................................................................................................
+
+    @Test
+    default void testValuesAfterNullLastSeenFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createStore()
+                .valuesAfter(
+                    null,
+                    1
+                )
+        );
+    }
+
+    @Test
+    default void testValuesBeforeNullFirstSeenFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createStore()
+                .valuesBefore(
+                    null,
+                    1
+                )
+        );
+    }
+
+    default <KK, VV> void valuesAfterAndCheck(final Store<KK, VV> store,
+                                              final KK lastSeen,
+                                              final int count,
+                                              final VV... values) {
+        this.checkEquals(
+            Lists.of(values),
+            store.valuesAfter(
+                lastSeen,
+                count
+            ),
+            () -> "valuesAfter " + lastSeen + " count=" + count
+        );
+    }
+
+    default <KK, VV> void valuesBeforeAndCheck(final Store<KK, VV> store,
+                                               final KK firstSeen,
+                                               final int count,
+                                               final VV... values) {
+        this.checkEquals(
+            Lists.of(values),
+            store.valuesBefore(
+                firstSeen,
+                count
+            ),
+            () -> "valuesBefore " + firstSeen + " count=" + count
+        );
+    }
+
     // first............................................................................................................
 
     @Test
@@ -224,6 +366,305 @@ public interface StoreTesting<S extends Store<K, V>, K, V> extends TreePrintable
         );
     }
 
+    // last.............................................................................................................
+
+    @Test
+    default void testLastIdWhenEmpty() {
+        this.checkEquals(
+            Optional.empty(),
+            this.createStore()
+                .lastId()
+        );
+    }
+
+    @Test
+    default void testLastValueWhenEmpty() {
+        this.checkEquals(
+            Optional.empty(),
+            this.createStore()
+                .lastValue()
+        );
+    }
+
+    // floorId..........................................................................................................
+
+    @Test
+    default void testFloorIdNullFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createStore()
+                .floorId(null)
+        );
+    }
+
+    @Test
+    default void testCeilingIdNullFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createStore()
+                .ceilingId(null)
+        );
+    }
+
+    @Test
+    default void testHigherIdNullFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createStore()
+                .higherId(null)
+        );
+    }
+
+    @Test
+    default void testLowerIdNullFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createStore()
+                .lowerId(null)
+        );
+    }
+
+    @Test
+    default void testFloorIdWhenEmpty() {
+        this.checkEquals(
+            Optional.empty(),
+            this.createStore()
+                .floorId(this.id())
+        );
+    }
+
+    @Test
+    default void testCeilingIdWhenEmpty() {
+        this.checkEquals(
+            Optional.empty(),
+            this.createStore()
+                .ceilingId(this.id())
+        );
+    }
+
+    // query............................................................................................................
+
+    @Test
+    default void testQueryNullFilterFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createStore()
+                .query(
+                    null,
+                    0,
+                    1
+                )
+        );
+    }
+
+    @Test
+    default void testQueryInvalidOffsetFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> this.createStore()
+                .query(
+                    (v) -> true,
+                    -1,
+                    1
+                )
+        );
+    }
+
+    @Test
+    default void testQueryInvalidCountFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> this.createStore()
+                .query(
+                    (v) -> true,
+                    0,
+                    -1
+                )
+        );
+    }
+
+    @Test
+    default void testQueryBetweenNullFromFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createStore()
+                .query(
+                    null,
+                    this.id(),
+                    (v) -> true,
+                    0,
+                    1
+                )
+        );
+    }
+
+    @Test
+    default void testQueryBetweenNullFilterFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createStore()
+                .query(
+                    this.id(),
+                    this.id(),
+                    null,
+                    0,
+                    1
+                )
+        );
+    }
+
+    @Test
+    default void testQueryWhenEmpty() {
+        this.queryAndCheck(
+            this.createStore(),
+            (v) -> true,
+            0,
+            10
+        );
+    }
+
+    default <VV> void queryAndCheck(final Store<?, VV> store,
+                                    final Predicate<VV> filter,
+                                    final int offset,
+                                    final int count,
+                                    final VV... values) {
+        this.checkEquals(
+            Lists.of(values),
+            store.query(
+                filter,
+                offset,
+                count
+            ),
+            () -> "query " + filter + " offset=" + offset + " count=" + count
+        );
+    }
+
+    default <KK, VV> void queryAndCheck(final Store<KK, VV> store,
+                                        final KK from,
+                                        final KK to,
+                                        final Predicate<VV> filter,
+                                        final int offset,
+                                        final int count,
+                                        final VV... values) {
+        this.checkEquals(
+            Lists.of(values),
+            store.query(
+                from,
+                to,
+                filter,
+                offset,
+                count
+            ),
+            () -> "query " + from + " " + to + " " + filter + " offset=" + offset + " count=" + count
+        );
+    }
+
+    // betweenView......................................................................................................
+
+    @Test
+    default void testBetweenViewNullFromFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createStore()
+                .betweenView(
+                    null,
+                    this.id()
+                )
+        );
+    }
+
+    @Test
+    default void testBetweenViewNullToFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createStore()
+                .betweenView(
+                    this.id(),
+                    null
+                )
+        );
+    }
+
+    @Test
+    default void testBetweenViewWhenEmpty() {
+        this.checkEquals(
+            true,
+            this.createStore()
+                .betweenView(
+                    this.id(),
+                    this.id()
+                ).isEmpty()
+        );
+    }
+
+    // countBetween.....................................................................................................
+
+    @Test
+    default void testCountBetweenNullFromFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createStore()
+                .countBetween(
+                    null,
+                    this.id()
+                )
+        );
+    }
+
+    @Test
+    default void testCountBetweenNullToFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createStore()
+                .countBetween(
+                    this.id(),
+                    null
+                )
+        );
+    }
+
+    @Test
+    default void testRankOfNullFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createStore()
+                .rankOf(null)
+        );
+    }
+
+    @Test
+    default void testRankOfWhenEmpty() {
+        this.rankOfAndCheck(
+            this.createStore(),
+            this.id(),
+            0
+        );
+    }
+
+    default <KK> void countBetweenAndCheck(final Store<KK, ?> store,
+                                           final KK from,
+                                           final KK to,
+                                           final int expected) {
+        this.checkEquals(
+            expected,
+            store.countBetween(
+                from,
+                to
+            ),
+            () -> "countBetween " + from + " " + to
+        );
+    }
+
+    default <KK> void rankOfAndCheck(final Store<KK, ?> store,
+                                     final KK id,
+                                     final int expected) {
+        this.checkEquals(
+            expected,
+            store.rankOf(id),
+            () -> "rankOf " + id
+        );
+    }
+
     // all..............................................................................................................
 
     @Test
@@ -297,6 +738,89 @@ public interface StoreTesting<S extends Store<K, V>, K, V> extends TreePrintable
         );
     }
 
+    // stream...........................................................................................................
+
+    @Test
+    default void testStreamWhenEmpty() {
+        this.streamAndCheck(
+            this.createStore()
+        );
+    }
+
+    @Test
+    default void testStreamBetweenNullFromFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createStore()
+                .stream(
+                    null,
+                    this.id()
+                )
+        );
+    }
+
+    @Test
+    default void testStreamBetweenNullToFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createStore()
+                .stream(
+                    this.id(),
+                    null
+                )
+        );
+    }
+
+    default <KK, VV> void streamAndCheck(final Store<KK, VV> store,
+                                         final VV... values) {
+        this.checkEquals(
+            Lists.of(values),
+            store.stream()
+                .collect(Collectors.toList()),
+            store::toString
+        );
+    }
+
+    default <KK, VV> void streamAndCheck(final Store<KK, VV> store,
+                                         final KK from,
+                                         final KK to,
+                                         final VV... values) {
+        this.checkEquals(
+            Lists.of(values),
+            store.stream(
+                from,
+                to
+            ).collect(Collectors.toList()),
+            () -> "stream from " + from + " to " + to
+        );
+    }
+
+    // deleteBetween....................................................................................................
+
+    @Test
+    default void testDeleteBetweenNullFromFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createStore()
+                .deleteBetween(
+                    null,
+                    this.id()
+                )
+        );
+    }
+
+    @Test
+    default void testDeleteBetweenNullToFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createStore()
+                .deleteBetween(
+                    this.id(),
+                    null
+                )
+        );
+    }
+
     // count............................................................................................................
 
     default void countAndCheck(final Store<?, ?> store,
@@ -20,8 +20,24 @@ package walkingkooka.store;
 
 import walkingkooka.watch.ValueChangeWatcher;
 
+import java.util.List;
+import java.util.Optional;
+
 /**
  * A {@link ValueChangeWatcher} that receives all {@link Store} value change events.
  */
 public interface StoreWatcher<V> extends ValueChangeWatcher<V> {
+
+    /**
+     * Fired once when many values are deleted together, such as by {@link Store#deleteBetween(Object, Object)}. The
+     * default fires {@link #onValueChange(Optional, Optional)} for each value.
+     */
+    default void onValuesDeleted(final List<V> values) {
+        for (final V value : values) {
+            this.onValueChange(
+                Optional.of(value),
+                Optional.empty()
+            );
+        }
+    }
 }
@@ -18,9 +18,12 @@
 package walkingkooka.store;
 
 
-import walkingkooka.watch.ValueChangeWatchers;
+import walkingkooka.watch.Watchers;
 
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * A collection of {@link StoreWatcher}. Note the event is only fired to watchers if the old and new values
@@ -33,23 +36,94 @@ public final class StoreWatchers<V> implements StoreWatcher<V> {
     }
 
     public Runnable add(final StoreWatcher<V> watcher) {
-        return this.watchers.add(watcher);
+        Objects.requireNonNull(watcher, "watcher");
+
+        return this.counted(
+            this.watchers.add(
+                (e) -> e.accept(watcher)
+            ),
+            new boolean[1]
+        );
     }
 
     public Runnable addOnce(final StoreWatcher<V> watcher) {
-        return this.watchers.addOnce(watcher);
+        Objects.requireNonNull(watcher, "watcher");
+
+        final boolean[] removed = new boolean[1];
+        return this.counted(
+            this.watchers.addOnce(
+                (e) -> {
+                    this.removed(removed);
+                    e.accept(watcher);
+                }
+            ),
+            removed
+        );
     }
 
+    /**
+     * Counts the added watcher, returning a remover that uncounts it once however often it is run.
+     */
+    private Runnable counted(final Runnable remover,
+                             final boolean[] removed) {
+        this.count++;
+
+        return () -> {
+            this.removed(removed);
+            remover.run();
+        };
+    }
+
+    private void removed(final boolean[] removed) {
+        if (false == removed[0]) {
+            removed[0] = true;
+            this.count--;
+        }
+    }
+
+    /**
+     * Returns true when there are no watchers, so a {@link Store} can skip work done only to fire events.
+     */
+    public boolean isEmpty() {
+        return 0 == this.count;
+    }
+
+    private int count;
+
     /**
      * Note the event is only fired if the old and new values are different.
      */
     @Override
     public void onValueChange(final Optional<V> oldValue,
                               final Optional<V> newValue) {
-        this.watchers.onValueChange(oldValue, newValue);
+        if (false == oldValue.equals(newValue)) {
+            this.watchers.accept(
+                (w) -> w.onValueChange(
+                    oldValue,
+                    newValue
+                )
+            );
+        }
+    }
+
+    /**
+     * Fires the batch once to each watcher, watchers that do not override
+     * {@link StoreWatcher#onValuesDeleted(List)} receive an event per value.
+     */
+    @Override
+    public void onValuesDeleted(final List<V> values) {
+        if (false == values.isEmpty()) {
+            this.watchers.accept(
+                (w) -> w.onValuesDeleted(values)
+            );
+        }
     }
 
-    private final ValueChangeWatchers<V> watchers = ValueChangeWatchers.empty();
+    /**
+     * Each event is a {@link Consumer} that invokes the matching method of a watcher, so batches reach every watcher
+     * unchanged.
+     */
+    private final Watchers<Consumer<StoreWatcher<V>>> watchers = Watchers.empty();
 
     // Object...........................................................................................................
 
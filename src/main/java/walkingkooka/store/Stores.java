@@ -23,12 +23,69 @@ import walkingkooka.reflect.PublicStaticHelper;
 import java.util.Comparator;
 import java.util.Optional;
 import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 /**
  * Contains many factory methods for a variety of {@link Store} implementations.
  */
 public final class Stores implements PublicStaticHelper {
 
+    /**
+     * {@see BloomFilterStore}
+     */
+    public static <K, V extends HasId<Optional<K>>> CountingStore<K, V> bloomFilter(final Store<K, V> store,
+                                                                                    final int expectedIds,
+                                                                                    final double falsePositiveRate) {
+        return BloomFilterStore.with(
+            store,
+            expectedIds,
+            falsePositiveRate
+        );
+    }
+
+    /**
+     * {@see BudgetStore}
+     */
+    public static <K, V extends HasId<Optional<K>>> EvictingStore<K, V> budget(final Store<K, V> store,
+                                                                               final StoreBudget budget,
+                                                                               final ToIntFunction<V> weigher) {
+        return BudgetStore.with(
+            store,
+            budget,
+            weigher
+        );
+    }
+
+    /**
+     * {@see CachingStore}
+     */
+    public static <K, V extends HasId<Optional<K>>> CountingStore<K, V> cache(final Store<K, V> store,
+                                                                              final int maxEntries) {
+        return CachingStore.with(
+            store,
+            maxEntries
+        );
+    }
+
+    /**
+     * {@see ExpiringStore}
+     */
+    public static <K, V extends HasId<Optional<K>>> CountingStore<K, V> expiring(final Store<K, V> store,
+                                                                                 final ToLongFunction<V> timeToLive,
+                                                                                 final long tick,
+                                                                                 final LongSupplier now) {
+        return ExpiringStore.with(
+            store,
+            timeToLive,
+            tick,
+            now
+        );
+    }
+
     /**
      * {@see FakeStore}
      */
@@ -36,6 +93,65 @@ public final class Stores implements PublicStaticHelper {
         return new FakeStore<>();
     }
 
+    /**
+     * {@see IndexingStore}
+     */
+    public static <K, V extends HasId<Optional<K>>> IndexedStore<K, V> indexed(final Store<K, V> store,
+                                                                               final Comparator<K> idComparator) {
+        return IndexingStore.with(
+            store,
+            idComparator
+        );
+    }
+
+    /**
+     * {@see MemoizingStore}
+     */
+    public static <K, V extends HasId<Optional<K>>> Store<K, V> memoizing(final Store<K, V> store) {
+        return MemoizingStore.with(store);
+    }
+
+    /**
+     * {@see PageCachingStore}
+     */
+    public static <K, V> CountingStore<K, V> pageCache(final Store<K, V> store,
+                                                       final int maxPages) {
+        return PageCachingStore.with(
+            store,
+            maxPages
+        );
+    }
+
+    /**
+     * {@see ReferenceStore}
+     */
+    public static <K, V extends HasId<Optional<K>>> CountingStore<K, V> reference(final Comparator<K> idComparator,
+                                                                                  final Function<V, Supplier<V>> reference,
+                                                                                  final Function<K, Optional<V>> loader) {
+        return ReferenceStore.with(
+            idComparator,
+            reference,
+            loader
+        );
+    }
+
+    /**
+     * {@see TieredStore}
+     */
+    public static <K, V extends HasId<Optional<K>>> CountingStore<K, V> tiered(final Store<K, V> cold,
+                                                                               final Comparator<K> idComparator,
+                                                                               final int maxHot,
+                                                                               final long maxIdle,
+                                                                               final LongSupplier now) {
+        return TieredStore.with(
+            cold,
+            idComparator,
+            maxHot,
+            maxIdle,
+            now
+        );
+    }
+
     /**
      * {@see TreeMapStore}
      */
@@ -44,6 +160,23 @@ public final class Stores implements PublicStaticHelper {
         return TreeMapStore.with(idComparator, idSetter);
     }
 
+    /**
+     * {@see WriteBehindStore}
+     */
+    public static <K, V extends HasId<Optional<K>>> FlushableStore<K, V> writeBehind(final Store<K, V> store,
+                                                                                     final Comparator<K> idComparator,
+                                                                                     final int maxBuffered,
+                                                                                     final long maxAge,
+                                                                                     final LongSupplier now) {
+        return WriteBehindStore.with(
+            store,
+            idComparator,
+            maxBuffered,
+            maxAge,
+            now
+        );
+    }
+
     /**
      * Stop creation
      */
@@ -0,0 +1,595 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+import walkingkooka.HasId;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.watch.Watchers;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * A {@link Store} that keeps copies of recently used values of any cold {@link Store} in a hot in memory
+ * {@link TreeMapStore}. The cold tier stays authoritative and holds every id, a value loaded from the cold tier is
+ * copied into the hot tier, so plain reads never write to the cold tier. Values are demoted from the hot tier when they
+ * have not been used for longer than the maximum idle time, or when the hot tier is full, in which case the least
+ * frequently used of the few least recently used values is chosen. There are no background threads, the demotion pass
+ * runs at the start of every operation and only visits values that are due.
+ * <br>
+ * New values and updates to values that are not hot are saved to the cold tier. Updates to hot values are saved to
+ * the hot tier and marked dirty, and only dirty values are written back to the cold tier when demoted. A change made
+ * directly to the cold tier drops any hot copy of that id, so the cold tier wins. Ids and counts are read from the
+ * cold tier, while values are read from the cold tier with dirty hot values in place of their stale cold copies.
+ */
+final class TieredStore<K, V extends HasId<Optional<K>>> implements CountingStore<K, V> {
+
+    /**
+     * The number of least recently used hot values considered when the hot tier is full.
+     */
+    // @VisibleForTesting
+    final static int DEMOTION_SAMPLE = 4;
+
+    static <K, V extends HasId<Optional<K>>> TieredStore<K, V> with(final Store<K, V> cold,
+                                                                    final Comparator<K> idComparator,
+                                                                    final int maxHot,
+                                                                    final long maxIdle,
+                                                                    final LongSupplier now) {
+        Objects.requireNonNull(cold, "cold");
+        Objects.requireNonNull(idComparator, "idComparator");
+        if (maxHot <= 0) {
+            throw new IllegalArgumentException("Invalid maxHot " + maxHot + " <= 0");
+        }
+        if (maxIdle < 0) {
+            throw new IllegalArgumentException("Invalid maxIdle " + maxIdle + " < 0");
+        }
+        Objects.requireNonNull(now, "now");
+
+        return new TieredStore<>(
+            cold,
+            idComparator,
+            maxHot,
+            maxIdle,
+            now
+        );
+    }
+
+    private TieredStore(final Store<K, V> cold,
+                        final Comparator<K> idComparator,
+                        final int maxHot,
+                        final long maxIdle,
+                        final LongSupplier now) {
+        super();
+        this.hot = TreeMapStore.with(
+            idComparator,
+            (id, value) -> {
+                throw new IllegalArgumentException("Missing id " + value);
+            }
+        );
+        this.cold = cold;
+        this.maxHot = maxHot;
+        this.maxIdle = maxIdle;
+        this.now = now;
+
+        this.hot.addStoreWatcher(this::onHotValueChange);
+        cold.addStoreWatcher(this::onColdValueChange);
+        cold.addIdDeletedWatcher(this::onColdIdDeleted);
+    }
+
+    // Store............................................................................................................
+
+    @Override
+    public Optional<V> load(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        this.demoteIdle();
+
+        Optional<V> loaded;
+
+        final TieredStoreHotEntry hotEntry = this.hotEntries.get(id);
+        if (null != hotEntry) {
+            this.hotHits++;
+            this.touch(hotEntry);
+
+            loaded = this.hot.load(id);
+        } else {
+            loaded = this.cold.load(id);
+            if (loaded.isPresent()) {
+                this.coldHits++;
+                this.promote(
+                    id,
+                    loaded.get()
+                );
+            } else {
+                this.misses++;
+            }
+        }
+
+        return loaded;
+    }
+
+    @Override
+    public V save(final V value) {
+        Objects.requireNonNull(value, "value");
+
+        this.demoteIdle();
+
+        final TieredStoreHotEntry hotEntry = this.hotEntries.get(
+            value.id()
+                .orElse(null)
+        );
+        final V saved;
+        if (null != hotEntry) {
+            this.touch(hotEntry);
+            hotEntry.dirty = true;
+            saved = this.hot.save(value);
+        } else {
+            saved = this.cold.save(value);
+        }
+        return saved;
+    }
+
+    @Override
+    public void delete(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        this.demoteIdle();
+
+        if (null != this.hotEntries.remove(id)) {
+            // the hot copy may be newer than the cold value, so it is the deleted value reported to watchers
+            final V deleted = this.hot.load(id)
+                .get();
+
+            this.migrating = true;
+            try {
+                this.hot.delete(id);
+                this.cold.delete(id);
+            } finally {
+                this.migrating = false;
+            }
+
+            this.watchers.onValueChange(
+                Optional.of(deleted),
+                Optional.empty()
+            );
+        } else {
+            this.cold.delete(id);
+        }
+    }
+
+    @Override
+    public int count() {
+        this.demoteIdle();
+
+        return this.cold.count();
+    }
+
+    @Override
+    public Set<K> ids(final int offset,
+                      final int count) {
+        Store.checkOffsetAndCount(offset, count);
+
+        this.demoteIdle();
+
+        return this.cold.ids(
+            offset,
+            count
+        );
+    }
+
+    @Override
+    public Set<K> idsAfter(final K lastSeen,
+                           final int count) {
+        this.demoteIdle();
+
+        return this.cold.idsAfter(
+            lastSeen,
+            count
+        );
+    }
+
+    @Override
+    public Set<K> idsBefore(final K firstSeen,
+                            final int count) {
+        this.demoteIdle();
+
+        return this.cold.idsBefore(
+            firstSeen,
+            count
+        );
+    }
+
+    @Override
+    public Optional<K> firstId() {
+        this.demoteIdle();
+
+        return this.cold.firstId();
+    }
+
+    @Override
+    public Optional<K> lastId() {
+        this.demoteIdle();
+
+        return this.cold.lastId();
+    }
+
+    @Override
+    public Optional<K> floorId(final K id) {
+        this.demoteIdle();
+
+        return this.cold.floorId(id);
+    }
+
+    @Override
+    public Optional<K> ceilingId(final K id) {
+        this.demoteIdle();
+
+        return this.cold.ceilingId(id);
+    }
+
+    @Override
+    public Optional<K> higherId(final K id) {
+        this.demoteIdle();
+
+        return this.cold.higherId(id);
+    }
+
+    @Override
+    public Optional<K> lowerId(final K id) {
+        this.demoteIdle();
+
+        return this.cold.lowerId(id);
+    }
+
+    @Override
+    public int countBetween(final K from,
+                            final K to) {
+        this.demoteIdle();
+
+        return this.cold.countBetween(
+            from,
+            to
+        );
+    }
+
+    @Override
+    public int rankOf(final K id) {
+        this.demoteIdle();
+
+        return this.cold.rankOf(id);
+    }
+
+    @Override
+    public List<V> values(final int offset,
+                          final int count) {
+        Store.checkOffsetAndCount(offset, count);
+
+        this.demoteIdle();
+
+        return this.dirty(
+            this.cold.values(
+                offset,
+                count
+            )
+        );
+    }
+
+    @Override
+    public List<V> between(final K from,
+                           final K to) {
+        Store.checkBetween(from, to);
+
+        this.demoteIdle();
+
+        return this.dirty(
+            this.cold.between(
+                from,
+                to
+            )
+        );
+    }
+
+    /**
+     * Streams the cold tier directly rather than paging through {@link #values(int, int)}.
+     */
+    @Override
+    public Stream<V> stream() {
+        this.demoteIdle();
+
+        return this.cold.stream()
+            .map(this::dirty);
+    }
+
+    /**
+     * Replaces each cold value with its dirty hot copy if one exists.
+     */
+    private List<V> dirty(final List<V> cold) {
+        final List<V> values = Lists.array();
+        for (final V value : cold) {
+            values.add(
+                this.dirty(value)
+            );
+        }
+        return values;
+    }
+
+    private V dirty(final V cold) {
+        final K id = id(cold);
+        final TieredStoreHotEntry hotEntry = this.hotEntries.get(id);
+
+        return null != hotEntry && hotEntry.dirty ?
+            this.hot.load(id)
+                .get() :
+            cold;
+    }
+
+    private static <K, V extends HasId<Optional<K>>> K id(final V value) {
+        return value.id()
+            .get();
+    }
+
+    @Override
+    public Runnable addStoreWatcher(final StoreWatcher<V> watcher) {
+        return this.watchers.add(watcher);
+    }
+
+    @Override
+    public Runnable addStoreWatcherOnce(final StoreWatcher<V> watcher) {
+        return this.watchers.addOnce(watcher);
+    }
+
+    /**
+     * Forwards saves of dirty hot values, except those made while copying a value between tiers.
+     */
+    private void onHotValueChange(final Optional<V> oldValue,
+                                  final Optional<V> newValue) {
+        if (false == this.migrating) {
+            this.watchers.onValueChange(
+                oldValue,
+                newValue
+            );
+        }
+    }
+
+    /**
+     * Forwards changes to the cold tier, except write backs. A change made directly to the cold tier drops any hot copy
+     * of the same id without writing it back, because the cold tier is authoritative.
+     */
+    private void onColdValueChange(final Optional<V> oldValue,
+                                   final Optional<V> newValue) {
+        if (false == this.migrating) {
+            final K id = newValue.isPresent() ?
+                id(newValue.get()) :
+                oldValue.map(TieredStore::id)
+                    .orElse(null);
+            if (null != id) {
+                this.dropHot(id);
+            }
+
+            this.watchers.onValueChange(
+                oldValue,
+                newValue
+            );
+        }
+    }
+
+    private final StoreWatchers<V> watchers = StoreWatchers.empty();
+
+    @Override
+    public Runnable addIdDeletedWatcher(final StoreIdDeletedWatcher<K> watcher) {
+        Objects.requireNonNull(watcher, "watcher");
+
+        return this.idDeletedWatchers.add(
+            (e) -> e.accept(watcher)
+        );
+    }
+
+    /**
+     * An id dropped by the cold tier also drops any hot copy, because the cold tier is authoritative.
+     */
+    private void onColdIdDeleted(final K id) {
+        if (false == this.migrating) {
+            this.dropHot(id);
+
+            this.idDeletedWatchers.accept(
+                (w) -> w.onIdDeleted(id)
+            );
+        }
+    }
+
+    private final Watchers<Consumer<StoreIdDeletedWatcher<K>>> idDeletedWatchers = Watchers.empty();
+
+    /**
+     * Deletes the hot copy of the given id without writing it back.
+     */
+    private void dropHot(final K id) {
+        if (null != this.hotEntries.remove(id)) {
+            this.migrating = true;
+            try {
+                this.hot.delete(id);
+            } finally {
+                this.migrating = false;
+            }
+        }
+    }
+
+    // tiers............................................................................................................
+
+    private void touch(final TieredStoreHotEntry hotEntry) {
+        hotEntry.frequency++;
+        hotEntry.lastAccess = this.now.getAsLong();
+    }
+
+    /**
+     * Copies a value read from the cold tier into the hot tier, the cold tier is not changed.
+     */
+    private void promote(final K id,
+                         final V value) {
+        this.migrating = true;
+        try {
+            this.hot.save(value);
+        } finally {
+            this.migrating = false;
+        }
+
+        final TieredStoreHotEntry hotEntry = new TieredStoreHotEntry(0);
+        this.touch(hotEntry);
+        this.hotEntries.put(
+            id,
+            hotEntry
+        );
+        this.promotions++;
+
+        this.demoteIfFull();
+    }
+
+    /**
+     * Demotes every hot value not used for longer than the maximum idle time. Hot values are held in access order,
+     * so only the values that are due are visited.
+     */
+    private void demoteIdle() {
+        final LinkedHashMap<K, TieredStoreHotEntry> hotEntries = this.hotEntries;
+        final long idleBefore = this.now.getAsLong() - this.maxIdle;
+
+        while (false == hotEntries.isEmpty()) {
+            final Entry<K, TieredStoreHotEntry> eldest = hotEntries.entrySet()
+                .iterator()
+                .next();
+            if (eldest.getValue().lastAccess >= idleBefore) {
+                break;
+            }
+            this.demote(eldest.getKey());
+        }
+    }
+
+    /**
+     * When the hot tier is full, demotes the least frequently used of the {@link #DEMOTION_SAMPLE} least recently used
+     * hot values.
+     */
+    private void demoteIfFull() {
+        final LinkedHashMap<K, TieredStoreHotEntry> hotEntries = this.hotEntries;
+
+        while (hotEntries.size() > this.maxHot) {
+            final Iterator<Entry<K, TieredStoreHotEntry>> iterator = hotEntries.entrySet()
+                .iterator();
+
+            K victim = null;
+            int victimFrequency = Integer.MAX_VALUE;
+
+            for (int i = 0; i < DEMOTION_SAMPLE && iterator.hasNext(); i++) {
+                final Entry<K, TieredStoreHotEntry> candidate = iterator.next();
+                final int frequency = candidate.getValue().frequency;
+                if (frequency < victimFrequency) {
+                    victim = candidate.getKey();
+                    victimFrequency = frequency;
+                }
+            }
+
+            this.demote(victim);
+        }
+    }
+
+    /**
+     * Drops the hot copy, writing it back to the cold tier only when it is dirty.
+     */
+    private void demote(final K id) {
+        final TieredStoreHotEntry hotEntry = this.hotEntries.remove(id);
+
+        this.migrating = true;
+        try {
+            if (hotEntry.dirty) {
+                this.cold.save(
+                    this.hot.load(id)
+                        .get()
+                );
+                this.writeBacks++;
+            }
+            this.hot.delete(id);
+        } finally {
+            this.migrating = false;
+        }
+
+        this.demotions++;
+    }
+
+    private final TreeMapStore<K, V> hot;
+
+    /**
+     * The use of each hot value, least recently used first.
+     */
+    // @VisibleForTesting
+    final LinkedHashMap<K, TieredStoreHotEntry> hotEntries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Store<K, V> cold;
+
+    private final int maxHot;
+
+    private final long maxIdle;
+
+    private final LongSupplier now;
+
+    /**
+     * True while a value is being copied between tiers, so the saves and deletes are not forwarded to watchers.
+     */
+    private boolean migrating;
+
+    // HasStoreCounters.................................................................................................
+
+    @Override
+    public Map<String, Long> counters() {
+        final Map<String, Long> counters = Maps.ordered();
+        counters.put("hotHits", this.hotHits);
+        counters.put("coldHits", this.coldHits);
+        counters.put("misses", this.misses);
+        counters.put("promotions", this.promotions);
+        counters.put("demotions", this.demotions);
+        counters.put("writeBacks", this.writeBacks);
+        return counters;
+    }
+
+    private long hotHits;
+
+    private long coldHits;
+
+    private long misses;
+
+    private long promotions;
+
+    private long demotions;
+
+    private long writeBacks;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.hot + " " + this.cold;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+/**
+ * Records the use of a single value held by the hot tier of a {@link TieredStore}.
+ */
+final class TieredStoreHotEntry {
+
+    TieredStoreHotEntry(final long lastAccess) {
+        super();
+        this.lastAccess = lastAccess;
+    }
+
+    /**
+     * The number of times this value was used since it was promoted.
+     */
+    int frequency;
+
+    long lastAccess;
+
+    /**
+     * True when the hot value was saved since it was promoted, and must be written back to the cold tier on demotion.
+     */
+    boolean dirty;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return "frequency=" + this.frequency + " lastAccess=" + this.lastAccess + (this.dirty ? " dirty" : "");
+    }
+}
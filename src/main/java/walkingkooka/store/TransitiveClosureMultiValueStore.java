@@ -0,0 +1,221 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.store;
+
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.collect.set.Sets;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A {@link TransitiveMultiValueStore} that remembers each closure it computes. A closure being computed reuses any
+ * remembered closure of a node it reaches rather than walking that node again.
+ * <br>
+ * Adding or removing the reference id to value, as observed by a {@link MultiValueStoreWatcher} on the wrapped
+ * {@link MultiValueStore}, only forgets the closures that could have changed. These are the values closures of id and
+ * of every id whose closure includes id, and the ids closures of value and of every value whose closure includes
+ * value. All other closures are kept.
+ */
+final class TransitiveClosureMultiValueStore<T> implements TransitiveMultiValueStore<T>,
+    MultiValueStoreDelegator<T, T> {
+
+    static <T> TransitiveClosureMultiValueStore<T> with(final MultiValueStore<T, T> store) {
+        Objects.requireNonNull(store, "store");
+
+        return new TransitiveClosureMultiValueStore<>(store);
+    }
+
+    private TransitiveClosureMultiValueStore(final MultiValueStore<T, T> store) {
+        super();
+        this.store = store;
+
+        store.addStoreWatcher(
+            new MultiValueStoreWatcher<T, T>() {
+                @Override
+                public void onValueAdded(final T id,
+                                         final T value) {
+                    TransitiveClosureMultiValueStore.this.invalidate(
+                        id,
+                        value
+                    );
+                }
+
+                @Override
+                public void onValueRemoved(final T id,
+                                           final T value) {
+                    TransitiveClosureMultiValueStore.this.invalidate(
+                        id,
+                        value
+                    );
+                }
+            }
+        );
+    }
+
+    // TransitiveMultiValueStore........................................................................................
+
+    @Override
+    public Set<T> transitiveValuesOf(final T id) {
+        Objects.requireNonNull(id, "id");
+
+        return this.closure(
+            id,
+            this.valuesOf,
+            (i) -> this.store.findValuesById(
+                i,
+                0,
+                Integer.MAX_VALUE
+            )
+        );
+    }
+
+    @Override
+    public Set<T> transitiveIdsOf(final T value) {
+        Objects.requireNonNull(value, "value");
+
+        return this.closure(
+            value,
+            this.idsOf,
+            (v) -> this.store.findIdsByValue(
+                v,
+                0,
+                Integer.MAX_VALUE
+            )
+        );
+    }
+
+    /**
+     * Walks breadth first from the start following the given edges. A node that was already reached is never walked
+     * again, which stops cycles, and a node with a remembered closure contributes that closure instead of being walked.
+     */
+    private Set<T> closure(final T start,
+                           final Map<T, Set<T>> cache,
+                           final Function<T, List<T>> edges) {
+        Set<T> closure = cache.get(start);
+        if (null != closure) {
+            this.hits++;
+        } else {
+            this.misses++;
+
+            final Set<T> reached = Sets.ordered();
+            final List<T> pending = Lists.array();
+            pending.add(start);
+
+            int next = 0;
+            while (next < pending.size()) {
+                for (final T node : edges.apply(pending.get(next++))) {
+                    if (reached.add(node)) {
+                        final Set<T> remembered = cache.get(node);
+                        if (null != remembered) {
+                            reached.addAll(remembered);
+                        } else {
+                            pending.add(node);
+                        }
+                    }
+                }
+            }
+
+            closure = Sets.immutable(reached);
+            cache.put(
+                start,
+                closure
+            );
+        }
+        return closure;
+    }
+
+    /**
+     * Forgets the closures that may include or be changed by the reference id to value.
+     */
+    private void invalidate(final T id,
+                            final T value) {
+        this.invalidate(
+            this.valuesOf,
+            id
+        );
+        this.invalidate(
+            this.idsOf,
+            value
+        );
+    }
+
+    private void invalidate(final Map<T, Set<T>> cache,
+                            final T node) {
+        final Iterator<Entry<T, Set<T>>> entries = cache.entrySet()
+            .iterator();
+        while (entries.hasNext()) {
+            final Entry<T, Set<T>> entry = entries.next();
+            if (node.equals(entry.getKey()) || entry.getValue().contains(node)) {
+                entries.remove();
+                this.invalidations++;
+            }
+        }
+    }
+
+    /**
+     * Remembered {@link #transitiveValuesOf(Object)} by id.
+     */
+    // @VisibleForTesting
+    final Map<T, Set<T>> valuesOf = Maps.hash();
+
+    /**
+     * Remembered {@link #transitiveIdsOf(Object)} by value.
+     */
+    // @VisibleForTesting
+    final Map<T, Set<T>> idsOf = Maps.hash();
+
+    // MultiValueStoreDelegator.........................................................................................
+
+    @Override
+    public MultiValueStore<T, T> multiValueStore() {
+        return this.store;
+    }
+
+    private final MultiValueStore<T, T> store;
+
+    // HasStoreCounters.................................................................................................
+
+    @Override
+    public Map<String, Long> counters() {
+        final Map<String, Long> counters = Maps.ordered();
+        counters.put("hits", this.hits);
+        counters.put("misses", this.misses);
+        counters.put("invalidations", this.invalidations);
+        return counters;
+    }
+
+    private long hits;
+
+    private long misses;
+
+    private long invalidations;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.store + " " + this.counters();
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.store;
+
+import java.util.Set;
+
+/**
+ * A {@link MultiValueStore} whose values are themselves ids, forming a graph where each id references its values, for
+ * example formula cells referencing other cells, adding reachability queries that follow references transitively.
+ * Cycles are followed once, so every query terminates.
+ */
+public interface TransitiveMultiValueStore<T> extends CountingMultiValueStore<T, T> {
+
+    /**
+     * Returns every value reachable from the given id by following references, in the order they are reached. The id
+     * itself is only included when it is part of a cycle.
+     */
+    Set<T> transitiveValuesOf(final T id);
+
+    /**
+     * Returns every id that reaches the given value by following references, the inverse of
+     * {@link #transitiveValuesOf(Object)}, for example all the cells that must be recomputed when a cell changes.
+     */
+    Set<T> transitiveIdsOf(final T value);
+
+    /**
+     * Returns true when the given id reaches itself, such as a circular formula reference.
+     */
+    default boolean isCyclic(final T id) {
+        return this.transitiveValuesOf(id)
+            .contains(id);
+    }
+}
@@ -22,19 +22,32 @@ import walkingkooka.collect.list.ImmutableList;
 import walkingkooka.collect.list.Lists;
 import walkingkooka.collect.map.Maps;
 import walkingkooka.collect.set.ImmutableSet;
+import walkingkooka.collect.set.Sets;
 
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.SortedSet;
 import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * A {@link Store} that shares a {@link TreeMap} and automatically allocates an ID if saving a value without an ID.
  * This store is intended to be decorated sharing the map.
+ * <br>
+ * An inverse index of value to ids is also maintained, so {@link #findIdsByValue(Object, int, int)} only visits the
+ * ids holding the value rather than scanning every id, and a running total of values keeps {@link #count()} constant time.
  */
 final class TreeMapMultiValueStore<K, V> implements MultiValueStore<K, V>,
     CanBeEmpty {
@@ -60,8 +73,25 @@ final class TreeMapMultiValueStore<K, V> implements MultiValueStore<K, V>,
                                    final Supplier<Set<V>> emptyValueSet) {
         super();
 
-        this.idToValues = Maps.sorted(idComparator);
+        this.idToValues = new TreeMap<>(idComparator);
         this.emptyValueSet = emptyValueSet;
+        this.valueToIds = valueToIds(
+            emptyValueSet.get()
+        );
+        this.idComparator = idComparator;
+    }
+
+    /**
+     * Creates the inverse index with the same equality as the value sets. A {@link SortedSet} finds values with its
+     * comparator, which need not be consistent with equals, so the index is sorted by that comparator, while any other
+     * {@link Set} is assumed to use equals.
+     */
+    private static <K, V> Map<V, NavigableSet<K>> valueToIds(final Set<V> values) {
+        return values instanceof SortedSet ?
+            new TreeMap<>(
+                ((SortedSet<V>) values).comparator()
+            ) :
+            Maps.hash();
     }
 
     // Store............................................................................................................
@@ -72,6 +102,17 @@ final class TreeMapMultiValueStore<K, V> implements MultiValueStore<K, V>,
 
         final Set<V> deleted = this.idToValues.remove(id);
         if (null != deleted) {
+            this.updateRank(
+                id,
+                0
+            );
+            for (final V deletedValue : deleted) {
+                this.removeValueToId(
+                    deletedValue,
+                    id
+                );
+            }
+
             for (final V deletedValue : deleted) {
                 this.watchers.onValueRemoved(
                     id,
@@ -81,14 +122,73 @@ final class TreeMapMultiValueStore<K, V> implements MultiValueStore<K, V>,
         }
     }
 
+    /**
+     * Removes the whole sub range with a single clear of the {@link TreeMap} view, firing one
+     * {@link MultiValueStoreWatcher#onValuesRemoved(Map)}.
+     */
+    @Override
+    public void deleteBetween(final K from,
+                              final K to) {
+        Store.checkBetween(from, to);
+
+        final NavigableMap<K, Set<V>> idToValues = this.idToValues;
+        if (this.idComparator.compare(from, to) <= 0) {
+            final NavigableMap<K, Set<V>> range = idToValues.subMap(
+                from,
+                true,
+                to,
+                true
+            );
+
+            if (false == range.isEmpty()) {
+                final SortedMap<K, Set<V>> deleted = Maps.sorted(this.idComparator);
+                deleted.putAll(range);
+
+                for (final Entry<K, Set<V>> idAndValues : deleted.entrySet()) {
+                    final K id = idAndValues.getKey();
+
+                    for (final V value : idAndValues.getValue()) {
+                        this.removeValueToId(
+                            value,
+                            id
+                        );
+                    }
+                }
+
+                final StoreRankTree<K> rank = this.rank;
+                if (null == rank || deleted.size() * 2 > idToValues.size()) {
+                    range.clear();
+                    if (null != rank) {
+                        rank.rebuild(
+                            idToValues,
+                            Set::size
+                        );
+                    }
+                } else {
+                    for (final K id : deleted.keySet()) {
+                        rank.set(
+                            id,
+                            0
+                        );
+                    }
+                    range.clear();
+                }
+
+                this.watchers.onValuesRemoved(deleted);
+            }
+        }
+    }
+
     @Override
     public int count() {
-        return this.values(
-            0,
-            Integer.MAX_VALUE
-        ).size();
+        return this.valueCount;
     }
 
+    /**
+     * The total number of values across all ids, updated by every add and remove.
+     */
+    private int valueCount;
+
     @Override
     public Set<K> ids(final int offset,
                       final int count) {
@@ -122,6 +222,158 @@ final class TreeMapMultiValueStore<K, V> implements MultiValueStore<K, V>,
             .collect(ImmutableList.collector());
     }
 
+    @Override
+    public Set<K> idsAfter(final K lastSeen,
+                           final int count) {
+        Objects.requireNonNull(lastSeen, "lastSeen");
+        Store.checkCount(count);
+
+        return this.ids(
+            this.idToValues.tailMap(
+                lastSeen,
+                false
+            ).navigableKeySet(),
+            count
+        );
+    }
+
+    @Override
+    public Set<K> idsBefore(final K firstSeen,
+                            final int count) {
+        Objects.requireNonNull(firstSeen, "firstSeen");
+        Store.checkCount(count);
+
+        return this.ids(
+            this.idToValues.headMap(
+                firstSeen,
+                false
+            ).descendingKeySet(),
+            count
+        );
+    }
+
+    @Override
+    public Optional<K> firstId() {
+        return this.idToValues.isEmpty() ?
+            Optional.empty() :
+            Optional.of(
+                this.idToValues.firstKey()
+            );
+    }
+
+    @Override
+    public Optional<K> lastId() {
+        return this.idToValues.isEmpty() ?
+            Optional.empty() :
+            Optional.of(
+                this.idToValues.lastKey()
+            );
+    }
+
+    @Override
+    public Optional<K> floorId(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        return Optional.ofNullable(
+            this.idToValues.floorKey(id)
+        );
+    }
+
+    @Override
+    public Optional<K> ceilingId(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        return Optional.ofNullable(
+            this.idToValues.ceilingKey(id)
+        );
+    }
+
+    @Override
+    public Optional<K> higherId(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        return Optional.ofNullable(
+            this.idToValues.higherKey(id)
+        );
+    }
+
+    @Override
+    public Optional<K> lowerId(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        return Optional.ofNullable(
+            this.idToValues.lowerKey(id)
+        );
+    }
+
+    private Set<K> ids(final Set<K> view,
+                       final int count) {
+        final Set<K> ids = Sets.ordered();
+        if (count > 0) {
+            for (final K id : view) {
+                ids.add(id);
+                if (ids.size() >= count) {
+                    break;
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Returns up to count values, rather than the values of count ids, matching {@link #values(int, int)}.
+     */
+    @Override
+    public List<V> valuesAfter(final K lastSeen,
+                               final int count) {
+        Objects.requireNonNull(lastSeen, "lastSeen");
+        Store.checkCount(count);
+
+        final List<V> values = Lists.array();
+        for (final Set<V> idValues : this.idToValues.tailMap(lastSeen, false).values()) {
+            if (values.size() >= count) {
+                break;
+            }
+
+            for (final V value : idValues) {
+                if (values.size() >= count) {
+                    break;
+                }
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Returns up to count values in the reverse order of {@link #values(int, int)}.
+     */
+    @Override
+    public List<V> valuesBefore(final K firstSeen,
+                                final int count) {
+        Objects.requireNonNull(firstSeen, "firstSeen");
+        Store.checkCount(count);
+
+        final List<V> values = Lists.array();
+        for (final Set<V> idValues : this.idToValues.headMap(firstSeen, false).descendingMap().values()) {
+            if (values.size() >= count) {
+                break;
+            }
+
+            final List<V> reversed = Lists.array();
+            reversed.addAll(idValues);
+            Collections.reverse(reversed);
+
+            for (final V value : reversed) {
+                if (values.size() >= count) {
+                    break;
+                }
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
     @Override
     public List<V> between(final K from,
                            final K to) {
@@ -144,6 +396,107 @@ final class TreeMapMultiValueStore<K, V> implements MultiValueStore<K, V>,
         return values;
     }
 
+    /**
+     * Counts the values, not ids, between the from and to which are both inclusive.
+     */
+    @Override
+    public int countBetween(final K from,
+                            final K to) {
+        Store.checkBetween(from, to);
+
+        final StoreRankTree<K> rank = this.rank();
+        return this.idComparator.compare(from, to) > 0 ?
+            0 :
+            rank.weightBefore(
+                to,
+                true
+            ) - rank.weightBefore(
+                from,
+                false
+            );
+    }
+
+    /**
+     * Returns the number of ids less than the given id.
+     */
+    @Override
+    public int rankOf(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        return this.rank()
+            .countBefore(
+                id,
+                false
+            );
+    }
+
+    /**
+     * Scans in parallel when both the store and offset + count are at least {@link StoreQuery#PARALLEL_THRESHOLD}, the
+     * {@link TreeMap} spliterator splitting the key space into ranges.
+     */
+    @Override
+    public List<V> query(final Predicate<V> filter,
+                         final int offset,
+                         final int count) {
+        Objects.requireNonNull(filter, "filter");
+        Store.checkOffsetAndCount(offset, count);
+
+        return StoreQuery.query(
+            this.stream(),
+            this.count() >= StoreQuery.PARALLEL_THRESHOLD,
+            filter,
+            offset,
+            count
+        );
+    }
+
+    @Override
+    public List<V> query(final K from,
+                         final K to,
+                         final Predicate<V> filter,
+                         final int offset,
+                         final int count) {
+        Store.checkBetween(from, to);
+        Objects.requireNonNull(filter, "filter");
+        Store.checkOffsetAndCount(offset, count);
+
+        return StoreQuery.query(
+            this.stream(
+                from,
+                to
+            ),
+            this.countBetween(from, to) >= StoreQuery.PARALLEL_THRESHOLD,
+            filter,
+            offset,
+            count
+        );
+    }
+
+    @Override
+    public Stream<V> stream() {
+        return this.idToValues.values()
+            .stream()
+            .flatMap(Set::stream);
+    }
+
+    @Override
+    public Stream<V> stream(final K from,
+                            final K to) {
+        Store.checkBetween(from, to);
+
+        final NavigableMap<K, Set<V>> idToValues = this.idToValues;
+        return this.idComparator.compare(from, to) > 0 ?
+            Stream.empty() :
+            idToValues.subMap(
+                from,
+                true,
+                to,
+                true
+            ).values()
+                .stream()
+                .flatMap(Set::stream);
+    }
+
     // MultiValueStore..................................................................................................
 
     @Override
@@ -162,6 +515,15 @@ final class TreeMapMultiValueStore<K, V> implements MultiValueStore<K, V>,
             );
         }
         if (values.add(value)) {
+            this.updateRank(
+                id,
+                values.size()
+            );
+            this.addValueToId(
+                value,
+                id
+            );
+
             this.watchers.onValueAdded(
                 id,
                 value
@@ -187,6 +549,14 @@ final class TreeMapMultiValueStore<K, V> implements MultiValueStore<K, V>,
                 if (values.isEmpty()) {
                     idToValues.remove(id);
                 }
+                this.updateRank(
+                    id,
+                    values.size()
+                );
+                this.removeValueToId(
+                    value,
+                    id
+                );
 
                 this.watchers.onValueRemoved(
                     id,
@@ -200,11 +570,18 @@ final class TreeMapMultiValueStore<K, V> implements MultiValueStore<K, V>,
     public void removeByValue(final V value) {
         Objects.requireNonNull(value, "value");
 
-        for (final K id : this.findIdsByValue(value, 0, Integer.MAX_VALUE)) {
-            this.removeValue(
-                id,
-                value
-            );
+        final NavigableSet<K> ids = this.valueToIds.get(value);
+        if (null != ids) {
+            // copy because removeValue will modify the ids
+            final List<K> copy = Lists.array();
+            copy.addAll(ids);
+
+            for (final K id : copy) {
+                this.removeValue(
+                    id,
+                    value
+                );
+            }
         }
     }
 
@@ -239,21 +616,239 @@ final class TreeMapMultiValueStore<K, V> implements MultiValueStore<K, V>,
             count
         );
 
-        return this.idToValues.entrySet()
-            .stream()
-            .filter(
-                (Entry<K, Set<V>> idAndValue) -> idAndValue.getValue().contains(value)
-            ).map(
-                Entry::getKey
-            ).skip(offset)
-            .limit(count)
-            .collect(
-                ImmutableList.collector()
+        final NavigableSet<K> ids = this.valueToIds.get(value);
+        return null == ids ?
+            Lists.empty() :
+            ids.stream()
+                .skip(offset)
+                .limit(count)
+                .collect(
+                    ImmutableList.collector()
+                );
+    }
+
+    /**
+     * Intersects the sorted id sets of each value, driven by the smallest set. Each candidate id is sought in the other
+     * sets with {@link NavigableSet#ceiling(Object)}, and a miss leaps the candidate forward to the id found, so runs of
+     * ids missing from another set are skipped in O(log n) rather than visited.
+     */
+    @Override
+    public List<K> findIdsByAllValues(final Set<V> values,
+                                      final int offset,
+                                      final int count) {
+        Objects.requireNonNull(values, "values");
+        Store.checkOffsetAndCount(
+            offset,
+            count
+        );
+
+        final List<K> ids = Lists.array();
+
+        final List<NavigableSet<K>> postings = Lists.array();
+        for (final V value : values) {
+            final NavigableSet<K> valueIds = this.valueToIds.get(value);
+            if (null == valueIds) {
+                // no id holds this value so none can hold all
+                postings.clear();
+                break;
+            }
+            postings.add(valueIds);
+        }
+
+        if (count > 0 && false == postings.isEmpty()) {
+            postings.sort(
+                Comparator.comparingInt(Set::size)
+            );
+
+            final Comparator<K> idComparator = this.idComparator;
+            final NavigableSet<K> smallest = postings.get(0);
+            final int postingCount = postings.size();
+
+            int skip = offset;
+            int i = 1;
+            K candidate = smallest.first();
+
+            while (null != candidate) {
+                if (postingCount == i) {
+                    // every set holds the candidate
+                    if (skip > 0) {
+                        skip--;
+                    } else {
+                        ids.add(candidate);
+                        if (ids.size() >= count) {
+                            break;
+                        }
+                    }
+                    candidate = smallest.higher(candidate);
+                    i = 1;
+                } else {
+                    final K found = postings.get(i)
+                        .ceiling(candidate);
+                    if (null == found) {
+                        break;
+                    }
+                    if (0 == idComparator.compare(found, candidate)) {
+                        i++;
+                    } else {
+                        candidate = smallest.ceiling(found);
+                        i = 1;
+                    }
+                }
+            }
+        }
+
+        return Lists.immutable(ids);
+    }
+
+    /**
+     * Merges the sorted id sets of each value, returning each id once in id order.
+     */
+    @Override
+    public List<K> findIdsByAnyValue(final Set<V> values,
+                                     final int offset,
+                                     final int count) {
+        Objects.requireNonNull(values, "values");
+        Store.checkOffsetAndCount(
+            offset,
+            count
+        );
+
+        final List<K> ids = Lists.array();
+
+        final List<NavigableSet<K>> postings = Lists.array();
+        for (final V value : values) {
+            final NavigableSet<K> valueIds = this.valueToIds.get(value);
+            if (null != valueIds) {
+                postings.add(valueIds);
+            }
+        }
+
+        final Comparator<K> idComparator = this.idComparator;
+
+        int skip = offset;
+        K last = null;
+
+        while (ids.size() < count) {
+            K next = null;
+            for (final NavigableSet<K> posting : postings) {
+                final K found = null == last ?
+                    posting.first() :
+                    posting.higher(last);
+                if (null != found && (null == next || idComparator.compare(found, next) < 0)) {
+                    next = found;
+                }
+            }
+
+            if (null == next) {
+                break;
+            }
+            if (skip > 0) {
+                skip--;
+            } else {
+                ids.add(next);
+            }
+            last = next;
+        }
+
+        return Lists.immutable(ids);
+    }
+
+    @Override
+    public Stream<V> streamValuesById(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        final Set<V> values = this.idToValues.get(id);
+        return null == values ?
+            Stream.empty() :
+            values.stream();
+    }
+
+    @Override
+    public Stream<K> streamIdsByValue(final V value) {
+        Objects.requireNonNull(value, "value");
+
+        final NavigableSet<K> ids = this.valueToIds.get(value);
+        return null == ids ?
+            Stream.empty() :
+            ids.stream();
+    }
+
+    // @VisibleForTesting
+    final NavigableMap<K, Set<V>> idToValues;
+
+    /**
+     * Holds every id weighted by its number of values, answering {@link #countBetween(Object, Object)} in the same
+     * units as {@link #count()} and {@link #rankOf(Object)} in ids, both in O(log n). It is built in O(n) by the first
+     * of those queries, and only from then on does each write also update it in O(log n), so stores that never count or
+     * rank pay nothing.
+     */
+    private StoreRankTree<K> rank;
+
+    private StoreRankTree<K> rank() {
+        StoreRankTree<K> rank = this.rank;
+        if (null == rank) {
+            rank = StoreRankTree.with(this.idComparator);
+            rank.rebuild(
+                this.idToValues,
+                Set::size
+            );
+            this.rank = rank;
+        }
+        return rank;
+    }
+
+    /**
+     * Keeps the {@link #rank} in step with a write once it has been built.
+     */
+    private void updateRank(final K id,
+                            final int weight) {
+        final StoreRankTree<K> rank = this.rank;
+        if (null != rank) {
+            rank.set(
+                id,
+                weight
+            );
+        }
+    }
+
+    private void addValueToId(final V value,
+                              final K id) {
+        final Map<V, NavigableSet<K>> valueToIds = this.valueToIds;
+
+        NavigableSet<K> ids = valueToIds.get(value);
+        if (null == ids) {
+            ids = new TreeSet<>(this.idComparator);
+            valueToIds.put(
+                value,
+                ids
             );
+        }
+        ids.add(id);
+        this.valueCount++;
     }
 
+    private void removeValueToId(final V value,
+                                 final K id) {
+        final Map<V, NavigableSet<K>> valueToIds = this.valueToIds;
+
+        final NavigableSet<K> ids = valueToIds.get(value);
+        if (null != ids && ids.remove(id)) {
+            if (ids.isEmpty()) {
+                valueToIds.remove(value);
+            }
+            this.valueCount--;
+        }
+    }
+
+    /**
+     * The inverse of {@link #idToValues}, holding the ids for each value sorted by id, which makes
+     * {@link #findIdsByValue(Object, int, int)} proportional to the number of matching ids. Values are matched the same
+     * way the value sets match them, see {@link #valueToIds(Set)}.
+     */
     // @VisibleForTesting
-    final SortedMap<K, Set<V>> idToValues;
+    final Map<V, NavigableSet<K>> valueToIds;
+
+    private final Comparator<K> idComparator;
 
     @Override
     public Runnable addStoreWatcher(final MultiValueStoreWatcher<K, V> watcher) {
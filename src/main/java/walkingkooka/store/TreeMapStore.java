@@ -20,21 +20,24 @@ package walkingkooka.store;
 import walkingkooka.CanBeEmpty;
 import walkingkooka.HasId;
 import walkingkooka.collect.list.Lists;
-import walkingkooka.collect.map.Maps;
 import walkingkooka.collect.set.Sets;
 import walkingkooka.text.printer.IndentingPrinter;
 import walkingkooka.text.printer.TreePrintable;
 
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.NavigableMap;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.function.BiFunction;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * A {@link Store} that shares a {@link TreeMap} and automatically allocates an ID if saving a value without an ID.
@@ -60,7 +63,7 @@ final class TreeMapStore<K, V extends HasId<Optional<K>>> implements Store<K, V>
      */
     private TreeMapStore(final Comparator<K> idComparator, final BiFunction<K, V, V> idSetter) {
         super();
-        this.idToValue = Maps.sorted(idComparator);
+        this.idToValue = new TreeMap<>(idComparator);
         this.idSetter = idSetter;
     }
 
@@ -84,6 +87,12 @@ final class TreeMapStore<K, V extends HasId<Optional<K>>> implements Store<K, V>
     private V update(final K id,
                      final V value) {
         final V previous = this.idToValue.put(id, value);
+        if (null == previous) {
+            this.updateRank(
+                id,
+                1
+            );
+        }
         if (false == value.equals(previous)) {
             this.watchers.onValueChange(
                 Optional.ofNullable(previous),
@@ -101,11 +110,16 @@ final class TreeMapStore<K, V extends HasId<Optional<K>>> implements Store<K, V>
             idToValue.lastKey();
 
         final V valueWithId = this.idSetter.apply(max, value);
+        final K id = valueWithId.id()
+            .get();
         idToValue.put(
-            valueWithId.id()
-                .get(),
+            id,
             valueWithId
         );
+        this.updateRank(
+            id,
+            1
+        );
         this.watchers.onValueChange(
             Optional.empty(),
             Optional.of(valueWithId)
@@ -124,6 +138,10 @@ final class TreeMapStore<K, V extends HasId<Optional<K>>> implements Store<K, V>
 
         final V deleted = this.idToValue.remove(id);
         if (null != deleted) {
+            this.updateRank(
+                id,
+                0
+            );
             this.watchers.onValueChange(
                 Optional.of(deleted),
                 Optional.empty()
@@ -131,6 +149,52 @@ final class TreeMapStore<K, V extends HasId<Optional<K>>> implements Store<K, V>
         }
     }
 
+    /**
+     * Removes the whole sub range with a single clear of the {@link TreeMap} view, firing one
+     * {@link StoreWatcher#onValuesDeleted(List)}.
+     */
+    @Override
+    public void deleteBetween(final K from,
+                              final K to) {
+        Store.checkBetween(from, to);
+
+        final NavigableMap<K, V> idToValue = this.idToValue;
+        if (idToValue.comparator().compare(from, to) <= 0) {
+            final NavigableMap<K, V> range = idToValue.subMap(
+                from,
+                true,
+                to,
+                true
+            );
+
+            if (false == range.isEmpty()) {
+                final List<V> deleted = Lists.array();
+                deleted.addAll(range.values());
+
+                final StoreRankTree<K> rank = this.rank;
+                if (null == rank || deleted.size() * 2 > idToValue.size()) {
+                    range.clear();
+                    if (null != rank) {
+                        rank.rebuild(
+                            idToValue,
+                            (v) -> 1
+                        );
+                    }
+                } else {
+                    for (final K id : range.keySet()) {
+                        rank.set(
+                            id,
+                            0
+                        );
+                    }
+                    range.clear();
+                }
+
+                this.watchers.onValuesDeleted(deleted);
+            }
+        }
+    }
+
     @Override
     public int count() {
         return this.idToValue.size();
@@ -161,6 +225,204 @@ final class TreeMapStore<K, V extends HasId<Optional<K>>> implements Store<K, V>
             .collect(Collectors.toCollection(Lists::array));
     }
 
+    @Override
+    public Set<K> idsAfter(final K lastSeen,
+                           final int count) {
+        Objects.requireNonNull(lastSeen, "lastSeen");
+        Store.checkCount(count);
+
+        return first(
+            this.idToValue.tailMap(
+                lastSeen,
+                false
+            ).navigableKeySet(),
+            count,
+            Sets.ordered()
+        );
+    }
+
+    @Override
+    public Set<K> idsBefore(final K firstSeen,
+                            final int count) {
+        Objects.requireNonNull(firstSeen, "firstSeen");
+        Store.checkCount(count);
+
+        return first(
+            this.idToValue.headMap(
+                firstSeen,
+                false
+            ).descendingKeySet(),
+            count,
+            Sets.ordered()
+        );
+    }
+
+    @Override
+    public List<V> valuesAfter(final K lastSeen,
+                               final int count) {
+        Objects.requireNonNull(lastSeen, "lastSeen");
+        Store.checkCount(count);
+
+        return first(
+            this.idToValue.tailMap(
+                lastSeen,
+                false
+            ).values(),
+            count,
+            Lists.array()
+        );
+    }
+
+    @Override
+    public List<V> valuesBefore(final K firstSeen,
+                                final int count) {
+        Objects.requireNonNull(firstSeen, "firstSeen");
+        Store.checkCount(count);
+
+        return first(
+            this.idToValue.headMap(
+                firstSeen,
+                false
+            ).descendingMap()
+                .values(),
+            count,
+            Lists.array()
+        );
+    }
+
+    /**
+     * Copies up to count elements from the start of the given view, seeking into the tree is O(log n).
+     */
+    private static <T, C extends Collection<T>> C first(final Collection<T> view,
+                                                        final int count,
+                                                        final C first) {
+        if (count > 0) {
+            for (final T element : view) {
+                first.add(element);
+                if (first.size() >= count) {
+                    break;
+                }
+            }
+        }
+        return first;
+    }
+
+    @Override
+    public Optional<K> firstId() {
+        return id(
+            this.idToValue.firstEntry()
+        );
+    }
+
+    @Override
+    public Optional<V> firstValue() {
+        return value(
+            this.idToValue.firstEntry()
+        );
+    }
+
+    @Override
+    public Optional<K> lastId() {
+        return id(
+            this.idToValue.lastEntry()
+        );
+    }
+
+    @Override
+    public Optional<V> lastValue() {
+        return value(
+            this.idToValue.lastEntry()
+        );
+    }
+
+    @Override
+    public Optional<K> floorId(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        return Optional.ofNullable(
+            this.idToValue.floorKey(id)
+        );
+    }
+
+    @Override
+    public Optional<V> floorValue(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        return value(
+            this.idToValue.floorEntry(id)
+        );
+    }
+
+    @Override
+    public Optional<K> ceilingId(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        return Optional.ofNullable(
+            this.idToValue.ceilingKey(id)
+        );
+    }
+
+    @Override
+    public Optional<V> ceilingValue(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        return value(
+            this.idToValue.ceilingEntry(id)
+        );
+    }
+
+    @Override
+    public Optional<K> higherId(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        return Optional.ofNullable(
+            this.idToValue.higherKey(id)
+        );
+    }
+
+    @Override
+    public Optional<V> higherValue(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        return value(
+            this.idToValue.higherEntry(id)
+        );
+    }
+
+    @Override
+    public Optional<K> lowerId(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        return Optional.ofNullable(
+            this.idToValue.lowerKey(id)
+        );
+    }
+
+    @Override
+    public Optional<V> lowerValue(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        return value(
+            this.idToValue.lowerEntry(id)
+        );
+    }
+
+    /**
+     * Helpers that unwrap the id or value of an entry returned by a {@link NavigableMap} lookup, which is null when
+     * no such entry exists.
+     */
+    private static <K> Optional<K> id(final Entry<K, ?> entry) {
+        return null == entry ?
+            Optional.empty() :
+            Optional.of(entry.getKey());
+    }
+
+    private static <V> Optional<V> value(final Entry<?, V> entry) {
+        return null == entry ?
+            Optional.empty() :
+            Optional.of(entry.getValue());
+    }
+
     @Override
     public List<V> between(final K from, final K to) {
         Store.checkBetween(from, to);
@@ -182,11 +444,145 @@ final class TreeMapStore<K, V extends HasId<Optional<K>>> implements Store<K, V>
         return values;
     }
 
+    @Override
+    public int countBetween(final K from,
+                            final K to) {
+        Store.checkBetween(from, to);
+
+        final StoreRankTree<K> rank = this.rank();
+        return this.idToValue.comparator().compare(from, to) > 0 ?
+            0 :
+            rank.weightBefore(
+                to,
+                true
+            ) - rank.weightBefore(
+                from,
+                false
+            );
+    }
+
+    @Override
+    public int rankOf(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        return this.rank()
+            .weightBefore(
+                id,
+                false
+            );
+    }
+
+    /**
+     * Scans in parallel when both the store and offset + count are at least {@link StoreQuery#PARALLEL_THRESHOLD}, the
+     * {@link TreeMap} spliterator splitting the key space into ranges.
+     */
+    @Override
+    public List<V> query(final Predicate<V> filter,
+                         final int offset,
+                         final int count) {
+        Objects.requireNonNull(filter, "filter");
+        Store.checkOffsetAndCount(offset, count);
+
+        return StoreQuery.query(
+            this.stream(),
+            this.count() >= StoreQuery.PARALLEL_THRESHOLD,
+            filter,
+            offset,
+            count
+        );
+    }
+
+    @Override
+    public List<V> query(final K from,
+                         final K to,
+                         final Predicate<V> filter,
+                         final int offset,
+                         final int count) {
+        Store.checkBetween(from, to);
+        Objects.requireNonNull(filter, "filter");
+        Store.checkOffsetAndCount(offset, count);
+
+        return StoreQuery.query(
+            this.stream(
+                from,
+                to
+            ),
+            this.countBetween(from, to) >= StoreQuery.PARALLEL_THRESHOLD,
+            filter,
+            offset,
+            count
+        );
+    }
+
+    /**
+     * Streams the values of the {@link TreeMap} directly, which reports its size and splits for parallel streams.
+     */
+    @Override
+    public Stream<V> stream() {
+        return this.idToValue.values()
+            .stream();
+    }
+
+    @Override
+    public Stream<V> stream(final K from,
+                            final K to) {
+        Store.checkBetween(from, to);
+
+        final NavigableMap<K, V> idToValue = this.idToValue;
+        return idToValue.comparator().compare(from, to) > 0 ?
+            Stream.empty() :
+            idToValue.subMap(
+                from,
+                true,
+                to,
+                true
+            ).values().stream();
+    }
+
     /**
      * A {@link TreeMap} sorted by ID from lowest to highest.
      */
     // VisibleForTesting
-    final SortedMap<K, V> idToValue;
+    final NavigableMap<K, V> idToValue;
+
+    /**
+     * Holds every id with a weight of one, answering {@link #countBetween(Object, Object)} and {@link #rankOf(Object)}
+     * in O(log n), because counting a {@link TreeMap#subMap(Object, boolean, Object, boolean)} visits every entry. It
+     * is built in O(n) by the first of those queries, and only from then on does each save or delete also update it in
+     * O(log n), so stores that never count or rank pay nothing.
+     */
+    private StoreRankTree<K> rank;
+
+    private StoreRankTree<K> rank() {
+        StoreRankTree<K> rank = this.rank;
+        if (null == rank) {
+            final NavigableMap<K, V> idToValue = this.idToValue;
+
+            rank = StoreRankTree.with(
+                idToValue.comparator()
+            );
+            rank.rebuild(
+                idToValue,
+                (v) -> 1
+            );
+            this.rank = rank;
+        }
+        return rank;
+    }
+
+    /**
+     * Keeps the {@link #rank} in step with a save or delete once it has been built.
+     */
+    private void updateRank(final K id,
+                            final int weight) {
+        final StoreRankTree<K> rank = this.rank;
+        if (null != rank) {
+            rank.set(
+                id,
+                weight
+            );
+        }
+    }
 
     @Override
     public Runnable addStoreWatcher(final StoreWatcher<V> watcher) {
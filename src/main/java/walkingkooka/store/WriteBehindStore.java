@@ -0,0 +1,369 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+import walkingkooka.HasId;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * A {@link Store} that records saves and deletes in a buffer sorted by id, and writes the coalesced changes to the
+ * wrapped {@link Store} in batches. A batch is flushed when the buffer is full, when the oldest buffered change is
+ * older than the maximum age, or before any positional read such as {@link #ids(int, int)}. Because there are no
+ * background threads, the age is checked at the start of every operation, so an idle store should also be flushed by
+ * the caller, for example from a timer.
+ * <br>
+ * {@link #load(Object)} and {@link #between(Object, Object)} read the buffer over the wrapped store. Watchers added to
+ * this store are fired when a change is buffered, not when it is flushed. Only while there are watchers does a change
+ * to an id that is not buffered load its old value from the wrapped store. Saving a value without an id flushes the
+ * buffer and saves directly, because only the wrapped store can allocate the id.
+ */
+final class WriteBehindStore<K, V extends HasId<Optional<K>>> implements FlushableStore<K, V> {
+
+    static <K, V extends HasId<Optional<K>>> WriteBehindStore<K, V> with(final Store<K, V> store,
+                                                                         final Comparator<K> idComparator,
+                                                                         final int maxBuffered,
+                                                                         final long maxAge,
+                                                                         final LongSupplier now) {
+        Objects.requireNonNull(store, "store");
+        Objects.requireNonNull(idComparator, "idComparator");
+        if (maxBuffered <= 0) {
+            throw new IllegalArgumentException("Invalid maxBuffered " + maxBuffered + " <= 0");
+        }
+        if (maxAge < 0) {
+            throw new IllegalArgumentException("Invalid maxAge " + maxAge + " < 0");
+        }
+        Objects.requireNonNull(now, "now");
+
+        return new WriteBehindStore<>(
+            store,
+            idComparator,
+            maxBuffered,
+            maxAge,
+            now
+        );
+    }
+
+    private WriteBehindStore(final Store<K, V> store,
+                             final Comparator<K> idComparator,
+                             final int maxBuffered,
+                             final long maxAge,
+                             final LongSupplier now) {
+        super();
+        this.store = store;
+        this.idComparator = idComparator;
+        this.buffer = Maps.sorted(idComparator);
+        this.maxBuffered = maxBuffered;
+        this.maxAge = maxAge;
+        this.now = now;
+    }
+
+    // Store............................................................................................................
+
+    @Override
+    public Optional<V> load(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        this.flushIfOld();
+
+        final Optional<V> buffered = this.buffer.get(id);
+        return null != buffered ?
+            buffered :
+            this.store.load(id);
+    }
+
+    @Override
+    public V save(final V value) {
+        Objects.requireNonNull(value, "value");
+
+        this.flushIfOld();
+
+        final K id = value.id()
+            .orElse(null);
+        final V saved;
+        if (null == id) {
+            this.flush();
+            saved = this.store.save(value);
+            this.watchers.onValueChange(
+                Optional.empty(),
+                Optional.of(saved)
+            );
+        } else {
+            saved = value;
+            this.buffer(
+                id,
+                Optional.of(value)
+            );
+        }
+        return saved;
+    }
+
+    @Override
+    public void delete(final K id) {
+        Objects.requireNonNull(id, "id");
+
+        this.flushIfOld();
+        this.buffer(
+            id,
+            Optional.empty()
+        );
+    }
+
+    /**
+     * Buffers the change, reading the old value from the wrapped store only when there are watchers to fire. Without
+     * watchers a delete of an unknown id is also buffered, and is written as a harmless delete.
+     */
+    private void buffer(final K id,
+                        final Optional<V> value) {
+        final StoreWatchers<V> watchers = this.watchers;
+
+        Optional<V> previous = this.buffer.get(id);
+        if (null == previous && false == watchers.isEmpty()) {
+            previous = this.store.load(id);
+        }
+
+        if (null == previous || previous.isPresent() || value.isPresent()) {
+            final SortedMap<K, Optional<V>> buffer = this.buffer;
+            if (buffer.isEmpty()) {
+                this.oldest = this.now.getAsLong();
+            }
+            buffer.put(
+                id,
+                value
+            );
+
+            if (null != previous) {
+                watchers.onValueChange(
+                    previous,
+                    value
+                );
+            }
+
+            // the buffer is full, write it before accepting more changes
+            if (buffer.size() >= this.maxBuffered) {
+                this.flush();
+            }
+        }
+    }
+
+    @Override
+    public int count() {
+        this.flush();
+        return this.store.count();
+    }
+
+    @Override
+    public Set<K> ids(final int offset,
+                      final int count) {
+        Store.checkOffsetAndCount(offset, count);
+
+        this.flush();
+        return this.store.ids(
+            offset,
+            count
+        );
+    }
+
+    @Override
+    public List<V> values(final int offset,
+                          final int count) {
+        Store.checkOffsetAndCount(offset, count);
+
+        this.flush();
+        return this.store.values(
+            offset,
+            count
+        );
+    }
+
+    /**
+     * Flushes and then streams the wrapped store, which may stream its own structure.
+     */
+    @Override
+    public Stream<V> stream() {
+        this.flush();
+        return this.store.stream();
+    }
+
+    @Override
+    public List<V> between(final K from,
+                           final K to) {
+        Store.checkBetween(from, to);
+
+        this.flushIfOld();
+
+        final SortedMap<K, Optional<V>> buffer = this.buffer;
+        final List<V> values = this.store.between(
+            from,
+            to
+        );
+
+        final List<V> between;
+        if (buffer.isEmpty()) {
+            between = values;
+        } else {
+            final Comparator<K> idComparator = this.idComparator;
+            final SortedMap<K, V> idToValue = Maps.sorted(idComparator);
+            for (final V value : values) {
+                idToValue.put(
+                    value.id().get(),
+                    value
+                );
+            }
+
+            for (final Entry<K, Optional<V>> idAndValue : buffer.tailMap(from).entrySet()) {
+                final K id = idAndValue.getKey();
+                if (idComparator.compare(id, to) > 0) {
+                    break;
+                }
+
+                final V value = idAndValue.getValue()
+                    .orElse(null);
+                if (null != value) {
+                    idToValue.put(
+                        id,
+                        value
+                    );
+                } else {
+                    idToValue.remove(id);
+                }
+            }
+
+            between = Lists.array();
+            between.addAll(idToValue.values());
+        }
+
+        return between;
+    }
+
+    @Override
+    public Runnable addStoreWatcher(final StoreWatcher<V> watcher) {
+        return this.watchers.add(watcher);
+    }
+
+    @Override
+    public Runnable addStoreWatcherOnce(final StoreWatcher<V> watcher) {
+        return this.watchers.addOnce(watcher);
+    }
+
+    private final StoreWatchers<V> watchers = StoreWatchers.empty();
+
+    /**
+     * Forwards ids dropped by the wrapped store, except buffered ids whose values will be written back by a flush.
+     */
+    @Override
+    public Runnable addIdDeletedWatcher(final StoreIdDeletedWatcher<K> watcher) {
+        Objects.requireNonNull(watcher, "watcher");
+
+        return this.store.addIdDeletedWatcher(
+            (id) -> {
+                if (false == this.buffer.containsKey(id)) {
+                    watcher.onIdDeleted(id);
+                }
+            }
+        );
+    }
+
+    // FlushableStore...................................................................................................
+
+    @Override
+    public void flush() {
+        final SortedMap<K, Optional<V>> buffer = this.buffer;
+        if (false == buffer.isEmpty()) {
+            final Store<K, V> store = this.store;
+
+            for (final Entry<K, Optional<V>> idAndValue : buffer.entrySet()) {
+                final V value = idAndValue.getValue()
+                    .orElse(null);
+                if (null != value) {
+                    store.save(value);
+                } else {
+                    store.delete(idAndValue.getKey());
+                }
+                this.writes++;
+            }
+
+            buffer.clear();
+            this.flushes++;
+        }
+    }
+
+    private void flushIfOld() {
+        if (false == this.buffer.isEmpty() && this.now.getAsLong() - this.oldest >= this.maxAge) {
+            this.flush();
+        }
+    }
+
+    private final Store<K, V> store;
+
+    private final Comparator<K> idComparator;
+
+    /**
+     * Buffered changes by id, where an empty {@link Optional} records a delete.
+     */
+    // @VisibleForTesting
+    final SortedMap<K, Optional<V>> buffer;
+
+    private final int maxBuffered;
+
+    private final long maxAge;
+
+    private final LongSupplier now;
+
+    /**
+     * The time the oldest buffered change was recorded.
+     */
+    private long oldest;
+
+    // HasStoreCounters.................................................................................................
+
+    @Override
+    public Map<String, Long> counters() {
+        final Map<String, Long> counters = Maps.ordered();
+        counters.put("buffered", (long) this.buffer.size());
+        counters.put("flushes", this.flushes);
+        counters.put("writes", this.writes);
+        return counters;
+    }
+
+    private long flushes;
+
+    /**
+     * The number of saves and deletes written to the wrapped store, after coalescing.
+     */
+    private long writes;
+
+    // Object...........................................................................................................
+
+    @Override
+    public String toString() {
+        return this.store + " " + this.buffer;
+    }
+}
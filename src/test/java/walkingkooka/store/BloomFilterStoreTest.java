@@ -0,0 +1,304 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.reflect.TypeNameTesting;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class BloomFilterStoreTest implements StoreTesting<BloomFilterStore<TestUserId, TestUser>, TestUserId, TestUser>,
+    TypeNameTesting<BloomFilterStore<TestUserId, TestUser>> {
+
+    private final static int EXPECTED_IDS = 100;
+
+    private final static double FALSE_POSITIVE_RATE = 0.01;
+
+    @Test
+    public void testWithNullStoreFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> BloomFilterStore.with(
+                null,
+                EXPECTED_IDS,
+                FALSE_POSITIVE_RATE
+            )
+        );
+    }
+
+    @Test
+    public void testWithZeroExpectedIdsFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> BloomFilterStore.with(
+                TestUser.treeMapStore(),
+                0,
+                FALSE_POSITIVE_RATE
+            )
+        );
+    }
+
+    @Test
+    public void testWithInvalidFalsePositiveRateFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> BloomFilterStore.with(
+                TestUser.treeMapStore(),
+                EXPECTED_IDS,
+                1
+            )
+        );
+    }
+
+    @Test
+    public void testLoadExistingBeforeWrap() {
+        final Store<TestUserId, TestUser> wrapped = TestUser.treeMapStore();
+        final TestUser user = TestUser.withId(1);
+        wrapped.save(user);
+
+        this.loadAndCheck(
+            BloomFilterStore.with(
+                wrapped,
+                EXPECTED_IDS,
+                FALSE_POSITIVE_RATE
+            ),
+            user.id().get(),
+            user
+        );
+    }
+
+    @Test
+    public void testLoadAfterSave() {
+        final BloomFilterStore<TestUserId, TestUser> store = this.createStore();
+        final TestUser user = TestUser.withId(1);
+        store.save(user);
+
+        this.loadAndCheck(
+            store,
+            user.id().get(),
+            user
+        );
+    }
+
+    @Test
+    public void testLoadAfterSaveWithoutId() {
+        final BloomFilterStore<TestUserId, TestUser> store = this.createStore();
+        final TestUser saved = store.save(
+            TestUser.with(
+                Optional.empty(),
+                "new@example.com"
+            )
+        );
+
+        this.loadAndCheck(
+            store,
+            saved.id().get(),
+            saved
+        );
+    }
+
+    @Test
+    public void testLoadAfterDelete() {
+        final BloomFilterStore<TestUserId, TestUser> store = this.createStore();
+        final TestUser user = TestUser.withId(1);
+        store.save(user);
+        store.delete(user.id().get());
+
+        this.loadAndCheck(
+            store,
+            user.id().get()
+        );
+    }
+
+    @Test
+    public void testLoadMissingDoesNotTouchWrappedStore() {
+        final LoadCountingStore counting = new LoadCountingStore();
+        for (int i = 1; i <= 50; i++) {
+            counting.store.save(TestUser.withId(i));
+        }
+
+        final BloomFilterStore<TestUserId, TestUser> store = BloomFilterStore.with(
+            counting,
+            EXPECTED_IDS,
+            FALSE_POSITIVE_RATE
+        );
+
+        for (int i = 1000; i < 2000; i++) {
+            store.load(TestUserId.with(i));
+        }
+
+        final long definiteMisses = store.counters()
+            .get("definiteMisses");
+        this.checkEquals(
+            1000L,
+            definiteMisses + counting.loads,
+            "definite misses + wrapped store loads"
+        );
+        this.checkEquals(
+            true,
+            definiteMisses > 950,
+            () -> "definite misses " + definiteMisses
+        );
+    }
+
+    @Test
+    public void testRebuildAfterManyDeletes() {
+        final BloomFilterStore<TestUserId, TestUser> store = BloomFilterStore.with(
+            TestUser.treeMapStore(),
+            10,
+            FALSE_POSITIVE_RATE
+        );
+        for (int i = 1; i <= 10; i++) {
+            store.save(TestUser.withId(i));
+        }
+        for (int i = 1; i <= 6; i++) {
+            store.delete(TestUserId.with(i));
+        }
+
+        this.checkEquals(
+            1L,
+            store.counters()
+                .get("rebuilds"),
+            "rebuilds"
+        );
+
+        for (int i = 7; i <= 10; i++) {
+            this.loadAndCheck(
+                store,
+                TestUserId.with(i),
+                TestUser.withId(i)
+            );
+        }
+    }
+
+    @Test
+    public void testUpdatesDoNotRebuild() {
+        final BloomFilterStore<TestUserId, TestUser> store = BloomFilterStore.with(
+            TestUser.treeMapStore(),
+            10,
+            FALSE_POSITIVE_RATE
+        );
+        for (int i = 1; i <= 10; i++) {
+            store.save(TestUser.withId(i));
+        }
+        for (int update = 1; update <= 5; update++) {
+            for (int i = 1; i <= 10; i++) {
+                store.save(
+                    TestUser.with(
+                        Optional.of(
+                            TestUserId.with(i)
+                        ),
+                        "update" + update + "@example.com"
+                    )
+                );
+            }
+        }
+
+        this.checkEquals(
+            0L,
+            store.counters()
+                .get("rebuilds"),
+            "rebuilds"
+        );
+    }
+
+    @Test
+    public void testRebuildAfterGrowth() {
+        final BloomFilterStore<TestUserId, TestUser> store = BloomFilterStore.with(
+            TestUser.treeMapStore(),
+            10,
+            FALSE_POSITIVE_RATE
+        );
+        for (int i = 1; i <= 100; i++) {
+            store.save(TestUser.withId(i));
+        }
+
+        for (int i = 1; i <= 100; i++) {
+            this.loadAndCheck(
+                store,
+                TestUserId.with(i),
+                TestUser.withId(i)
+            );
+        }
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        final Store<TestUserId, TestUser> wrapped = TestUser.treeMapStore();
+
+        this.toStringAndCheck(
+            BloomFilterStore.with(
+                wrapped,
+                EXPECTED_IDS,
+                FALSE_POSITIVE_RATE
+            ),
+            wrapped + " {definiteMisses=0, falsePositives=0, rebuilds=0}"
+        );
+    }
+
+    // helpers..........................................................................................................
+
+    /**
+     * Counts the number of {@link Store#load(Object)} that reach the wrapped store.
+     */
+    // StoreTesting.....................................................................................................
+
+    @Override
+    public BloomFilterStore<TestUserId, TestUser> createStore() {
+        return BloomFilterStore.with(
+            TestUser.treeMapStore(),
+            EXPECTED_IDS,
+            FALSE_POSITIVE_RATE
+        );
+    }
+
+    @Override
+    public TestUserId id() {
+        return TestUserId.with(1);
+    }
+
+    @Override
+    public TestUser value() {
+        return TestUser.withId(1);
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<BloomFilterStore<TestUserId, TestUser>> type() {
+        return Cast.to(BloomFilterStore.class);
+    }
+
+    // TypeNameTesting..................................................................................................
+
+    @Override
+    public String typeNamePrefix() {
+        return "BloomFilter";
+    }
+
+    @Override
+    public String typeNameSuffix() {
+        return Store.class.getSimpleName();
+    }
+}
@@ -0,0 +1,410 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.TypeNameTesting;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.ToIntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class BudgetStoreTest implements StoreTesting<BudgetStore<TestUserId, TestUser>, TestUserId, TestUser>,
+    TypeNameTesting<BudgetStore<TestUserId, TestUser>> {
+
+    private final static ToIntFunction<TestUser> ENTRIES = (v) -> 1;
+
+    @Test
+    public void testWithNullStoreFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> BudgetStore.with(
+                null,
+                StoreBudget.lru(10),
+                ENTRIES
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullBudgetFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> BudgetStore.with(
+                TestUser.treeMapStore(),
+                null,
+                ENTRIES
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullWeigherFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> BudgetStore.with(
+                TestUser.treeMapStore(),
+                StoreBudget.lru(10),
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testWithEvictsExisting() {
+        final Store<TestUserId, TestUser> wrapped = TestUser.treeMapStore();
+        wrapped.save(TestUser.withId(1));
+        wrapped.save(TestUser.withId(2));
+        wrapped.save(TestUser.withId(3));
+
+        final StoreBudget budget = StoreBudget.lru(2);
+        BudgetStore.with(
+            wrapped,
+            budget,
+            ENTRIES
+        );
+
+        this.idsAndCheck(
+            wrapped,
+            0,
+            3,
+            TestUserId.with(2),
+            TestUserId.with(3)
+        );
+        this.weightAndCheck(
+            budget,
+            2
+        );
+    }
+
+    @Test
+    public void testSaveEvictsLeastRecentlyUsed() {
+        final BudgetStore<TestUserId, TestUser> store = this.createStore(StoreBudget.lru(2));
+        store.save(TestUser.withId(1));
+        store.save(TestUser.withId(2));
+
+        store.load(TestUserId.with(1));
+        store.save(TestUser.withId(3));
+
+        this.idsAndCheck(
+            store,
+            0,
+            3,
+            TestUserId.with(1),
+            TestUserId.with(3)
+        );
+    }
+
+    @Test
+    public void testSaveEvictsLeastFrequentlyUsed() {
+        final BudgetStore<TestUserId, TestUser> store = this.createStore(StoreBudget.lfu(2));
+        store.save(TestUser.withId(1));
+        store.save(TestUser.withId(2));
+
+        store.load(TestUserId.with(1));
+        store.load(TestUserId.with(1));
+        store.load(TestUserId.with(2));
+        store.save(TestUser.withId(3));
+
+        this.idsAndCheck(
+            store,
+            0,
+            3,
+            TestUserId.with(1),
+            TestUserId.with(3)
+        );
+    }
+
+    @Test
+    public void testSaveIntoFullLeastFrequentlyUsedKeepsSaved() {
+        final BudgetStore<TestUserId, TestUser> store = this.createStore(StoreBudget.lfu(2));
+        store.save(TestUser.withId(1));
+        store.save(TestUser.withId(2));
+
+        store.load(TestUserId.with(1));
+        store.load(TestUserId.with(2));
+        store.save(TestUser.withId(3));
+
+        this.loadAndCheck(
+            store,
+            TestUserId.with(3),
+            TestUser.withId(3)
+        );
+        this.countAndCheck(
+            store,
+            2
+        );
+    }
+
+    @Test
+    public void testSaveReplaceDoesNotEvict() {
+        final StoreBudget budget = StoreBudget.lru(2);
+        final BudgetStore<TestUserId, TestUser> store = this.createStore(budget);
+        store.save(TestUser.withId(1));
+        store.save(TestUser.withId(2));
+        store.save(
+            TestUser.with(
+                Optional.of(
+                    TestUserId.with(1)
+                ),
+                "replaced@example.com"
+            )
+        );
+
+        this.countAndCheck(
+            store,
+            2
+        );
+        this.weightAndCheck(
+            budget,
+            2
+        );
+    }
+
+    @Test
+    public void testDeleteReleasesWeight() {
+        final StoreBudget budget = StoreBudget.lru(2);
+        final BudgetStore<TestUserId, TestUser> store = this.createStore(budget);
+        store.save(TestUser.withId(1));
+        store.save(TestUser.withId(2));
+        store.delete(TestUserId.with(1));
+
+        this.weightAndCheck(
+            budget,
+            1
+        );
+    }
+
+    @Test
+    public void testWeigher() {
+        final StoreBudget budget = StoreBudget.lru(100);
+        final BudgetStore<TestUserId, TestUser> store = BudgetStore.with(
+            TestUser.treeMapStore(),
+            budget,
+            (u) -> u.email.length()
+        );
+
+        final TestUser user1 = TestUser.withId(1);
+        store.save(user1);
+        store.save(TestUser.withId(2));
+        store.save(TestUser.withId(3));
+        store.save(TestUser.withId(4));
+        store.save(TestUser.withId(5));
+        store.save(TestUser.withId(6));
+
+        // each email is 17 characters
+        this.countAndCheck(
+            store,
+            5
+        );
+        this.loadAndCheck(
+            store,
+            user1.id().get()
+        );
+        this.weightAndCheck(
+            budget,
+            85
+        );
+    }
+
+    @Test
+    public void testSharedBudget() {
+        final StoreBudget budget = StoreBudget.lru(3);
+        final BudgetStore<TestUserId, TestUser> store1 = this.createStore(budget);
+        final BudgetStore<TestUserId, TestUser> store2 = this.createStore(budget);
+
+        store1.save(TestUser.withId(1));
+        store1.save(TestUser.withId(2));
+        store2.save(TestUser.withId(3));
+        store2.save(TestUser.withId(4));
+
+        this.idsAndCheck(
+            store1,
+            0,
+            3,
+            TestUserId.with(2)
+        );
+        this.idsAndCheck(
+            store2,
+            0,
+            3,
+            TestUserId.with(3),
+            TestUserId.with(4)
+        );
+        this.weightAndCheck(
+            budget,
+            3
+        );
+    }
+
+    @Test
+    public void testSaveToWrappedStoreAccounted() {
+        final Store<TestUserId, TestUser> wrapped = TestUser.treeMapStore();
+        final StoreBudget budget = StoreBudget.lru(1);
+        final BudgetStore<TestUserId, TestUser> store = BudgetStore.with(
+            wrapped,
+            budget,
+            ENTRIES
+        );
+
+        store.save(TestUser.withId(1));
+        wrapped.save(TestUser.withId(2));
+
+        this.idsAndCheck(
+            store,
+            0,
+            3,
+            TestUserId.with(2)
+        );
+    }
+
+    @Test
+    public void testEvictionWatcher() {
+        final BudgetStore<TestUserId, TestUser> store = this.createStore(StoreBudget.lru(1));
+
+        final List<Object> evicted = Lists.array();
+        store.addEvictionWatcher(
+            (id, value) -> {
+                evicted.add(id);
+                evicted.add(value);
+            }
+        );
+
+        final List<Optional<TestUser>> changes = Lists.array();
+        store.addStoreWatcher(
+            (o, n) -> changes.add(o)
+        );
+
+        final TestUser user1 = TestUser.withId(1);
+        store.save(user1);
+        store.save(TestUser.withId(2));
+
+        this.checkEquals(
+            Lists.of(
+                user1.id().get(),
+                user1
+            ),
+            evicted,
+            "evicted"
+        );
+        this.checkEquals(
+            Lists.of(
+                Optional.empty(),
+                Optional.of(user1),
+                Optional.empty()
+            ),
+            changes,
+            "store watcher old values"
+        );
+        this.checkEquals(
+            1L,
+            store.counters()
+                .get("evictions"),
+            "evictions"
+        );
+    }
+
+    @Test
+    public void testAddEvictionWatcherNullFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createStore()
+                .addEvictionWatcher(null)
+        );
+    }
+
+    private void weightAndCheck(final StoreBudget budget,
+                                final long weight) {
+        this.checkEquals(
+            weight,
+            budget.weight(),
+            budget::toString
+        );
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        final Store<TestUserId, TestUser> wrapped = TestUser.treeMapStore();
+        final BudgetStore<TestUserId, TestUser> store = BudgetStore.with(
+            wrapped,
+            StoreBudget.lru(10),
+            ENTRIES
+        );
+        store.save(TestUser.withId(1));
+
+        this.toStringAndCheck(
+            store,
+            wrapped + " 1/10"
+        );
+    }
+
+    // helpers..........................................................................................................
+
+    private BudgetStore<TestUserId, TestUser> createStore(final StoreBudget budget) {
+        return BudgetStore.with(
+            TestUser.treeMapStore(),
+            budget,
+            ENTRIES
+        );
+    }
+
+    // StoreTesting.....................................................................................................
+
+    @Override
+    public BudgetStore<TestUserId, TestUser> createStore() {
+        return this.createStore(
+            StoreBudget.lru(10)
+        );
+    }
+
+    @Override
+    public TestUserId id() {
+        return TestUserId.with(1);
+    }
+
+    @Override
+    public TestUser value() {
+        return TestUser.withId(1);
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<BudgetStore<TestUserId, TestUser>> type() {
+        return Cast.to(BudgetStore.class);
+    }
+
+    // TypeNameTesting..................................................................................................
+
+    @Override
+    public String typeNamePrefix() {
+        return "Budget";
+    }
+
+    @Override
+    public String typeNameSuffix() {
+        return Store.class.getSimpleName();
+    }
+}
@@ -0,0 +1,409 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.collect.set.Sets;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class CachingMultiValueStoreTest implements MultiValueStoreTesting<CachingMultiValueStore<String, Integer>, String, Integer>,
+    ToStringTesting<CachingMultiValueStore<String, Integer>> {
+
+    private final static String ID1 = "Id111";
+
+    private final static String ID2 = "Id222";
+
+    private final static Integer VALUE1 = 111;
+
+    private final static Integer VALUE2 = 222;
+
+    private final static Integer VALUE3 = 333;
+
+    private final static int MAX_ENTRIES = 10;
+
+    // with.............................................................................................................
+
+    @Test
+    public void testWithZeroMaxEntriesFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> CachingMultiValueStore.with(
+                this.treeMapStore(),
+                0,
+                true
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullStoreFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> CachingMultiValueStore.with(
+                null,
+                MAX_ENTRIES,
+                true
+            )
+        );
+    }
+
+    // findValuesById...................................................................................................
+
+    @Test
+    public void testFindValuesByIdHit() {
+        final CachingMultiValueStore<String, Integer> store = this.createStoreWithValues();
+
+        final List<Integer> values = store.findValuesById(
+            ID2,
+            0,
+            Integer.MAX_VALUE
+        );
+        assertSame(
+            values,
+            store.findValuesById(
+                ID2,
+                0,
+                Integer.MAX_VALUE
+            )
+        );
+
+        this.findValuesByIdAndCheck(
+            store,
+            ID2,
+            VALUE2,
+            VALUE3
+        );
+        this.countersAndCheck(
+            store,
+            2,
+            1,
+            0
+        );
+    }
+
+    @Test
+    public void testFindValuesByIdSliced() {
+        final CachingMultiValueStore<String, Integer> store = this.createStoreWithValues();
+
+        this.findValuesByIdAndCheck2(
+            store,
+            ID2,
+            1,
+            1,
+            VALUE3
+        );
+        this.findValuesByIdAndCheck2(
+            store,
+            ID2,
+            0,
+            1,
+            VALUE2
+        );
+        this.findValuesByIdAndCheck2(
+            store,
+            ID2,
+            5,
+            1
+        );
+        this.countersAndCheck(
+            store,
+            2,
+            1,
+            0
+        );
+    }
+
+    @Test
+    public void testFindValuesByIdUnknown() {
+        final CachingMultiValueStore<String, Integer> store = this.createStoreWithValues();
+
+        this.findValuesByIdAndCheck(
+            store,
+            "Unknown"
+        );
+    }
+
+    @Test
+    public void testAddValueInvalidatesId() {
+        final CachingMultiValueStore<String, Integer> store = this.createStoreWithValues();
+
+        store.findValuesById(ID1, 0, 10);
+        store.findValuesById(ID2, 0, 10);
+        store.addValue(
+            ID2,
+            VALUE1
+        );
+
+        this.findValuesByIdAndCheck(
+            store,
+            ID2,
+            VALUE2,
+            VALUE3,
+            VALUE1
+        );
+        this.findValuesByIdAndCheck(
+            store,
+            ID1,
+            VALUE1
+        );
+        this.countersAndCheck(
+            store,
+            1,
+            3,
+            1
+        );
+    }
+
+    @Test
+    public void testRemoveValueOnWrappedStoreInvalidates() {
+        final MultiValueStore<String, Integer> wrapped = this.treeMapStore();
+        wrapped.addValue(ID1, VALUE1);
+        wrapped.addValue(ID1, VALUE2);
+
+        final CachingMultiValueStore<String, Integer> store = CachingMultiValueStore.with(
+            wrapped,
+            MAX_ENTRIES,
+            true
+        );
+        store.findValuesById(ID1, 0, 10);
+        wrapped.removeValue(
+            ID1,
+            VALUE1
+        );
+
+        this.findValuesByIdAndCheck(
+            store,
+            ID1,
+            VALUE2
+        );
+    }
+
+    @Test
+    public void testDeleteInvalidates() {
+        final CachingMultiValueStore<String, Integer> store = this.createStoreWithValues();
+
+        store.findValuesById(ID2, 0, 10);
+        store.delete(ID2);
+
+        this.findValuesByIdAndCheck(
+            store,
+            ID2
+        );
+    }
+
+    @Test
+    public void testFindValuesByIdEvictsLeastRecentlyUsed() {
+        final CachingMultiValueStore<String, Integer> store = CachingMultiValueStore.with(
+            this.treeMapStore(),
+            2,
+            true
+        );
+        store.addValue(ID1, VALUE1);
+        store.addValue(ID2, VALUE2);
+
+        store.findValuesById(ID1, 0, 10);
+        store.findValuesById(ID2, 0, 10);
+        store.findValuesById(ID1, 0, 10);
+        store.findValuesById("Id333", 0, 10);
+
+        // ID2 was least recently used and is evicted, ID1 is still remembered
+        store.findValuesById(ID1, 0, 10);
+        store.findValuesById(ID2, 0, 10);
+
+        this.countersAndCheck(
+            store,
+            2,
+            4,
+            0,
+            2
+        );
+    }
+
+    // findIdsByValue...................................................................................................
+
+    @Test
+    public void testFindIdsByValueHit() {
+        final CachingMultiValueStore<String, Integer> store = this.createStoreWithValues();
+        store.addValue(
+            ID2,
+            VALUE1
+        );
+
+        this.findIdsByValueAndCheck(
+            store,
+            VALUE1,
+            ID1,
+            ID2
+        );
+        this.findIdsByValueAndCheck(
+            store,
+            VALUE1,
+            1,
+            1,
+            ID2
+        );
+        this.countersAndCheck(
+            store,
+            1,
+            1,
+            0
+        );
+    }
+
+    @Test
+    public void testFindIdsByValueInvalidated() {
+        final CachingMultiValueStore<String, Integer> store = this.createStoreWithValues();
+
+        this.findIdsByValueAndCheck(
+            store,
+            VALUE1,
+            ID1
+        );
+
+        store.removeByValue(VALUE1);
+
+        this.findIdsByValueAndCheck(
+            store,
+            VALUE1
+        );
+    }
+
+    @Test
+    public void testFindIdsByValueNotCached() {
+        final CachingMultiValueStore<String, Integer> store = CachingMultiValueStore.with(
+            this.treeMapStore(),
+            MAX_ENTRIES,
+            false
+        );
+        store.addValue(ID1, VALUE1);
+
+        this.findIdsByValueAndCheck(
+            store,
+            VALUE1,
+            ID1
+        );
+        this.findIdsByValueAndCheck(
+            store,
+            VALUE1,
+            ID1
+        );
+        this.countersAndCheck(
+            store,
+            0,
+            0,
+            0
+        );
+    }
+
+    private void countersAndCheck(final CachingMultiValueStore<?, ?> store,
+                                  final long hits,
+                                  final long misses,
+                                  final long invalidations) {
+        this.countersAndCheck(
+            store,
+            hits,
+            misses,
+            invalidations,
+            0
+        );
+    }
+
+    private void countersAndCheck(final CachingMultiValueStore<?, ?> store,
+                                  final long hits,
+                                  final long misses,
+                                  final long invalidations,
+                                  final long evictions) {
+        final Map<String, Long> counters = Maps.ordered();
+        counters.put("hits", hits);
+        counters.put("misses", misses);
+        counters.put("invalidations", invalidations);
+        counters.put("evictions", evictions);
+
+        this.checkEquals(
+            counters,
+            store.counters(),
+            store::toString
+        );
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        final CachingMultiValueStore<String, Integer> store = this.createStoreWithValues();
+
+        this.toStringAndCheck(
+            store,
+            "{Id111=[111], Id222=[222, 333]} {hits=0, misses=0, invalidations=0, evictions=0}"
+        );
+    }
+
+    // helpers..........................................................................................................
+
+    private MultiValueStore<String, Integer> treeMapStore() {
+        return MultiValueStores.treeMap(
+            String.CASE_INSENSITIVE_ORDER,
+            Sets::ordered
+        );
+    }
+
+    private CachingMultiValueStore<String, Integer> createStoreWithValues() {
+        final CachingMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE1);
+        store.addValue(ID2, VALUE2);
+        store.addValue(ID2, VALUE3);
+        return store;
+    }
+
+    // MultiValueStoreTesting...........................................................................................
+
+    @Override
+    public CachingMultiValueStore<String, Integer> createStore() {
+        return CachingMultiValueStore.with(
+            this.treeMapStore(),
+            MAX_ENTRIES,
+            true
+        );
+    }
+
+    @Override
+    public String id() {
+        return ID1;
+    }
+
+    @Override
+    public Integer value() {
+        return VALUE1;
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<CachingMultiValueStore<String, Integer>> type() {
+        return Cast.to(CachingMultiValueStore.class);
+    }
+}
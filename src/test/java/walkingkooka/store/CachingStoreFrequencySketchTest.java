@@ -0,0 +1,109 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+
+public final class CachingStoreFrequencySketchTest implements ClassTesting<CachingStoreFrequencySketch> {
+
+    @Test
+    public void testFrequencyUnknown() {
+        this.frequencyAndCheck(
+            CachingStoreFrequencySketch.with(100),
+            "unknown",
+            0
+        );
+    }
+
+    @Test
+    public void testIncrement() {
+        final CachingStoreFrequencySketch sketch = CachingStoreFrequencySketch.with(100);
+        sketch.increment("a");
+        sketch.increment("a");
+        sketch.increment("b");
+
+        this.frequencyAndCheck(
+            sketch,
+            "a",
+            2
+        );
+        this.frequencyAndCheck(
+            sketch,
+            "b",
+            1
+        );
+    }
+
+    @Test
+    public void testIncrementSaturates() {
+        final CachingStoreFrequencySketch sketch = CachingStoreFrequencySketch.with(100);
+        for (int i = 0; i < 20; i++) {
+            sketch.increment("a");
+        }
+
+        this.frequencyAndCheck(
+            sketch,
+            "a",
+            15
+        );
+    }
+
+    @Test
+    public void testAgingHalvesCounters() {
+        final CachingStoreFrequencySketch sketch = CachingStoreFrequencySketch.with(1);
+        for (int i = 0; i < 8; i++) {
+            sketch.increment("a");
+        }
+
+        // sample size is 16, reaching it halves every counter
+        for (int i = 0; i < 8; i++) {
+            sketch.increment(i);
+        }
+
+        this.frequencyAndCheck(
+            sketch,
+            "a",
+            4
+        );
+    }
+
+    private void frequencyAndCheck(final CachingStoreFrequencySketch sketch,
+                                   final Object key,
+                                   final int expected) {
+        this.checkEquals(
+            expected,
+            sketch.frequency(key),
+            () -> "frequency " + key
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<CachingStoreFrequencySketch> type() {
+        return CachingStoreFrequencySketch.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,333 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.reflect.TypeNameTesting;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class CachingStoreTest implements StoreTesting<CachingStore<TestUserId, TestUser>, TestUserId, TestUser>,
+    TypeNameTesting<CachingStore<TestUserId, TestUser>> {
+
+    private final static int MAX_ENTRIES = 100;
+
+    @Test
+    public void testWithNullStoreFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> CachingStore.with(
+                null,
+                MAX_ENTRIES
+            )
+        );
+    }
+
+    @Test
+    public void testWithZeroMaxEntriesFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> CachingStore.with(
+                TestUser.treeMapStore(),
+                0
+            )
+        );
+    }
+
+    @Test
+    public void testLoadMissThenHit() {
+        final LoadCountingStore counting = new LoadCountingStore();
+        final TestUser user = TestUser.withId(1);
+        counting.store.save(user);
+
+        final CachingStore<TestUserId, TestUser> store = CachingStore.with(
+            counting,
+            MAX_ENTRIES
+        );
+
+        this.loadAndCheck(
+            store,
+            user.id().get(),
+            user
+        );
+        this.loadAndCheck(
+            store,
+            user.id().get(),
+            user
+        );
+
+        this.checkEquals(
+            1,
+            counting.loads,
+            "wrapped store loads"
+        );
+        this.countersAndCheck(
+            store,
+            1,
+            1,
+            0,
+            1
+        );
+    }
+
+    @Test
+    public void testLoadMissingNotCached() {
+        final LoadCountingStore counting = new LoadCountingStore();
+
+        final CachingStore<TestUserId, TestUser> store = CachingStore.with(
+            counting,
+            MAX_ENTRIES
+        );
+        final TestUserId id = TestUserId.with(1);
+
+        this.loadAndCheck(
+            store,
+            id
+        );
+        this.loadAndCheck(
+            store,
+            id
+        );
+
+        this.checkEquals(
+            2,
+            counting.loads,
+            "wrapped store loads"
+        );
+    }
+
+    @Test
+    public void testSaveInvalidates() {
+        final CachingStore<TestUserId, TestUser> store = this.createStore();
+        final TestUser user = TestUser.withId(1);
+        store.save(user);
+
+        this.loadAndCheck(
+            store,
+            user.id().get(),
+            user
+        );
+
+        final TestUser replaced = TestUser.with(
+            user.id(),
+            "replaced@example.com"
+        );
+        store.save(replaced);
+
+        this.loadAndCheck(
+            store,
+            user.id().get(),
+            replaced
+        );
+    }
+
+    @Test
+    public void testSaveToWrappedStoreInvalidates() {
+        final Store<TestUserId, TestUser> wrapped = TestUser.treeMapStore();
+        final TestUser user = TestUser.withId(1);
+        wrapped.save(user);
+
+        final CachingStore<TestUserId, TestUser> store = CachingStore.with(
+            wrapped,
+            MAX_ENTRIES
+        );
+        this.loadAndCheck(
+            store,
+            user.id().get(),
+            user
+        );
+
+        final TestUser replaced = TestUser.with(
+            user.id(),
+            "replaced@example.com"
+        );
+        wrapped.save(replaced);
+
+        this.loadAndCheck(
+            store,
+            user.id().get(),
+            replaced
+        );
+    }
+
+    @Test
+    public void testDeleteInvalidates() {
+        final CachingStore<TestUserId, TestUser> store = this.createStore();
+        final TestUser user = TestUser.withId(1);
+        store.save(user);
+
+        this.loadAndCheck(
+            store,
+            user.id().get(),
+            user
+        );
+
+        store.delete(user.id().get());
+
+        this.loadAndCheck(
+            store,
+            user.id().get()
+        );
+    }
+
+    @Test
+    public void testEvictionBounded() {
+        final LoadCountingStore counting = new LoadCountingStore();
+        for (int i = 1; i <= 50; i++) {
+            counting.store.save(TestUser.withId(i));
+        }
+
+        final CachingStore<TestUserId, TestUser> store = CachingStore.with(
+            counting,
+            10
+        );
+
+        for (int i = 1; i <= 50; i++) {
+            store.load(TestUserId.with(i));
+        }
+
+        this.checkEquals(
+            10L,
+            store.counters()
+                .get("size"),
+            "size"
+        );
+        this.checkEquals(
+            40L,
+            store.counters()
+                .get("evictions"),
+            "evictions"
+        );
+    }
+
+    @Test
+    public void testScanDoesNotEvictPopular() {
+        final LoadCountingStore counting = new LoadCountingStore();
+        for (int i = 1; i <= 1000; i++) {
+            counting.store.save(TestUser.withId(i));
+        }
+
+        final CachingStore<TestUserId, TestUser> store = CachingStore.with(
+            counting,
+            10
+        );
+
+        final TestUserId popular = TestUserId.with(1);
+        for (int i = 0; i < 5; i++) {
+            store.load(popular);
+        }
+
+        final int loads = counting.loads;
+
+        // one off scan of every other id, while the popular id continues to be loaded
+        for (int i = 2; i <= 1000; i++) {
+            store.load(TestUserId.with(i));
+            if (0 == i % 50) {
+                store.load(popular);
+            }
+        }
+
+        this.checkEquals(
+            loads + 999,
+            counting.loads,
+            "popular id should not be reloaded during scan"
+        );
+    }
+
+    private void countersAndCheck(final CachingStore<?, ?> store,
+                                  final long hits,
+                                  final long misses,
+                                  final long evictions,
+                                  final long size) {
+        final Map<String, Long> expected = Maps.ordered();
+        expected.put("hits", hits);
+        expected.put("misses", misses);
+        expected.put("evictions", evictions);
+        expected.put("size", size);
+
+        this.checkEquals(
+            expected,
+            store.counters()
+        );
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        final Store<TestUserId, TestUser> wrapped = TestUser.treeMapStore();
+        wrapped.save(TestUser.withId(1));
+
+        this.toStringAndCheck(
+            CachingStore.with(
+                wrapped,
+                MAX_ENTRIES
+            ),
+            wrapped + " {hits=0, misses=0, evictions=0, size=0}"
+        );
+    }
+
+    // helpers..........................................................................................................
+
+    /**
+     * Counts the number of {@link Store#load(Object)} that reach the wrapped store.
+     */
+    // StoreTesting.....................................................................................................
+
+    @Override
+    public CachingStore<TestUserId, TestUser> createStore() {
+        return CachingStore.with(
+            TestUser.treeMapStore(),
+            MAX_ENTRIES
+        );
+    }
+
+    @Override
+    public TestUserId id() {
+        return TestUserId.with(1);
+    }
+
+    @Override
+    public TestUser value() {
+        return TestUser.withId(1);
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<CachingStore<TestUserId, TestUser>> type() {
+        return Cast.to(CachingStore.class);
+    }
+
+    // TypeNameTesting..................................................................................................
+
+    @Override
+    public String typeNamePrefix() {
+        return "Caching";
+    }
+
+    @Override
+    public String typeNameSuffix() {
+        return Store.class.getSimpleName();
+    }
+}
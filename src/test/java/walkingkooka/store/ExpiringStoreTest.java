@@ -0,0 +1,428 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.reflect.TypeNameTesting;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.ToLongFunction;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class ExpiringStoreTest implements StoreTesting<ExpiringStore<TestUserId, TestUser>, TestUserId, TestUser>,
+    TypeNameTesting<ExpiringStore<TestUserId, TestUser>> {
+
+    private final static long TIME_TO_LIVE = 1000;
+
+    private final static ToLongFunction<TestUser> FIXED = (u) -> TIME_TO_LIVE;
+
+    private final static long TICK = 10;
+
+    @Test
+    public void testWithNullStoreFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ExpiringStore.with(
+                null,
+                FIXED,
+                TICK,
+                this::now
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullTimeToLiveFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ExpiringStore.with(
+                TestUser.treeMapStore(),
+                null,
+                TICK,
+                this::now
+            )
+        );
+    }
+
+    @Test
+    public void testWithInvalidTickFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> ExpiringStore.with(
+                TestUser.treeMapStore(),
+                FIXED,
+                0,
+                this::now
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullNowFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ExpiringStore.with(
+                TestUser.treeMapStore(),
+                FIXED,
+                TICK,
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testLoadBeforeExpiry() {
+        final ExpiringStore<TestUserId, TestUser> store = this.createStore();
+        final TestUser user = TestUser.withId(1);
+        store.save(user);
+
+        this.now = TIME_TO_LIVE - 1;
+
+        this.loadAndCheck(
+            store,
+            user.id().get(),
+            user
+        );
+    }
+
+    @Test
+    public void testLoadAtExpiry() {
+        final ExpiringStore<TestUserId, TestUser> store = this.createStore();
+        final TestUser user = TestUser.withId(1);
+        store.save(user);
+
+        this.now = TIME_TO_LIVE;
+
+        this.loadAndCheck(
+            store,
+            user.id().get()
+        );
+    }
+
+    @Test
+    public void testLoadExpiredWithinTick() {
+        final ExpiringStore<TestUserId, TestUser> store = ExpiringStore.with(
+            TestUser.treeMapStore(),
+            (u) -> u.id().get().value,
+            1000,
+            this::now
+        );
+        store.save(TestUser.withId(3));
+        store.save(TestUser.withId(7));
+
+        this.now = 5;
+
+        this.allAndCheck(
+            store,
+            TestUser.withId(7)
+        );
+    }
+
+    @Test
+    public void testValuesAndBetweenSkipExpired() {
+        final ExpiringStore<TestUserId, TestUser> store = this.createStore();
+        store.save(TestUser.withId(1));
+
+        this.now = 500;
+        final TestUser user2 = TestUser.withId(2);
+        store.save(user2);
+
+        this.now = TIME_TO_LIVE;
+
+        this.valuesAndCheck(
+            store,
+            0,
+            2,
+            user2
+        );
+        this.betweenAndCheck(
+            store,
+            TestUserId.with(1),
+            TestUserId.with(2),
+            user2
+        );
+        this.countAndCheck(
+            store,
+            1
+        );
+    }
+
+    @Test
+    public void testSaveResetsTimeToLive() {
+        final ExpiringStore<TestUserId, TestUser> store = this.createStore();
+        final TestUser user = TestUser.withId(1);
+        store.save(user);
+
+        this.now = 500;
+        store.save(user);
+
+        this.now = TIME_TO_LIVE;
+
+        this.loadAndCheck(
+            store,
+            user.id().get(),
+            user
+        );
+
+        this.now = 500 + TIME_TO_LIVE;
+
+        this.loadAndCheck(
+            store,
+            user.id().get()
+        );
+    }
+
+    @Test
+    public void testNegativeTimeToLiveNeverExpires() {
+        final ExpiringStore<TestUserId, TestUser> store = ExpiringStore.with(
+            TestUser.treeMapStore(),
+            (u) -> -1,
+            TICK,
+            this::now
+        );
+        final TestUser user = TestUser.withId(1);
+        store.save(user);
+
+        this.now = Long.MAX_VALUE / 2;
+
+        this.loadAndCheck(
+            store,
+            user.id().get(),
+            user
+        );
+    }
+
+    @Test
+    public void testPerValueTimeToLive() {
+        final ExpiringStore<TestUserId, TestUser> store = ExpiringStore.with(
+            TestUser.treeMapStore(),
+            (u) -> u.id().get().value * 100_000L,
+            TICK,
+            this::now
+        );
+        for (int i = 1; i <= 5; i++) {
+            store.save(TestUser.withId(i));
+        }
+
+        this.now = 250_000;
+
+        this.idsAndCheck(
+            store,
+            0,
+            5,
+            TestUserId.with(3),
+            TestUserId.with(4),
+            TestUserId.with(5)
+        );
+    }
+
+    @Test
+    public void testExistingValuesExpire() {
+        final Store<TestUserId, TestUser> wrapped = TestUser.treeMapStore();
+        wrapped.save(TestUser.withId(1));
+
+        final ExpiringStore<TestUserId, TestUser> store = this.createStore(wrapped);
+
+        this.now = TIME_TO_LIVE;
+
+        this.countAndCheck(
+            store,
+            0
+        );
+    }
+
+    @Test
+    public void testSaveToWrappedStoreExpires() {
+        final Store<TestUserId, TestUser> wrapped = TestUser.treeMapStore();
+        final ExpiringStore<TestUserId, TestUser> store = this.createStore(wrapped);
+        wrapped.save(TestUser.withId(1));
+
+        this.now = TIME_TO_LIVE;
+
+        this.countAndCheck(
+            store,
+            0
+        );
+    }
+
+    @Test
+    public void testDeleteThenExpiryIgnored() {
+        final ExpiringStore<TestUserId, TestUser> store = this.createStore();
+        store.save(TestUser.withId(1));
+        store.delete(TestUserId.with(1));
+
+        this.now = TIME_TO_LIVE;
+        store.count();
+
+        this.countersAndCheck(
+            store,
+            0,
+            0
+        );
+    }
+
+    @Test
+    public void testExpiryFiresDeleteWatcher() {
+        final ExpiringStore<TestUserId, TestUser> store = this.createStore();
+        final TestUser user = TestUser.withId(1);
+        store.save(user);
+
+        final List<Optional<TestUser>> deleted = Lists.array();
+        store.addStoreWatcher(
+            (o, n) -> {
+                if (false == n.isPresent()) {
+                    deleted.add(o);
+                }
+            }
+        );
+
+        this.now = TIME_TO_LIVE;
+        store.count();
+
+        this.checkEquals(
+            Lists.of(
+                Optional.of(user)
+            ),
+            deleted,
+            "deleted"
+        );
+        this.countersAndCheck(
+            store,
+            0,
+            1
+        );
+    }
+
+    @Test
+    public void testManyValuesAcrossLevels() {
+        final ExpiringStore<TestUserId, TestUser> store = ExpiringStore.with(
+            TestUser.treeMapStore(),
+            (u) -> u.id().get().value * 997L,
+            1,
+            this::now
+        );
+        final int count = 300;
+        for (int i = 1; i <= count; i++) {
+            store.save(TestUser.withId(i));
+        }
+
+        for (int i = 1; i <= count; i++) {
+            this.now = i * 997L - 1;
+            this.countAndCheck(
+                store,
+                count - i + 1
+            );
+
+            this.now = i * 997L;
+            this.countAndCheck(
+                store,
+                count - i
+            );
+        }
+    }
+
+    private void countersAndCheck(final ExpiringStore<?, ?> store,
+                                  final long scheduled,
+                                  final long expirations) {
+        final Map<String, Long> counters = Maps.ordered();
+        counters.put("scheduled", scheduled);
+        counters.put("expirations", expirations);
+
+        this.checkEquals(
+            counters,
+            store.counters(),
+            store::toString
+        );
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        final Store<TestUserId, TestUser> wrapped = TestUser.treeMapStore();
+        final ExpiringStore<TestUserId, TestUser> store = this.createStore(wrapped);
+        store.save(TestUser.withId(1));
+
+        this.toStringAndCheck(
+            store,
+            wrapped + " 1 @0"
+        );
+    }
+
+    // helpers..........................................................................................................
+
+    private ExpiringStore<TestUserId, TestUser> createStore(final Store<TestUserId, TestUser> store) {
+        return ExpiringStore.with(
+            store,
+            FIXED,
+            TICK,
+            this::now
+        );
+    }
+
+    private long now() {
+        return this.now;
+    }
+
+    private long now;
+
+    // StoreTesting.....................................................................................................
+
+    @Override
+    public ExpiringStore<TestUserId, TestUser> createStore() {
+        return this.createStore(
+            TestUser.treeMapStore()
+        );
+    }
+
+    @Override
+    public TestUserId id() {
+        return TestUserId.with(1);
+    }
+
+    @Override
+    public TestUser value() {
+        return TestUser.withId(1);
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<ExpiringStore<TestUserId, TestUser>> type() {
+        return Cast.to(ExpiringStore.class);
+    }
+
+    // TypeNameTesting..................................................................................................
+
+    @Override
+    public String typeNamePrefix() {
+        return "Expiring";
+    }
+
+    @Override
+    public String typeNameSuffix() {
+        return Store.class.getSimpleName();
+    }
+}
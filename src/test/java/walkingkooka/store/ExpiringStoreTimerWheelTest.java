@@ -0,0 +1,310 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class ExpiringStoreTimerWheelTest implements ClassTesting2<ExpiringStoreTimerWheel<String>>,
+    ToStringTesting<ExpiringStoreTimerWheel<String>> {
+
+    @Test
+    public void testWithInvalidTickFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> ExpiringStoreTimerWheel.with(
+                0,
+                0
+            )
+        );
+    }
+
+    @Test
+    public void testAdvanceNothingExpired() {
+        final ExpiringStoreTimerWheel<String> wheel = ExpiringStoreTimerWheel.with(
+            1,
+            0
+        );
+        wheel.add(
+            "a",
+            10
+        );
+
+        this.advanceAndCheck(
+            wheel,
+            9
+        );
+        this.checkEquals(
+            1,
+            wheel.size(),
+            "size"
+        );
+    }
+
+    @Test
+    public void testAdvanceWithinTick() {
+        final ExpiringStoreTimerWheel<String> wheel = ExpiringStoreTimerWheel.with(
+            100,
+            0
+        );
+        wheel.add(
+            "a",
+            10
+        );
+        wheel.add(
+            "b",
+            20
+        );
+
+        this.advanceAndCheck(
+            wheel,
+            15,
+            "a"
+        );
+        this.advanceAndCheck(
+            wheel,
+            20,
+            "b"
+        );
+    }
+
+    @Test
+    public void testAddAlreadyExpired() {
+        final ExpiringStoreTimerWheel<String> wheel = ExpiringStoreTimerWheel.with(
+            1,
+            100
+        );
+        wheel.add(
+            "a",
+            50
+        );
+
+        this.advanceAndCheck(
+            wheel,
+            100,
+            "a"
+        );
+    }
+
+    @Test
+    public void testRemove() {
+        final ExpiringStoreTimerWheel<String> wheel = ExpiringStoreTimerWheel.with(
+            1,
+            0
+        );
+        final ExpiringStoreTimerWheelEntry<String> entry = wheel.add(
+            "a",
+            10
+        );
+        wheel.add(
+            "b",
+            10
+        );
+        wheel.remove(entry);
+
+        this.advanceAndCheck(
+            wheel,
+            10,
+            "b"
+        );
+        this.checkEquals(
+            0,
+            wheel.size(),
+            "size"
+        );
+    }
+
+    @Test
+    public void testRemoveExpiredIgnored() {
+        final ExpiringStoreTimerWheel<String> wheel = ExpiringStoreTimerWheel.with(
+            1,
+            0
+        );
+        final ExpiringStoreTimerWheelEntry<String> entry = wheel.add(
+            "a",
+            10
+        );
+
+        this.advanceAndCheck(
+            wheel,
+            10,
+            "a"
+        );
+
+        wheel.remove(entry);
+
+        this.checkEquals(
+            0,
+            wheel.size(),
+            "size"
+        );
+    }
+
+    @Test
+    public void testAdvanceCascadesHigherLevels() {
+        final ExpiringStoreTimerWheel<String> wheel = ExpiringStoreTimerWheel.with(
+            1,
+            0
+        );
+        final long level1 = ExpiringStoreTimerWheel.SLOTS + 5;
+        final long level2 = ExpiringStoreTimerWheel.SLOTS * ExpiringStoreTimerWheel.SLOTS + 7;
+        final long level3 = ExpiringStoreTimerWheel.SLOTS * ExpiringStoreTimerWheel.SLOTS * ExpiringStoreTimerWheel.SLOTS + 11;
+
+        wheel.add(
+            "level3",
+            level3
+        );
+        wheel.add(
+            "level2",
+            level2
+        );
+        wheel.add(
+            "level1",
+            level1
+        );
+
+        this.advanceAndCheck(
+            wheel,
+            level1 - 1
+        );
+        this.advanceAndCheck(
+            wheel,
+            level1,
+            "level1"
+        );
+        this.advanceAndCheck(
+            wheel,
+            level2 - 1
+        );
+        this.advanceAndCheck(
+            wheel,
+            level2,
+            "level2"
+        );
+        this.advanceAndCheck(
+            wheel,
+            level3 - 1
+        );
+        this.advanceAndCheck(
+            wheel,
+            level3,
+            "level3"
+        );
+    }
+
+    @Test
+    public void testAdvanceOverflow() {
+        final ExpiringStoreTimerWheel<String> wheel = ExpiringStoreTimerWheel.with(
+            1,
+            0
+        );
+        final long expiry = 3L << (6 * ExpiringStoreTimerWheel.LEVELS);
+        wheel.add(
+            "overflow",
+            expiry
+        );
+
+        this.advanceAndCheck(
+            wheel,
+            expiry - 1
+        );
+        this.advanceAndCheck(
+            wheel,
+            expiry,
+            "overflow"
+        );
+    }
+
+    @Test
+    public void testAdvanceStepByStep() {
+        final ExpiringStoreTimerWheel<String> wheel = ExpiringStoreTimerWheel.with(
+            1,
+            0
+        );
+        final int count = 5000;
+        for (int i = 1; i <= count; i++) {
+            wheel.add(
+                String.valueOf(i),
+                i
+            );
+        }
+
+        for (int i = 1; i <= count; i++) {
+            this.advanceAndCheck(
+                wheel,
+                i,
+                String.valueOf(i)
+            );
+        }
+    }
+
+    private void advanceAndCheck(final ExpiringStoreTimerWheel<String> wheel,
+                                 final long now,
+                                 final String... expired) {
+        this.checkEquals(
+            Lists.of(expired),
+            wheel.advance(now)
+                .stream()
+                .map(e -> e.id)
+                .sorted()
+                .collect(Collectors.toList()),
+            () -> "advance " + now + " " + wheel
+        );
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        final ExpiringStoreTimerWheel<String> wheel = ExpiringStoreTimerWheel.with(
+            10,
+            100
+        );
+        wheel.add(
+            "a",
+            200
+        );
+
+        this.toStringAndCheck(
+            wheel,
+            "1 @10"
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<ExpiringStoreTimerWheel<String>> type() {
+        return Cast.to(ExpiringStoreTimerWheel.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
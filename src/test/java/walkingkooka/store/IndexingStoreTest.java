@@ -0,0 +1,503 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.TypeNameTesting;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class IndexingStoreTest implements StoreTesting<IndexingStore<TestUserId, TestUser>, TestUserId, TestUser>,
+    TypeNameTesting<IndexingStore<TestUserId, TestUser>> {
+
+    @Test
+    public void testWithNullStoreFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> IndexingStore.with(
+                null,
+                TestUserId.COMPARATOR
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullIdComparatorFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> IndexingStore.with(
+                TestUser.treeMapStore(),
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testAddIndexNullAttributeFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createStore()
+                .addIndex(
+                    null,
+                    String.CASE_INSENSITIVE_ORDER,
+                    false
+                )
+        );
+    }
+
+    @Test
+    public void testAddIndexNullAttributeComparatorFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createStore()
+                .addIndex(
+                    IndexingStoreTest::domain,
+                    null,
+                    false
+                )
+        );
+    }
+
+    @Test
+    public void testAddIndexIndexesExisting() {
+        final Store<TestUserId, TestUser> wrapped = TestUser.treeMapStore();
+        final TestUser user1 = this.user(1, "a@example.com");
+        final TestUser user2 = this.user(2, "b@example.org");
+        final TestUser user3 = this.user(3, "c@example.com");
+        wrapped.save(user1);
+        wrapped.save(user2);
+        wrapped.save(user3);
+
+        final StoreIndex<TestUserId, TestUser, String> index = IndexingStore.with(
+            wrapped,
+            TestUserId.COMPARATOR
+        ).addIndex(
+            IndexingStoreTest::domain,
+            String.CASE_INSENSITIVE_ORDER,
+            false
+        );
+
+        this.findAndCheck(
+            index,
+            "example.com",
+            user1,
+            user3
+        );
+    }
+
+    @Test
+    public void testSaveIndexed() {
+        final IndexingStore<TestUserId, TestUser> store = this.createStore();
+        final StoreIndex<TestUserId, TestUser, String> index = store.addIndex(
+            IndexingStoreTest::domain,
+            String.CASE_INSENSITIVE_ORDER,
+            false
+        );
+
+        final TestUser user1 = this.user(1, "a@example.com");
+        final TestUser user2 = this.user(2, "b@example.org");
+        store.save(user1);
+        store.save(user2);
+        final TestUser user3 = store.save(
+            TestUser.with(
+                Optional.empty(),
+                "c@EXAMPLE.com"
+            )
+        );
+
+        this.findAndCheck(
+            index,
+            "example.com",
+            user1,
+            user3
+        );
+        this.findAndCheck(
+            index,
+            "example.org",
+            user2
+        );
+        this.findAndCheck(
+            index,
+            "example.net"
+        );
+    }
+
+    @Test
+    public void testUpdateMovesValue() {
+        final IndexingStore<TestUserId, TestUser> store = this.createStore();
+        final StoreIndex<TestUserId, TestUser, String> index = store.addIndex(
+            IndexingStoreTest::domain,
+            String.CASE_INSENSITIVE_ORDER,
+            false
+        );
+
+        store.save(this.user(1, "a@example.com"));
+
+        final TestUser updated = this.user(1, "a@example.org");
+        store.save(updated);
+
+        this.findAndCheck(
+            index,
+            "example.com"
+        );
+        this.findAndCheck(
+            index,
+            "example.org",
+            updated
+        );
+    }
+
+    @Test
+    public void testDeleteRemovesValue() {
+        final IndexingStore<TestUserId, TestUser> store = this.createStore();
+        final StoreIndex<TestUserId, TestUser, String> index = store.addIndex(
+            IndexingStoreTest::domain,
+            String.CASE_INSENSITIVE_ORDER,
+            false
+        );
+
+        final TestUser user2 = this.user(2, "b@example.com");
+        store.save(this.user(1, "a@example.com"));
+        store.save(user2);
+        store.delete(TestUserId.with(1));
+
+        this.findAndCheck(
+            index,
+            "example.com",
+            user2
+        );
+    }
+
+    @Test
+    public void testSaveToWrappedStoreIndexed() {
+        final Store<TestUserId, TestUser> wrapped = TestUser.treeMapStore();
+        final StoreIndex<TestUserId, TestUser, String> index = IndexingStore.with(
+            wrapped,
+            TestUserId.COMPARATOR
+        ).addIndex(
+            IndexingStoreTest::domain,
+            String.CASE_INSENSITIVE_ORDER,
+            false
+        );
+
+        final TestUser user = this.user(1, "a@example.com");
+        wrapped.save(user);
+
+        this.findAndCheck(
+            index,
+            "example.com",
+            user
+        );
+    }
+
+    @Test
+    public void testNullAttributeNotIndexed() {
+        final IndexingStore<TestUserId, TestUser> store = this.createStore();
+        final StoreIndex<TestUserId, TestUser, String> index = store.addIndex(
+            IndexingStoreTest::domain,
+            String.CASE_INSENSITIVE_ORDER,
+            true
+        );
+
+        store.save(this.user(1, "local1"));
+        store.save(this.user(2, "local2"));
+
+        this.betweenAndCheck(
+            index,
+            "a",
+            "z",
+            0,
+            10
+        );
+    }
+
+    @Test
+    public void testUniqueSaveDuplicateFails() {
+        final IndexingStore<TestUserId, TestUser> store = this.createStore();
+        store.addIndex(
+            (u) -> u.email,
+            String.CASE_INSENSITIVE_ORDER,
+            true
+        );
+
+        store.save(this.user(1, "a@example.com"));
+
+        final StoreException thrown = assertThrows(
+            StoreException.class,
+            () -> store.save(this.user(2, "A@example.com"))
+        );
+        this.checkEquals(
+            "Duplicate A@example.com already used by 1",
+            thrown.getMessage()
+        );
+        this.countAndCheck(
+            store,
+            1
+        );
+    }
+
+    @Test
+    public void testUniqueSaveWithoutIdDuplicateFails() {
+        final IndexingStore<TestUserId, TestUser> store = this.createStore();
+        store.addIndex(
+            (u) -> u.email,
+            String.CASE_INSENSITIVE_ORDER,
+            true
+        );
+
+        store.save(this.user(1, "a@example.com"));
+
+        assertThrows(
+            StoreException.class,
+            () -> store.save(
+                TestUser.with(
+                    Optional.empty(),
+                    "a@example.com"
+                )
+            )
+        );
+    }
+
+    @Test
+    public void testUniqueUpdateSameId() {
+        final IndexingStore<TestUserId, TestUser> store = this.createStore();
+        final StoreIndex<TestUserId, TestUser, String> index = store.addIndex(
+            (u) -> u.email,
+            String.CASE_INSENSITIVE_ORDER,
+            true
+        );
+
+        store.save(this.user(1, "a@example.com"));
+
+        final TestUser updated = this.user(1, "A@example.com");
+        store.save(updated);
+
+        this.findAndCheck(
+            index,
+            "a@example.com",
+            updated
+        );
+    }
+
+    @Test
+    public void testAddUniqueIndexExistingDuplicatesFails() {
+        final Store<TestUserId, TestUser> wrapped = TestUser.treeMapStore();
+        wrapped.save(this.user(1, "a@example.com"));
+        wrapped.save(this.user(2, "b@example.com"));
+
+        assertThrows(
+            StoreException.class,
+            () -> IndexingStore.with(
+                wrapped,
+                TestUserId.COMPARATOR
+            ).addIndex(
+                IndexingStoreTest::domain,
+                String.CASE_INSENSITIVE_ORDER,
+                true
+            )
+        );
+    }
+
+    @Test
+    public void testBetweenRangeAndPaging() {
+        final IndexingStore<TestUserId, TestUser> store = this.createStore();
+        final StoreIndex<TestUserId, TestUser, String> index = store.addIndex(
+            (u) -> u.email,
+            String.CASE_INSENSITIVE_ORDER,
+            false
+        );
+
+        final TestUser a = this.user(5, "a@example.com");
+        final TestUser b1 = this.user(1, "b@example.com");
+        final TestUser b2 = this.user(2, "b@example.com");
+        final TestUser c = this.user(3, "c@example.com");
+        final TestUser d = this.user(4, "d@example.com");
+        store.save(a);
+        store.save(b1);
+        store.save(b2);
+        store.save(c);
+        store.save(d);
+
+        this.betweenAndCheck(
+            index,
+            "b",
+            "c~",
+            0,
+            10,
+            b1,
+            b2,
+            c
+        );
+        this.betweenAndCheck(
+            index,
+            "a",
+            "z",
+            2,
+            2,
+            b2,
+            c
+        );
+        this.betweenAndCheck(
+            index,
+            "a",
+            "z",
+            1,
+            1,
+            b1
+        );
+        this.findAndCheck(
+            index,
+            "b@example.com",
+            1,
+            5,
+            b2
+        );
+    }
+
+    private void findAndCheck(final StoreIndex<TestUserId, TestUser, String> index,
+                              final String attribute,
+                              final TestUser... values) {
+        this.findAndCheck(
+            index,
+            attribute,
+            0,
+            Integer.MAX_VALUE,
+            values
+        );
+    }
+
+    private void findAndCheck(final StoreIndex<TestUserId, TestUser, String> index,
+                              final String attribute,
+                              final int offset,
+                              final int count,
+                              final TestUser... values) {
+        this.checkEquals(
+            Lists.of(values),
+            index.find(
+                attribute,
+                offset,
+                count
+            ),
+            () -> "find " + attribute + " " + offset + " " + count
+        );
+    }
+
+    private void betweenAndCheck(final StoreIndex<TestUserId, TestUser, String> index,
+                                 final String from,
+                                 final String to,
+                                 final int offset,
+                                 final int count,
+                                 final TestUser... values) {
+        this.checkEquals(
+            Lists.of(values),
+            index.between(
+                from,
+                to,
+                offset,
+                count
+            ),
+            () -> "between " + from + " " + to + " " + offset + " " + count
+        );
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        final Store<TestUserId, TestUser> wrapped = TestUser.treeMapStore();
+        final IndexingStore<TestUserId, TestUser> store = IndexingStore.with(
+            wrapped,
+            TestUserId.COMPARATOR
+        );
+        store.addIndex(
+            IndexingStoreTest::domain,
+            String.CASE_INSENSITIVE_ORDER,
+            true
+        );
+        store.save(this.user(1, "a@example.com"));
+
+        this.toStringAndCheck(
+            store,
+            wrapped + " [unique [example.com]]"
+        );
+    }
+
+    // helpers..........................................................................................................
+
+    private static String domain(final TestUser user) {
+        final String email = user.email;
+        final int at = email.indexOf('@');
+        return -1 != at ?
+            email.substring(at + 1) :
+            null;
+    }
+
+    private TestUser user(final int id,
+                          final String email) {
+        return TestUser.with(
+            Optional.of(
+                TestUserId.with(id)
+            ),
+            email
+        );
+    }
+
+    // StoreTesting.....................................................................................................
+
+    @Override
+    public IndexingStore<TestUserId, TestUser> createStore() {
+        return IndexingStore.with(
+            TestUser.treeMapStore(),
+            TestUserId.COMPARATOR
+        );
+    }
+
+    @Override
+    public TestUserId id() {
+        return TestUserId.with(1);
+    }
+
+    @Override
+    public TestUser value() {
+        return this.user(1, "user1@example.com");
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<IndexingStore<TestUserId, TestUser>> type() {
+        return Cast.to(IndexingStore.class);
+    }
+
+    // TypeNameTesting..................................................................................................
+
+    @Override
+    public String typeNamePrefix() {
+        return "Indexing";
+    }
+
+    @Override
+    public String typeNameSuffix() {
+        return Store.class.getSimpleName();
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.store;
+
+import java.util.Optional;
+
+/**
+ * A {@link Store} of {@link TestUser} counting the loads reaching it, for tests of stores that avoid loads.
+ */
+final class LoadCountingStore implements StoreDelegator<TestUserId, TestUser> {
+
+    @Override
+    public Optional<TestUser> load(final TestUserId id) {
+        this.loads++;
+        return this.store.load(id);
+    }
+
+    int loads;
+
+    @Override
+    public Store<TestUserId, TestUser> store() {
+        return this.store;
+    }
+
+    final Store<TestUserId, TestUser> store = TestUser.treeMapStore();
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.reflect.TypeNameTesting;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class MemoizingStoreTest implements StoreTesting<MemoizingStore<TestUserId, TestUser>, TestUserId, TestUser>,
+    TypeNameTesting<MemoizingStore<TestUserId, TestUser>> {
+
+    @Test
+    public void testWithNullStoreFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> MemoizingStore.with(null)
+        );
+    }
+
+    @Test
+    public void testLoadMemoized() {
+        final Store<TestUserId, TestUser> wrapped = TestUser.treeMapStore();
+        final TestUser user = TestUser.withId(1);
+        wrapped.save(user);
+
+        final MemoizingStore<TestUserId, TestUser> store = MemoizingStore.with(wrapped);
+        final Optional<TestUser> loaded = store.load(user.id().get());
+
+        wrapped.delete(user.id().get());
+
+        assertSame(
+            loaded,
+            store.load(user.id().get())
+        );
+    }
+
+    @Test
+    public void testLoadMissMemoized() {
+        final Store<TestUserId, TestUser> wrapped = TestUser.treeMapStore();
+        final MemoizingStore<TestUserId, TestUser> store = MemoizingStore.with(wrapped);
+        final TestUser user = TestUser.withId(1);
+
+        this.loadAndCheck(
+            store,
+            user.id().get()
+        );
+
+        wrapped.save(user);
+
+        this.loadAndCheck(
+            store,
+            user.id().get()
+        );
+    }
+
+    @Test
+    public void testSaveUpdatesMemo() {
+        final MemoizingStore<TestUserId, TestUser> store = this.createStore();
+        final TestUser user = TestUser.withId(1);
+
+        this.loadAndCheck(
+            store,
+            user.id().get()
+        );
+
+        store.save(user);
+
+        this.loadAndCheck(
+            store,
+            user.id().get(),
+            user
+        );
+    }
+
+    @Test
+    public void testSaveWithoutIdUpdatesMemo() {
+        final MemoizingStore<TestUserId, TestUser> store = this.createStore();
+        store.load(TestUserId.with(1));
+
+        final TestUser saved = store.save(
+            TestUser.with(
+                Optional.empty(),
+                "new@example.com"
+            )
+        );
+
+        this.loadAndCheck(
+            store,
+            saved.id().get(),
+            saved
+        );
+    }
+
+    @Test
+    public void testDeleteUpdatesMemo() {
+        final MemoizingStore<TestUserId, TestUser> store = this.createStore();
+        final TestUser user = TestUser.withId(1);
+        store.save(user);
+
+        this.loadAndCheck(
+            store,
+            user.id().get(),
+            user
+        );
+
+        store.delete(user.id().get());
+
+        this.loadAndCheck(
+            store,
+            user.id().get()
+        );
+        this.countAndCheck(
+            store,
+            0
+        );
+    }
+
+    @Test
+    public void testDeleteBetweenDiscardsMemo() {
+        final MemoizingStore<TestUserId, TestUser> store = this.createStore();
+        final TestUser user1 = TestUser.withId(1);
+        final TestUser user2 = TestUser.withId(2);
+        final TestUser user3 = TestUser.withId(3);
+        store.save(user1);
+        store.save(user2);
+        store.save(user3);
+
+        this.loadAndCheck(
+            store,
+            user2.id().get(),
+            user2
+        );
+
+        store.deleteBetween(
+            user1.id().get(),
+            user2.id().get()
+        );
+
+        this.loadAndCheck(
+            store,
+            user2.id().get()
+        );
+        this.loadAndCheck(
+            store,
+            user3.id().get(),
+            user3
+        );
+    }
+
+    @Test
+    public void testValuesAndBetween() {
+        final MemoizingStore<TestUserId, TestUser> store = this.createStore();
+        final TestUser user1 = TestUser.withId(1);
+        final TestUser user2 = TestUser.withId(2);
+        store.save(user1);
+        store.save(user2);
+
+        this.valuesAndCheck(
+            store,
+            0,
+            2,
+            user1,
+            user2
+        );
+        this.betweenAndCheck(
+            store,
+            user1.id().get(),
+            user2.id().get(),
+            user1,
+            user2
+        );
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        final Store<TestUserId, TestUser> wrapped = TestUser.treeMapStore();
+        wrapped.save(TestUser.withId(1));
+
+        this.toStringAndCheck(
+            MemoizingStore.with(wrapped),
+            wrapped.toString()
+        );
+    }
+
+    // helpers..........................................................................................................
+
+    // StoreTesting.....................................................................................................
+
+    @Override
+    public MemoizingStore<TestUserId, TestUser> createStore() {
+        return MemoizingStore.with(
+            TestUser.treeMapStore()
+        );
+    }
+
+    @Override
+    public TestUserId id() {
+        return TestUserId.with(1);
+    }
+
+    @Override
+    public TestUser value() {
+        return TestUser.withId(1);
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<MemoizingStore<TestUserId, TestUser>> type() {
+        return Cast.to(MemoizingStore.class);
+    }
+
+    // TypeNameTesting..................................................................................................
+
+    @Override
+    public String typeNamePrefix() {
+        return "Memoizing";
+    }
+
+    @Override
+    public String typeNameSuffix() {
+        return Store.class.getSimpleName();
+    }
+}
@@ -0,0 +1,676 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.store;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.reflect.ClassTesting;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+public final class MultiValueStoreTest implements ClassTesting<MultiValueStore<?, ?>> {
+
+    // findIdsByAllValues...............................................................................................
+
+    @Test
+    public void testFindIdsByAllValuesDefault() {
+        this.checkEquals(
+            Lists.of(
+                "a",
+                "c"
+            ),
+            this.store()
+                .findIdsByAllValues(
+                    Sets.of(
+                        1,
+                        2
+                    ),
+                    0,
+                    10
+                )
+        );
+    }
+
+    @Test
+    public void testFindIdsByAllValuesDefaultOffsetAndCount() {
+        this.checkEquals(
+            Lists.of(
+                "c"
+            ),
+            this.store()
+                .findIdsByAllValues(
+                    Sets.of(
+                        1,
+                        2
+                    ),
+                    1,
+                    10
+                )
+        );
+    }
+
+    @Test
+    public void testFindIdsByAllValuesDefaultEmptyValues() {
+        this.checkEquals(
+            Lists.empty(),
+            this.store()
+                .findIdsByAllValues(
+                    Sets.empty(),
+                    0,
+                    10
+                )
+        );
+    }
+
+    // findIdsByAnyValue................................................................................................
+
+    @Test
+    public void testFindIdsByAnyValueDefault() {
+        this.checkEquals(
+            Lists.of(
+                "a",
+                "b",
+                "c"
+            ),
+            this.store()
+                .findIdsByAnyValue(
+                    Sets.of(
+                        1,
+                        3
+                    ),
+                    0,
+                    10
+                )
+        );
+    }
+
+    @Test
+    public void testFindIdsByAnyValueDefaultCount() {
+        this.checkEquals(
+            Lists.of(
+                "a"
+            ),
+            this.store()
+                .findIdsByAnyValue(
+                    Sets.of(
+                        1,
+                        3
+                    ),
+                    0,
+                    1
+                )
+        );
+    }
+
+    // rankOf...........................................................................................................
+
+    @Test
+    public void testRankOfDefault() {
+        final MultiValueStore<String, Integer> store = this.defaultsStore();
+
+        this.rankOfAndCheck(
+            store,
+            "a",
+            0
+        );
+        this.rankOfAndCheck(
+            store,
+            "b",
+            1
+        );
+        this.rankOfAndCheck(
+            store,
+            "c",
+            2
+        );
+        this.rankOfAndCheck(
+            store,
+            "d",
+            2
+        );
+        this.rankOfAndCheck(
+            store,
+            "e",
+            3
+        );
+    }
+
+    @Test
+    public void testRankOfDefaultBeforeFirst() {
+        this.rankOfAndCheck(
+            this.defaultsStore(),
+            "0",
+            0
+        );
+    }
+
+    private void rankOfAndCheck(final MultiValueStore<String, Integer> store,
+                                final String id,
+                                final int expected) {
+        this.checkEquals(
+            expected,
+            store.rankOf(id),
+            () -> "rankOf " + id
+        );
+    }
+
+    // deleteBetween....................................................................................................
+
+    @Test
+    public void testDeleteBetweenDefault() {
+        final MultiValueStore<String, Integer> store = this.defaultsStore();
+
+        final List<String> removed = Lists.array();
+        store.addStoreWatcher(
+            new FakeMultiValueStoreWatcher<String, Integer>() {
+                @Override
+                public void onValueRemoved(final String id,
+                                           final Integer value) {
+                    removed.add(id + "=" + value);
+                }
+            }
+        );
+
+        store.deleteBetween(
+            "b",
+            "d"
+        );
+
+        this.checkEquals(
+            Lists.of(
+                "b=3",
+                "d=4",
+                "d=5",
+                "d=6"
+            ),
+            removed
+        );
+        this.checkEquals(
+            Lists.of(
+                "a"
+            ),
+            store.ids(
+                0,
+                10
+            ).stream()
+                .collect(Collectors.toList())
+        );
+    }
+
+    @Test
+    public void testDeleteBetweenDefaultAbsentIds() {
+        final MultiValueStore<String, Integer> store = this.defaultsStore();
+
+        store.deleteBetween(
+            "0",
+            "c"
+        );
+
+        this.checkEquals(
+            Lists.of(
+                4,
+                5,
+                6
+            ),
+            store.values(
+                0,
+                10
+            )
+        );
+    }
+
+    @Test
+    public void testDeleteBetweenDefaultFromAfterTo() {
+        final MultiValueStore<String, Integer> store = this.defaultsStore();
+
+        store.deleteBetween(
+            "d",
+            "a"
+        );
+
+        this.checkEquals(
+            6,
+            store.count()
+        );
+    }
+
+    // idsAfter.........................................................................................................
+
+    @Test
+    public void testIdsAfterDefaultPresent() {
+        this.checkEquals(
+            Lists.of(
+                "b",
+                "d"
+            ),
+            this.defaultsStore()
+                .idsAfter(
+                    "a",
+                    10
+                ).stream()
+                .collect(Collectors.toList())
+        );
+    }
+
+    @Test
+    public void testIdsAfterDefaultAbsent() {
+        this.checkEquals(
+            Lists.of(
+                "d"
+            ),
+            this.defaultsStore()
+                .idsAfter(
+                    "c",
+                    1
+                ).stream()
+                .collect(Collectors.toList())
+        );
+    }
+
+    @Test
+    public void testIdsAfterDefaultBeforeFirst() {
+        this.checkEquals(
+            Lists.of(
+                "a",
+                "b"
+            ),
+            this.defaultsStore()
+                .idsAfter(
+                    "0",
+                    2
+                ).stream()
+                .collect(Collectors.toList())
+        );
+    }
+
+    // idsBefore........................................................................................................
+
+    @Test
+    public void testIdsBeforeDefaultPresent() {
+        this.checkEquals(
+            Lists.of(
+                "b",
+                "a"
+            ),
+            this.defaultsStore()
+                .idsBefore(
+                    "d",
+                    10
+                ).stream()
+                .collect(Collectors.toList())
+        );
+    }
+
+    @Test
+    public void testIdsBeforeDefaultAbsent() {
+        this.checkEquals(
+            Lists.of(
+                "b"
+            ),
+            this.defaultsStore()
+                .idsBefore(
+                    "c",
+                    1
+                ).stream()
+                .collect(Collectors.toList())
+        );
+    }
+
+    @Test
+    public void testIdsBeforeDefaultFirst() {
+        this.checkEquals(
+            Lists.empty(),
+            this.defaultsStore()
+                .idsBefore(
+                    "a",
+                    10
+                ).stream()
+                .collect(Collectors.toList())
+        );
+    }
+
+    // valuesAfter......................................................................................................
+
+    @Test
+    public void testValuesAfterDefaultPresent() {
+        this.checkEquals(
+            Lists.of(
+                3,
+                4,
+                5,
+                6
+            ),
+            this.defaultsStore()
+                .valuesAfter(
+                    "a",
+                    10
+                )
+        );
+    }
+
+    @Test
+    public void testValuesAfterDefaultCount() {
+        this.checkEquals(
+            Lists.of(
+                4,
+                5
+            ),
+            this.defaultsStore()
+                .valuesAfter(
+                    "b",
+                    2
+                )
+        );
+    }
+
+    // valuesBefore.....................................................................................................
+
+    @Test
+    public void testValuesBeforeDefaultPresent() {
+        this.checkEquals(
+            Lists.of(
+                3,
+                2,
+                1
+            ),
+            this.defaultsStore()
+                .valuesBefore(
+                    "d",
+                    10
+                )
+        );
+    }
+
+    @Test
+    public void testValuesBeforeDefaultCount() {
+        this.checkEquals(
+            Lists.of(
+                2
+            ),
+            this.defaultsStore()
+                .valuesBefore(
+                    "b",
+                    1
+                )
+        );
+    }
+
+    @Test
+    public void testValuesBeforeDefaultAbsent() {
+        this.checkEquals(
+            Lists.of(
+                3,
+                2
+            ),
+            this.defaultsStore()
+                .valuesBefore(
+                    "c",
+                    2
+                )
+        );
+    }
+
+    // lastId...........................................................................................................
+
+    @Test
+    public void testLastIdDefault() {
+        this.checkEquals(
+            Optional.of("d"),
+            this.defaultsStore()
+                .lastId()
+        );
+    }
+
+    // floorId..........................................................................................................
+
+    @Test
+    public void testFloorIdDefaultPresent() {
+        this.checkEquals(
+            Optional.of("b"),
+            this.defaultsStore()
+                .floorId("b")
+        );
+    }
+
+    @Test
+    public void testFloorIdDefaultAbsent() {
+        this.checkEquals(
+            Optional.of("b"),
+            this.defaultsStore()
+                .floorId("c")
+        );
+    }
+
+    @Test
+    public void testFloorIdDefaultBeforeFirst() {
+        this.checkEquals(
+            Optional.empty(),
+            this.defaultsStore()
+                .floorId("0")
+        );
+    }
+
+    // ceilingId........................................................................................................
+
+    @Test
+    public void testCeilingIdDefaultPresent() {
+        this.checkEquals(
+            Optional.of("b"),
+            this.defaultsStore()
+                .ceilingId("b")
+        );
+    }
+
+    @Test
+    public void testCeilingIdDefaultAbsent() {
+        this.checkEquals(
+            Optional.of("d"),
+            this.defaultsStore()
+                .ceilingId("c")
+        );
+    }
+
+    @Test
+    public void testCeilingIdDefaultAfterLast() {
+        this.checkEquals(
+            Optional.empty(),
+            this.defaultsStore()
+                .ceilingId("e")
+        );
+    }
+
+    // higherId.........................................................................................................
+
+    @Test
+    public void testHigherIdDefaultPresent() {
+        this.checkEquals(
+            Optional.of("b"),
+            this.defaultsStore()
+                .higherId("a")
+        );
+    }
+
+    @Test
+    public void testHigherIdDefaultAbsent() {
+        this.checkEquals(
+            Optional.of("d"),
+            this.defaultsStore()
+                .higherId("c")
+        );
+    }
+
+    @Test
+    public void testHigherIdDefaultLast() {
+        this.checkEquals(
+            Optional.empty(),
+            this.defaultsStore()
+                .higherId("d")
+        );
+    }
+
+    // lowerId..........................................................................................................
+
+    @Test
+    public void testLowerIdDefaultPresent() {
+        this.checkEquals(
+            Optional.of("b"),
+            this.defaultsStore()
+                .lowerId("d")
+        );
+    }
+
+    @Test
+    public void testLowerIdDefaultAbsent() {
+        this.checkEquals(
+            Optional.of("b"),
+            this.defaultsStore()
+                .lowerId("c")
+        );
+    }
+
+    @Test
+    public void testLowerIdDefaultFirst() {
+        this.checkEquals(
+            Optional.empty(),
+            this.defaultsStore()
+                .lowerId("a")
+        );
+    }
+
+    /**
+     * A {@link MultiValueStore} that only implements {@link MultiValueStore#findIdsByValue(Object, int, int)}, holding
+     * a=1,2 b=1,3 and c=1,2.
+     */
+    private MultiValueStore<String, Integer> store() {
+        final TreeMapMultiValueStore<String, Integer> treeMap = TreeMapMultiValueStore.with(
+            Comparator.<String>naturalOrder(),
+            TreeSet::new
+        );
+        treeMap.addValue("a", 1);
+        treeMap.addValue("a", 2);
+        treeMap.addValue("b", 1);
+        treeMap.addValue("b", 3);
+        treeMap.addValue("c", 1);
+        treeMap.addValue("c", 2);
+
+        return new FakeMultiValueStore<String, Integer>() {
+            @Override
+            public List<String> findIdsByValue(final Integer value,
+                                               final int offset,
+                                               final int count) {
+                return treeMap.findIdsByValue(
+                    value,
+                    offset,
+                    count
+                );
+            }
+        };
+    }
+
+    /**
+     * A {@link MultiValueStore} that implements only the abstract methods, leaving every default in place, holding
+     * a=1,2 b=3 and d=4,5,6 so positions in ids and values differ.
+     */
+    private MultiValueStore<String, Integer> defaultsStore() {
+        final TreeMapMultiValueStore<String, Integer> treeMap = TreeMapMultiValueStore.with(
+            Comparator.<String>naturalOrder(),
+            TreeSet::new
+        );
+        treeMap.addValue("a", 1);
+        treeMap.addValue("a", 2);
+        treeMap.addValue("b", 3);
+        treeMap.addValue("d", 4);
+        treeMap.addValue("d", 5);
+        treeMap.addValue("d", 6);
+
+        return new FakeMultiValueStore<String, Integer>() {
+            @Override
+            public void delete(final String id) {
+                treeMap.delete(id);
+            }
+
+            @Override
+            public int count() {
+                return treeMap.count();
+            }
+
+            @Override
+            public Set<String> ids(final int offset,
+                                   final int count) {
+                return treeMap.ids(
+                    offset,
+                    count
+                );
+            }
+
+            @Override
+            public List<Integer> values(final int offset,
+                                        final int count) {
+                return treeMap.values(
+                    offset,
+                    count
+                );
+            }
+
+            @Override
+            public List<Integer> between(final String from,
+                                         final String to) {
+                return treeMap.between(
+                    from,
+                    to
+                );
+            }
+
+            @Override
+            public List<Integer> findValuesById(final String id,
+                                                final int offset,
+                                                final int count) {
+                return treeMap.findValuesById(
+                    id,
+                    offset,
+                    count
+                );
+            }
+
+            @Override
+            public Runnable addStoreWatcher(final MultiValueStoreWatcher<String, Integer> watcher) {
+                return treeMap.addStoreWatcher(watcher);
+            }
+        };
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<MultiValueStore<?, ?>> type() {
+        return Cast.to(MultiValueStore.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.reflect.TypeNameTesting;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class PageCachingStoreTest implements StoreTesting<PageCachingStore<TestUserId, TestUser>, TestUserId, TestUser>,
+    TypeNameTesting<PageCachingStore<TestUserId, TestUser>> {
+
+    private final static int MAX_PAGES = 10;
+
+    @Test
+    public void testWithNullStoreFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> PageCachingStore.with(
+                null,
+                MAX_PAGES
+            )
+        );
+    }
+
+    @Test
+    public void testWithInvalidMaxPagesFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> PageCachingStore.with(
+                TestUser.treeMapStore(),
+                0
+            )
+        );
+    }
+
+    @Test
+    public void testIdsHit() {
+        final PageCachingStore<TestUserId, TestUser> store = this.createStoreWithUsers();
+
+        final Set<TestUserId> ids = store.ids(
+            0,
+            2
+        );
+        assertSame(
+            ids,
+            store.ids(
+                0,
+                2
+            )
+        );
+
+        this.idsAndCheck(
+            store,
+            0,
+            2,
+            TestUserId.with(1),
+            TestUserId.with(2)
+        );
+        this.countersAndCheck(
+            store,
+            2,
+            1,
+            0
+        );
+    }
+
+    @Test
+    public void testIdsImmutable() {
+        assertThrows(
+            UnsupportedOperationException.class,
+            () -> this.createStoreWithUsers()
+                .ids(
+                    0,
+                    2
+                ).clear()
+        );
+    }
+
+    @Test
+    public void testIdsDifferentPages() {
+        final PageCachingStore<TestUserId, TestUser> store = this.createStoreWithUsers();
+
+        this.idsAndCheck(
+            store,
+            0,
+            1,
+            TestUserId.with(1)
+        );
+        this.idsAndCheck(
+            store,
+            1,
+            1,
+            TestUserId.with(2)
+        );
+        this.countersAndCheck(
+            store,
+            0,
+            2,
+            0
+        );
+    }
+
+    @Test
+    public void testValuesHit() {
+        final PageCachingStore<TestUserId, TestUser> store = this.createStoreWithUsers();
+
+        final List<TestUser> values = store.values(
+            1,
+            2
+        );
+        assertSame(
+            values,
+            store.values(
+                1,
+                2
+            )
+        );
+
+        this.valuesAndCheck(
+            store,
+            1,
+            2,
+            TestUser.withId(2),
+            TestUser.withId(3)
+        );
+    }
+
+    @Test
+    public void testBetweenHit() {
+        final PageCachingStore<TestUserId, TestUser> store = this.createStoreWithUsers();
+
+        final List<TestUser> values = store.between(
+            TestUserId.with(2),
+            TestUserId.with(3)
+        );
+        assertSame(
+            values,
+            store.between(
+                TestUserId.with(2),
+                TestUserId.with(3)
+            )
+        );
+
+        this.betweenAndCheck(
+            store,
+            TestUserId.with(2),
+            TestUserId.with(3),
+            TestUser.withId(2),
+            TestUser.withId(3)
+        );
+    }
+
+    @Test
+    public void testSaveInvalidates() {
+        final PageCachingStore<TestUserId, TestUser> store = this.createStoreWithUsers();
+
+        store.values(
+            0,
+            5
+        );
+        store.save(TestUser.withId(4));
+
+        this.valuesAndCheck(
+            store,
+            0,
+            5,
+            TestUser.withId(1),
+            TestUser.withId(2),
+            TestUser.withId(3),
+            TestUser.withId(4)
+        );
+        this.countersAndCheck(
+            store,
+            0,
+            2,
+            1
+        );
+    }
+
+    @Test
+    public void testDeleteOnWrappedStoreInvalidates() {
+        final Store<TestUserId, TestUser> wrapped = TestUser.treeMapStore();
+        final PageCachingStore<TestUserId, TestUser> store = PageCachingStore.with(
+            wrapped,
+            MAX_PAGES
+        );
+        wrapped.save(TestUser.withId(1));
+        wrapped.save(TestUser.withId(2));
+
+        store.between(
+            TestUserId.with(1),
+            TestUserId.with(2)
+        );
+        wrapped.delete(TestUserId.with(1));
+
+        this.betweenAndCheck(
+            store,
+            TestUserId.with(1),
+            TestUserId.with(2),
+            TestUser.withId(2)
+        );
+    }
+
+    @Test
+    public void testMaxPagesDropsAll() {
+        final PageCachingStore<TestUserId, TestUser> store = PageCachingStore.with(
+            TestUser.treeMapStore(),
+            2
+        );
+        store.ids(0, 1);
+        store.ids(0, 2);
+        store.ids(0, 3);
+        store.ids(0, 3);
+        store.ids(0, 1);
+
+        this.countersAndCheck(
+            store,
+            1,
+            4,
+            0
+        );
+    }
+
+    private void countersAndCheck(final PageCachingStore<?, ?> store,
+                                  final long hits,
+                                  final long misses,
+                                  final long invalidations) {
+        final Map<String, Long> counters = Maps.ordered();
+        counters.put("hits", hits);
+        counters.put("misses", misses);
+        counters.put("invalidations", invalidations);
+
+        this.checkEquals(
+            counters,
+            store.counters(),
+            store::toString
+        );
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        final Store<TestUserId, TestUser> wrapped = TestUser.treeMapStore();
+
+        this.toStringAndCheck(
+            PageCachingStore.with(
+                wrapped,
+                MAX_PAGES
+            ),
+            wrapped + " {hits=0, misses=0, invalidations=0}"
+        );
+    }
+
+    // helpers..........................................................................................................
+
+    private PageCachingStore<TestUserId, TestUser> createStoreWithUsers() {
+        final PageCachingStore<TestUserId, TestUser> store = this.createStore();
+        store.save(TestUser.withId(1));
+        store.save(TestUser.withId(2));
+        store.save(TestUser.withId(3));
+        return store;
+    }
+
+    // StoreTesting.....................................................................................................
+
+    @Override
+    public PageCachingStore<TestUserId, TestUser> createStore() {
+        return PageCachingStore.with(
+            TestUser.treeMapStore(),
+            MAX_PAGES
+        );
+    }
+
+    @Override
+    public TestUserId id() {
+        return TestUserId.with(1);
+    }
+
+    @Override
+    public TestUser value() {
+        return TestUser.withId(1);
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<PageCachingStore<TestUserId, TestUser>> type() {
+        return Cast.to(PageCachingStore.class);
+    }
+
+    // TypeNameTesting..................................................................................................
+
+    @Override
+    public String typeNamePrefix() {
+        return "PageCaching";
+    }
+
+    @Override
+    public String typeNameSuffix() {
+        return Store.class.getSimpleName();
+    }
+}
@@ -0,0 +1,514 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.reflect.TypeNameTesting;
+
+import java.lang.ref.SoftReference;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class ReferenceStoreTest implements StoreTesting<ReferenceStore<TestUserId, TestUser>, TestUserId, TestUser>,
+    TypeNameTesting<ReferenceStore<TestUserId, TestUser>> {
+
+    @Test
+    public void testWithNullIdComparatorFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ReferenceStore.with(
+                null,
+                this::reference,
+                this::loader
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullReferenceFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ReferenceStore.with(
+                TestUserId.COMPARATOR,
+                null,
+                this::loader
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullLoaderFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> ReferenceStore.with(
+                TestUserId.COMPARATOR,
+                this::reference,
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testSaveWithoutIdFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> this.createStore()
+                .save(
+                    TestUser.with(
+                        Optional.empty(),
+                        "missing@example.com"
+                    )
+                )
+        );
+    }
+
+    @Test
+    public void testSaveAndLoad() {
+        final ReferenceStore<TestUserId, TestUser> store = this.createStore();
+        final TestUser user = TestUser.withId(1);
+        store.save(user);
+
+        this.loadAndCheck(
+            store,
+            user.id().get(),
+            user
+        );
+        this.countersAndCheck(
+            store,
+            0,
+            0
+        );
+    }
+
+    @Test
+    public void testSoftReference() {
+        final ReferenceStore<TestUserId, TestUser> store = ReferenceStore.with(
+            TestUserId.COMPARATOR,
+            (u) -> new SoftReference<>(u)::get,
+            this::loader
+        );
+        final TestUser user = TestUser.withId(1);
+        store.save(user);
+
+        this.loadAndCheck(
+            store,
+            user.id().get(),
+            user
+        );
+    }
+
+    @Test
+    public void testLoadReclaimedRehydrates() {
+        final ReferenceStore<TestUserId, TestUser> store = this.createStore();
+        final TestUser user = TestUser.withId(1);
+        store.save(user);
+
+        this.clear();
+
+        this.loadAndCheck(
+            store,
+            user.id().get(),
+            user
+        );
+        this.loadAndCheck(
+            store,
+            user.id().get(),
+            user
+        );
+        this.checkEquals(
+            Lists.of(user.id().get()),
+            this.loaded,
+            "loaded"
+        );
+        this.countersAndCheck(
+            store,
+            1,
+            1
+        );
+    }
+
+    @Test
+    public void testLoadReclaimedMissingDropped() {
+        final ReferenceStore<TestUserId, TestUser> store = this.createStore();
+        final TestUser user = TestUser.withId(99);
+        store.save(user);
+
+        this.clear();
+
+        this.loadAndCheck(
+            store,
+            user.id().get()
+        );
+        this.countAndCheck(
+            store,
+            0
+        );
+        this.countersAndCheck(
+            store,
+            1,
+            0
+        );
+    }
+
+    @Test
+    public void testLoadReclaimedMissingFiresIdDeleted() {
+        final ReferenceStore<TestUserId, TestUser> store = this.createStore();
+        final TestUser user = TestUser.withId(99);
+        store.save(user);
+
+        this.clear();
+
+        store.addStoreWatcher(
+            (o, n) -> {
+                throw new UnsupportedOperationException();
+            }
+        );
+        final List<TestUserId> deleted = Lists.array();
+        store.addIdDeletedWatcher(deleted::add);
+        store.load(user.id().get());
+
+        this.checkEquals(
+            Lists.of(
+                user.id().get()
+            ),
+            deleted,
+            "deleted"
+        );
+    }
+
+    @Test
+    public void testAddIdDeletedWatcherWithNullFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createStore()
+                .addIdDeletedWatcher(null)
+        );
+    }
+
+    @Test
+    public void testIndexingStoreRemovesDropped() {
+        final IndexingStore<TestUserId, TestUser> store = IndexingStore.with(
+            this.createStore(),
+            TestUserId.COMPARATOR
+        );
+        final StoreIndex<TestUserId, TestUser, String> index = store.addIndex(
+            (u) -> u.email,
+            String.CASE_INSENSITIVE_ORDER,
+            false
+        );
+        final TestUser user1 = TestUser.withId(1);
+        final TestUser user99 = TestUser.withId(99);
+        store.save(user1);
+        store.save(user99);
+
+        this.clear();
+        store.load(user99.id().get());
+
+        this.checkEquals(
+            Lists.empty(),
+            index.find(
+                user99.email,
+                0,
+                10
+            ),
+            "dropped"
+        );
+        this.checkEquals(
+            Lists.of(user1),
+            index.find(
+                user1.email,
+                0,
+                10
+            ),
+            "rehydrated"
+        );
+    }
+
+    @Test
+    public void testBudgetStoreReleasesDropped() {
+        final StoreBudget budget = StoreBudget.lru(10);
+        final BudgetStore<TestUserId, TestUser> store = BudgetStore.with(
+            this.createStore(),
+            budget,
+            (v) -> 1
+        );
+        store.save(TestUser.withId(1));
+        store.save(TestUser.withId(98));
+        store.save(TestUser.withId(99));
+
+        this.clear();
+        store.load(TestUserId.with(99));
+
+        this.checkEquals(
+            2L,
+            budget.weight(),
+            budget::toString
+        );
+    }
+
+    @Test
+    public void testValuesReadsPastDropped() {
+        final ReferenceStore<TestUserId, TestUser> store = this.createStore();
+        final TestUser user1 = TestUser.withId(1);
+        store.save(user1);
+        store.save(TestUser.withId(10));
+        store.save(TestUser.withId(11));
+        store.save(TestUser.withId(20));
+
+        this.clear();
+
+        final TestUser user30 = TestUser.withId(30);
+        final TestUser user40 = TestUser.withId(40);
+        store.save(user30);
+        store.save(user40);
+
+        this.valuesAndCheck(
+            store,
+            0,
+            3,
+            user1,
+            user30,
+            user40
+        );
+    }
+
+    @Test
+    public void testValuesAndBetweenRehydrate() {
+        final ReferenceStore<TestUserId, TestUser> store = this.createStore();
+        final TestUser user1 = TestUser.withId(1);
+        final TestUser user2 = TestUser.withId(2);
+        final TestUser user99 = TestUser.withId(99);
+        store.save(user1);
+        store.save(user2);
+        store.save(user99);
+
+        this.clear();
+
+        this.betweenAndCheck(
+            store,
+            TestUserId.with(2),
+            TestUserId.with(99),
+            user2
+        );
+
+        this.valuesAndCheck(
+            store,
+            0,
+            3,
+            user1,
+            user2
+        );
+        this.idsAndCheck(
+            store,
+            0,
+            3,
+            user1.id().get(),
+            user2.id().get()
+        );
+    }
+
+    @Test
+    public void testIdsAfter() {
+        final ReferenceStore<TestUserId, TestUser> store = this.createStore();
+        store.save(TestUser.withId(1));
+        store.save(TestUser.withId(2));
+        store.save(TestUser.withId(5));
+
+        this.idsAfterAndCheck(
+            store,
+            TestUserId.with(1),
+            10,
+            TestUserId.with(2),
+            TestUserId.with(5)
+        );
+        this.idsAfterAndCheck(
+            store,
+            TestUserId.with(3),
+            1,
+            TestUserId.with(5)
+        );
+        this.idsAfterAndCheck(
+            store,
+            TestUserId.with(5),
+            10
+        );
+    }
+
+    @Test
+    public void testStreamRehydratesEachReclaimedValueOnce() {
+        final ReferenceStore<TestUserId, TestUser> store = this.createStore();
+        final int count = StoreSpliterator.PAGE_SIZE * 2 + 3;
+        for (int i = 1; i <= count; i++) {
+            store.save(TestUser.withId(i));
+        }
+
+        this.clear();
+
+        final List<TestUser> expected = Lists.array();
+        for (int i = 1; i < 10; i++) {
+            expected.add(TestUser.withId(i));
+        }
+
+        this.checkEquals(
+            expected,
+            store.stream()
+                .collect(Collectors.toList())
+        );
+        this.checkEquals(
+            count,
+            this.loaded.size(),
+            "loaded"
+        );
+    }
+
+    @Test
+    public void testDeleteFiresWatcherWithReclaimedValue() {
+        final ReferenceStore<TestUserId, TestUser> store = this.createStore();
+        final TestUser user = TestUser.withId(1);
+        store.save(user);
+
+        this.clear();
+
+        final List<Optional<TestUser>> deleted = Lists.array();
+        store.addStoreWatcher(
+            (o, n) -> deleted.add(o)
+        );
+        store.delete(user.id().get());
+
+        this.checkEquals(
+            Lists.of(
+                Optional.of(user)
+            ),
+            deleted,
+            "deleted"
+        );
+        this.countAndCheck(
+            store,
+            0
+        );
+    }
+
+    private void countersAndCheck(final ReferenceStore<?, ?> store,
+                                  final long reclaimed,
+                                  final long reloaded) {
+        final Map<String, Long> counters = Maps.ordered();
+        counters.put("reclaimed", reclaimed);
+        counters.put("reloaded", reloaded);
+
+        this.checkEquals(
+            counters,
+            store.counters(),
+            store::toString
+        );
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        final ReferenceStore<TestUserId, TestUser> store = this.createStore();
+        store.save(TestUser.withId(1));
+        store.save(TestUser.withId(2));
+
+        this.toStringAndCheck(
+            store,
+            "[1, 2] {reclaimed=0, reloaded=0}"
+        );
+    }
+
+    // helpers..........................................................................................................
+
+    /**
+     * A reference that is cleared by {@link #clear()}, standing in for a {@link SoftReference} cleared by the garbage
+     * collector.
+     */
+    private Supplier<TestUser> reference(final TestUser value) {
+        final TestUser[] holder = new TestUser[]{value};
+        this.clearers.add(() -> holder[0] = null);
+        return () -> holder[0];
+    }
+
+    private void clear() {
+        this.clearers.forEach(Runnable::run);
+    }
+
+    private final List<Runnable> clearers = Lists.array();
+
+    /**
+     * Only ids below 10 can be rehydrated.
+     */
+    private Optional<TestUser> loader(final TestUserId id) {
+        this.loaded.add(id);
+        return Optional.ofNullable(
+            id.value < 10 ?
+                TestUser.withId(id.value) :
+                null
+        );
+    }
+
+    private final List<TestUserId> loaded = Lists.array();
+
+    // StoreTesting.....................................................................................................
+
+    @Override
+    public ReferenceStore<TestUserId, TestUser> createStore() {
+        return ReferenceStore.with(
+            TestUserId.COMPARATOR,
+            this::reference,
+            this::loader
+        );
+    }
+
+    @Override
+    public TestUserId id() {
+        return TestUserId.with(1);
+    }
+
+    @Override
+    public TestUser value() {
+        return TestUser.withId(1);
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<ReferenceStore<TestUserId, TestUser>> type() {
+        return Cast.to(ReferenceStore.class);
+    }
+
+    // TypeNameTesting..................................................................................................
+
+    @Override
+    public String typeNamePrefix() {
+        return "Reference";
+    }
+
+    @Override
+    public String typeNameSuffix() {
+        return Store.class.getSimpleName();
+    }
+}
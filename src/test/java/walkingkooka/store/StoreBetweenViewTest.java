@@ -0,0 +1,280 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.store;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class StoreBetweenViewTest implements ClassTesting2<StoreBetweenView<TestUserId, TestUser>>,
+    ToStringTesting<StoreBetweenView<TestUserId, TestUser>> {
+
+    @Test
+    public void testIterateAndSize() {
+        final Store<TestUserId, TestUser> store = this.treeMapStore();
+
+        final Collection<TestUser> view = this.view(
+            store,
+            2,
+            3
+        );
+
+        this.checkEquals(
+            Lists.of(
+                TestUser.withId(2),
+                TestUser.withId(3)
+            ),
+            Lists.of(
+                view.toArray()
+            )
+        );
+        this.checkEquals(
+            2,
+            view.size(),
+            "size"
+        );
+    }
+
+    @Test
+    public void testEmptyRange() {
+        final Collection<TestUser> view = this.view(
+            this.treeMapStore(),
+            10,
+            20
+        );
+
+        this.checkEquals(
+            true,
+            view.isEmpty(),
+            "isEmpty"
+        );
+        this.checkEquals(
+            0,
+            view.size(),
+            "size"
+        );
+    }
+
+    @Test
+    public void testIsEmptyDoesNotCount() {
+        final Store<TestUserId, TestUser> store = this.treeMapStore();
+        final Store<TestUserId, TestUser> notCounting = new StoreDelegator<>() {
+            @Override
+            public int countBetween(final TestUserId from,
+                                    final TestUserId to) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Store<TestUserId, TestUser> store() {
+                return store;
+            }
+        };
+
+        this.checkEquals(
+            false,
+            this.view(
+                notCounting,
+                2,
+                3
+            ).isEmpty(),
+            "2..3"
+        );
+        this.checkEquals(
+            true,
+            this.view(
+                notCounting,
+                10,
+                20
+            ).isEmpty(),
+            "10..20"
+        );
+    }
+
+    @Test
+    public void testFromAfterTo() {
+        this.checkEquals(
+            0,
+            this.view(
+                this.treeMapStore(),
+                3,
+                1
+            ).size()
+        );
+    }
+
+    @Test
+    public void testLive() {
+        final Store<TestUserId, TestUser> store = this.treeMapStore();
+
+        final Collection<TestUser> view = this.view(
+            store,
+            1,
+            10
+        );
+
+        store.delete(TestUserId.with(2));
+        store.save(TestUser.withId(5));
+
+        this.checkEquals(
+            Lists.of(
+                TestUser.withId(1),
+                TestUser.withId(3),
+                TestUser.withId(4),
+                TestUser.withId(5)
+            ),
+            Lists.of(
+                view.toArray()
+            )
+        );
+        this.checkEquals(
+            4,
+            view.size(),
+            "size"
+        );
+    }
+
+    @Test
+    public void testSaveWhileIteratingFails() {
+        final Store<TestUserId, TestUser> store = this.treeMapStore();
+
+        final Iterator<TestUser> iterator = this.view(
+            store,
+            1,
+            10
+        ).iterator();
+        iterator.next();
+
+        store.save(TestUser.withId(5));
+
+        assertThrows(
+            ConcurrentModificationException.class,
+            () -> {
+                while (iterator.hasNext()) {
+                    iterator.next();
+                }
+            }
+        );
+    }
+
+    @Test
+    public void testAddFails() {
+        assertThrows(
+            UnsupportedOperationException.class,
+            () -> this.view(
+                this.treeMapStore(),
+                1,
+                10
+            ).add(TestUser.withId(5))
+        );
+    }
+
+    @Test
+    public void testClearFails() {
+        assertThrows(
+            UnsupportedOperationException.class,
+            () -> this.view(
+                this.treeMapStore(),
+                1,
+                10
+            ).clear()
+        );
+    }
+
+    @Test
+    public void testIteratorRemoveFails() {
+        final Iterator<TestUser> iterator = this.view(
+            this.treeMapStore(),
+            1,
+            10
+        ).iterator();
+        iterator.next();
+
+        assertThrows(
+            UnsupportedOperationException.class,
+            iterator::remove
+        );
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        final Store<TestUserId, TestUser> store = this.treeMapStore();
+
+        this.toStringAndCheck(
+            this.view(
+                store,
+                1,
+                2
+            ),
+            Lists.of(
+                TestUser.withId(1),
+                TestUser.withId(2)
+            ).toString()
+        );
+    }
+
+    // helpers..........................................................................................................
+
+    private StoreBetweenView<TestUserId, TestUser> view(final Store<TestUserId, TestUser> store,
+                                                        final int from,
+                                                        final int to) {
+        return Cast.to(
+            store.betweenView(
+                TestUserId.with(from),
+                TestUserId.with(to)
+            )
+        );
+    }
+
+    /**
+     * A {@link TreeMapStore} holding users 1 to 4.
+     */
+    private Store<TestUserId, TestUser> treeMapStore() {
+        final Store<TestUserId, TestUser> store = Stores.treeMap(
+            TestUserId.COMPARATOR,
+            (id, user) -> user
+        );
+        for (int i = 1; i <= 4; i++) {
+            store.save(TestUser.withId(i));
+        }
+        return store;
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<StoreBetweenView<TestUserId, TestUser>> type() {
+        return Cast.to(StoreBetweenView.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.ToStringTesting;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class StoreBudgetTest implements ClassTesting2<StoreBudget>,
+    ToStringTesting<StoreBudget> {
+
+    @Test
+    public void testLruZeroMaxWeightFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> StoreBudget.lru(0)
+        );
+    }
+
+    @Test
+    public void testLfuZeroMaxWeightFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> StoreBudget.lfu(0)
+        );
+    }
+
+    @Test
+    public void testLru() {
+        final StoreBudget budget = StoreBudget.lru(10);
+
+        this.checkEquals(
+            10L,
+            budget.maxWeight(),
+            "maxWeight"
+        );
+        this.checkEquals(
+            0L,
+            budget.weight(),
+            "weight"
+        );
+    }
+
+    @Test
+    public void testAddNegativeWeightFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> StoreBudget.lru(10)
+                .add(
+                    null,
+                    "id",
+                    -1
+                )
+        );
+    }
+
+    @Test
+    public void testAddAndRemove() {
+        final StoreBudget budget = StoreBudget.lru(10);
+        final StoreBudgetEntry entry = budget.add(
+            null,
+            "id",
+            3
+        );
+
+        this.checkEquals(
+            3L,
+            budget.weight(),
+            "weight after add"
+        );
+
+        budget.remove(entry);
+
+        this.checkEquals(
+            0L,
+            budget.weight(),
+            "weight after remove"
+        );
+    }
+
+    @Test
+    public void testToString() {
+        final StoreBudget budget = StoreBudget.lfu(10);
+        budget.add(
+            null,
+            "id",
+            3
+        );
+
+        this.toStringAndCheck(
+            budget,
+            "3/10"
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<StoreBudget> type() {
+        return StoreBudget.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
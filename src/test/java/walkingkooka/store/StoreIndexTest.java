@@ -0,0 +1,353 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class StoreIndexTest implements ClassTesting2<StoreIndex<Integer, String, Integer>>,
+    ToStringTesting<StoreIndex<Integer, String, Integer>> {
+
+    private final static Function<String, Integer> LENGTH = String::length;
+
+    private final static Comparator<Integer> COMPARATOR = Comparator.naturalOrder();
+
+    @Test
+    public void testWithNullAttributeFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> StoreIndex.with(
+                null,
+                COMPARATOR,
+                COMPARATOR,
+                false
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullAttributeComparatorFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> StoreIndex.with(
+                LENGTH,
+                null,
+                COMPARATOR,
+                false
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullIdComparatorFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> StoreIndex.with(
+                LENGTH,
+                COMPARATOR,
+                null,
+                false
+            )
+        );
+    }
+
+    @Test
+    public void testFindNullAttributeFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createIndex()
+                .find(
+                    null,
+                    0,
+                    1
+                )
+        );
+    }
+
+    @Test
+    public void testBetweenInvalidOffsetFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> this.createIndex()
+                .between(
+                    1,
+                    2,
+                    -1,
+                    1
+                )
+        );
+    }
+
+    @Test
+    public void testBetweenSkipsWholeAttributes() {
+        final StoreIndex<Integer, String, Integer> index = this.createIndex();
+
+        this.checkEquals(
+            Lists.of("ccc", "ddd", "eeee"),
+            index.between(
+                1,
+                4,
+                2,
+                3
+            )
+        );
+    }
+
+    @Test
+    public void testFind() {
+        final StoreIndex<Integer, String, Integer> index = this.createIndex();
+
+        this.checkEquals(
+            Lists.of("ddd"),
+            index.find(
+                3,
+                1,
+                1
+            )
+        );
+    }
+
+    @Test
+    public void testRemove() {
+        final StoreIndex<Integer, String, Integer> index = this.createIndex();
+        index.remove(3);
+        index.remove(4);
+
+        this.checkEquals(
+            Lists.of("a", "bb", "eeee"),
+            index.between(
+                1,
+                4,
+                0,
+                10
+            )
+        );
+    }
+
+    @Test
+    public void testCheckUnique() {
+        final StoreIndex<Integer, String, Integer> index = StoreIndex.with(
+            LENGTH,
+            COMPARATOR,
+            COMPARATOR,
+            true
+        );
+        index.add(
+            1,
+            "a"
+        );
+        index.checkUnique(
+            1,
+            "b"
+        );
+
+        assertThrows(
+            StoreException.class,
+            () -> index.checkUnique(
+                2,
+                "b"
+            )
+        );
+    }
+
+    @Test
+    public void testAfterNullLastSeenAttributeFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createIndex()
+                .after(
+                    null,
+                    1,
+                    4,
+                    1
+                )
+        );
+    }
+
+    @Test
+    public void testAfterNullLastSeenIdFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createIndex()
+                .after(
+                    1,
+                    null,
+                    4,
+                    1
+                )
+        );
+    }
+
+    @Test
+    public void testAfterInvalidCountFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> this.createIndex()
+                .after(
+                    1,
+                    1,
+                    4,
+                    -1
+                )
+        );
+    }
+
+    @Test
+    public void testAfterWithinAttribute() {
+        this.afterAndCheck(
+            3,
+            3,
+            4,
+            10,
+            "ddd", "eeee"
+        );
+    }
+
+    @Test
+    public void testAfterCount() {
+        this.afterAndCheck(
+            1,
+            1,
+            4,
+            2,
+            "bb", "ccc"
+        );
+    }
+
+    @Test
+    public void testAfterTo() {
+        this.afterAndCheck(
+            2,
+            2,
+            3,
+            10,
+            "ccc", "ddd"
+        );
+    }
+
+    @Test
+    public void testAfterLastSeenRemoved() {
+        final StoreIndex<Integer, String, Integer> index = this.createIndex();
+        index.remove(3);
+
+        this.checkEquals(
+            Lists.of("ddd", "eeee"),
+            index.after(
+                3,
+                3,
+                4,
+                10
+            )
+        );
+    }
+
+    @Test
+    public void testAfterPages() {
+        final StoreIndex<Integer, String, Integer> index = this.createIndex();
+
+        final List<String> values = Lists.array();
+        List<String> page = index.between(
+            1,
+            4,
+            0,
+            2
+        );
+        while (false == page.isEmpty()) {
+            values.addAll(page);
+
+            // each value has the position of its letter as its id
+            final String last = page.get(page.size() - 1);
+            page = index.after(
+                last.length(),
+                last.charAt(0) - 'a' + 1,
+                4,
+                2
+            );
+        }
+
+        this.checkEquals(
+            Lists.of("a", "bb", "ccc", "ddd", "eeee"),
+            values
+        );
+    }
+
+    private void afterAndCheck(final int lastSeenAttribute,
+                               final int lastSeenId,
+                               final int to,
+                               final int count,
+                               final String... expected) {
+        this.checkEquals(
+            Lists.of(expected),
+            this.createIndex()
+                .after(
+                    lastSeenAttribute,
+                    lastSeenId,
+                    to,
+                    count
+                )
+        );
+    }
+
+    private StoreIndex<Integer, String, Integer> createIndex() {
+        final StoreIndex<Integer, String, Integer> index = StoreIndex.with(
+            LENGTH,
+            COMPARATOR,
+            COMPARATOR,
+            false
+        );
+        index.add(1, "a");
+        index.add(2, "bb");
+        index.add(3, "ccc");
+        index.add(4, "ddd");
+        index.add(5, "eeee");
+        return index;
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(
+            this.createIndex(),
+            "[1, 2, 3, 4]"
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<StoreIndex<Integer, String, Integer>> type() {
+        return Cast.to(StoreIndex.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PUBLIC;
+    }
+}
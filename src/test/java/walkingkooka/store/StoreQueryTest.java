@@ -0,0 +1,153 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.store;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public final class StoreQueryTest implements ClassTesting2<StoreQuery> {
+
+    @Test
+    public void testQuery() {
+        this.queryAndCheck(
+            false,
+            (i) -> i % 2 == 0,
+            1,
+            2,
+            2,
+            4
+        );
+    }
+
+    @Test
+    public void testQueryCountZero() {
+        this.queryAndCheck(
+            false,
+            (i) -> true,
+            0,
+            0
+        );
+    }
+
+    @Test
+    public void testQueryOffsetPastEnd() {
+        this.queryAndCheck(
+            false,
+            (i) -> true,
+            100,
+            2
+        );
+    }
+
+    @Test
+    public void testQueryParallelSmallPageRunsSequentially() {
+        this.queryAndCheck(
+            true,
+            (i) -> i % 2 == 0,
+            1,
+            2,
+            2,
+            4
+        );
+    }
+
+    @Test
+    public void testQueryParallelLarge() {
+        final Predicate<Integer> filter = (i) -> i % 7 == 0;
+
+        final List<Integer> expected = IntStream.range(0, 100000)
+            .boxed()
+            .filter(filter)
+            .skip(100)
+            .limit(StoreQuery.PARALLEL_THRESHOLD)
+            .collect(Collectors.toList());
+
+        this.checkEquals(
+            expected,
+            StoreQuery.query(
+                IntStream.range(0, 100000)
+                    .boxed(),
+                true,
+                filter,
+                100,
+                StoreQuery.PARALLEL_THRESHOLD
+            )
+        );
+    }
+
+    @Test
+    public void testQueryParallelSmallCountStopsAtFirstMatch() {
+        final AtomicInteger tested = new AtomicInteger();
+
+        this.checkEquals(
+            Lists.of(0),
+            StoreQuery.query(
+                IntStream.range(0, 100000)
+                    .boxed(),
+                true,
+                (i) -> tested.incrementAndGet() > 0,
+                0,
+                1
+            )
+        );
+        this.checkEquals(
+            1,
+            tested.get(),
+            "values tested"
+        );
+    }
+
+    private void queryAndCheck(final boolean parallel,
+                               final Predicate<Integer> filter,
+                               final int offset,
+                               final int count,
+                               final Integer... expected) {
+        this.checkEquals(
+            Lists.of(expected),
+            StoreQuery.query(
+                IntStream.range(0, 10)
+                    .boxed(),
+                parallel,
+                filter,
+                offset,
+                count
+            ),
+            () -> "query parallel=" + parallel + " offset=" + offset + " count=" + count
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<StoreQuery> type() {
+        return StoreQuery.class;
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.store;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.ToStringTesting;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+public final class StoreRankTreeTest implements ClassTesting2<StoreRankTree<Integer>>,
+    ToStringTesting<StoreRankTree<Integer>> {
+
+    @Test
+    public void testWeightBeforeWhenEmpty() {
+        final StoreRankTree<Integer> tree = this.createTree();
+
+        this.weightBeforeAndCheck(
+            tree,
+            1,
+            true,
+            0
+        );
+        this.checkEquals(
+            0,
+            tree.total(),
+            "total"
+        );
+    }
+
+    @Test
+    public void testWeightBefore() {
+        final StoreRankTree<Integer> tree = this.createTree();
+        tree.set(10, 1);
+        tree.set(20, 2);
+        tree.set(30, 3);
+
+        this.weightBeforeAndCheck(
+            tree,
+            5,
+            true,
+            0
+        );
+        this.weightBeforeAndCheck(
+            tree,
+            10,
+            false,
+            0
+        );
+        this.weightBeforeAndCheck(
+            tree,
+            10,
+            true,
+            1
+        );
+        this.weightBeforeAndCheck(
+            tree,
+            25,
+            false,
+            3
+        );
+        this.weightBeforeAndCheck(
+            tree,
+            30,
+            true,
+            6
+        );
+        this.checkEquals(
+            6,
+            tree.total(),
+            "total"
+        );
+    }
+
+    @Test
+    public void testCountBefore() {
+        final StoreRankTree<Integer> tree = this.createTree();
+        tree.set(10, 1);
+        tree.set(20, 2);
+        tree.set(30, 3);
+
+        this.countBeforeAndCheck(
+            tree,
+            5,
+            true,
+            0
+        );
+        this.countBeforeAndCheck(
+            tree,
+            20,
+            false,
+            1
+        );
+        this.countBeforeAndCheck(
+            tree,
+            20,
+            true,
+            2
+        );
+        this.countBeforeAndCheck(
+            tree,
+            25,
+            true,
+            2
+        );
+        this.countBeforeAndCheck(
+            tree,
+            35,
+            false,
+            3
+        );
+    }
+
+    @Test
+    public void testSetReplacesWeight() {
+        final StoreRankTree<Integer> tree = this.createTree();
+        tree.set(10, 1);
+        tree.set(20, 2);
+        tree.set(10, 5);
+
+        this.weightBeforeAndCheck(
+            tree,
+            20,
+            false,
+            5
+        );
+    }
+
+    @Test
+    public void testSetZeroRemoves() {
+        final StoreRankTree<Integer> tree = this.createTree();
+        tree.set(10, 1);
+        tree.set(20, 1);
+        tree.set(30, 1);
+        tree.set(20, 0);
+
+        this.weightBeforeAndCheck(
+            tree,
+            30,
+            false,
+            1
+        );
+        this.toStringAndCheck(
+            tree,
+            "[10=1, 30=1]"
+        );
+    }
+
+    @Test
+    public void testSetZeroUnknown() {
+        final StoreRankTree<Integer> tree = this.createTree();
+        tree.set(10, 1);
+        tree.set(20, 0);
+
+        this.toStringAndCheck(
+            tree,
+            "[10=1]"
+        );
+    }
+
+    @Test
+    public void testManySetsMatchesTreeMap() {
+        final StoreRankTree<Integer> tree = this.createTree();
+        final TreeMap<Integer, Integer> expected = new TreeMap<>();
+        final Random random = new Random(1);
+
+        for (int i = 0; i < 2000; i++) {
+            final int key = random.nextInt(200);
+            final int weight = random.nextInt(4);
+
+            tree.set(key, weight);
+            if (weight > 0) {
+                expected.put(key, weight);
+            } else {
+                expected.remove(key);
+            }
+        }
+
+        for (int key = -1; key <= 200; key++) {
+            this.weightBeforeAndCheck(
+                tree,
+                key,
+                false,
+                sum(
+                    expected.headMap(key, false)
+                )
+            );
+            this.weightBeforeAndCheck(
+                tree,
+                key,
+                true,
+                sum(
+                    expected.headMap(key, true)
+                )
+            );
+            this.countBeforeAndCheck(
+                tree,
+                key,
+                false,
+                expected.headMap(key, false).size()
+            );
+            this.countBeforeAndCheck(
+                tree,
+                key,
+                true,
+                expected.headMap(key, true).size()
+            );
+        }
+
+        this.checkEquals(
+            sum(expected),
+            tree.total(),
+            "total"
+        );
+    }
+
+    @Test
+    public void testAscendingSetsBalanced() {
+        final StoreRankTree<Integer> tree = this.createTree();
+        for (int i = 0; i < 1023; i++) {
+            tree.set(i, 1);
+        }
+
+        this.weightBeforeAndCheck(
+            tree,
+            500,
+            false,
+            500
+        );
+        this.checkEquals(
+            10,
+            tree.root.height,
+            "height"
+        );
+    }
+
+    @Test
+    public void testRebuild() {
+        final StoreRankTree<Integer> tree = this.createTree();
+        tree.set(99, 1);
+
+        final TreeMap<Integer, Integer> keys = new TreeMap<>();
+        for (int i = 0; i < 100; i++) {
+            keys.put(i, 2);
+        }
+        tree.rebuild(
+            keys,
+            Integer::intValue
+        );
+
+        this.weightBeforeAndCheck(
+            tree,
+            50,
+            false,
+            100
+        );
+        this.checkEquals(
+            200,
+            tree.total(),
+            "total"
+        );
+        this.checkEquals(
+            7,
+            tree.root.height,
+            "height"
+        );
+
+        tree.set(100, 1);
+        this.weightBeforeAndCheck(
+            tree,
+            100,
+            true,
+            201
+        );
+    }
+
+    private static int sum(final Map<Integer, Integer> map) {
+        return map.values()
+            .stream()
+            .mapToInt(Integer::intValue)
+            .sum();
+    }
+
+    private StoreRankTree<Integer> createTree() {
+        return StoreRankTree.with(Comparator.<Integer>naturalOrder());
+    }
+
+    private void weightBeforeAndCheck(final StoreRankTree<Integer> tree,
+                                      final Integer key,
+                                      final boolean inclusive,
+                                      final int expected) {
+        this.checkEquals(
+            expected,
+            tree.weightBefore(
+                key,
+                inclusive
+            ),
+            () -> tree + " weightBefore " + key + " inclusive=" + inclusive
+        );
+    }
+
+    private void countBeforeAndCheck(final StoreRankTree<Integer> tree,
+                                     final Integer key,
+                                     final boolean inclusive,
+                                     final int expected) {
+        this.checkEquals(
+            expected,
+            tree.countBefore(
+                key,
+                inclusive
+            ),
+            () -> tree + " countBefore " + key + " inclusive=" + inclusive
+        );
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        final StoreRankTree<Integer> tree = this.createTree();
+        tree.set(20, 2);
+        tree.set(10, 1);
+
+        this.toStringAndCheck(
+            tree,
+            "[10=1, 20=2]"
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<StoreRankTree<Integer>> type() {
+        return Cast.to(StoreRankTree.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
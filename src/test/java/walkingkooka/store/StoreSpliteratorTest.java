@@ -0,0 +1,428 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.store;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.reflect.ClassTesting2;
+import walkingkooka.reflect.JavaVisibility;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public final class StoreSpliteratorTest implements ClassTesting2<StoreSpliterator<TestUserId, TestUser>>,
+    ToStringTesting<StoreSpliterator<TestUserId, TestUser>> {
+
+    // with.............................................................................................................
+
+    @Test
+    public void testEmpty() {
+        this.streamAndCheck(
+            StoreSpliterator.with(
+                this.store(0)
+            ),
+            0
+        );
+    }
+
+    @Test
+    public void testLessThanPage() {
+        this.streamAndCheck(
+            StoreSpliterator.with(
+                this.store(3)
+            ),
+            3
+        );
+    }
+
+    @Test
+    public void testExactlyPage() {
+        this.streamAndCheck(
+            StoreSpliterator.with(
+                this.store(StoreSpliterator.PAGE_SIZE)
+            ),
+            StoreSpliterator.PAGE_SIZE
+        );
+    }
+
+    @Test
+    public void testSeveralPages() {
+        final int count = StoreSpliterator.PAGE_SIZE * 3 + 7;
+        this.streamAndCheck(
+            StoreSpliterator.with(
+                this.store(count)
+            ),
+            count
+        );
+    }
+
+    @Test
+    public void testStoreStreamDefaultReadsValuesByOffset() {
+        final int count = StoreSpliterator.PAGE_SIZE * 3 + 7;
+        final TestStore store = this.store(count);
+
+        this.checkEquals(
+            this.values(count),
+            store.stream()
+                .collect(Collectors.toList())
+        );
+        this.checkEquals(
+            4,
+            store.valuesCalls,
+            "values"
+        );
+        this.checkEquals(
+            0,
+            store.betweenCalls,
+            "between"
+        );
+        this.checkEquals(
+            0,
+            store.loadCalls,
+            "load"
+        );
+    }
+
+    @Test
+    public void testCharacteristics() {
+        final StoreSpliterator<TestUserId, TestUser> spliterator = StoreSpliterator.with(
+            this.store(5)
+        );
+
+        this.checkEquals(
+            true,
+            spliterator.hasCharacteristics(Spliterator.ORDERED | Spliterator.NONNULL),
+            "characteristics"
+        );
+        this.checkEquals(
+            5L,
+            spliterator.estimateSize(),
+            "estimateSize"
+        );
+    }
+
+    @Test
+    public void testParallel() {
+        final int count = 5000;
+
+        this.checkEquals(
+            this.values(count),
+            StreamSupport.stream(
+                StoreSpliterator.with(
+                    this.store(count)
+                ),
+                true
+            ).collect(Collectors.toList())
+        );
+    }
+
+    // seeking..........................................................................................................
+
+    @Test
+    public void testSeekingEmpty() {
+        this.streamAndCheck(
+            StoreSpliterator.seeking(
+                this.seekingStore(0)
+            ),
+            0
+        );
+    }
+
+    @Test
+    public void testSeekingExactlyPage() {
+        this.streamAndCheck(
+            StoreSpliterator.seeking(
+                this.seekingStore(StoreSpliterator.PAGE_SIZE)
+            ),
+            StoreSpliterator.PAGE_SIZE
+        );
+    }
+
+    @Test
+    public void testSeekingSeveralPages() {
+        final int count = StoreSpliterator.PAGE_SIZE * 3 + 7;
+        final TestStore store = this.seekingStore(count);
+
+        this.streamAndCheck(
+            StoreSpliterator.seeking(store),
+            count
+        );
+        this.checkEquals(
+            4,
+            store.betweenCalls,
+            "between"
+        );
+        this.checkEquals(
+            0,
+            store.valuesCalls,
+            "values"
+        );
+    }
+
+    @Test
+    public void testSeekingDeleteBeforeCurrentPageDoesNotSkip() {
+        final int count = StoreSpliterator.PAGE_SIZE * 2;
+        final List<TestUser> values = this.values(count);
+        final StoreSpliterator<TestUserId, TestUser> spliterator = StoreSpliterator.seeking(
+            new TestSeekingStore(values)
+        );
+
+        final List<TestUser> read = Lists.array();
+        for (int i = 0; i < StoreSpliterator.PAGE_SIZE; i++) {
+            spliterator.tryAdvance(read::add);
+        }
+
+        // remove values already read, which would shift a positional page
+        values.subList(0, 10).clear();
+        spliterator.forEachRemaining(read::add);
+
+        this.checkEquals(
+            this.values(count),
+            read
+        );
+    }
+
+    @Test
+    public void testSeekingSaveBeforeCurrentPageDoesNotRepeat() {
+        final int count = StoreSpliterator.PAGE_SIZE * 2;
+        final List<TestUser> values = this.values(count);
+        values.remove(0);
+
+        final StoreSpliterator<TestUserId, TestUser> spliterator = StoreSpliterator.seeking(
+            new TestSeekingStore(values)
+        );
+
+        final List<TestUser> read = Lists.array();
+        for (int i = 0; i < StoreSpliterator.PAGE_SIZE; i++) {
+            spliterator.tryAdvance(read::add);
+        }
+
+        // insert a value before those already read, which would repeat the last value with a positional page
+        values.add(
+            0,
+            TestUser.withId(1)
+        );
+        spliterator.forEachRemaining(read::add);
+
+        this.checkEquals(
+            this.values(count).subList(1, count),
+            read
+        );
+    }
+
+    private void streamAndCheck(final StoreSpliterator<TestUserId, TestUser> spliterator,
+                                final int count) {
+        this.checkEquals(
+            this.values(count),
+            StreamSupport.stream(
+                spliterator,
+                false
+            ).collect(Collectors.toList())
+        );
+    }
+
+    private TestStore store(final int count) {
+        return new TestStore(
+            this.values(count)
+        );
+    }
+
+    private TestStore seekingStore(final int count) {
+        return new TestSeekingStore(
+            this.values(count)
+        );
+    }
+
+    private List<TestUser> values(final int count) {
+        final List<TestUser> values = Lists.array();
+        for (int i = 1; i <= count; i++) {
+            values.add(
+                TestUser.withId(i)
+            );
+        }
+        return values;
+    }
+
+    /**
+     * A {@link Store} over a live list of values sorted by id, counting the calls that read values, which leaves
+     * {@link Store#idsAfter(Object, int)} and {@link Store#stream()} to their defaults.
+     */
+    private static class TestStore extends FakeStore<TestUserId, TestUser> {
+
+        TestStore(final List<TestUser> values) {
+            super();
+            this.values = values;
+        }
+
+        @Override
+        public Optional<TestUser> load(final TestUserId id) {
+            this.loadCalls++;
+            return this.values.stream()
+                .filter(v -> id(v) == id.value)
+                .findFirst();
+        }
+
+        int loadCalls;
+
+        @Override
+        public int count() {
+            return this.values.size();
+        }
+
+        @Override
+        public Set<TestUserId> ids(final int offset,
+                                   final int count) {
+            return ids(
+                this.values.stream()
+                    .skip(offset)
+                    .limit(count)
+            );
+        }
+
+        static Set<TestUserId> ids(final Stream<TestUser> values) {
+            return values.map(v -> v.id().get())
+                .collect(Collectors.toCollection(Sets::ordered));
+        }
+
+        @Override
+        public List<TestUser> values(final int offset,
+                                     final int count) {
+            this.valuesCalls++;
+            return this.values.stream()
+                .skip(offset)
+                .limit(count)
+                .collect(Collectors.toList());
+        }
+
+        int valuesCalls;
+
+        @Override
+        public List<TestUser> between(final TestUserId from,
+                                      final TestUserId to) {
+            this.betweenCalls++;
+            return this.values.stream()
+                .filter(v -> id(v) >= from.value && id(v) <= to.value)
+                .collect(Collectors.toList());
+        }
+
+        int betweenCalls;
+
+        final List<TestUser> values;
+
+        @Override
+        public String toString() {
+            return "Store" + this.values.size();
+        }
+    }
+
+    /**
+     * A {@link TestStore} with an {@link Store#idsAfter(Object, int)} that does not count earlier values.
+     */
+    private static class TestSeekingStore extends TestStore {
+
+        TestSeekingStore(final List<TestUser> values) {
+            super(values);
+        }
+
+        @Override
+        public Set<TestUserId> idsAfter(final TestUserId lastSeen,
+                                        final int count) {
+            return ids(
+                this.values.stream()
+                    .filter(v -> id(v) > lastSeen.value)
+                    .limit(count)
+            );
+        }
+    }
+
+    private static int id(final TestUser user) {
+        return user.id()
+            .get()
+            .value;
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        this.toStringAndCheck(
+            StoreSpliterator.with(
+                this.store(3)
+            ),
+            "Store3 0"
+        );
+    }
+
+    @Test
+    public void testToStringAfterPage() {
+        final StoreSpliterator<TestUserId, TestUser> spliterator = StoreSpliterator.with(
+            this.store(3)
+        );
+        spliterator.tryAdvance(v -> {
+        });
+
+        this.toStringAndCheck(
+            spliterator,
+            "Store3 3"
+        );
+    }
+
+    @Test
+    public void testToStringSeeking() {
+        this.toStringAndCheck(
+            StoreSpliterator.seeking(
+                this.seekingStore(3)
+            ),
+            "Store3"
+        );
+    }
+
+    @Test
+    public void testToStringSeekingAfterPage() {
+        final StoreSpliterator<TestUserId, TestUser> spliterator = StoreSpliterator.seeking(
+            this.seekingStore(3)
+        );
+        spliterator.tryAdvance(v -> {
+        });
+
+        this.toStringAndCheck(
+            spliterator,
+            "Store3 after 3"
+        );
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<StoreSpliterator<TestUserId, TestUser>> type() {
+        return Cast.to(StoreSpliterator.class);
+    }
+
+    @Override
+    public JavaVisibility typeVisibility() {
+        return JavaVisibility.PACKAGE_PRIVATE;
+    }
+}
@@ -21,9 +21,15 @@ import org.junit.jupiter.api.Test;
 import walkingkooka.Cast;
 import walkingkooka.HasNotFoundText;
 import walkingkooka.HasNotFoundTextTesting;
+import walkingkooka.collect.list.Lists;
 import walkingkooka.reflect.ClassTesting;
 import walkingkooka.reflect.JavaVisibility;
 
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
 public final class StoreTest implements HasNotFoundTextTesting,
     ClassTesting<Store<?, ?>> {
 
@@ -70,6 +76,368 @@ public final class StoreTest implements HasNotFoundTextTesting,
         );
     }
 
+    // idsAfter.........................................................................................................
+
+    @Test
+    public void testIdsAfterDefault() {
+        this.checkEquals(
+            Lists.of(
+                TestUserId.with(2),
+                TestUserId.with(4)
+            ),
+            Lists.of(
+                this.store()
+                    .idsAfter(
+                        TestUserId.with(1),
+                        2
+                    ).toArray()
+            )
+        );
+    }
+
+    @Test
+    public void testIdsAfterDefaultUnknownLastSeen() {
+        this.checkEquals(
+            Lists.of(
+                TestUserId.with(4)
+            ),
+            Lists.of(
+                this.store()
+                    .idsAfter(
+                        TestUserId.with(3),
+                        2
+                    ).toArray()
+            )
+        );
+    }
+
+    @Test
+    public void testIdsBeforeDefault() {
+        this.checkEquals(
+            Lists.of(
+                TestUserId.with(2),
+                TestUserId.with(1)
+            ),
+            Lists.of(
+                this.store()
+                    .idsBefore(
+                        TestUserId.with(4),
+                        2
+                    ).toArray()
+            )
+        );
+    }
+
+    @Test
+    public void testIdsBeforeDefaultFirst() {
+        this.checkEquals(
+            Lists.empty(),
+            Lists.of(
+                this.store()
+                    .idsBefore(
+                        TestUserId.with(1),
+                        2
+                    ).toArray()
+            )
+        );
+    }
+
+    // valuesAfter......................................................................................................
+
+    @Test
+    public void testValuesAfterDefault() {
+        this.checkEquals(
+            Lists.of(
+                user(4)
+            ),
+            this.store()
+                .valuesAfter(
+                    TestUserId.with(2),
+                    5
+                )
+        );
+    }
+
+    @Test
+    public void testValuesBeforeDefault() {
+        this.checkEquals(
+            Lists.of(
+                user(2),
+                user(1)
+            ),
+            this.store()
+                .valuesBefore(
+                    TestUserId.with(4),
+                    2
+                )
+        );
+    }
+
+    // navigation.......................................................................................................
+
+    @Test
+    public void testLastIdDefault() {
+        this.checkEquals(
+            Optional.of(
+                TestUserId.with(4)
+            ),
+            this.store()
+                .lastId()
+        );
+    }
+
+    @Test
+    public void testLastValueDefault() {
+        this.checkEquals(
+            Optional.of(
+                user(4)
+            ),
+            this.store()
+                .lastValue()
+        );
+    }
+
+    @Test
+    public void testFloorIdDefault() {
+        this.checkEquals(
+            Optional.of(
+                TestUserId.with(2)
+            ),
+            this.store()
+                .floorId(
+                    TestUserId.with(3)
+                )
+        );
+    }
+
+    @Test
+    public void testFloorIdDefaultPresent() {
+        this.checkEquals(
+            Optional.of(
+                TestUserId.with(2)
+            ),
+            this.store()
+                .floorId(
+                    TestUserId.with(2)
+                )
+        );
+    }
+
+    @Test
+    public void testCeilingIdDefault() {
+        this.checkEquals(
+            Optional.of(
+                TestUserId.with(4)
+            ),
+            this.store()
+                .ceilingId(
+                    TestUserId.with(3)
+                )
+        );
+    }
+
+    @Test
+    public void testCeilingIdDefaultAfterLast() {
+        this.checkEquals(
+            Optional.empty(),
+            this.store()
+                .ceilingId(
+                    TestUserId.with(5)
+                )
+        );
+    }
+
+    @Test
+    public void testHigherIdDefault() {
+        this.checkEquals(
+            Optional.of(
+                TestUserId.with(4)
+            ),
+            this.store()
+                .higherId(
+                    TestUserId.with(2)
+                )
+        );
+    }
+
+    @Test
+    public void testLowerIdDefault() {
+        this.checkEquals(
+            Optional.of(
+                TestUserId.with(1)
+            ),
+            this.store()
+                .lowerId(
+                    TestUserId.with(2)
+                )
+        );
+    }
+
+    @Test
+    public void testLowerIdDefaultFirst() {
+        this.checkEquals(
+            Optional.empty(),
+            this.store()
+                .lowerId(
+                    TestUserId.with(1)
+                )
+        );
+    }
+
+    @Test
+    public void testFloorValueDefault() {
+        this.checkEquals(
+            Optional.of(
+                user(2)
+            ),
+            this.store()
+                .floorValue(
+                    TestUserId.with(3)
+                )
+        );
+    }
+
+    // countBetween.....................................................................................................
+
+    @Test
+    public void testCountBetweenDefault() {
+        this.checkEquals(
+            2,
+            this.store()
+                .countBetween(
+                    TestUserId.with(2),
+                    TestUserId.with(5)
+                )
+        );
+    }
+
+    @Test
+    public void testRankOfDefault() {
+        this.checkEquals(
+            2,
+            this.store()
+                .rankOf(
+                    TestUserId.with(4)
+                )
+        );
+    }
+
+    @Test
+    public void testRankOfDefaultAbsent() {
+        this.checkEquals(
+            2,
+            this.store()
+                .rankOf(
+                    TestUserId.with(3)
+                )
+        );
+    }
+
+    // query............................................................................................................
+
+    @Test
+    public void testQueryDefault() {
+        this.checkEquals(
+            Lists.of(
+                user(4)
+            ),
+            this.store()
+                .query(
+                    (u) -> u.id().get().value > 1,
+                    1,
+                    10
+                )
+        );
+    }
+
+    // deleteBetween....................................................................................................
+
+    @Test
+    public void testDeleteBetweenDefault() {
+        final Store<TestUserId, TestUser> store = this.store();
+        store.deleteBetween(
+            TestUserId.with(2),
+            TestUserId.with(5)
+        );
+
+        this.checkEquals(
+            Lists.of(
+                user(1)
+            ),
+            store.values(
+                0,
+                10
+            )
+        );
+    }
+
+    /**
+     * A {@link Store} that only implements the abstract methods, leaving the defaults such as
+     * {@link Store#idsAfter(Object, int)} to be tested, holding users 1, 2 and 4.
+     */
+    private Store<TestUserId, TestUser> store() {
+        final Store<TestUserId, TestUser> treeMap = Stores.treeMap(
+            Comparator.comparing(id -> id.value),
+            (id, user) -> user
+        );
+        treeMap.save(user(1));
+        treeMap.save(user(2));
+        treeMap.save(user(4));
+
+        return new FakeStore<TestUserId, TestUser>() {
+            @Override
+            public Optional<TestUser> load(final TestUserId id) {
+                return treeMap.load(id);
+            }
+
+            @Override
+            public void delete(final TestUserId id) {
+                treeMap.delete(id);
+            }
+
+            @Override
+            public int count() {
+                return treeMap.count();
+            }
+
+            @Override
+            public Set<TestUserId> ids(final int offset,
+                                       final int count) {
+                return treeMap.ids(
+                    offset,
+                    count
+                );
+            }
+
+            @Override
+            public List<TestUser> values(final int offset,
+                                         final int count) {
+                return treeMap.values(
+                    offset,
+                    count
+                );
+            }
+
+            @Override
+            public List<TestUser> between(final TestUserId from,
+                                          final TestUserId to) {
+                return treeMap.between(
+                    from,
+                    to
+                );
+            }
+        };
+    }
+
+    private static TestUser user(final int id) {
+        return TestUser.with(
+            Optional.of(
+                TestUserId.with(id)
+            ),
+            "user" + id + "@example.com"
+        );
+    }
+
     // class............................................................................................................
 
     @Override
@@ -19,9 +19,13 @@ package walkingkooka.store;
 
 import org.junit.jupiter.api.Test;
 import walkingkooka.Cast;
+import walkingkooka.collect.list.Lists;
 import walkingkooka.reflect.ClassTesting;
 import walkingkooka.reflect.JavaVisibility;
 
+import java.util.List;
+import java.util.Optional;
+
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public final class StoreWatchersTest implements ClassTesting<StoreWatchers<Void>> {
@@ -44,6 +48,185 @@ public final class StoreWatchersTest implements ClassTesting<StoreWatchers<Void>
         );
     }
 
+    @Test
+    public void testOnValueChange() {
+        final StoreWatchers<String> watchers = StoreWatchers.empty();
+        final List<String> fired = Lists.array();
+        watchers.add(
+            (o, n) -> fired.add(o + " " + n)
+        );
+
+        watchers.onValueChange(
+            Optional.of("old"),
+            Optional.of("new")
+        );
+
+        this.checkEquals(
+            Lists.of("Optional[old] Optional[new]"),
+            fired
+        );
+    }
+
+    @Test
+    public void testOnValueChangeSameIgnored() {
+        final StoreWatchers<String> watchers = StoreWatchers.empty();
+        watchers.add(
+            (o, n) -> {
+                throw new UnsupportedOperationException();
+            }
+        );
+
+        watchers.onValueChange(
+            Optional.of("same"),
+            Optional.of("same")
+        );
+    }
+
+    @Test
+    public void testAddOnceFiresOnce() {
+        final StoreWatchers<String> watchers = StoreWatchers.empty();
+        final List<String> fired = Lists.array();
+        watchers.addOnce(
+            (o, n) -> fired.add(n.get())
+        );
+
+        watchers.onValueChange(
+            Optional.empty(),
+            Optional.of("1")
+        );
+        watchers.onValueChange(
+            Optional.empty(),
+            Optional.of("2")
+        );
+
+        this.checkEquals(
+            Lists.of("1"),
+            fired
+        );
+    }
+
+    @Test
+    public void testIsEmpty() {
+        this.isEmptyAndCheck(
+            StoreWatchers.empty(),
+            true
+        );
+    }
+
+    @Test
+    public void testIsEmptyAfterAdd() {
+        final StoreWatchers<String> watchers = StoreWatchers.empty();
+        watchers.add(
+            (o, n) -> {
+            }
+        );
+
+        this.isEmptyAndCheck(
+            watchers,
+            false
+        );
+    }
+
+    @Test
+    public void testIsEmptyAfterRemovedTwice() {
+        final StoreWatchers<String> watchers = StoreWatchers.empty();
+        final Runnable remover = watchers.add(
+            (o, n) -> {
+            }
+        );
+        watchers.add(
+            (o, n) -> {
+            }
+        ).run();
+        remover.run();
+        remover.run();
+
+        this.isEmptyAndCheck(
+            watchers,
+            true
+        );
+    }
+
+    @Test
+    public void testIsEmptyAfterAddOnceFired() {
+        final StoreWatchers<String> watchers = StoreWatchers.empty();
+        final Runnable remover = watchers.addOnce(
+            (o, n) -> {
+            }
+        );
+        watchers.onValueChange(
+            Optional.empty(),
+            Optional.of("a")
+        );
+
+        this.isEmptyAndCheck(
+            watchers,
+            true
+        );
+
+        remover.run();
+
+        this.isEmptyAndCheck(
+            watchers,
+            true
+        );
+    }
+
+    private void isEmptyAndCheck(final StoreWatchers<?> watchers,
+                                 final boolean empty) {
+        this.checkEquals(
+            empty,
+            watchers.isEmpty()
+        );
+    }
+
+    @Test
+    public void testOnValuesDeletedDefaultFiresEachValue() {
+        final StoreWatchers<String> watchers = StoreWatchers.empty();
+        final List<String> fired = Lists.array();
+        watchers.add(
+            (o, n) -> fired.add(o.get())
+        );
+
+        watchers.onValuesDeleted(
+            Lists.of(
+                "a",
+                "b"
+            )
+        );
+
+        this.checkEquals(
+            Lists.of(
+                "a",
+                "b"
+            ),
+            fired
+        );
+    }
+
+    @Test
+    public void testOnValuesDeletedEmptyIgnored() {
+        final StoreWatchers<String> watchers = StoreWatchers.empty();
+        watchers.add(
+            new StoreWatcher<String>() {
+                @Override
+                public void onValueChange(final Optional<String> oldValue,
+                                          final Optional<String> newValue) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public void onValuesDeleted(final List<String> values) {
+                    throw new UnsupportedOperationException();
+                }
+            }
+        );
+
+        watchers.onValuesDeleted(
+            Lists.empty()
+        );
+    }
+
     // Class............................................................................................................
 
     @Override
@@ -29,6 +29,33 @@ final class TestUser implements HasId<Optional<TestUserId>> {
         return new TestUser(id, email);
     }
 
+    /**
+     * Creates a user with the given id and an email derived from it.
+     */
+    static TestUser withId(final int id) {
+        return with(
+            Optional.of(
+                TestUserId.with(id)
+            ),
+            "user" + id + "@example.com"
+        );
+    }
+
+    /**
+     * Creates an empty {@link Store} that gives a new user the next id after the highest.
+     */
+    static Store<TestUserId, TestUser> treeMapStore() {
+        return Stores.treeMap(
+            TestUserId.COMPARATOR,
+            (id, user) -> with(
+                Optional.of(
+                    TestUserId.with(null == id ? 1 : id.value + 1)
+                ),
+                user.email
+            )
+        );
+    }
+
     private TestUser(final Optional<TestUserId> id, final String email) {
         super();
         this.id = id;
@@ -19,8 +19,12 @@ package walkingkooka.store;
 
 import walkingkooka.Cast;
 
+import java.util.Comparator;
+
 final class TestUserId {
 
+    final static Comparator<TestUserId> COMPARATOR = (left, right) -> left.value - right.value;
+
     static TestUserId with(final int value) {
         return new TestUserId(value);
     }
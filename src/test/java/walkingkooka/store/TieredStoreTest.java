@@ -0,0 +1,575 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.collect.set.Sets;
+import walkingkooka.reflect.TypeNameTesting;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class TieredStoreTest implements StoreTesting<TieredStore<TestUserId, TestUser>, TestUserId, TestUser>,
+    TypeNameTesting<TieredStore<TestUserId, TestUser>> {
+
+    private final static int MAX_HOT = 2;
+
+    private final static long MAX_IDLE = 1000;
+
+    @Test
+    public void testWithNullColdFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> TieredStore.with(
+                null,
+                TestUserId.COMPARATOR,
+                MAX_HOT,
+                MAX_IDLE,
+                this::now
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullIdComparatorFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> TieredStore.with(
+                TestUser.treeMapStore(),
+                null,
+                MAX_HOT,
+                MAX_IDLE,
+                this::now
+            )
+        );
+    }
+
+    @Test
+    public void testWithInvalidMaxHotFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> TieredStore.with(
+                TestUser.treeMapStore(),
+                TestUserId.COMPARATOR,
+                0,
+                MAX_IDLE,
+                this::now
+            )
+        );
+    }
+
+    @Test
+    public void testWithInvalidMaxIdleFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> TieredStore.with(
+                TestUser.treeMapStore(),
+                TestUserId.COMPARATOR,
+                MAX_HOT,
+                -1,
+                this::now
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullNowFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> TieredStore.with(
+                TestUser.treeMapStore(),
+                TestUserId.COMPARATOR,
+                MAX_HOT,
+                MAX_IDLE,
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testSaveGoesCold() {
+        final Store<TestUserId, TestUser> cold = TestUser.treeMapStore();
+        final TieredStore<TestUserId, TestUser> store = this.createStore(cold);
+
+        final TestUser user = store.save(
+            TestUser.with(
+                Optional.empty(),
+                "new@example.com"
+            )
+        );
+
+        this.loadAndCheck(
+            cold,
+            user.id().get(),
+            user
+        );
+    }
+
+    @Test
+    public void testLoadPromotes() {
+        final Store<TestUserId, TestUser> cold = TestUser.treeMapStore();
+        final TieredStore<TestUserId, TestUser> store = this.createStore(cold);
+        final TestUser user = TestUser.withId(1);
+        store.save(user);
+
+        this.loadAndCheck(
+            store,
+            user.id().get(),
+            user
+        );
+        this.loadAndCheck(
+            cold,
+            user.id().get(),
+            user
+        );
+        this.loadAndCheck(
+            store,
+            user.id().get(),
+            user
+        );
+        this.loadAndCheck(
+            store,
+            TestUserId.with(99)
+        );
+
+        this.hotAndCheck(
+            store,
+            1
+        );
+        this.countersAndCheck(
+            store,
+            1,
+            1,
+            1,
+            1,
+            0,
+            0
+        );
+    }
+
+    @Test
+    public void testLoadDoesNotChangeCold() {
+        final Store<TestUserId, TestUser> cold = TestUser.treeMapStore();
+        final TieredStore<TestUserId, TestUser> store = this.createStore(cold);
+        store.save(TestUser.withId(1));
+
+        cold.addStoreWatcher(
+            (o, n) -> {
+                throw new UnsupportedOperationException();
+            }
+        );
+
+        store.load(TestUserId.with(1));
+        this.now = MAX_IDLE * 2;
+        store.count();
+
+        this.hotAndCheck(store);
+    }
+
+    @Test
+    public void testSaveHotIsDirtyUntilDemoted() {
+        final Store<TestUserId, TestUser> cold = TestUser.treeMapStore();
+        final TieredStore<TestUserId, TestUser> store = this.createStore(cold);
+        final TestUser user = TestUser.withId(1);
+        store.save(user);
+        store.load(TestUserId.with(1));
+
+        final TestUser updated = TestUser.with(
+            Optional.of(
+                TestUserId.with(1)
+            ),
+            "updated@example.com"
+        );
+        store.save(updated);
+
+        this.loadAndCheck(
+            cold,
+            TestUserId.with(1),
+            user
+        );
+        this.loadAndCheck(
+            store,
+            TestUserId.with(1),
+            updated
+        );
+        this.valuesAndCheck(
+            store,
+            0,
+            1,
+            updated
+        );
+
+        this.now = MAX_IDLE * 2;
+        this.countAndCheck(
+            store,
+            1
+        );
+
+        this.loadAndCheck(
+            cold,
+            TestUserId.with(1),
+            updated
+        );
+        this.countersAndCheck(
+            store,
+            1,
+            1,
+            0,
+            1,
+            1,
+            1
+        );
+    }
+
+    @Test
+    public void testColdSaveDropsHotCopy() {
+        final Store<TestUserId, TestUser> cold = TestUser.treeMapStore();
+        final TieredStore<TestUserId, TestUser> store = this.createStore(cold);
+        store.save(TestUser.withId(1));
+        store.save(TestUser.withId(2));
+        store.load(TestUserId.with(1));
+
+        final TestUser updated = TestUser.with(
+            Optional.of(
+                TestUserId.with(1)
+            ),
+            "updated@example.com"
+        );
+        cold.save(updated);
+
+        this.hotAndCheck(store);
+        this.idsAndCheck(
+            store,
+            0,
+            3,
+            TestUserId.with(1),
+            TestUserId.with(2)
+        );
+        this.countAndCheck(
+            store,
+            2
+        );
+        this.loadAndCheck(
+            store,
+            TestUserId.with(1),
+            updated
+        );
+    }
+
+    @Test
+    public void testColdDeleteDropsHotCopy() {
+        final Store<TestUserId, TestUser> cold = TestUser.treeMapStore();
+        final TieredStore<TestUserId, TestUser> store = this.createStore(cold);
+        store.save(TestUser.withId(1));
+        store.load(TestUserId.with(1));
+
+        cold.delete(TestUserId.with(1));
+
+        this.hotAndCheck(store);
+        this.loadAndCheck(
+            store,
+            TestUserId.with(1)
+        );
+    }
+
+    @Test
+    public void testDemoteWhenFull() {
+        final Store<TestUserId, TestUser> cold = TestUser.treeMapStore();
+        final TieredStore<TestUserId, TestUser> store = this.createStore(cold);
+        store.save(TestUser.withId(1));
+        store.save(TestUser.withId(2));
+        store.save(TestUser.withId(3));
+
+        store.load(TestUserId.with(1));
+        store.load(TestUserId.with(1));
+        store.load(TestUserId.with(2));
+        store.load(TestUserId.with(3));
+
+        // 2 was used least
+        this.hotAndCheck(
+            store,
+            1,
+            3
+        );
+        this.countAndCheck(
+            cold,
+            3
+        );
+        this.countersAndCheck(
+            store,
+            1,
+            3,
+            0,
+            3,
+            1,
+            0
+        );
+    }
+
+    @Test
+    public void testDemoteIdle() {
+        final Store<TestUserId, TestUser> cold = TestUser.treeMapStore();
+        final TieredStore<TestUserId, TestUser> store = this.createStore(cold);
+        store.save(TestUser.withId(1));
+        store.save(TestUser.withId(2));
+
+        store.load(TestUserId.with(1));
+
+        this.now = 500;
+        store.load(TestUserId.with(2));
+
+        this.now = MAX_IDLE + 1;
+        this.countAndCheck(
+            store,
+            2
+        );
+
+        this.hotAndCheck(
+            store,
+            2
+        );
+    }
+
+    @Test
+    public void testMigrationDoesNotFireWatcher() {
+        final TieredStore<TestUserId, TestUser> store = this.createStore();
+        final TestUser user = TestUser.withId(1);
+        store.save(user);
+
+        final List<Optional<TestUser>> fired = Lists.array();
+        store.addStoreWatcher(
+            (o, n) -> fired.add(n)
+        );
+
+        store.load(user.id().get());
+        this.now = MAX_IDLE * 2;
+        store.count();
+        store.delete(user.id().get());
+
+        this.checkEquals(
+            Lists.of(
+                Optional.empty()
+            ),
+            fired,
+            "fired"
+        );
+    }
+
+    @Test
+    public void testDeleteHot() {
+        final Store<TestUserId, TestUser> cold = TestUser.treeMapStore();
+        final TieredStore<TestUserId, TestUser> store = this.createStore(cold);
+        store.save(TestUser.withId(1));
+        store.load(TestUserId.with(1));
+        store.delete(TestUserId.with(1));
+
+        this.countAndCheck(
+            store,
+            0
+        );
+        this.loadAndCheck(
+            store,
+            TestUserId.with(1)
+        );
+    }
+
+    @Test
+    public void testIdsValuesBetweenMergeTiers() {
+        final TieredStore<TestUserId, TestUser> store = this.createStore();
+        for (int i = 1; i <= 6; i++) {
+            store.save(TestUser.withId(i));
+        }
+        store.load(TestUserId.with(2));
+        store.load(TestUserId.with(5));
+
+        this.idsAndCheck(
+            store,
+            1,
+            4,
+            TestUserId.with(2),
+            TestUserId.with(3),
+            TestUserId.with(4),
+            TestUserId.with(5)
+        );
+        this.valuesAndCheck(
+            store,
+            4,
+            10,
+            TestUser.withId(5),
+            TestUser.withId(6)
+        );
+        this.betweenAndCheck(
+            store,
+            TestUserId.with(2),
+            TestUserId.with(5),
+            TestUser.withId(2),
+            TestUser.withId(3),
+            TestUser.withId(4),
+            TestUser.withId(5)
+        );
+        this.countAndCheck(
+            store,
+            6
+        );
+    }
+
+    @Test
+    public void testStream() {
+        final TieredStore<TestUserId, TestUser> store = this.createStore();
+        for (int i = 1; i <= 3; i++) {
+            store.save(TestUser.withId(i));
+        }
+        store.load(TestUserId.with(2));
+
+        final TestUser updated = TestUser.with(
+            Optional.of(
+                TestUserId.with(2)
+            ),
+            "updated@example.com"
+        );
+        store.save(updated);
+
+        this.checkEquals(
+            Lists.of(
+                TestUser.withId(1),
+                updated,
+                TestUser.withId(3)
+            ),
+            store.stream()
+                .collect(Collectors.toList())
+        );
+    }
+
+    private void hotAndCheck(final TieredStore<TestUserId, TestUser> store,
+                             final int... ids) {
+        final Set<TestUserId> expected = Sets.ordered();
+        for (final int id : ids) {
+            expected.add(
+                TestUserId.with(id)
+            );
+        }
+
+        this.checkEquals(
+            expected,
+            store.hotEntries.keySet(),
+            "hot"
+        );
+    }
+
+    private void countersAndCheck(final TieredStore<?, ?> store,
+                                  final long hotHits,
+                                  final long coldHits,
+                                  final long misses,
+                                  final long promotions,
+                                  final long demotions,
+                                  final long writeBacks) {
+        final Map<String, Long> counters = Maps.ordered();
+        counters.put("hotHits", hotHits);
+        counters.put("coldHits", coldHits);
+        counters.put("misses", misses);
+        counters.put("promotions", promotions);
+        counters.put("demotions", demotions);
+        counters.put("writeBacks", writeBacks);
+
+        this.checkEquals(
+            counters,
+            store.counters(),
+            store::toString
+        );
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        final TieredStore<TestUserId, TestUser> store = this.createStore();
+        store.save(TestUser.withId(1));
+        store.save(TestUser.withId(2));
+        store.load(TestUserId.with(1));
+
+        this.toStringAndCheck(
+            store,
+            "{1=1 \"user1@example.com\"} {1=1 \"user1@example.com\", 2=2 \"user2@example.com\"}"
+        );
+    }
+
+    // helpers..........................................................................................................
+
+    private TieredStore<TestUserId, TestUser> createStore(final Store<TestUserId, TestUser> cold) {
+        return TieredStore.with(
+            cold,
+            TestUserId.COMPARATOR,
+            MAX_HOT,
+            MAX_IDLE,
+            this::now
+        );
+    }
+
+    private long now() {
+        return this.now;
+    }
+
+    private long now;
+
+    // StoreTesting.....................................................................................................
+
+    @Override
+    public TieredStore<TestUserId, TestUser> createStore() {
+        return this.createStore(
+            TestUser.treeMapStore()
+        );
+    }
+
+    @Override
+    public TestUserId id() {
+        return TestUserId.with(1);
+    }
+
+    @Override
+    public TestUser value() {
+        return TestUser.withId(1);
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<TieredStore<TestUserId, TestUser>> type() {
+        return Cast.to(TieredStore.class);
+    }
+
+    // TypeNameTesting..................................................................................................
+
+    @Override
+    public String typeNamePrefix() {
+        return "Tiered";
+    }
+
+    @Override
+    public String typeNameSuffix() {
+        return Store.class.getSimpleName();
+    }
+}
@@ -0,0 +1,432 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package walkingkooka.store;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.set.Sets;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class TransitiveClosureMultiValueStoreTest implements MultiValueStoreTesting<TransitiveClosureMultiValueStore<String>, String, String>,
+    ToStringTesting<TransitiveClosureMultiValueStore<String>> {
+
+    // with.............................................................................................................
+
+    @Test
+    public void testWithNullStoreFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> TransitiveClosureMultiValueStore.with(null)
+        );
+    }
+
+    // transitiveValuesOf...............................................................................................
+
+    @Test
+    public void testTransitiveValuesOfNullFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createStore()
+                .transitiveValuesOf(null)
+        );
+    }
+
+    @Test
+    public void testTransitiveValuesOf() {
+        final TransitiveClosureMultiValueStore<String> store = this.createStore();
+        store.addValue("A", "B");
+        store.addValue("B", "C");
+        store.addValue("C", "D");
+        store.addValue("X", "Y");
+
+        this.transitiveValuesOfAndCheck(
+            store,
+            "A",
+            "B",
+            "C",
+            "D"
+        );
+    }
+
+    @Test
+    public void testTransitiveValuesOfUnknown() {
+        this.transitiveValuesOfAndCheck(
+            this.createStore(),
+            "A"
+        );
+    }
+
+    @Test
+    public void testTransitiveValuesOfDiamond() {
+        final TransitiveClosureMultiValueStore<String> store = this.createStore();
+        store.addValue("A", "B");
+        store.addValue("A", "C");
+        store.addValue("B", "D");
+        store.addValue("C", "D");
+
+        this.transitiveValuesOfAndCheck(
+            store,
+            "A",
+            "B",
+            "C",
+            "D"
+        );
+    }
+
+    @Test
+    public void testTransitiveValuesOfCycle() {
+        final TransitiveClosureMultiValueStore<String> store = this.createStore();
+        store.addValue("A", "B");
+        store.addValue("B", "C");
+        store.addValue("C", "A");
+
+        this.transitiveValuesOfAndCheck(
+            store,
+            "A",
+            "B",
+            "C",
+            "A"
+        );
+    }
+
+    @Test
+    public void testTransitiveValuesOfMemoized() {
+        final TransitiveClosureMultiValueStore<String> store = this.createStore();
+        store.addValue("A", "B");
+        store.addValue("B", "C");
+
+        final Set<String> closure = store.transitiveValuesOf("A");
+        assertSame(
+            closure,
+            store.transitiveValuesOf("A")
+        );
+
+        this.countersAndCheck(
+            store,
+            1,
+            1,
+            0
+        );
+    }
+
+    @Test
+    public void testTransitiveValuesOfReusesRememberedClosure() {
+        final TransitiveClosureMultiValueStore<String> store = this.createStore();
+        store.addValue("A", "B");
+        store.addValue("B", "C");
+        store.addValue("C", "D");
+
+        this.transitiveValuesOfAndCheck(
+            store,
+            "B",
+            "C",
+            "D"
+        );
+        this.transitiveValuesOfAndCheck(
+            store,
+            "A",
+            "B",
+            "C",
+            "D"
+        );
+    }
+
+    @Test
+    public void testAddValueInvalidatesOnlyAffectedClosures() {
+        final TransitiveClosureMultiValueStore<String> store = this.createStore();
+        store.addValue("A", "B");
+        store.addValue("B", "C");
+        store.addValue("X", "Y");
+
+        store.transitiveValuesOf("A");
+        store.transitiveValuesOf("B");
+        store.transitiveValuesOf("X");
+
+        store.addValue("C", "D");
+
+        this.checkEquals(
+            Sets.of("X"),
+            store.valuesOf.keySet(),
+            "remembered"
+        );
+        this.countersAndCheck(
+            store,
+            0,
+            3,
+            2
+        );
+        this.transitiveValuesOfAndCheck(
+            store,
+            "A",
+            "B",
+            "C",
+            "D"
+        );
+    }
+
+    @Test
+    public void testRemoveValueInvalidates() {
+        final TransitiveClosureMultiValueStore<String> store = this.createStore();
+        store.addValue("A", "B");
+        store.addValue("B", "C");
+
+        store.transitiveValuesOf("A");
+
+        store.removeValue("B", "C");
+
+        this.transitiveValuesOfAndCheck(
+            store,
+            "A",
+            "B"
+        );
+    }
+
+    @Test
+    public void testChangeOnWrappedStoreInvalidates() {
+        final MultiValueStore<String, String> wrapped = this.treeMapStore();
+        wrapped.addValue("A", "B");
+
+        final TransitiveClosureMultiValueStore<String> store = TransitiveClosureMultiValueStore.with(wrapped);
+        store.transitiveValuesOf("A");
+
+        wrapped.addValue("B", "C");
+
+        this.transitiveValuesOfAndCheck(
+            store,
+            "A",
+            "B",
+            "C"
+        );
+    }
+
+    @Test
+    public void testDeleteInvalidates() {
+        final TransitiveClosureMultiValueStore<String> store = this.createStore();
+        store.addValue("A", "B");
+        store.addValue("B", "C");
+
+        store.transitiveValuesOf("A");
+
+        store.delete("B");
+
+        this.transitiveValuesOfAndCheck(
+            store,
+            "A",
+            "B"
+        );
+    }
+
+    private void transitiveValuesOfAndCheck(final TransitiveClosureMultiValueStore<String> store,
+                                            final String id,
+                                            final String... values) {
+        this.checkEquals(
+            Lists.of(values),
+            Lists.of(
+                store.transitiveValuesOf(id)
+                    .toArray()
+            ),
+            () -> "transitiveValuesOf " + id
+        );
+    }
+
+    // transitiveIdsOf..................................................................................................
+
+    @Test
+    public void testTransitiveIdsOfNullFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> this.createStore()
+                .transitiveIdsOf(null)
+        );
+    }
+
+    @Test
+    public void testTransitiveIdsOf() {
+        final TransitiveClosureMultiValueStore<String> store = this.createStore();
+        store.addValue("A", "B");
+        store.addValue("B", "C");
+        store.addValue("D", "B");
+        store.addValue("X", "Y");
+
+        this.transitiveIdsOfAndCheck(
+            store,
+            "C",
+            "B",
+            "A",
+            "D"
+        );
+    }
+
+    @Test
+    public void testTransitiveIdsOfCycle() {
+        final TransitiveClosureMultiValueStore<String> store = this.createStore();
+        store.addValue("A", "B");
+        store.addValue("B", "A");
+
+        this.transitiveIdsOfAndCheck(
+            store,
+            "A",
+            "B",
+            "A"
+        );
+    }
+
+    @Test
+    public void testAddValueInvalidatesIdsOf() {
+        final TransitiveClosureMultiValueStore<String> store = this.createStore();
+        store.addValue("A", "B");
+        store.addValue("X", "Y");
+
+        store.transitiveIdsOf("B");
+        store.transitiveIdsOf("Y");
+
+        store.addValue("Z", "A");
+
+        this.checkEquals(
+            Sets.of("Y"),
+            store.idsOf.keySet(),
+            "remembered"
+        );
+        this.transitiveIdsOfAndCheck(
+            store,
+            "B",
+            "A",
+            "Z"
+        );
+    }
+
+    private void transitiveIdsOfAndCheck(final TransitiveClosureMultiValueStore<String> store,
+                                         final String value,
+                                         final String... ids) {
+        this.checkEquals(
+            Lists.of(ids),
+            Lists.of(
+                store.transitiveIdsOf(value)
+                    .toArray()
+            ),
+            () -> "transitiveIdsOf " + value
+        );
+    }
+
+    // isCyclic.........................................................................................................
+
+    @Test
+    public void testIsCyclic() {
+        final TransitiveClosureMultiValueStore<String> store = this.createStore();
+        store.addValue("A", "B");
+        store.addValue("B", "C");
+        store.addValue("C", "B");
+
+        this.checkEquals(
+            false,
+            store.isCyclic("A"),
+            "A"
+        );
+        this.checkEquals(
+            true,
+            store.isCyclic("B"),
+            "B"
+        );
+    }
+
+    @Test
+    public void testIsCyclicAfterRemoveValue() {
+        final TransitiveClosureMultiValueStore<String> store = this.createStore();
+        store.addValue("A", "B");
+        store.addValue("B", "A");
+
+        this.checkEquals(
+            true,
+            store.isCyclic("A"),
+            "before"
+        );
+
+        store.removeValue("B", "A");
+
+        this.checkEquals(
+            false,
+            store.isCyclic("A"),
+            "after"
+        );
+    }
+
+    private void countersAndCheck(final TransitiveClosureMultiValueStore<String> store,
+                                  final long hits,
+                                  final long misses,
+                                  final long invalidations) {
+        this.checkEquals(
+            "{hits=" + hits + ", misses=" + misses + ", invalidations=" + invalidations + "}",
+            store.counters()
+                .toString()
+        );
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        final TransitiveClosureMultiValueStore<String> store = this.createStore();
+        store.addValue("A", "B");
+
+        this.toStringAndCheck(
+            store,
+            "{A=[B]} {hits=0, misses=0, invalidations=0}"
+        );
+    }
+
+    // helpers..........................................................................................................
+
+    private MultiValueStore<String, String> treeMapStore() {
+        return MultiValueStores.treeMap(
+            String.CASE_INSENSITIVE_ORDER,
+            Sets::ordered
+        );
+    }
+
+    // MultiValueStoreTesting...........................................................................................
+
+    @Override
+    public TransitiveClosureMultiValueStore<String> createStore() {
+        return TransitiveClosureMultiValueStore.with(
+            this.treeMapStore()
+        );
+    }
+
+    @Override
+    public String id() {
+        return "A";
+    }
+
+    @Override
+    public String value() {
+        return "B";
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<TransitiveClosureMultiValueStore<String>> type() {
+        return Cast.to(TransitiveClosureMultiValueStore.class);
+    }
+}
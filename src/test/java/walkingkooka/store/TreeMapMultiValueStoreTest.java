@@ -21,13 +21,18 @@ import org.junit.jupiter.api.Test;
 import walkingkooka.CanBeEmptyTesting;
 import walkingkooka.Cast;
 import walkingkooka.ToStringTesting;
+import walkingkooka.collect.list.Lists;
 import walkingkooka.collect.map.Maps;
 import walkingkooka.collect.set.Sets;
 
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -469,6 +474,51 @@ public final class TreeMapMultiValueStoreTest implements MultiValueStoreTesting<
         );
     }
 
+    @Test
+    public void testCountAfterRemoveValue() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE1);
+        store.addValue(ID1, VALUE2);
+        store.addValue(ID2, VALUE2);
+
+        store.removeValue(ID1, VALUE2);
+
+        this.countAndCheck(
+            store,
+            2
+        );
+    }
+
+    @Test
+    public void testCountAfterDelete() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE1);
+        store.addValue(ID1, VALUE2);
+        store.addValue(ID2, VALUE2);
+
+        store.delete(ID1);
+
+        this.countAndCheck(
+            store,
+            1
+        );
+    }
+
+    @Test
+    public void testCountAfterRemoveByValue() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE1);
+        store.addValue(ID1, VALUE2);
+        store.addValue(ID2, VALUE2);
+
+        store.removeByValue(VALUE2);
+
+        this.countAndCheck(
+            store,
+            1
+        );
+    }
+
     // ids..............................................................................................................
 
     @Test
@@ -687,150 +737,950 @@ public final class TreeMapMultiValueStoreTest implements MultiValueStoreTesting<
         );
     }
 
-    // findValuesById...................................................................................................
+    // stream...........................................................................................................
 
     @Test
-    public void testFindValuesById() {
+    public void testStream() {
         final TreeMapMultiValueStore<String, Integer> store = this.createStore();
         store.addValue(ID1, VALUE1);
         store.addValue(ID2, VALUE2);
-        store.addValue(ID3, VALUE3);
+        store.addValue(ID2, VALUE3);
 
-        this.findValuesByIdAndCheck2(
+        this.streamAndCheck(
             store,
-            ID2,
-            0,
-            2,
-            VALUE2
+            VALUE1,
+            VALUE2,
+            VALUE3
         );
     }
 
     @Test
-    public void testFindValuesByIdWithOffset() {
+    public void testStreamBetween() {
         final TreeMapMultiValueStore<String, Integer> store = this.createStore();
         store.addValue(ID1, VALUE1);
-        store.addValue(ID2, VALUE1);
         store.addValue(ID2, VALUE2);
-        store.addValue(ID2, VALUE3);
         store.addValue(ID3, VALUE3);
 
-        this.findValuesByIdAndCheck2(
+        this.streamAndCheck(
             store,
             ID2,
-            1,
-            99,
+            ID3,
             VALUE2,
             VALUE3
         );
     }
 
     @Test
-    public void testFindValuesByIdWithSize() {
+    public void testStreamBetweenFromAfterTo() {
         final TreeMapMultiValueStore<String, Integer> store = this.createStore();
         store.addValue(ID1, VALUE1);
-        store.addValue(ID2, VALUE1);
         store.addValue(ID2, VALUE2);
-        store.addValue(ID2, VALUE3);
-        store.addValue(ID3, VALUE3);
 
-        this.findValuesByIdAndCheck2(
+        this.streamAndCheck(
             store,
             ID2,
-            0,
-            1,
-            VALUE1
+            ID1
         );
     }
 
     @Test
-    public void testFindValuesByIdWithOffsetAndSize() {
+    public void testStreamValuesById() {
         final TreeMapMultiValueStore<String, Integer> store = this.createStore();
         store.addValue(ID1, VALUE1);
-        store.addValue(ID2, VALUE1);
         store.addValue(ID2, VALUE2);
         store.addValue(ID2, VALUE3);
-        store.addValue(ID3, VALUE3);
 
-        this.findValuesByIdAndCheck2(
+        this.streamValuesByIdAndCheck(
             store,
             ID2,
-            1,
-            1,
-            VALUE2
+            VALUE2,
+            VALUE3
         );
     }
 
-    // findIdsByValue...................................................................................................
+    @Test
+    public void testStreamValuesByIdUnknown() {
+        this.streamValuesByIdAndCheck(
+            this.createStore(),
+            ID1
+        );
+    }
 
     @Test
-    public void testFindIdsByValue() {
+    public void testStreamIdsByValue() {
         final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID3, VALUE1);
         store.addValue(ID1, VALUE1);
         store.addValue(ID2, VALUE2);
-        store.addValue(ID3, VALUE3);
 
-        this.findIdsByValueAndCheck(
+        this.streamIdsByValueAndCheck(
             store,
-            VALUE2,
-            0,
-            2,
-            ID2
+            VALUE1,
+            ID1,
+            ID3
         );
     }
 
     @Test
-    public void testFindIdsByValueWithOffset() {
+    public void testStreamIdsByValueUnknown() {
+        this.streamIdsByValueAndCheck(
+            this.createStore(),
+            VALUE1
+        );
+    }
+
+    // navigation.......................................................................................................
+
+    @Test
+    public void testFirstIdAndLastId() {
         final TreeMapMultiValueStore<String, Integer> store = this.createStore();
-        store.addValue(ID1, VALUE2);
-        store.addValue(ID2, VALUE1);
+        store.addValue(ID2, VALUE2);
+        store.addValue(ID1, VALUE1);
+        store.addValue(ID3, VALUE3);
+
+        this.checkEquals(
+            Optional.of(ID1),
+            store.firstId(),
+            "firstId"
+        );
+        this.checkEquals(
+            Optional.of(ID3),
+            store.lastId(),
+            "lastId"
+        );
+    }
+
+    @Test
+    public void testFloorIdCeilingIdHigherIdLowerId() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE1);
+        store.addValue(ID3, VALUE3);
+
+        this.checkEquals(
+            Optional.of(ID1),
+            store.floorId(ID2),
+            "floorId"
+        );
+        this.checkEquals(
+            Optional.of(ID3),
+            store.ceilingId(ID2),
+            "ceilingId"
+        );
+        this.checkEquals(
+            Optional.of(ID3),
+            store.higherId(ID1),
+            "higherId"
+        );
+        this.checkEquals(
+            Optional.empty(),
+            store.lowerId(ID1),
+            "lowerId"
+        );
+    }
+
+    // query............................................................................................................
+
+    @Test
+    public void testQuery() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE1);
         store.addValue(ID2, VALUE2);
         store.addValue(ID2, VALUE3);
-        store.addValue(ID3, VALUE2);
+        store.addValue(ID3, VALUE1);
 
-        this.findIdsByValueAndCheck(
+        this.queryAndCheck(
             store,
+            (v) -> v > VALUE1,
+            0,
+            10,
             VALUE2,
+            VALUE3
+        );
+    }
+
+    @Test
+    public void testQueryBetween() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE1);
+        store.addValue(ID2, VALUE2);
+        store.addValue(ID3, VALUE1);
+
+        this.queryAndCheck(
+            store,
+            ID2,
+            ID3,
+            (v) -> true,
             1,
-            99,
+            10,
+            VALUE1
+        );
+    }
+
+    // betweenView......................................................................................................
+
+    @Test
+    public void testBetweenView() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE1);
+        store.addValue(ID2, VALUE2);
+
+        final Collection<Integer> view = store.betweenView(
             ID2,
             ID3
         );
+
+        store.addValue(ID2, VALUE3);
+        store.addValue(ID3, VALUE1);
+
+        this.checkEquals(
+            Lists.of(
+                VALUE2,
+                VALUE3,
+                VALUE1
+            ),
+            Lists.of(
+                view.toArray()
+            )
+        );
+        this.checkEquals(
+            3,
+            view.size(),
+            "size"
+        );
     }
 
+    // countBetween.....................................................................................................
+
     @Test
-    public void testFindIdsByValueWithSize() {
+    public void testCountBetweenCountsValues() {
         final TreeMapMultiValueStore<String, Integer> store = this.createStore();
-        store.addValue(ID1, VALUE2);
-        store.addValue(ID2, VALUE1);
+        store.addValue(ID1, VALUE1);
         store.addValue(ID2, VALUE2);
         store.addValue(ID2, VALUE3);
-        store.addValue(ID3, VALUE2);
+        store.addValue(ID3, VALUE1);
 
-        this.findIdsByValueAndCheck(
+        this.countBetweenAndCheck(
             store,
-            VALUE2,
-            0,
-            1,
-            ID1
+            ID2,
+            ID3,
+            3
         );
     }
 
     @Test
-    public void testFindIdsByValueWithOffsetAndSize() {
+    public void testCountBetweenAfterRemoveValue() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE1);
+        store.addValue(ID2, VALUE2);
+        store.addValue(ID2, VALUE3);
+        store.removeValue(ID2, VALUE2);
+
+        this.countBetweenAndCheck(
+            store,
+            ID1,
+            ID3,
+            2
+        );
+    }
+
+    @Test
+    public void testCountBetweenAfterDelete() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE1);
+        store.addValue(ID2, VALUE2);
+        store.addValue(ID2, VALUE3);
+        store.delete(ID2);
+
+        this.countBetweenAndCheck(
+            store,
+            ID1,
+            ID3,
+            1
+        );
+    }
+
+    @Test
+    public void testRankOf() {
         final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE1);
         store.addValue(ID1, VALUE2);
+        store.addValue(ID3, VALUE3);
+
+        this.rankOfAndCheck(
+            store,
+            ID3,
+            1
+        );
+    }
+
+    @Test
+    public void testRankOfAfterAddValueAndDelete() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE1);
+        store.addValue(ID3, VALUE3);
+
+        this.rankOfAndCheck(
+            store,
+            ID3,
+            1
+        );
+
         store.addValue(ID2, VALUE1);
         store.addValue(ID2, VALUE2);
-        store.addValue(ID2, VALUE3);
-        store.addValue(ID3, VALUE2);
+        this.rankOfAndCheck(
+            store,
+            ID3,
+            2
+        );
 
-        this.findIdsByValueAndCheck(
+        store.delete(ID1);
+        this.rankOfAndCheck(
             store,
-            VALUE2,
-            1,
-            1,
+            ID3,
+            1
+        );
+        this.countBetweenAndCheck(
+            store,
+            ID1,
+            ID3,
+            3
+        );
+    }
+
+    // deleteBetween....................................................................................................
+
+    @Test
+    public void testDeleteBetween() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE1);
+        store.addValue(ID2, VALUE1);
+        store.addValue(ID2, VALUE2);
+        store.addValue(ID3, VALUE3);
+
+        store.deleteBetween(
+            ID1,
             ID2
         );
+
+        this.countAndCheck(
+            store,
+            1
+        );
+        this.findIdsByValueAndCheck(
+            store,
+            VALUE1,
+            0,
+            10
+        );
+        this.findIdsByValueAndCheck(
+            store,
+            VALUE3,
+            0,
+            10,
+            ID3
+        );
+        this.rankOfAndCheck(
+            store,
+            ID3,
+            0
+        );
+    }
+
+    @Test
+    public void testDeleteBetweenFiresBatchOnce() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE1);
+        store.addValue(ID2, VALUE2);
+        store.addValue(ID2, VALUE3);
+        store.addValue(ID3, VALUE3);
+
+        final List<Map<String, Set<Integer>>> batches = Lists.array();
+        store.addStoreWatcher(
+            new FakeMultiValueStoreWatcher<String, Integer>() {
+                @Override
+                public void onValuesRemoved(final Map<String, Set<Integer>> idToValues) {
+                    batches.add(idToValues);
+                }
+            }
+        );
+
+        store.deleteBetween(
+            ID2,
+            ID3
+        );
+
+        this.checkEquals(
+            Lists.of(
+                Maps.of(
+                    ID2,
+                    Sets.of(
+                        VALUE2,
+                        VALUE3
+                    ),
+                    ID3,
+                    Sets.of(VALUE3)
+                )
+            ),
+            batches
+        );
+    }
+
+    @Test
+    public void testDeleteBetweenFiresValueRemovedWithoutBatch() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE1);
+        store.addValue(ID2, VALUE2);
+
+        final List<String> removed = Lists.array();
+        store.addStoreWatcher(
+            new FakeMultiValueStoreWatcher<String, Integer>() {
+                @Override
+                public void onValueRemoved(final String id,
+                                           final Integer value) {
+                    removed.add(id + "=" + value);
+                }
+            }
+        );
+
+        store.deleteBetween(
+            ID1,
+            ID3
+        );
+
+        this.checkEquals(
+            Lists.of(
+                ID1 + "=" + VALUE1,
+                ID2 + "=" + VALUE2
+            ),
+            removed
+        );
+    }
+
+    // idsAfter.........................................................................................................
+
+    @Test
+    public void testIdsAfter() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE1);
+        store.addValue(ID2, VALUE2);
+        store.addValue(ID3, VALUE3);
+
+        this.idsAfterAndCheck(
+            store,
+            ID1,
+            5,
+            ID2,
+            ID3
+        );
+    }
+
+    @Test
+    public void testIdsBefore() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE1);
+        store.addValue(ID2, VALUE2);
+        store.addValue(ID3, VALUE3);
+
+        this.idsBeforeAndCheck(
+            store,
+            ID3,
+            1,
+            ID2
+        );
+    }
+
+    // valuesAfter......................................................................................................
+
+    @Test
+    public void testValuesAfter() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE1);
+        store.addValue(ID2, VALUE2);
+        store.addValue(ID2, VALUE3);
+
+        this.valuesAfterAndCheck(
+            store,
+            ID1,
+            5,
+            VALUE2,
+            VALUE3
+        );
+    }
+
+    @Test
+    public void testValuesAfterCountLimits() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE1);
+        store.addValue(ID2, VALUE2);
+        store.addValue(ID2, VALUE3);
+
+        this.valuesAfterAndCheck(
+            store,
+            ID1,
+            1,
+            VALUE2
+        );
+    }
+
+    @Test
+    public void testValuesBefore() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE1);
+        store.addValue(ID2, VALUE2);
+        store.addValue(ID2, VALUE3);
+        store.addValue(ID3, VALUE1);
+
+        this.valuesBeforeAndCheck(
+            store,
+            ID3,
+            5,
+            VALUE3,
+            VALUE2,
+            VALUE1
+        );
+    }
+
+    // findIdsByAllValues...............................................................................................
+
+    @Test
+    public void testFindIdsByAllValues() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE1);
+        store.addValue(ID1, VALUE2);
+        store.addValue(ID2, VALUE1);
+        store.addValue(ID3, VALUE1);
+        store.addValue(ID3, VALUE2);
+        store.addValue(ID3, VALUE3);
+
+        this.findIdsByAllValuesAndCheck(
+            store,
+            Sets.of(
+                VALUE1,
+                VALUE2
+            ),
+            0,
+            10,
+            ID1,
+            ID3
+        );
+    }
+
+    @Test
+    public void testFindIdsByAllValuesOffsetAndCount() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE1);
+        store.addValue(ID1, VALUE2);
+        store.addValue(ID2, VALUE1);
+        store.addValue(ID2, VALUE2);
+        store.addValue(ID3, VALUE1);
+        store.addValue(ID3, VALUE2);
+
+        this.findIdsByAllValuesAndCheck(
+            store,
+            Sets.of(
+                VALUE1,
+                VALUE2
+            ),
+            1,
+            1,
+            ID2
+        );
+    }
+
+    @Test
+    public void testFindIdsByAllValuesUnknownValue() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE1);
+
+        this.findIdsByAllValuesAndCheck(
+            store,
+            Sets.of(
+                VALUE1,
+                VALUE3
+            ),
+            0,
+            10
+        );
+    }
+
+    @Test
+    public void testFindIdsByAllValuesEmptyValues() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE1);
+
+        this.findIdsByAllValuesAndCheck(
+            store,
+            Sets.empty(),
+            0,
+            10
+        );
+    }
+
+    @Test
+    public void testFindIdsByAllValuesMatchesDefault() {
+        final TreeMapMultiValueStore<Integer, Integer> store = TreeMapMultiValueStore.with(
+            Comparator.<Integer>naturalOrder(),
+            HashSet::new
+        );
+        for (int id = 0; id < 1000; id++) {
+            for (int value = 2; value <= 7; value++) {
+                if (0 == id % value) {
+                    store.addValue(id, value);
+                }
+            }
+        }
+
+        final Set<Integer> values = Sets.of(
+            2,
+            3,
+            5
+        );
+        this.checkEquals(
+            new FakeMultiValueStore<Integer, Integer>() {
+                @Override
+                public List<Integer> findIdsByValue(final Integer value,
+                                                    final int offset,
+                                                    final int count) {
+                    return store.findIdsByValue(
+                        value,
+                        offset,
+                        count
+                    );
+                }
+            }.findIdsByAllValues(
+                values,
+                2,
+                20
+            ),
+            store.findIdsByAllValues(
+                values,
+                2,
+                20
+            )
+        );
+    }
+
+    // findIdsByAnyValue................................................................................................
+
+    @Test
+    public void testFindIdsByAnyValue() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID3, VALUE1);
+        store.addValue(ID1, VALUE2);
+        store.addValue(ID2, VALUE3);
+        store.addValue(ID1, VALUE1);
+
+        this.findIdsByAnyValueAndCheck(
+            store,
+            Sets.of(
+                VALUE1,
+                VALUE2
+            ),
+            0,
+            10,
+            ID1,
+            ID3
+        );
+    }
+
+    @Test
+    public void testFindIdsByAnyValueOffsetAndCount() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE1);
+        store.addValue(ID2, VALUE2);
+        store.addValue(ID3, VALUE3);
+
+        this.findIdsByAnyValueAndCheck(
+            store,
+            Sets.of(
+                VALUE1,
+                VALUE2,
+                VALUE3
+            ),
+            1,
+            1,
+            ID2
+        );
+    }
+
+    @Test
+    public void testFindIdsByAnyValueUnknownValue() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID2, VALUE1);
+
+        this.findIdsByAnyValueAndCheck(
+            store,
+            Sets.of(
+                VALUE1,
+                VALUE3
+            ),
+            0,
+            10,
+            ID2
+        );
+    }
+
+    // findValuesById...................................................................................................
+
+    @Test
+    public void testFindValuesById() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE1);
+        store.addValue(ID2, VALUE2);
+        store.addValue(ID3, VALUE3);
+
+        this.findValuesByIdAndCheck2(
+            store,
+            ID2,
+            0,
+            2,
+            VALUE2
+        );
+    }
+
+    @Test
+    public void testFindValuesByIdWithOffset() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE1);
+        store.addValue(ID2, VALUE1);
+        store.addValue(ID2, VALUE2);
+        store.addValue(ID2, VALUE3);
+        store.addValue(ID3, VALUE3);
+
+        this.findValuesByIdAndCheck2(
+            store,
+            ID2,
+            1,
+            99,
+            VALUE2,
+            VALUE3
+        );
+    }
+
+    @Test
+    public void testFindValuesByIdWithSize() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE1);
+        store.addValue(ID2, VALUE1);
+        store.addValue(ID2, VALUE2);
+        store.addValue(ID2, VALUE3);
+        store.addValue(ID3, VALUE3);
+
+        this.findValuesByIdAndCheck2(
+            store,
+            ID2,
+            0,
+            1,
+            VALUE1
+        );
+    }
+
+    @Test
+    public void testFindValuesByIdWithOffsetAndSize() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE1);
+        store.addValue(ID2, VALUE1);
+        store.addValue(ID2, VALUE2);
+        store.addValue(ID2, VALUE3);
+        store.addValue(ID3, VALUE3);
+
+        this.findValuesByIdAndCheck2(
+            store,
+            ID2,
+            1,
+            1,
+            VALUE2
+        );
+    }
+
+    // findIdsByValue...................................................................................................
+
+    @Test
+    public void testFindIdsByValue() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE1);
+        store.addValue(ID2, VALUE2);
+        store.addValue(ID3, VALUE3);
+
+        this.findIdsByValueAndCheck(
+            store,
+            VALUE2,
+            0,
+            2,
+            ID2
+        );
+    }
+
+    @Test
+    public void testFindIdsByValueWithOffset() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE2);
+        store.addValue(ID2, VALUE1);
+        store.addValue(ID2, VALUE2);
+        store.addValue(ID2, VALUE3);
+        store.addValue(ID3, VALUE2);
+
+        this.findIdsByValueAndCheck(
+            store,
+            VALUE2,
+            1,
+            99,
+            ID2,
+            ID3
+        );
+    }
+
+    @Test
+    public void testFindIdsByValueSortedValueSetComparatorNotConsistentWithEquals() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStoreLastDigitValues();
+        store.addValue(ID1, 1);
+        store.addValue(ID2, 11);
+        store.addValue(ID3, 2);
+
+        this.findIdsByValueAndCheck(
+            store,
+            21,
+            ID1,
+            ID2
+        );
+    }
+
+    @Test
+    public void testRemoveByValueSortedValueSetComparatorNotConsistentWithEquals() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStoreLastDigitValues();
+        store.addValue(ID1, 1);
+        store.addValue(ID2, 11);
+        store.addValue(ID3, 2);
+
+        store.removeByValue(21);
+
+        this.idToValuesAndCheck(
+            store,
+            Maps.of(
+                ID3,
+                Sets.of(2)
+            )
+        );
+    }
+
+    /**
+     * Creates a store whose value sets treat values with the same last digit as equal, like the value sets of the
+     * original scan that asked each set {@link Set#contains(Object)}.
+     */
+    private TreeMapMultiValueStore<String, Integer> createStoreLastDigitValues() {
+        return TreeMapMultiValueStore.with(
+            ID_COMPARATOR,
+            () -> new TreeSet<>(
+                Comparator.comparingInt(v -> v % 10)
+            )
+        );
+    }
+
+    @Test
+    public void testFindIdsByValueWithSize() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE2);
+        store.addValue(ID2, VALUE1);
+        store.addValue(ID2, VALUE2);
+        store.addValue(ID2, VALUE3);
+        store.addValue(ID3, VALUE2);
+
+        this.findIdsByValueAndCheck(
+            store,
+            VALUE2,
+            0,
+            1,
+            ID1
+        );
+    }
+
+    @Test
+    public void testFindIdsByValueWithOffsetAndSize() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE2);
+        store.addValue(ID2, VALUE1);
+        store.addValue(ID2, VALUE2);
+        store.addValue(ID2, VALUE3);
+        store.addValue(ID3, VALUE2);
+
+        this.findIdsByValueAndCheck(
+            store,
+            VALUE2,
+            1,
+            1,
+            ID2
+        );
+    }
+
+    @Test
+    public void testFindIdsByValueAfterRemoveValue() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE2);
+        store.addValue(ID2, VALUE2);
+        store.addValue(ID3, VALUE2);
+
+        store.removeValue(ID2, VALUE2);
+
+        this.findIdsByValueAndCheck(
+            store,
+            VALUE2,
+            ID1,
+            ID3
+        );
+    }
+
+    @Test
+    public void testFindIdsByValueAfterDelete() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE1);
+        store.addValue(ID1, VALUE2);
+        store.addValue(ID2, VALUE2);
+
+        store.delete(ID1);
+
+        this.findIdsByValueAndCheck(
+            store,
+            VALUE1
+        );
+        this.findIdsByValueAndCheck(
+            store,
+            VALUE2,
+            ID2
+        );
+    }
+
+    @Test
+    public void testFindIdsByValueSortedById() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID3, VALUE1);
+        store.addValue(ID1, VALUE1);
+        store.addValue(ID2, VALUE1);
+
+        this.findIdsByValueAndCheck(
+            store,
+            VALUE1,
+            ID1,
+            ID2,
+            ID3
+        );
+    }
+
+    @Test
+    public void testValueToIdsAfterRemoveByValue() {
+        final TreeMapMultiValueStore<String, Integer> store = this.createStore();
+        store.addValue(ID1, VALUE1);
+        store.addValue(ID1, VALUE2);
+        store.addValue(ID2, VALUE2);
+
+        store.removeByValue(VALUE2);
+
+        this.checkEquals(
+            Maps.of(
+                VALUE1,
+                Sets.of(ID1)
+            ),
+            store.valueToIds
+        );
     }
 
     private boolean fired;
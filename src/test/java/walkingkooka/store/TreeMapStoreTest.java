@@ -21,14 +21,19 @@ import org.junit.jupiter.api.Test;
 import walkingkooka.CanBeEmptyTesting;
 import walkingkooka.Cast;
 import walkingkooka.HashCodeEqualsDefinedTesting2;
+import walkingkooka.collect.list.Lists;
 import walkingkooka.reflect.TypeNameTesting;
 
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
+import java.util.Spliterator;
 import java.util.TreeMap;
 import java.util.function.BiFunction;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -492,6 +497,785 @@ public final class TreeMapStoreTest implements StoreTesting<TreeMapStore<TestUse
         );
     }
 
+    // stream...........................................................................................................
+
+    @Test
+    public void testStream() {
+        final TreeMapStore<TestUserId, TestUser> store = this.createNotEmptyStore();
+
+        this.streamAndCheck(
+            store,
+            this.user1(),
+            this.user2(),
+            this.user3()
+        );
+    }
+
+    @Test
+    public void testStreamSpliteratorSizedAndSplits() {
+        final TreeMapStore<TestUserId, TestUser> store = this.createStore();
+        for (int i = 1; i <= 1000; i++) {
+            store.save(
+                this.user(
+                    i,
+                    "user" + i + "@example.com"
+                )
+            );
+        }
+
+        final Spliterator<TestUser> spliterator = store.stream()
+            .spliterator();
+        this.checkEquals(
+            true,
+            spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.ORDERED),
+            "characteristics"
+        );
+        this.checkEquals(
+            1000L,
+            spliterator.getExactSizeIfKnown(),
+            "size"
+        );
+        this.checkEquals(
+            true,
+            null != spliterator.trySplit(),
+            "trySplit"
+        );
+
+        this.checkEquals(
+            1000L,
+            store.stream()
+                .parallel()
+                .count(),
+            "parallel count"
+        );
+    }
+
+    @Test
+    public void testStreamBetween() {
+        final TreeMapStore<TestUserId, TestUser> store = this.createNotEmptyStore();
+
+        this.streamAndCheck(
+            store,
+            this.user2().id().get(),
+            this.user3().id().get(),
+            this.user2(),
+            this.user3()
+        );
+    }
+
+    @Test
+    public void testStreamBetweenOne() {
+        final TreeMapStore<TestUserId, TestUser> store = this.createNotEmptyStore();
+
+        this.streamAndCheck(
+            store,
+            this.user2().id().get(),
+            this.user2().id().get(),
+            this.user2()
+        );
+    }
+
+    @Test
+    public void testStreamBetweenFromAfterTo() {
+        final TreeMapStore<TestUserId, TestUser> store = this.createNotEmptyStore();
+
+        this.streamAndCheck(
+            store,
+            this.user3().id().get(),
+            this.user1().id().get()
+        );
+    }
+
+    @Test
+    public void testStreamBetweenIsLazy() {
+        final TreeMapStore<TestUserId, TestUser> store = this.createNotEmptyStore();
+
+        final Stream<TestUser> stream = store.stream(
+            this.user1().id().get(),
+            this.user4().id().get()
+        );
+
+        final TestUser user4 = this.user4();
+        store.save(user4);
+
+        this.checkEquals(
+            Lists.of(
+                this.user1(),
+                this.user2(),
+                this.user3(),
+                user4
+            ),
+            stream.collect(Collectors.toList())
+        );
+    }
+
+    // navigation.......................................................................................................
+
+    @Test
+    public void testFirstId() {
+        this.checkEquals(
+            this.user1().id(),
+            this.createNotEmptyStore()
+                .firstId()
+        );
+    }
+
+    @Test
+    public void testLastId() {
+        this.checkEquals(
+            this.user3().id(),
+            this.createNotEmptyStore()
+                .lastId()
+        );
+    }
+
+    @Test
+    public void testLastValue() {
+        this.checkEquals(
+            Optional.of(this.user3()),
+            this.createNotEmptyStore()
+                .lastValue()
+        );
+    }
+
+    @Test
+    public void testFloorIdPresent() {
+        this.checkEquals(
+            this.user2().id(),
+            this.createNotEmptyStore()
+                .floorId(this.user2().id().get())
+        );
+    }
+
+    @Test
+    public void testFloorIdAbsent() {
+        this.checkEquals(
+            this.user2().id(),
+            this.createNotEmptyStore()
+                .floorId(TestUserId.with(100))
+        );
+    }
+
+    @Test
+    public void testFloorIdBeforeFirst() {
+        this.checkEquals(
+            Optional.empty(),
+            this.createNotEmptyStore()
+                .floorId(TestUserId.with(0))
+        );
+    }
+
+    @Test
+    public void testCeilingIdAbsent() {
+        this.checkEquals(
+            this.user3().id(),
+            this.createNotEmptyStore()
+                .ceilingId(TestUserId.with(100))
+        );
+    }
+
+    @Test
+    public void testCeilingIdAfterLast() {
+        this.checkEquals(
+            Optional.empty(),
+            this.createNotEmptyStore()
+                .ceilingId(TestUserId.with(1000))
+        );
+    }
+
+    @Test
+    public void testHigherId() {
+        this.checkEquals(
+            this.user3().id(),
+            this.createNotEmptyStore()
+                .higherId(this.user2().id().get())
+        );
+    }
+
+    @Test
+    public void testLowerId() {
+        this.checkEquals(
+            this.user1().id(),
+            this.createNotEmptyStore()
+                .lowerId(this.user2().id().get())
+        );
+    }
+
+    @Test
+    public void testLowerIdFirst() {
+        this.checkEquals(
+            Optional.empty(),
+            this.createNotEmptyStore()
+                .lowerId(this.user1().id().get())
+        );
+    }
+
+    @Test
+    public void testFloorValue() {
+        this.checkEquals(
+            Optional.of(this.user2()),
+            this.createNotEmptyStore()
+                .floorValue(TestUserId.with(100))
+        );
+    }
+
+    @Test
+    public void testCeilingValue() {
+        this.checkEquals(
+            Optional.of(this.user3()),
+            this.createNotEmptyStore()
+                .ceilingValue(TestUserId.with(100))
+        );
+    }
+
+    @Test
+    public void testHigherValue() {
+        this.checkEquals(
+            Optional.of(this.user2()),
+            this.createNotEmptyStore()
+                .higherValue(this.user1().id().get())
+        );
+    }
+
+    @Test
+    public void testLowerValue() {
+        this.checkEquals(
+            Optional.of(this.user2()),
+            this.createNotEmptyStore()
+                .lowerValue(this.user3().id().get())
+        );
+    }
+
+    // countBetween.....................................................................................................
+
+    @Test
+    public void testCountBetween() {
+        this.countBetweenAndCheck(
+            this.createNotEmptyStore(),
+            this.user2().id().get(),
+            this.user3().id().get(),
+            2
+        );
+    }
+
+    @Test
+    public void testCountBetweenAbsentBounds() {
+        this.countBetweenAndCheck(
+            this.createNotEmptyStore(),
+            TestUserId.with(0),
+            TestUserId.with(100),
+            2
+        );
+    }
+
+    @Test
+    public void testCountBetweenFromAfterTo() {
+        this.countBetweenAndCheck(
+            this.createNotEmptyStore(),
+            this.user3().id().get(),
+            this.user1().id().get(),
+            0
+        );
+    }
+
+    @Test
+    public void testCountBetweenAfterDelete() {
+        final TreeMapStore<TestUserId, TestUser> store = this.createNotEmptyStore();
+        store.delete(this.user2().id().get());
+
+        this.countBetweenAndCheck(
+            store,
+            this.user1().id().get(),
+            this.user3().id().get(),
+            2
+        );
+    }
+
+    @Test
+    public void testCountBetweenAfterSaveNew() {
+        final TreeMapStore<TestUserId, TestUser> store = this.createNotEmptyStore();
+        store.save(
+            TestUser.with(
+                Optional.empty(),
+                "new@example.com"
+            )
+        );
+
+        this.countBetweenAndCheck(
+            store,
+            this.user2().id().get(),
+            TestUserId.with(1000),
+            3
+        );
+    }
+
+    @Test
+    public void testCountBetweenAfterSaveReplace() {
+        final TreeMapStore<TestUserId, TestUser> store = this.createNotEmptyStore();
+        store.save(
+            this.user(
+                2,
+                "replaced@example.com"
+            )
+        );
+
+        this.countBetweenAndCheck(
+            store,
+            this.user1().id().get(),
+            this.user3().id().get(),
+            3
+        );
+    }
+
+    @Test
+    public void testRankOf() {
+        final TreeMapStore<TestUserId, TestUser> store = this.createNotEmptyStore();
+
+        this.rankOfAndCheck(
+            store,
+            this.user1().id().get(),
+            0
+        );
+        this.rankOfAndCheck(
+            store,
+            this.user3().id().get(),
+            2
+        );
+    }
+
+    @Test
+    public void testRankOfAbsent() {
+        this.rankOfAndCheck(
+            this.createNotEmptyStore(),
+            TestUserId.with(100),
+            2
+        );
+    }
+
+    // query............................................................................................................
+
+    @Test
+    public void testQuery() {
+        final TreeMapStore<TestUserId, TestUser> store = this.createNotEmptyStore();
+        store.save(this.user4());
+
+        this.queryAndCheck(
+            store,
+            (u) -> u.id().get().value > 1,
+            0,
+            10,
+            this.user2(),
+            this.user3(),
+            this.user4()
+        );
+    }
+
+    @Test
+    public void testQueryOffsetAndCount() {
+        final TreeMapStore<TestUserId, TestUser> store = this.createNotEmptyStore();
+        store.save(this.user4());
+
+        this.queryAndCheck(
+            store,
+            (u) -> u.id().get().value > 1,
+            1,
+            1,
+            this.user3()
+        );
+    }
+
+    @Test
+    public void testQueryBetween() {
+        final TreeMapStore<TestUserId, TestUser> store = this.createNotEmptyStore();
+        store.save(this.user4());
+
+        this.queryAndCheck(
+            store,
+            this.user1().id().get(),
+            this.user3().id().get(),
+            (u) -> false == u.equals(this.user2()),
+            0,
+            10,
+            this.user1(),
+            this.user3()
+        );
+    }
+
+    @Test
+    public void testQueryBetweenFromAfterTo() {
+        this.queryAndCheck(
+            this.createNotEmptyStore(),
+            this.user3().id().get(),
+            this.user1().id().get(),
+            (u) -> true,
+            0,
+            10
+        );
+    }
+
+    @Test
+    public void testQueryParallelKeepsValuesOrder() {
+        final TreeMapStore<TestUserId, TestUser> store = this.createStore();
+        final int size = StoreQuery.PARALLEL_THRESHOLD * 2;
+        for (int i = 1; i <= size; i++) {
+            store.save(
+                this.user(
+                    i,
+                    "user" + i + "@example.com"
+                )
+            );
+        }
+
+        final Predicate<TestUser> filter = (u) -> 0 == u.id().get().value % 3;
+
+        this.checkEquals(
+            store.values(
+                    0,
+                    size
+                ).stream()
+                .filter(filter)
+                .skip(1000)
+                .limit(500)
+                .collect(Collectors.toList()),
+            store.query(
+                filter,
+                1000,
+                500
+            )
+        );
+    }
+
+    // deleteBetween....................................................................................................
+
+    @Test
+    public void testDeleteBetween() {
+        final TreeMapStore<TestUserId, TestUser> store = this.createNotEmptyStore();
+        store.save(this.user4());
+
+        store.deleteBetween(
+            this.user2().id().get(),
+            this.user3().id().get()
+        );
+
+        this.valuesAndCheck(
+            store,
+            0,
+            4,
+            this.user1(),
+            this.user4()
+        );
+        this.countBetweenAndCheck(
+            store,
+            this.user1().id().get(),
+            this.user4().id().get(),
+            2
+        );
+        this.rankOfAndCheck(
+            store,
+            this.user4().id().get(),
+            1
+        );
+    }
+
+    @Test
+    public void testDeleteBetweenMost() {
+        final TreeMapStore<TestUserId, TestUser> store = this.createNotEmptyStore();
+        store.save(this.user4());
+
+        store.deleteBetween(
+            TestUserId.with(0),
+            this.user3().id().get()
+        );
+
+        this.valuesAndCheck(
+            store,
+            0,
+            4,
+            this.user4()
+        );
+        this.rankOfAndCheck(
+            store,
+            this.user4().id().get(),
+            0
+        );
+        this.countBetweenAndCheck(
+            store,
+            TestUserId.with(0),
+            TestUserId.with(1000),
+            1
+        );
+    }
+
+    @Test
+    public void testDeleteBetweenFromAfterTo() {
+        final TreeMapStore<TestUserId, TestUser> store = this.createNotEmptyStore();
+
+        store.deleteBetween(
+            this.user3().id().get(),
+            this.user1().id().get()
+        );
+
+        this.countAndCheck(
+            store,
+            3
+        );
+    }
+
+    @Test
+    public void testDeleteBetweenFiresBatchOnce() {
+        final TreeMapStore<TestUserId, TestUser> store = this.createNotEmptyStore();
+
+        final List<List<TestUser>> batches = Lists.array();
+        store.addStoreWatcher(
+            new StoreWatcher<TestUser>() {
+                @Override
+                public void onValueChange(final Optional<TestUser> oldValue,
+                                          final Optional<TestUser> newValue) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public void onValuesDeleted(final List<TestUser> values) {
+                    batches.add(values);
+                }
+            }
+        );
+
+        store.deleteBetween(
+            this.user1().id().get(),
+            this.user2().id().get()
+        );
+
+        this.checkEquals(
+            Lists.of(
+                Lists.of(
+                    this.user1(),
+                    this.user2()
+                )
+            ),
+            batches
+        );
+    }
+
+    @Test
+    public void testDeleteBetweenFiresValueChangeWithoutBatch() {
+        final TreeMapStore<TestUserId, TestUser> store = this.createNotEmptyStore();
+
+        final List<Optional<TestUser>> deleted = Lists.array();
+        store.addStoreWatcher(
+            (oldValue, newValue) -> {
+                checkEquals(
+                    Optional.empty(),
+                    newValue,
+                    "newValue"
+                );
+                deleted.add(oldValue);
+            }
+        );
+
+        store.deleteBetween(
+            this.user1().id().get(),
+            this.user2().id().get()
+        );
+
+        this.checkEquals(
+            Lists.of(
+                Optional.of(this.user1()),
+                Optional.of(this.user2())
+            ),
+            deleted
+        );
+    }
+
+    @Test
+    public void testDeleteBetweenNothingFiresNothing() {
+        final TreeMapStore<TestUserId, TestUser> store = this.createNotEmptyStore();
+        store.addStoreWatcher(
+            (oldValue, newValue) -> {
+                throw new UnsupportedOperationException();
+            }
+        );
+
+        store.deleteBetween(
+            TestUserId.with(3),
+            TestUserId.with(4)
+        );
+    }
+
+    // idsAfter.........................................................................................................
+
+    @Test
+    public void testIdsAfter() {
+        this.idsAfterAndCheck(
+            this.createNotEmptyStore(),
+            this.user1().id().get(),
+            2,
+            this.user2().id().get(),
+            this.user3().id().get()
+        );
+    }
+
+    @Test
+    public void testIdsAfterCountLimits() {
+        this.idsAfterAndCheck(
+            this.createNotEmptyStore(),
+            this.user1().id().get(),
+            1,
+            this.user2().id().get()
+        );
+    }
+
+    @Test
+    public void testIdsAfterZeroCount() {
+        this.idsAfterAndCheck(
+            this.createNotEmptyStore(),
+            this.user1().id().get(),
+            0
+        );
+    }
+
+    @Test
+    public void testIdsAfterUnknownLastSeen() {
+        this.idsAfterAndCheck(
+            this.createNotEmptyStore(),
+            TestUserId.with(100),
+            2,
+            this.user3().id().get()
+        );
+    }
+
+    @Test
+    public void testIdsAfterLast() {
+        this.idsAfterAndCheck(
+            this.createNotEmptyStore(),
+            this.user3().id().get(),
+            2
+        );
+    }
+
+    // idsBefore........................................................................................................
+
+    @Test
+    public void testIdsBefore() {
+        this.idsBeforeAndCheck(
+            this.createNotEmptyStore(),
+            this.user3().id().get(),
+            2,
+            this.user2().id().get(),
+            this.user1().id().get()
+        );
+    }
+
+    @Test
+    public void testIdsBeforeCountLimits() {
+        this.idsBeforeAndCheck(
+            this.createNotEmptyStore(),
+            this.user3().id().get(),
+            1,
+            this.user2().id().get()
+        );
+    }
+
+    @Test
+    public void testIdsBeforeUnknownFirstSeen() {
+        this.idsBeforeAndCheck(
+            this.createNotEmptyStore(),
+            TestUserId.with(100),
+            5,
+            this.user2().id().get(),
+            this.user1().id().get()
+        );
+    }
+
+    @Test
+    public void testIdsBeforeFirst() {
+        this.idsBeforeAndCheck(
+            this.createNotEmptyStore(),
+            this.user1().id().get(),
+            2
+        );
+    }
+
+    // valuesAfter......................................................................................................
+
+    @Test
+    public void testValuesAfter() {
+        this.valuesAfterAndCheck(
+            this.createNotEmptyStore(),
+            this.user1().id().get(),
+            5,
+            this.user2(),
+            this.user3()
+        );
+    }
+
+    @Test
+    public void testValuesAfterCountLimits() {
+        this.valuesAfterAndCheck(
+            this.createNotEmptyStore(),
+            this.user1().id().get(),
+            1,
+            this.user2()
+        );
+    }
+
+    @Test
+    public void testValuesAfterPages() {
+        final TreeMapStore<TestUserId, TestUser> store = this.createNotEmptyStore();
+        store.save(this.user4());
+
+        final List<TestUser> page = store.valuesAfter(
+            this.user1().id().get(),
+            2
+        );
+        this.checkEquals(
+            Lists.of(
+                this.user2(),
+                this.user3()
+            ),
+            page
+        );
+
+        this.valuesAfterAndCheck(
+            store,
+            page.get(1).id().get(),
+            2,
+            this.user4()
+        );
+    }
+
+    // valuesBefore.....................................................................................................
+
+    @Test
+    public void testValuesBefore() {
+        this.valuesBeforeAndCheck(
+            this.createNotEmptyStore(),
+            this.user3().id().get(),
+            5,
+            this.user2(),
+            this.user1()
+        );
+    }
+
+    @Test
+    public void testValuesBeforeCountLimits() {
+        this.valuesBeforeAndCheck(
+            this.createNotEmptyStore(),
+            this.user3().id().get(),
+            1,
+            this.user2()
+        );
+    }
+
+    @Test
+    public void testValuesBeforeFirst() {
+        this.valuesBeforeAndCheck(
+            this.createNotEmptyStore(),
+            this.user1().id().get(),
+            1
+        );
+    }
+
     @Test
     public void testAddWatcherAndSaveNew() {
         final TreeMapStore<TestUserId, TestUser> store = this.createStore();
@@ -659,7 +1443,7 @@ public final class TreeMapStoreTest implements StoreTesting<TreeMapStore<TestUse
                 user3()
             ).stream()
             .forEach(u -> {
-                store.idToValue.put(u.id().get(), u);
+                store.save(u);
             });
 
         return store;
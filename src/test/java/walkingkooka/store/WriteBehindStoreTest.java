@@ -0,0 +1,574 @@
+/*
+ * Copyright 2019 Miroslav Pokorny (github.com/mP1)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package walkingkooka.store;
+
+import org.junit.jupiter.api.Test;
+import walkingkooka.Cast;
+import walkingkooka.collect.list.Lists;
+import walkingkooka.collect.map.Maps;
+import walkingkooka.reflect.TypeNameTesting;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class WriteBehindStoreTest implements StoreTesting<WriteBehindStore<TestUserId, TestUser>, TestUserId, TestUser>,
+    TypeNameTesting<WriteBehindStore<TestUserId, TestUser>> {
+
+    private final static int MAX_BUFFERED = 3;
+
+    private final static long MAX_AGE = 1000;
+
+    @Test
+    public void testWithNullStoreFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> WriteBehindStore.with(
+                null,
+                TestUserId.COMPARATOR,
+                MAX_BUFFERED,
+                MAX_AGE,
+                this::now
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullIdComparatorFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> WriteBehindStore.with(
+                TestUser.treeMapStore(),
+                null,
+                MAX_BUFFERED,
+                MAX_AGE,
+                this::now
+            )
+        );
+    }
+
+    @Test
+    public void testWithZeroMaxBufferedFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> WriteBehindStore.with(
+                TestUser.treeMapStore(),
+                TestUserId.COMPARATOR,
+                0,
+                MAX_AGE,
+                this::now
+            )
+        );
+    }
+
+    @Test
+    public void testWithNegativeMaxAgeFails() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> WriteBehindStore.with(
+                TestUser.treeMapStore(),
+                TestUserId.COMPARATOR,
+                MAX_BUFFERED,
+                -1,
+                this::now
+            )
+        );
+    }
+
+    @Test
+    public void testWithNullNowFails() {
+        assertThrows(
+            NullPointerException.class,
+            () -> WriteBehindStore.with(
+                TestUser.treeMapStore(),
+                TestUserId.COMPARATOR,
+                MAX_BUFFERED,
+                MAX_AGE,
+                null
+            )
+        );
+    }
+
+    @Test
+    public void testSaveBuffered() {
+        final Store<TestUserId, TestUser> wrapped = TestUser.treeMapStore();
+        final WriteBehindStore<TestUserId, TestUser> store = this.createStore(wrapped);
+
+        final TestUser user = TestUser.withId(1);
+        store.save(user);
+
+        this.loadAndCheck(
+            store,
+            user.id().get(),
+            user
+        );
+        this.loadAndCheck(
+            wrapped,
+            user.id().get()
+        );
+    }
+
+    @Test
+    public void testDeleteBuffered() {
+        final Store<TestUserId, TestUser> wrapped = TestUser.treeMapStore();
+        final TestUser user = TestUser.withId(1);
+        wrapped.save(user);
+
+        final WriteBehindStore<TestUserId, TestUser> store = this.createStore(wrapped);
+        store.delete(user.id().get());
+
+        this.loadAndCheck(
+            store,
+            user.id().get()
+        );
+        this.loadAndCheck(
+            wrapped,
+            user.id().get(),
+            user
+        );
+    }
+
+    @Test
+    public void testSaveWithoutIdFlushesAndSaves() {
+        final Store<TestUserId, TestUser> wrapped = TestUser.treeMapStore();
+        final WriteBehindStore<TestUserId, TestUser> store = this.createStore(wrapped);
+
+        final TestUser user = TestUser.withId(5);
+        store.save(user);
+
+        final TestUser saved = store.save(
+            TestUser.with(
+                Optional.empty(),
+                "new@example.com"
+            )
+        );
+
+        this.checkEquals(
+            Optional.of(
+                TestUserId.with(6)
+            ),
+            saved.id()
+        );
+        this.loadAndCheck(
+            wrapped,
+            user.id().get(),
+            user
+        );
+    }
+
+    @Test
+    public void testFlushWhenFull() {
+        final Store<TestUserId, TestUser> wrapped = TestUser.treeMapStore();
+        final WriteBehindStore<TestUserId, TestUser> store = this.createStore(wrapped);
+
+        store.save(TestUser.withId(1));
+        store.save(TestUser.withId(2));
+
+        this.countAndCheck(
+            wrapped,
+            0
+        );
+
+        store.save(TestUser.withId(3));
+
+        this.countAndCheck(
+            wrapped,
+            3
+        );
+        this.bufferAndCheck(store);
+    }
+
+    @Test
+    public void testFlushWhenOld() {
+        final Store<TestUserId, TestUser> wrapped = TestUser.treeMapStore();
+        final WriteBehindStore<TestUserId, TestUser> store = this.createStore(wrapped);
+
+        final TestUser user = TestUser.withId(1);
+        store.save(user);
+
+        this.now = MAX_AGE - 1;
+        store.load(user.id().get());
+
+        this.countAndCheck(
+            wrapped,
+            0
+        );
+
+        this.now = MAX_AGE;
+        store.load(user.id().get());
+
+        this.loadAndCheck(
+            wrapped,
+            user.id().get(),
+            user
+        );
+    }
+
+    @Test
+    public void testFlushCoalesces() {
+        final Store<TestUserId, TestUser> wrapped = TestUser.treeMapStore();
+        final WriteBehindStore<TestUserId, TestUser> store = this.createStore(wrapped);
+
+        final List<TestUser> fired = Lists.array();
+        wrapped.addStoreWatcher(
+            (o, n) -> fired.add(n.orElse(null))
+        );
+
+        final TestUser user = TestUser.withId(1);
+        store.save(user);
+        store.save(
+            TestUser.with(
+                user.id(),
+                "replaced@example.com"
+            )
+        );
+        store.save(user);
+
+        store.flush();
+
+        this.checkEquals(
+            Lists.of(user),
+            fired,
+            "wrapped store saves"
+        );
+        this.countersAndCheck(
+            store,
+            0,
+            1,
+            1
+        );
+    }
+
+    @Test
+    public void testFlushDelete() {
+        final Store<TestUserId, TestUser> wrapped = TestUser.treeMapStore();
+        final TestUser user = TestUser.withId(1);
+        wrapped.save(user);
+
+        final WriteBehindStore<TestUserId, TestUser> store = this.createStore(wrapped);
+        store.delete(user.id().get());
+        store.flush();
+
+        this.countAndCheck(
+            wrapped,
+            0
+        );
+    }
+
+    @Test
+    public void testDeleteUnknownWithWatcherNotBuffered() {
+        final WriteBehindStore<TestUserId, TestUser> store = this.createStore();
+        store.addStoreWatcher(
+            (o, n) -> {
+                throw new UnsupportedOperationException();
+            }
+        );
+        store.delete(this.id());
+
+        this.bufferAndCheck(store);
+    }
+
+    @Test
+    public void testDeleteUnknownWithoutWatchersBuffered() {
+        final Store<TestUserId, TestUser> wrapped = TestUser.treeMapStore();
+        final WriteBehindStore<TestUserId, TestUser> store = this.createStore(wrapped);
+        store.delete(this.id());
+        store.flush();
+
+        this.countAndCheck(
+            wrapped,
+            0
+        );
+        this.countersAndCheck(
+            store,
+            0,
+            1,
+            1
+        );
+    }
+
+    @Test
+    public void testSaveWithoutWatchersDoesNotLoad() {
+        final LoadCountingStore wrapped = new LoadCountingStore();
+        final WriteBehindStore<TestUserId, TestUser> store = this.createStore(wrapped);
+        store.save(TestUser.withId(1));
+        store.delete(TestUserId.with(2));
+
+        this.checkEquals(
+            0,
+            wrapped.loads,
+            "loads"
+        );
+    }
+
+    @Test
+    public void testSaveWithWatcherLoadsOnce() {
+        final LoadCountingStore wrapped = new LoadCountingStore();
+        final WriteBehindStore<TestUserId, TestUser> store = this.createStore(wrapped);
+        store.addStoreWatcher(
+            (o, n) -> {
+            }
+        );
+
+        final TestUser user = TestUser.withId(1);
+        store.save(user);
+        store.save(
+            TestUser.with(
+                user.id(),
+                "replaced@example.com"
+            )
+        );
+
+        this.checkEquals(
+            1,
+            wrapped.loads,
+            "loads"
+        );
+    }
+
+    @Test
+    public void testWatcherFiredWhenBuffered() {
+        final Store<TestUserId, TestUser> wrapped = TestUser.treeMapStore();
+        final WriteBehindStore<TestUserId, TestUser> store = this.createStore(wrapped);
+
+        final List<Optional<TestUser>> fired = Lists.array();
+        store.addStoreWatcher(
+            (o, n) -> {
+                fired.add(o);
+                fired.add(n);
+            }
+        );
+
+        final TestUser user = TestUser.withId(1);
+        store.save(user);
+        store.delete(user.id().get());
+
+        this.checkEquals(
+            Lists.of(
+                Optional.empty(),
+                Optional.of(user),
+                Optional.of(user),
+                Optional.empty()
+            ),
+            fired
+        );
+        this.countAndCheck(
+            wrapped,
+            0
+        );
+    }
+
+    @Test
+    public void testCountFlushes() {
+        final WriteBehindStore<TestUserId, TestUser> store = this.createStore();
+        store.save(TestUser.withId(1));
+        store.save(TestUser.withId(2));
+
+        this.countAndCheck(
+            store,
+            2
+        );
+        this.bufferAndCheck(store);
+    }
+
+    @Test
+    public void testValuesFlushes() {
+        final WriteBehindStore<TestUserId, TestUser> store = this.createStore();
+        final TestUser user1 = TestUser.withId(1);
+        final TestUser user2 = TestUser.withId(2);
+        store.save(user2);
+        store.save(user1);
+
+        this.valuesAndCheck(
+            store,
+            0,
+            2,
+            user1,
+            user2
+        );
+    }
+
+    @Test
+    public void testStreamFlushes() {
+        final Store<TestUserId, TestUser> wrapped = TestUser.treeMapStore();
+        final WriteBehindStore<TestUserId, TestUser> store = this.createStore(wrapped);
+        final TestUser user1 = TestUser.withId(1);
+        final TestUser user2 = TestUser.withId(2);
+        store.save(user2);
+        store.save(user1);
+
+        this.checkEquals(
+            Lists.of(
+                user1,
+                user2
+            ),
+            store.stream()
+                .collect(Collectors.toList())
+        );
+        this.countAndCheck(
+            wrapped,
+            2
+        );
+    }
+
+    @Test
+    public void testBetweenOverlaysBuffer() {
+        final Store<TestUserId, TestUser> wrapped = TestUser.treeMapStore();
+        final TestUser user1 = TestUser.withId(1);
+        final TestUser user2 = TestUser.withId(2);
+        final TestUser user3 = TestUser.withId(3);
+        final TestUser user4 = TestUser.withId(4);
+        wrapped.save(user1);
+        wrapped.save(user2);
+        wrapped.save(user4);
+
+        final WriteBehindStore<TestUserId, TestUser> store = this.createStore(wrapped);
+        store.delete(user2.id().get());
+        store.save(user3);
+
+        final TestUser replaced = TestUser.with(
+            user1.id(),
+            "replaced@example.com"
+        );
+        store.save(replaced);
+
+        this.betweenAndCheck(
+            store,
+            user1.id().get(),
+            user3.id().get(),
+            replaced,
+            user3
+        );
+    }
+
+    @Test
+    public void testBetweenWhenBufferEmpty() {
+        final Store<TestUserId, TestUser> wrapped = TestUser.treeMapStore();
+        final TestUser user1 = TestUser.withId(1);
+        final TestUser user2 = TestUser.withId(2);
+        wrapped.save(user1);
+        wrapped.save(user2);
+
+        this.betweenAndCheck(
+            this.createStore(wrapped),
+            user1.id().get(),
+            user2.id().get(),
+            user1,
+            user2
+        );
+    }
+
+    private void bufferAndCheck(final WriteBehindStore<TestUserId, TestUser> store) {
+        this.checkEquals(
+            Maps.empty(),
+            store.buffer,
+            "buffer"
+        );
+    }
+
+    private void countersAndCheck(final WriteBehindStore<?, ?> store,
+                                  final long buffered,
+                                  final long flushes,
+                                  final long writes) {
+        final Map<String, Long> expected = Maps.ordered();
+        expected.put("buffered", buffered);
+        expected.put("flushes", flushes);
+        expected.put("writes", writes);
+
+        this.checkEquals(
+            expected,
+            store.counters()
+        );
+    }
+
+    // toString.........................................................................................................
+
+    @Test
+    public void testToString() {
+        final Store<TestUserId, TestUser> wrapped = TestUser.treeMapStore();
+        final WriteBehindStore<TestUserId, TestUser> store = this.createStore(wrapped);
+
+        final TestUser user = TestUser.withId(1);
+        store.save(user);
+
+        this.toStringAndCheck(
+            store,
+            wrapped + " {1=Optional[" + user + "]}"
+        );
+    }
+
+    // helpers..........................................................................................................
+
+    private long now() {
+        return this.now;
+    }
+
+    private long now;
+
+    private WriteBehindStore<TestUserId, TestUser> createStore(final Store<TestUserId, TestUser> wrapped) {
+        return WriteBehindStore.with(
+            wrapped,
+            TestUserId.COMPARATOR,
+            MAX_BUFFERED,
+            MAX_AGE,
+            this::now
+        );
+    }
+
+    // StoreTesting.....................................................................................................
+
+    @Override
+    public WriteBehindStore<TestUserId, TestUser> createStore() {
+        return this.createStore(
+            TestUser.treeMapStore()
+        );
+    }
+
+    @Override
+    public TestUserId id() {
+        return TestUserId.with(1);
+    }
+
+    @Override
+    public TestUser value() {
+        return TestUser.withId(1);
+    }
+
+    // class............................................................................................................
+
+    @Override
+    public Class<WriteBehindStore<TestUserId, TestUser>> type() {
+        return Cast.to(WriteBehindStore.class);
+    }
+
+    // TypeNameTesting..................................................................................................
+
+    @Override
+    public String typeNamePrefix() {
+        return "WriteBehind";
+    }
+
+    @Override
+    public String typeNameSuffix() {
+        return Store.class.getSimpleName();
+    }
+}